@@ -0,0 +1,87 @@
+package com.repay.benchmark;
+
+import com.repay.RepaymentApplication;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 批量接口吞吐基准：同样 batchSize 笔贷款，逐笔调用单笔接口 vs 一次调用批量接口（真实 HTTP，含序列化与请求开销）
+ * 运行：mvn -Pjmh test-compile exec:exec -Djmh.include=BatchThroughputBenchmark
+ * 结果为每 batchSize 笔贷款的耗时，两种方式可直接比较。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BatchThroughputBenchmark {
+
+    private static final String LOAN = "{\"loanType\":\"combination\",\"businessLoanTotal\":%d,\"businessAnnualRate\":3.85,"
+            + "\"businessYears\":30,\"fundLoanTotal\":500000,\"fundAnnualRate\":2.85,\"fundYears\":25,"
+            + "\"reservedPrincipal\":0,\"prepayments\":[{\"month\":36,\"amount\":100000}],\"periodicRepayList\":[]}";
+
+    @Param({"1", "10", "100"})
+    public int batchSize;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private String baseUrl;
+    private String[] singleBodies;
+    private String batchBody;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = new SpringApplicationBuilder(RepaymentApplication.class)
+                .properties("server.port=0", "logging.level.root=WARN")
+                .run();
+        int port = ((ServletWebServerApplicationContext) context).getWebServer().getPort();
+        baseUrl = "http://localhost:" + port + context.getEnvironment().getProperty("server.servlet.context-path", "");
+        client = HttpClient.newHttpClient();
+
+        singleBodies = new String[batchSize];
+        StringBuilder batch = new StringBuilder("[");
+        for (int i = 0; i < batchSize; i++) {
+            singleBodies[i] = LOAN.formatted(800000 + i * 1000);
+            batch.append(i == 0 ? "" : ",")
+                    .append("{\"id\":\"").append(i).append("\",\"method\":\"equalInterest\",\"request\":")
+                    .append(singleBodies[i]).append('}');
+        }
+        batchBody = batch.append(']').toString();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int singleCalls() throws Exception {
+        int bytes = 0;
+        for (String body : singleBodies) {
+            bytes += post("/api/repay/equal-interest", body);
+        }
+        return bytes;
+    }
+
+    @Benchmark
+    public int batchCall() throws Exception {
+        return post("/api/repay/batch", batchBody);
+    }
+
+    private int post(String path, String body) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofByteArray()).body().length;
+    }
+}
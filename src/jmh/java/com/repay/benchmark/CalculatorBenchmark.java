@@ -0,0 +1,93 @@
+package com.repay.benchmark;
+
+import com.repay.entity.CombinationLoanResponse;
+import com.repay.entity.EqualPrincipalRepayRequest;
+import com.repay.entity.EqualPrincipalRepayResponse;
+import com.repay.entity.PeriodRepay;
+import com.repay.service.RepayCalculator;
+import com.repay.service.impl.AnnuityFactorService;
+import com.repay.service.impl.EqualPrincipalCalculatorImpl;
+import com.repay.service.impl.FixedPointCalculatorImpl;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 还款计算基准：单笔等额本金/等额本息、周期还款展开、组合贷合并
+ * 运行：mvn -Pjmh test-compile exec:exec -Djmh.include=CalculatorBenchmark
+ * years 为还款年限；prepayEvents 为提前还款次数（在还款期内均匀分布，超过还款月数时每月一次）；
+ * engine 为计算引擎（bigdecimal / fixed-point）。结果为 ops/s，gc 分析器给出每次调用的分配字节数（gc.alloc.rate.norm）。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CalculatorBenchmark {
+
+    @Param({"10", "20", "30"})
+    public int years;
+
+    @Param({"0", "12", "360"})
+    public int prepayEvents;
+
+    @Param({"bigdecimal", "fixed-point"})
+    public String engine;
+
+    private RepayCalculator calculator;
+    private EqualPrincipalRepayRequest request;
+    private Map<Integer, BigDecimal> prepayMoney;
+    private List<PeriodRepay> periodRepayList;
+    private EqualPrincipalRepayResponse businessResponse;
+    private EqualPrincipalRepayResponse fundResponse;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        calculator = "fixed-point".equals(engine) ? new FixedPointCalculatorImpl() : new EqualPrincipalCalculatorImpl();
+        ReflectionTestUtils.setField(calculator, "annuityFactorService", new AnnuityFactorService());
+        request = calculator.buildSingleLoanRequest(new BigDecimal("1000000"), new BigDecimal("3.85"), years, BigDecimal.ZERO);
+
+        // 每次提前还款 1000 元，总额不超过贷款本金，不会提前结清
+        int totalMonths = years * 12;
+        prepayMoney = new HashMap<>();
+        for (int i = 0; i < prepayEvents; i++) {
+            prepayMoney.put(1 + (int) ((long) i * totalMonths / prepayEvents), new BigDecimal("1000.00"));
+        }
+        // 周期还款：每年一次、贯穿还款期
+        periodRepayList = List.of(new PeriodRepay().setStartMonth(12).setEndMonth(totalMonths)
+                .setCycleMonths(12).setAmount(new BigDecimal("10000")));
+
+        businessResponse = calculator.calculateEqualInterestRepay(request, new HashMap<>(prepayMoney));
+        EqualPrincipalRepayRequest fundRequest = calculator.buildSingleLoanRequest(new BigDecimal("500000"),
+                new BigDecimal("2.85"), years, BigDecimal.ZERO);
+        fundResponse = calculator.calculateEqualInterestRepay(fundRequest, new HashMap<>());
+    }
+
+    @Benchmark
+    public EqualPrincipalRepayResponse calculatorPrincipal() {
+        // 计算过程会从提前还款信息中取走已使用的事件，每次调用使用副本
+        return calculator.calculatorPrincipal(request, new HashMap<>(prepayMoney));
+    }
+
+    @Benchmark
+    public EqualPrincipalRepayResponse calculateEqualInterestRepay() {
+        return calculator.calculateEqualInterestRepay(request, new HashMap<>(prepayMoney));
+    }
+
+    @Benchmark
+    public Map<Integer, BigDecimal> updatePayMoney() {
+        return calculator.updatePayMoney(new HashMap<>(prepayMoney), new ArrayList<>(periodRepayList));
+    }
+
+    @Benchmark
+    public CombinationLoanResponse getTotalResponse() {
+        return calculator.getTotalResponse(businessResponse, fundResponse, new CombinationLoanResponse());
+    }
+}
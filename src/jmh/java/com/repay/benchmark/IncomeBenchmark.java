@@ -0,0 +1,81 @@
+package com.repay.benchmark;
+
+import com.repay.entity.income.DepositType;
+import com.repay.entity.income.IncomeCalculateRequest;
+import com.repay.entity.income.IncomeResponse;
+import com.repay.entity.income.SavingsProduct;
+import com.repay.entity.income.SavingsType;
+import com.repay.service.impl.IncomeCalculatorService;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 收益计算基准：products 个储蓄产品（活期、定期、债券、基金、股票轮流），统计 2025 年收益
+ * 运行：mvn -Pjmh test-compile exec:exec -Djmh.include=IncomeBenchmark
+ * 结果为 ops/s，gc 分析器给出每次调用的分配字节数（gc.alloc.rate.norm）。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IncomeBenchmark {
+
+    private static final int TARGET_YEAR = 2025;
+
+    @Param({"1", "100", "1000"})
+    public int products;
+
+    private final IncomeCalculatorService service = new IncomeCalculatorService();
+    private IncomeCalculateRequest request;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        List<SavingsProduct> list = new ArrayList<>(products);
+        for (int i = 0; i < products; i++) {
+            SavingsProduct product = new SavingsProduct();
+            product.setProductName("产品" + i);
+            product.setPrincipal(BigDecimal.valueOf(10_000 + i * 100L));
+            product.setAnnualRate(new BigDecimal("2.5"));
+            product.setStartDate(LocalDate.of(2024, 1 + i % 12, 1 + i % 28));
+            switch (i % 5) {
+                case 0 -> {
+                    product.setSavingsType(SavingsType.BANK_DEPOSIT);
+                    product.setDepositType(DepositType.DEMAND);
+                }
+                case 1 -> {
+                    product.setSavingsType(SavingsType.BANK_DEPOSIT);
+                    product.setDepositType(DepositType.FIXED);
+                    product.setEndDate(product.getStartDate().plusYears(1));
+                }
+                case 2 -> {
+                    product.setSavingsType(SavingsType.BOND);
+                    product.setEndDate(product.getStartDate().plusYears(1));
+                }
+                case 3 -> product.setSavingsType(SavingsType.FUND);
+                default -> {
+                    product.setSavingsType(SavingsType.STOCK);
+                    product.setMonthlyRate(new BigDecimal("0.5"));
+                }
+            }
+            list.add(product);
+        }
+        IncomeCalculateRequest.SalaryConfig salary = new IncomeCalculateRequest.SalaryConfig();
+        salary.setSalaryDay(10);
+        salary.setMonthlySalary(new BigDecimal("20000"));
+        request = new IncomeCalculateRequest();
+        request.setProducts(list);
+        request.setSalaryConfig(salary);
+    }
+
+    @Benchmark
+    public IncomeResponse calculateIncome() {
+        return service.calculateIncome(request, TARGET_YEAR);
+    }
+}
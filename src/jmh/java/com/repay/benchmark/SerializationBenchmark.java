@@ -0,0 +1,131 @@
+package com.repay.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.repay.entity.CombinationLoanRequest;
+import com.repay.entity.CombinationLoanResponse;
+import com.repay.entity.EqualPrincipalRepayResponse;
+import com.repay.entity.Prepayment;
+import com.repay.entity.income.DepositType;
+import com.repay.entity.income.IncomeCalculateRequest;
+import com.repay.entity.income.IncomeResponse;
+import com.repay.entity.income.SavingsProduct;
+import com.repay.entity.income.SavingsType;
+import com.repay.service.RepayCalculator;
+import com.repay.service.impl.AnnuityFactorService;
+import com.repay.service.impl.EqualPrincipalCalculatorImpl;
+import com.repay.service.impl.IncomeCalculatorService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 响应序列化基准：JSON / CBOR / Smile 的编码、解码耗时及报文大小
+ * 运行：mvn -Pjmh test-compile exec:exec -Djmh.include=SerializationBenchmark
+ * 报文大小在 Setup 阶段打印（与耗时无关，不进入计时）。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializationBenchmark {
+
+    @Param({"json", "cbor", "smile"})
+    public String format;
+
+    @Param({"repay", "income"})
+    public String payload;
+
+    private ObjectMapper mapper;
+    private Object value;
+    private byte[] encoded;
+
+    @Setup
+    public void setup() throws Exception {
+        mapper = switch (format) {
+            case "cbor" -> new CBORMapper();
+            case "smile" -> new SmileMapper();
+            default -> new ObjectMapper();
+        };
+        mapper.registerModule(new JavaTimeModule());
+        value = "repay".equals(payload) ? repayResponse() : incomeResponse();
+        encoded = mapper.writeValueAsBytes(value);
+        System.out.printf("%n[payload] %s/%s: %d bytes%n", payload, format, encoded.length);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws Exception {
+        return mapper.writeValueAsBytes(value);
+    }
+
+    @Benchmark
+    public Object deserialize() throws Exception {
+        return mapper.readValue(encoded, value.getClass());
+    }
+
+    /**
+     * 组合贷：商贷30年 + 公积金30年，含提前还款
+     */
+    private static CombinationLoanResponse repayResponse() {
+        RepayCalculator calculator = new EqualPrincipalCalculatorImpl();
+        ReflectionTestUtils.setField(calculator, "annuityFactorService", new AnnuityFactorService());
+        CombinationLoanRequest request = new CombinationLoanRequest();
+        request.setLoanType("combination");
+        request.setBusinessLoanTotal(new BigDecimal("1500000"));
+        request.setBusinessAnnualRate(new BigDecimal("3.85"));
+        request.setBusinessYears(30);
+        request.setFundLoanTotal(new BigDecimal("800000"));
+        request.setFundAnnualRate(new BigDecimal("2.85"));
+        request.setFundYears(30);
+        request.setReservedPrincipal(BigDecimal.ZERO);
+        Prepayment prepayment = new Prepayment();
+        prepayment.setMonth(60);
+        prepayment.setAmount(new BigDecimal("200000"));
+        request.setPrepayments(List.of(prepayment));
+
+        CombinationLoanResponse response = new CombinationLoanResponse();
+        Map<Integer, BigDecimal> prepayMoney = calculator.getAllPrepayMoney(request.getPrepayments());
+        EqualPrincipalRepayResponse business = calculator.businessResponse(request, prepayMoney, response, "equalInterest");
+        EqualPrincipalRepayResponse fund = calculator.fundResponse(request, prepayMoney, response, "equalInterest");
+        return calculator.getTotalResponse(business, fund, response);
+    }
+
+    /**
+     * 收益统计：四类产品 + 每月工资
+     */
+    private static IncomeResponse incomeResponse() {
+        IncomeCalculateRequest request = new IncomeCalculateRequest();
+        request.setProducts(List.of(
+                product(SavingsType.BANK_DEPOSIT, DepositType.DEMAND, "300000", "1.5"),
+                product(SavingsType.BANK_DEPOSIT, DepositType.FIXED, "500000", "2.1"),
+                product(SavingsType.BOND, null, "200000", "2.6"),
+                product(SavingsType.FUND, null, "100000", "3.2"),
+                product(SavingsType.STOCK, null, "150000", "5.0")));
+        IncomeCalculateRequest.SalaryConfig salary = new IncomeCalculateRequest.SalaryConfig();
+        salary.setSalaryDay(10);
+        salary.setMonthlySalary(new BigDecimal("25000"));
+        request.setSalaryConfig(salary);
+        return new IncomeCalculatorService().calculateIncome(request, LocalDate.now().getYear());
+    }
+
+    private static SavingsProduct product(SavingsType type, DepositType depositType, String principal, String rate) {
+        SavingsProduct product = new SavingsProduct();
+        product.setSavingsType(type);
+        product.setDepositType(depositType);
+        product.setProductName(type.getDesc());
+        product.setPrincipal(new BigDecimal(principal));
+        product.setAnnualRate(new BigDecimal(rate));
+        product.setStartDate(LocalDate.now().withDayOfYear(1).minusYears(1));
+        product.setEndDate(LocalDate.now().withDayOfYear(1).plusYears(2));
+        return product;
+    }
+}
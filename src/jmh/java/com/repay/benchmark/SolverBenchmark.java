@@ -0,0 +1,115 @@
+package com.repay.benchmark;
+
+import com.repay.entity.LoanSolverRequest;
+import com.repay.entity.LoanSolverResponse;
+import com.repay.entity.Prepayment;
+import com.repay.entity.RateChange;
+import com.repay.service.RepayCalculator;
+import com.repay.service.impl.AnnuityFactorService;
+import com.repay.service.impl.EqualPrincipalCalculatorImpl;
+import com.repay.service.impl.FixedPointCalculatorImpl;
+import com.repay.service.impl.LoanSolverService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 反向求解基准：100万元/30年/3.85%，月供预算 5000 元
+ * 运行：mvn -Pjmh test-compile exec:exec -Djmh.include=SolverBenchmark
+ * 延迟目标（单线程，不含 HTTP）：
+ * <ul>
+ *     <li>maxLoan、minTerm 固定利率（closed-form，2~4 次首月校验）：10 微秒量级</li>
+ *     <li>maxLoan 有利率调整（bisection，约40次校验、每次计算到最后一个重定价月）：1 毫秒以内</li>
+ *     <li>payoff（逐月计算到结清月份）：不超过一次完整计算</li>
+ * </ul>
+ * 对比客户端经 /api/repay/equal-interest 二分：约40次往返、每次完整计算并序列化360个月明细。
+ * engine 为计算引擎（bigdecimal / fixed-point）。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SolverBenchmark {
+
+    @Param({"equalInterest", "equalPrincipal"})
+    public String method;
+
+    @Param({"bigdecimal", "fixed-point"})
+    public String engine;
+
+    private LoanSolverService service;
+    private LoanSolverRequest fixedRate;
+    private LoanSolverRequest floatingRate;
+    private LoanSolverRequest term;
+    private LoanSolverRequest payoff;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        RepayCalculator calculator = "fixed-point".equals(engine) ? new FixedPointCalculatorImpl() : new EqualPrincipalCalculatorImpl();
+        AnnuityFactorService annuityFactorService = new AnnuityFactorService();
+        ReflectionTestUtils.setField(calculator, "annuityFactorService", annuityFactorService);
+        service = new LoanSolverService();
+        ReflectionTestUtils.setField(service, "repayCalculator", calculator);
+        ReflectionTestUtils.setField(service, "annuityFactorService", annuityFactorService);
+
+        fixedRate = request();
+        fixedRate.setMonthlyBudget(new BigDecimal("5000"));
+        fixedRate.setYears(30);
+
+        floatingRate = request();
+        floatingRate.setMonthlyBudget(new BigDecimal("5000"));
+        floatingRate.setYears(30);
+        floatingRate.setRateChanges(List.of(rateChange(13, "4.2"), rateChange(25, "3.6"), rateChange(37, "3.1")));
+
+        term = request();
+        term.setMonthlyBudget(new BigDecimal("6000"));
+        term.setLoanTotal(new BigDecimal("1000000"));
+
+        payoff = request();
+        payoff.setLoanTotal(new BigDecimal("1000000"));
+        payoff.setYears(30);
+        Prepayment prepayment = new Prepayment();
+        prepayment.setMonth(24);
+        prepayment.setAmount(new BigDecimal("100000"));
+        payoff.setPrepayments(List.of(prepayment));
+    }
+
+    @Benchmark
+    public LoanSolverResponse maxLoanClosedForm() {
+        return service.maxLoan(fixedRate);
+    }
+
+    @Benchmark
+    public LoanSolverResponse maxLoanBisection() {
+        return service.maxLoan(floatingRate);
+    }
+
+    @Benchmark
+    public LoanSolverResponse minTerm() {
+        return service.minTerm(term);
+    }
+
+    @Benchmark
+    public LoanSolverResponse payoff() {
+        return service.payoff(payoff);
+    }
+
+    private LoanSolverRequest request() {
+        LoanSolverRequest request = new LoanSolverRequest();
+        request.setMethod(method);
+        request.setAnnualRate(new BigDecimal("3.85"));
+        return request;
+    }
+
+    private static RateChange rateChange(int month, String rate) {
+        RateChange change = new RateChange();
+        change.setMonth(month);
+        change.setAnnualRate(new BigDecimal(rate));
+        return change;
+    }
+}
@@ -0,0 +1,71 @@
+package com.repay.benchmark;
+
+import com.repay.entity.SweepRequest;
+import com.repay.entity.SweepResponse;
+import com.repay.service.RepayCalculator;
+import com.repay.service.impl.AnnuityFactorService;
+import com.repay.service.impl.EqualPrincipalCalculatorImpl;
+import com.repay.service.impl.FixedPointCalculatorImpl;
+import com.repay.service.impl.SweepService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 敏感性分析基准：1000 个组合（利率 3.00%~4.95% 步长 5bp 共40档 × 年限 6~30 年共25档），每个组合计算等额本息和等额本金
+ * 运行：mvn -Pjmh test-compile exec:exec -Djmh.include=SweepBenchmark
+ * parallelism=1 为单线程基线；engine 为计算引擎（bigdecimal / fixed-point）。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SweepBenchmark {
+
+    @Param({"1", "0"})
+    public int parallelism;
+
+    @Param({"bigdecimal", "fixed-point"})
+    public String engine;
+
+    private ForkJoinPool pool;
+    private SweepService service;
+    private SweepRequest request;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        RepayCalculator calculator = "fixed-point".equals(engine) ? new FixedPointCalculatorImpl() : new EqualPrincipalCalculatorImpl();
+        ReflectionTestUtils.setField(calculator, "annuityFactorService", new AnnuityFactorService());
+        pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        service = new SweepService();
+        ReflectionTestUtils.setField(service, "repayCalculator", calculator);
+        ReflectionTestUtils.setField(service, "repaySweepPool", pool);
+
+        request = new SweepRequest();
+        request.setRateFrom(new BigDecimal("3.00"));
+        request.setRateTo(new BigDecimal("4.95"));
+        request.setRateStep(new BigDecimal("0.05"));
+        request.setYearsFrom(6);
+        request.setYearsTo(30);
+        request.setYearsStep(1);
+        request.setAmountFrom(new BigDecimal("1000000"));
+        if (service.cellCount(request) != 1000) {
+            throw new IllegalStateException("组合数应为1000：" + service.cellCount(request));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public SweepResponse sweep1000Cells() {
+        return service.sweep(request);
+    }
+}
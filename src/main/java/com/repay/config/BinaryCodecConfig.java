@@ -0,0 +1,57 @@
+package com.repay.config;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.repay.service.impl.RepayMetrics;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+
+/**
+ * 二进制编码配置（CBOR / Smile）
+ * 请求按 Content-Type、响应按 Accept 协商：application/cbor、application/x-jackson-smile，未指定时仍为 JSON。
+ * 转换器基于 Spring Boot 配置的 Jackson 构建器创建，与 JSON 使用相同的模块和序列化配置（如 LocalDate）；
+ * BigDecimal 在 CBOR 中编码为十进制小数（tag 4）、在 Smile 中编码为 BigDecimal 类型，往返无损。
+ * 与 JSON 相同，响应序列化耗时计入 {@link RepayMetrics.Phase#SERIALIZATION}。
+ */
+@Configuration
+public class BinaryCodecConfig {
+
+    /**
+     * CBOR 转换器（替换 Spring MVC 默认创建的同类型转换器）
+     */
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder,
+                                                                            RepayMetrics repayMetrics) {
+        return new MappingJackson2CborHttpMessageConverter(builder.createXmlMapper(false).factory(new CBORFactory()).build()) {
+            @Override
+            protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage) throws IOException {
+                long start = System.nanoTime();
+                super.writeInternal(object, type, outputMessage);
+                repayMetrics.record(RepayMetrics.Phase.SERIALIZATION, start);
+            }
+        };
+    }
+
+    /**
+     * Smile 转换器（替换 Spring MVC 默认创建的同类型转换器）
+     */
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder,
+                                                                              RepayMetrics repayMetrics) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.createXmlMapper(false).factory(new SmileFactory()).build()) {
+            @Override
+            protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage) throws IOException {
+                long start = System.nanoTime();
+                super.writeInternal(object, type, outputMessage);
+                repayMetrics.record(RepayMetrics.Phase.SERIALIZATION, start);
+            }
+        };
+    }
+}
@@ -0,0 +1,56 @@
+package com.repay.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.repay.service.impl.RepayMetrics;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * 监控指标配置
+ * 指标通过 Actuator 以 Prometheus 格式输出（管理端口 /actuator/prometheus）：接口耗时为 http.server.requests，
+ * 计算阶段耗时、计算量见 {@link RepayMetrics}，缓存指标由各缓存服务自行注册（cache.*），线程池指标见下方。
+ */
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * 线程池指标（executor.*：活动线程数、队列长度、已完成任务数等，tag name 为线程池名）
+     */
+    @Bean
+    public MeterBinder repayExecutorMetrics(@Qualifier("repayBatchExecutor") ThreadPoolExecutor repayBatchExecutor,
+                                            @Qualifier("repayLegExecutor") ThreadPoolExecutor repayLegExecutor,
+                                            @Qualifier("repaySweepPool") ForkJoinPool repaySweepPool) {
+        return registry -> {
+            new ExecutorServiceMetrics(repayBatchExecutor, "repayBatchExecutor", Tags.empty()).bindTo(registry);
+            new ExecutorServiceMetrics(repayLegExecutor, "repayLegExecutor", Tags.empty()).bindTo(registry);
+            new ExecutorServiceMetrics(repaySweepPool, "repaySweepPool", Tags.empty()).bindTo(registry);
+        };
+    }
+
+    /**
+     * JSON 转换器（替换 Spring Boot 默认创建的同类型转换器），记录响应序列化耗时
+     */
+    @Bean
+    public MappingJackson2HttpMessageConverter mappingJackson2HttpMessageConverter(ObjectMapper objectMapper,
+                                                                                   RepayMetrics repayMetrics) {
+        return new MappingJackson2HttpMessageConverter(objectMapper) {
+            @Override
+            protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage) throws IOException {
+                long start = System.nanoTime();
+                super.writeInternal(object, type, outputMessage);
+                repayMetrics.record(RepayMetrics.Phase.SERIALIZATION, start);
+            }
+        };
+    }
+}
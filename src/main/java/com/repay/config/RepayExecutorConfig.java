@@ -0,0 +1,55 @@
+package com.repay.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 还款计算线程池配置
+ */
+@Configuration
+public class RepayExecutorConfig {
+
+    /**
+     * 批量计算线程池：固定线程数 + 有界队列，队列满时由提交线程自行计算（自然背压，不丢任务）
+     * @param threads 线程数，0 表示取 CPU 核数
+     * @param queueCapacity 队列容量
+     */
+    @Bean(name = "repayBatchExecutor", destroyMethod = "shutdown")
+    public ThreadPoolExecutor repayBatchExecutor(@Value("${repay.batch.threads:0}") int threads,
+                                                 @Value("${repay.batch.queue-capacity:1024}") int queueCapacity) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("repay-batch-");
+        threadFactory.setDaemon(true);
+        return new ThreadPoolExecutor(poolSize, poolSize, 60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), threadFactory, new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    /**
+     * 组合贷两笔贷款并行计算线程池：任务只做计算、不等待其他任务，队列满时由提交线程自行计算
+     * @param threads 线程数，0 表示取 CPU 核数
+     */
+    @Bean(name = "repayLegExecutor", destroyMethod = "shutdown")
+    public ThreadPoolExecutor repayLegExecutor(@Value("${repay.leg.threads:0}") int threads) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("repay-leg-");
+        threadFactory.setDaemon(true);
+        return new ThreadPoolExecutor(poolSize, poolSize, 60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(1024), threadFactory, new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    /**
+     * 分治计算线程池（fork-join）：敏感性分析按利率/年限行拆分，利率路径模拟按路径区间拆分
+     * @param parallelism 并行度，0 表示取 CPU 核数
+     */
+    @Bean(name = "repaySweepPool", destroyMethod = "shutdown")
+    public ForkJoinPool repaySweepPool(@Value("${repay.sweep.parallelism:0}") int parallelism) {
+        return new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+}
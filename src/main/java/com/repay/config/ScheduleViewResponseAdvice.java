@@ -0,0 +1,36 @@
+package com.repay.config;
+
+import com.repay.entity.CombinationLoanResponse;
+import com.repay.entity.ScheduleView;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.MappingJacksonValue;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.AbstractMappingJacksonResponseBodyAdvice;
+
+/**
+ * 按计算时的视图级别（{@link CombinationLoanResponse#getView()}）序列化组合贷款结果
+ * 视图不包含的字段不输出（而不是输出 null）；full 视图不设置序列化视图，输出与原接口一致。
+ * JSON、CBOR、Smile 响应都经过 Jackson 转换器，均按视图输出。
+ */
+@RestControllerAdvice
+public class ScheduleViewResponseAdvice extends AbstractMappingJacksonResponseBodyAdvice {
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return super.supports(returnType, converterType)
+                && CombinationLoanResponse.class.isAssignableFrom(returnType.getParameterType());
+    }
+
+    @Override
+    protected void beforeBodyWriteInternal(MappingJacksonValue bodyContainer, MediaType contentType,
+                                           MethodParameter returnType, ServerHttpRequest request, ServerHttpResponse response) {
+        if (bodyContainer.getValue() instanceof CombinationLoanResponse body
+                && body.getView() != null && body.getView() != ScheduleView.FULL) {
+            bodyContainer.setSerializationView(body.getView().jsonView());
+        }
+    }
+}
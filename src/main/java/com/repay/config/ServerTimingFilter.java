@@ -0,0 +1,52 @@
+package com.repay.config;
+
+import com.repay.service.impl.RequestTiming;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+
+/**
+ * Server-Timing 响应头（repay.server-timing.enabled=true 时启用，用于在浏览器开发者工具中定位单个慢请求）
+ * 覆盖 /api/repay/*、/api/income/calculate、/api/emergency/calculate、/api/expense/*，
+ * 输出总耗时、提前还款分配/商贷/公积金贷/合并/序列化各阶段耗时、逐月计算的月数、提前还款次数和分配字节数（见 {@link RequestTiming}）。
+ * <p>
+ * 序列化发生在写响应体时，响应体先写入内存缓冲、响应头设置后再一并输出；流式接口（/stream）不缓冲，不输出该响应头。
+ * 没有逐次统计 BigDecimal 运算次数（需要改写每一处运算），BigDecimal 运算的开销体现在阶段耗时和分配字节数中。
+ */
+@Component
+@ConditionalOnProperty(name = "repay.server-timing.enabled", havingValue = "true")
+public class ServerTimingFilter extends OncePerRequestFilter {
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        if (path.endsWith("/stream")) {
+            return true;
+        }
+        return !(path.startsWith("/api/repay/") || path.startsWith("/api/expense/")
+                || path.equals("/api/income/calculate") || path.equals("/api/emergency/calculate"));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        RequestTiming timing = RequestTiming.begin();
+        try {
+            chain.doFilter(request, wrapper);
+        } finally {
+            timing.end();
+            wrapper.setHeader("Server-Timing", timing.header());
+            // 跨域访问时允许前端读取
+            wrapper.setHeader("Timing-Allow-Origin", "*");
+            wrapper.copyBodyToResponse();
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.repay.controller;
+
+import com.repay.entity.BatchRepayItem;
+import com.repay.entity.BatchRepayResult;
+import com.repay.service.impl.BatchRepayService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * 批量还款计算 Controller
+ */
+@RestController
+@RequestMapping("/api/repay")
+@Tag(name = "批量还款计算接口", description = "多个组合贷款并行计算，按请求顺序返回，单个条目失败不影响其他条目")
+public class BatchRepayController {
+
+    @Autowired
+    private BatchRepayService batchRepayService;
+
+    // 单次批量请求的最大条目数
+    @Value("${repay.batch.max-items:10000}")
+    private int maxItems;
+
+    /**
+     * 批量还款计算（JSON 数组）
+     * 请求体边读边计数，条目数超过上限时立即返回 400，不会先把整个数组反序列化
+     * @param request HTTP 请求（请求体为计算条目数组，每个条目指定还款方式）
+     * @return 计算结果（与请求顺序一致，单个条目失败不影响其他条目）
+     */
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "批量还款计算", description = "并行计算多个组合贷款，结果按请求顺序返回，每个条目单独返回成功或失败原因",
+            requestBody = @io.swagger.v3.oas.annotations.parameters.RequestBody(content = @Content(
+                    mediaType = MediaType.APPLICATION_JSON_VALUE,
+                    array = @ArraySchema(schema = @Schema(implementation = BatchRepayItem.class)))))
+    public List<BatchRepayResult> batch(HttpServletRequest request) throws IOException {
+        List<BatchRepayItem> items;
+        try {
+            items = batchRepayService.readItems(request.getInputStream(), maxItems);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+        return batchRepayService.calculate(items);
+    }
+
+    /**
+     * 流式批量还款计算（NDJSON 输入、NDJSON 输出，条目数不受限制）
+     * @param request HTTP 请求（请求体每行一个条目）
+     * @return 每行一个计算结果
+     */
+    @PostMapping(value = "/batch/stream", consumes = MediaType.APPLICATION_NDJSON_VALUE, produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "流式批量还款计算", description = "请求体每行一个条目（NDJSON），边读边算，按输入顺序逐行返回结果")
+    public ResponseEntity<StreamingResponseBody> batchStream(HttpServletRequest request) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(out -> batchRepayService.stream(request.getInputStream(), out));
+    }
+}
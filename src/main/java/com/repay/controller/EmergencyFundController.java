@@ -4,10 +4,12 @@ import com.repay.entity.EmergencyFund.AnnualStatDTO;
 import com.repay.entity.EmergencyFund.EmergencyFundRequest;
 import com.repay.entity.EmergencyFund.EmergencyFundResponse;
 import com.repay.entity.EmergencyFund.MonthlyStatDTO;
+import com.repay.service.impl.AnnuityFactorService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
@@ -29,6 +31,9 @@ import java.util.List;
 @Slf4j
 public class EmergencyFundController {
 
+    @Autowired
+    private AnnuityFactorService annuityFactorService;
+
     /**
      * 计算应急金相关数据
      */
@@ -145,11 +150,7 @@ public class EmergencyFundController {
             monthlyRepay = monthlyPrincipal.add(firstMonthInterest); // 取首月还款额简化
         } else {
             // 等额本息：月供 = [贷款本金×月利率×(1+月利率)^还款月数]÷[(1+月利率)^还款月数－1]
-            BigDecimal pow = new BigDecimal(Math.pow(1 + monthlyRate.doubleValue(), totalMonths));
-            monthlyRepay = request.getRemainingLoan()
-                    .multiply(monthlyRate)
-                    .multiply(pow)
-                    .divide(pow.subtract(BigDecimal.ONE), 2, RoundingMode.HALF_UP);
+            monthlyRepay = annuityFactorService.payment(request.getRemainingLoan(), monthlyRate, totalMonths);
         }
 
         return monthlyRepay.setScale(2, RoundingMode.HALF_UP);
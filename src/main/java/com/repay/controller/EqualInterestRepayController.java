@@ -2,27 +2,28 @@ package com.repay.controller;
 
 import com.repay.entity.*;
 import com.repay.service.RepayCalculator;
+import com.repay.service.impl.ColumnarScheduleService;
+import com.repay.service.impl.PrepaymentAttributionService;
+import com.repay.service.impl.RepayResultCache;
+import com.repay.service.impl.ScheduleStreamService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
-
-import java.math.BigDecimal;
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
-
-import static com.repay.constant.CONSTANT.ROUND_MODE;
-import static com.repay.constant.CONSTANT.SCALE;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 /**
- * 等额本金还款计算 Controller
+ * 等额本息还款计算 Controller
  * POST 接口（JSON 参数）实现还款计算
  */
 @RestController
@@ -34,33 +35,74 @@ public class EqualInterestRepayController {
     @Autowired
     public RepayCalculator repayCalculator;
 
+    @Autowired
+    private RepayResultCache repayResultCache;
+
+    @Autowired
+    private ScheduleStreamService scheduleStreamService;
+
+    @Autowired
+    private ColumnarScheduleService columnarScheduleService;
+
+    @Autowired
+    private PrepaymentAttributionService prepaymentAttributionService;
+
     /**
-     * 等额本金还款计算接口（POST 请求，JSON 传递参数）
+     * 等额本息还款计算接口（POST 请求，JSON 传递参数）
      * @param request 贷款参数（JSON 格式）
-     * @return 完整的还款计算结果（JSON 格式）
+     * @param view 视图级别：summary（只有总计）/ yearly（含年度汇总）/ monthly（含合并后的每月明细）/ full（全部，默认）
+     * @param attribution 是否同时计算各条提前还款节省的利息（prepaymentSavings，不使用结果缓存）
+     * @return 视图包含的还款计算结果（JSON 格式）
      */
     @PostMapping("/equal-interest")
-    @Operation(summary = "等额本息还款计算", description = "POST请求-输入贷款总额、年利率、还款年限，返回每月/每年/总计还款信息")
-    public CombinationLoanResponse calculateEqualPrincipal(
-            @Valid @RequestBody CombinationLoanRequest request) {
-        CombinationLoanResponse response = new CombinationLoanResponse();
-        // 1. 分别计算商贷和公积金贷明细
-        EqualPrincipalRepayResponse businessResponse = null;
-        EqualPrincipalRepayResponse fundResponse = null;
-
-        Map<Integer, BigDecimal> prepayMoney = new HashMap<>();
-        if(!request.getPrepayments().isEmpty()){
-            prepayMoney = repayCalculator.getAllPrepayMoney(request.getPrepayments());
+    @Operation(summary = "等额本息还款计算", description = "POST请求-输入贷款总额、年利率、还款年限，返回每月/每年/总计还款信息，view 指定只计算、返回总计/年度汇总/每月明细，attribution=true 时同时返回各条提前还款节省的利息")
+    public CombinationLoanResponse calculateEqualInterest(
+            @Valid @RequestBody CombinationLoanRequest request,
+            @RequestParam(defaultValue = "full") String view,
+            @RequestParam(defaultValue = "false") boolean attribution) {
+        ScheduleView scheduleView;
+        try {
+            scheduleView = ScheduleView.of(view);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
         }
-        //更新周期性还款方式
-        prepayMoney = repayCalculator.updatePayMoney(prepayMoney, request.getPeriodicRepayList());
-
+        if (attribution) {
+            try {
+                return prepaymentAttributionService.calculate(request, "equalInterest", scheduleView);
+            } catch (IllegalArgumentException e) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+            }
+        }
+        // 按 prepayAllocation 分配提前还款，分别计算商贷和公积金贷明细并合并（相同请求、相同视图直接返回缓存结果）
+        return repayResultCache.calculate(request, "equalInterest", scheduleView);
+    }
 
-        //计算所有贷款（公积金+商贷）方式
-        businessResponse = repayCalculator.businessResponse(request, prepayMoney, response, "equalInterest");
-        fundResponse = repayCalculator.fundResponse(request, prepayMoney, response,"equalInterest");
-        repayCalculator.getTotalResponse(businessResponse, fundResponse, response);
-        return response;
+    /**
+     * 等额本息还款计划流式输出（NDJSON，每行一条记录，最后一行为总计）
+     * @param request 贷款参数（JSON 格式）
+     * @return 逐月写出的还款计划
+     */
+    @PostMapping(value = "/equal-interest/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "等额本息还款计划流式输出", description = "按月计算并逐行输出 NDJSON：type=month 每月明细，type=year 年度汇总，type=total 总计")
+    public ResponseEntity<StreamingResponseBody> streamEqualInterest(@Valid @RequestBody CombinationLoanRequest request) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(scheduleStreamService.stream(request, "equalInterest"));
     }
 
-}
\ No newline at end of file
+    /**
+     * 等额本息还款计算（列式紧凑格式）
+     * @param request 贷款参数（JSON 格式）
+     * @return 列式还款计划（金额为放大 10^scale 倍的整数）
+     */
+    @PostMapping("/equal-interest/columnar")
+    @Operation(summary = "等额本息还款计算（列式）", description = "每月明细按列返回并行数组（期数、本金、利息、还款额、剩余本金），金额为放大 10^scale 倍的整数")
+    public ColumnarLoanResponse columnarEqualInterest(@Valid @RequestBody CombinationLoanRequest request) {
+        try {
+            return columnarScheduleService.calculate(request, "equalInterest");
+        } catch (IllegalArgumentException e) {
+            // 金额小数位数超过列式格式支持的位数
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.repay.controller;
+
+import com.repay.entity.HouseholdLoanRequest;
+import com.repay.entity.HouseholdLoanResponse;
+import com.repay.service.impl.HouseholdService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * 家庭贷款组合 Controller
+ */
+@RestController
+@RequestMapping("/api/repay")
+@Tag(name = "家庭贷款组合接口", description = "任意笔数贷款各自计算并按月合并")
+public class HouseholdController {
+
+    @Autowired
+    private HouseholdService householdService;
+
+    // 单次最多计算的贷款笔数
+    @Value("${repay.household.max-loans:20}")
+    private int maxLoans;
+
+    /**
+     * 家庭贷款组合计算接口
+     * @param request 各笔贷款参数
+     * @return 各笔贷款结果与按月合并结果
+     */
+    @PostMapping("/household")
+    @Operation(summary = "家庭贷款组合计算", description = "任意笔数的贷款（如两笔房贷 + 一笔车贷）各自按还款方式计算，再按月合并为家庭每月还款")
+    public HouseholdLoanResponse calculate(@Valid @RequestBody HouseholdLoanRequest request) {
+        if (request.getLoans().size() > maxLoans) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "贷款笔数超过上限：" + request.getLoans().size() + " > " + maxLoans);
+        }
+        return householdService.calculate(request);
+    }
+}
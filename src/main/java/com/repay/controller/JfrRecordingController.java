@@ -0,0 +1,71 @@
+package com.repay.controller;
+
+import com.repay.service.impl.JfrRecordingService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * JFR 按需记录 Controller（repay.jfr.enabled=true 时启用，仅供运维诊断）
+ */
+@RestController
+@RequestMapping("/api/admin/jfr")
+@Tag(name = "诊断接口", description = "JFR 按需记录")
+@ConditionalOnProperty(name = "repay.jfr.enabled", havingValue = "true")
+public class JfrRecordingController {
+
+    private static final DateTimeFormatter FILE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    @Autowired
+    private JfrRecordingService jfrRecordingService;
+
+    // 单次记录的最长时长（秒）
+    @Value("${repay.jfr.max-seconds:60}")
+    private int maxSeconds;
+
+    /**
+     * 开始记录，到时后返回 .jfr 文件（可用 JDK Mission Control 或 jfr print 查看）
+     * @param seconds 记录时长（秒）
+     * @param settings JFR 预置配置：default / profile
+     * @return .jfr 文件
+     */
+    @PostMapping("/recording")
+    @Operation(summary = "JFR 按需记录", description = "记录指定秒数的 JVM 事件与还款计算事件（贷款类型、月数、提前还款条数、产品数），返回 .jfr 文件")
+    public ResponseEntity<byte[]> record(@RequestParam(defaultValue = "30") int seconds,
+                                         @RequestParam(defaultValue = "default") String settings)
+            throws IOException, InterruptedException {
+        if (seconds < 1 || seconds > maxSeconds) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "记录时长必须在1~" + maxSeconds + "秒之间：" + seconds);
+        }
+        byte[] content;
+        try {
+            content = jfrRecordingService.record(Duration.ofSeconds(seconds), settings);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        } catch (IllegalStateException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, e.getMessage());
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("repay-" + LocalDateTime.now().format(FILE_TIME) + ".jfr").build().toString())
+                .body(content);
+    }
+}
@@ -0,0 +1,70 @@
+package com.repay.controller;
+
+import com.repay.entity.LoanSolverRequest;
+import com.repay.entity.LoanSolverResponse;
+import com.repay.service.impl.LoanSolverService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.function.Function;
+
+/**
+ * 反向求解 Controller（由月供预算求最大可贷额、最短年限，由提前还款计划求结清月份）
+ */
+@RestController
+@RequestMapping("/api/repay")
+@Tag(name = "贷款反向求解接口", description = "按月供上限求最大贷款额、最短期限，求提前还款后的还清月份")
+public class LoanSolverController {
+
+    @Autowired
+    private LoanSolverService loanSolverService;
+
+    /**
+     * 最大可贷额
+     * @param request method、annualRate、monthlyBudget、years（可选 rateChanges）
+     * @return 最大贷款总额（精确到分）及对应的最高月供
+     */
+    @PostMapping("/solve/max-loan")
+    @Operation(summary = "最大可贷额", description = "给定月供预算、利率、年限，求最高月供不超过预算的最大贷款总额（精确到分）")
+    public LoanSolverResponse maxLoan(@Valid @RequestBody LoanSolverRequest request) {
+        return solve(loanSolverService::maxLoan, request);
+    }
+
+    /**
+     * 最短还款年限
+     * @param request method、annualRate、monthlyBudget、loanTotal（可选 maxYears、rateChanges）
+     * @return 最短年限及对应的最高月供
+     */
+    @PostMapping("/solve/min-term")
+    @Operation(summary = "最短还款年限", description = "给定月供预算、贷款总额、利率，求最高月供不超过预算的最短年限")
+    public LoanSolverResponse minTerm(@Valid @RequestBody LoanSolverRequest request) {
+        return solve(loanSolverService::minTerm, request);
+    }
+
+    /**
+     * 结清月份
+     * @param request method、annualRate、loanTotal、years（可选 reservedPrincipal、rateChanges、prepayments、periodicRepayList）
+     * @return 结清月份、提前的月数和结清前累计利息
+     */
+    @PostMapping("/solve/payoff")
+    @Operation(summary = "结清月份", description = "按提前还款计划逐月计算，剩余本金降到保留本金时停止，返回结清月份")
+    public LoanSolverResponse payoff(@Valid @RequestBody LoanSolverRequest request) {
+        return solve(loanSolverService::payoff, request);
+    }
+
+    private static LoanSolverResponse solve(Function<LoanSolverRequest, LoanSolverResponse> solver, LoanSolverRequest request) {
+        try {
+            return solver.apply(request);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+}
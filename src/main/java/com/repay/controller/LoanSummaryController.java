@@ -0,0 +1,79 @@
+package com.repay.controller;
+
+import com.repay.entity.CombinationLoanRequest;
+import com.repay.entity.EqualPrincipalRepayRequest;
+import com.repay.entity.LoanSummaryResponse;
+import com.repay.service.LegPrepayments;
+import com.repay.service.PrepaymentLedger;
+import com.repay.service.RepayCalculator;
+import com.repay.service.impl.SegmentRepayEngine;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+
+/**
+ * 分段闭式还款汇总 Controller
+ * 只返回汇总和分段信息时，计算量与提前还款事件数相关，与贷款月数无关
+ */
+@RestController
+@RequestMapping("/api/repay")
+@Tag(name = "还款汇总接口", description = "按提前还款事件分段闭式计算本金、利息汇总")
+public class LoanSummaryController {
+    @Qualifier(value = "EqualPrincipalParamValidator")
+    @Autowired
+    public RepayCalculator repayCalculator;
+
+    @Autowired
+    private SegmentRepayEngine segmentRepayEngine;
+
+    /**
+     * 分段闭式还款汇总接口
+     * @param request 贷款参数（JSON 格式）
+     * @param method 还款方式：equalPrincipal / equalInterest
+     * @param monthly 是否返回每月明细
+     * @return 汇总及分段信息
+     */
+    @PostMapping("/summary")
+    @Operation(summary = "分段闭式还款汇总", description = "按提前还款事件分段、闭式计算本金利息汇总，monthly=true 时附带每月明细")
+    public LoanSummaryResponse summary(@Valid @RequestBody CombinationLoanRequest request,
+                                       @RequestParam(defaultValue = "equalInterest") String method,
+                                       @RequestParam(defaultValue = "false") boolean monthly) {
+        if (!"equalPrincipal".equals(method) && !"equalInterest".equals(method)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "还款方式不正确：" + method);
+        }
+        LegPrepayments prepayments = repayCalculator.allocatePrepayments(request);
+        PrepaymentLedger businessLedger = prepayments.businessLedger();
+
+        LoanSummaryResponse response = new LoanSummaryResponse();
+        response.setMethod(method);
+        BigDecimal totalPrincipal = BigDecimal.ZERO;
+        BigDecimal totalInterest = BigDecimal.ZERO;
+        if ("single".equals(request.getLoanType()) || "combination".equals(request.getLoanType())) {
+            EqualPrincipalRepayRequest businessReq = repayCalculator.buildBusinessRequest(request);
+            response.setBusiness(segmentRepayEngine.summarize(businessReq, businessLedger, method, monthly));
+            totalPrincipal = totalPrincipal.add(response.getBusiness().getTotalAllPrincipal());
+            totalInterest = totalInterest.add(response.getBusiness().getTotalAllInterest());
+        }
+        if ("fund".equals(request.getLoanType()) || "combination".equals(request.getLoanType())) {
+            EqualPrincipalRepayRequest fundReq = repayCalculator.buildFundRequest(request);
+            response.setFund(segmentRepayEngine.summarize(fundReq, prepayments.fundLedger(businessLedger), method, monthly));
+            totalPrincipal = totalPrincipal.add(response.getFund().getTotalAllPrincipal());
+            totalInterest = totalInterest.add(response.getFund().getTotalAllInterest());
+        }
+        response.setTotalAllPrincipal(totalPrincipal);
+        response.setTotalAllInterest(totalInterest);
+        response.setTotalAllRepay(totalPrincipal.add(totalInterest));
+        return response;
+    }
+}
@@ -0,0 +1,43 @@
+package com.repay.controller;
+
+import com.repay.entity.PrepaymentOptimizeRequest;
+import com.repay.entity.PrepaymentOptimizeResponse;
+import com.repay.service.impl.PrepaymentOptimizerService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * 提前还款分配优化 Controller
+ */
+@RestController
+@RequestMapping("/api/repay")
+@Tag(name = "提前还款优化接口", description = "在月份范围和预算内为商贷、公积金贷分配提前还款，使总利息最小")
+public class PrepaymentOptimizerController {
+
+    @Autowired
+    private PrepaymentOptimizerService prepaymentOptimizerService;
+
+    /**
+     * 提前还款分配优化接口
+     * @param request 贷款参数、提前还款预算、可选月份范围和拆分步长
+     * @return 总利息最小的拆分和月份，以及相对不提前还款节省的利息
+     */
+    @PostMapping("/prepayment/optimize")
+    @Operation(summary = "提前还款分配优化", description = "把提前还款预算拆分到商贷、公积金贷并选择各自的提前还款月份，使总利息最小；"
+            + "候选从基线检查点增量计算、并行评估")
+    public PrepaymentOptimizeResponse optimize(@Valid @RequestBody PrepaymentOptimizeRequest request) {
+        try {
+            return prepaymentOptimizerService.optimize(request);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+}
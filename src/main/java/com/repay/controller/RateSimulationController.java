@@ -0,0 +1,51 @@
+package com.repay.controller;
+
+import com.repay.entity.RateSimulationRequest;
+import com.repay.entity.RateSimulationResponse;
+import com.repay.service.impl.RateSimulationService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * 浮动利率蒙特卡洛模拟 Controller
+ */
+@RestController
+@RequestMapping("/api/repay")
+@Tag(name = "浮动利率模拟接口", description = "浮动利率蒙特卡洛模拟，返回月供与总利息的分位数带")
+public class RateSimulationController {
+
+    @Autowired
+    private RateSimulationService rateSimulationService;
+
+    // 单次最多模拟的路径数
+    @Value("${repay.simulation.max-paths:100000}")
+    private int maxPaths;
+
+    /**
+     * 浮动利率模拟接口
+     * @param request 贷款、利率模型与模拟参数
+     * @return 总利息、逐年利率和月供的分位数带
+     */
+    @PostMapping("/simulate")
+    @Operation(summary = "浮动利率蒙特卡洛模拟", description = "按均值回归模型逐年生成利率路径，逐条路径计算摊还，返回月供与总利息的分位数带（相同种子结果相同）")
+    public RateSimulationResponse simulate(@Valid @RequestBody RateSimulationRequest request) {
+        if (request.getPaths() > maxPaths) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "模拟路径数超过上限：" + request.getPaths() + " > " + maxPaths);
+        }
+        for (Double percentile : request.getPercentiles()) {
+            if (percentile == null || percentile < 0 || percentile > 100) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "分位数必须在0~100之间：" + percentile);
+            }
+        }
+        return rateSimulationService.simulate(request);
+    }
+}
@@ -0,0 +1,72 @@
+package com.repay.controller;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.repay.entity.CacheStatsResponse;
+import com.repay.service.impl.AnnuityFactorService;
+import com.repay.service.impl.RepayResultCache;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * 计算结果缓存 Controller
+ */
+@RestController
+@RequestMapping("/api/repay/cache")
+@Tag(name = "还款缓存管理接口", description = "计算结果缓存、年金系数缓存的统计与清空")
+public class RepayCacheController {
+
+    @Autowired
+    private RepayResultCache repayResultCache;
+
+    @Autowired
+    private AnnuityFactorService annuityFactorService;
+
+    /**
+     * 缓存统计
+     * @return 命中/未命中/淘汰统计
+     */
+    @GetMapping("/stats")
+    @Operation(summary = "计算结果缓存统计", description = "返回缓存条数、命中、未命中、淘汰次数和命中率")
+    public CacheStatsResponse stats() {
+        CacheStats stats = repayResultCache.stats();
+        CacheStatsResponse response = new CacheStatsResponse();
+        response.setEnabled(repayResultCache.isEnabled());
+        response.setSize(repayResultCache.size());
+        response.setHitCount(stats.hitCount());
+        response.setMissCount(stats.missCount());
+        response.setHitRate(stats.hitRate());
+        response.setEvictionCount(stats.evictionCount());
+        response.setAverageLoadMillis(stats.averageLoadPenalty() / 1_000_000d);
+        return response;
+    }
+
+    /**
+     * 年金系数缓存统计
+     * @return 条目数、命中/未命中次数和命中率
+     */
+    @GetMapping("/annuity-factors")
+    @Operation(summary = "年金系数缓存统计", description = "按（月利率, 月数）缓存的等额本息年金系数，两种计算引擎共用：条目数、命中、未命中次数和命中率")
+    public CacheStatsResponse annuityFactors() {
+        CacheStatsResponse response = new CacheStatsResponse();
+        response.setEnabled(true);
+        response.setSize(annuityFactorService.cachedFactors());
+        response.setHitCount(annuityFactorService.hitCount());
+        response.setMissCount(annuityFactorService.missCount());
+        response.setHitRate(annuityFactorService.hitRate());
+        return response;
+    }
+
+    /**
+     * 清空缓存
+     */
+    @DeleteMapping
+    @Operation(summary = "清空计算结果缓存")
+    public void clear() {
+        repayResultCache.invalidateAll();
+    }
+}
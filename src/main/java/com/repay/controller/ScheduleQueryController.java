@@ -0,0 +1,56 @@
+package com.repay.controller;
+
+import com.repay.entity.CombinationLoanRequest;
+import com.repay.entity.ScheduleQueryResponse;
+import com.repay.service.impl.ScheduleQueryService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * 还款计划查询 Controller
+ * 只需要个别数值（某月剩余本金、某段时间的利息、还清月份）时使用，不返回每月明细
+ */
+@RestController
+@RequestMapping("/api/repay")
+@Tag(name = "还款计划查询接口", description = "按月份/区间查询剩余本金、已还本金和利息、还清月份")
+public class ScheduleQueryController {
+
+    @Autowired
+    private ScheduleQueryService scheduleQueryService;
+
+    /**
+     * 还款计划查询接口
+     * @param request 贷款参数（JSON 格式）
+     * @param method 还款方式：equalPrincipal / equalInterest
+     * @param month 查询第 month 月还款后的剩余本金
+     * @param from 区间起始月份（含）
+     * @param to 区间结束月份（含）
+     * @param exact 是否要求与每月明细逐分一致
+     * @return 剩余本金、区间本金/利息、还清月份
+     */
+    @PostMapping("/query")
+    @Operation(summary = "还款计划按月份/区间查询", description = "返回第 month 月剩余本金、from~to 月已还本金和利息、还清月份；无提前还款时闭式计算，exact=true 时与每月明细逐分一致")
+    public ScheduleQueryResponse query(@Valid @RequestBody CombinationLoanRequest request,
+                                       @RequestParam(defaultValue = "equalInterest") String method,
+                                       @RequestParam(required = false) Integer month,
+                                       @RequestParam(required = false) Integer from,
+                                       @RequestParam(required = false) Integer to,
+                                       @RequestParam(defaultValue = "false") boolean exact) {
+        if (!"equalPrincipal".equals(method) && !"equalInterest".equals(method)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "还款方式不正确：" + method);
+        }
+        if ((month != null && month < 0) || (from != null && from < 1) || (from != null && to != null && from > to)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "查询月份不合法");
+        }
+        return scheduleQueryService.query(request, method, month, from, to, exact);
+    }
+}
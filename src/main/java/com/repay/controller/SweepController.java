@@ -0,0 +1,47 @@
+package com.repay.controller;
+
+import com.repay.entity.SweepRequest;
+import com.repay.entity.SweepResponse;
+import com.repay.service.impl.SweepService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * 利率 × 年限敏感性分析 Controller
+ */
+@RestController
+@RequestMapping("/api/repay")
+@Tag(name = "敏感性分析接口", description = "利率 × 年限 × 贷款金额网格的月供与总利息")
+public class SweepController {
+
+    @Autowired
+    private SweepService sweepService;
+
+    // 单次最多计算的组合数
+    @Value("${repay.sweep.max-cells:10000}")
+    private long maxCells;
+
+    /**
+     * 敏感性分析接口
+     * @param request 利率、年限、金额的取值范围
+     * @return 各组合的月供、总利息、还款总额
+     */
+    @PostMapping("/sweep")
+    @Operation(summary = "利率 × 年限敏感性分析", description = "按利率、年限、贷款金额的取值范围并行计算每个组合的等额本息/等额本金月供、总利息和还款总额")
+    public SweepResponse sweep(@Valid @RequestBody SweepRequest request) {
+        long cells = sweepService.cellCount(request);
+        if (cells > maxCells) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "组合数超过上限：" + cells + " > " + maxCells);
+        }
+        return sweepService.sweep(request);
+    }
+}
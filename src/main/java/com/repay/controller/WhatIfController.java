@@ -0,0 +1,45 @@
+package com.repay.controller;
+
+import com.repay.entity.CombinationLoanRequest;
+import com.repay.entity.CombinationLoanResponse;
+import com.repay.service.impl.WhatIfService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * 提前还款 what-if 计算 Controller
+ * 同一笔贷款反复调整提前还款时，只重新计算提前还款变化之后的月份
+ */
+@RestController
+@RequestMapping("/api/repay")
+@Tag(name = "提前还款 what-if 接口", description = "只调整提前还款时复用上一次结果，从变化所在年份继续计算")
+public class WhatIfController {
+
+    @Autowired
+    private WhatIfService whatIfService;
+
+    /**
+     * 提前还款 what-if 计算接口
+     * @param request 贷款参数（JSON 格式）
+     * @param method 还款方式：equalPrincipal / equalInterest
+     * @return 完整的还款计算结果（与 /equal-principal、/equal-interest 一致）
+     */
+    @PostMapping("/what-if")
+    @Operation(summary = "提前还款 what-if 计算", description = "贷款参数不变、只调整提前还款时，复用上一次结果中提前还款变化之前的月份，从变化所在年份继续计算")
+    public CombinationLoanResponse whatIf(@Valid @RequestBody CombinationLoanRequest request,
+                                          @RequestParam(defaultValue = "equalInterest") String method) {
+        if (!"equalPrincipal".equals(method) && !"equalInterest".equals(method)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "还款方式不正确：" + method);
+        }
+        return whatIfService.calculate(request, method);
+    }
+}
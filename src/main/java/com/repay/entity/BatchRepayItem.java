@@ -0,0 +1,26 @@
+package com.repay.entity;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+/**
+ * 批量还款计算的单个条目
+ */
+@Data
+@Schema(name = "BatchRepayItem", description = "批量还款计算条目")
+public class BatchRepayItem {
+    @Schema(description = "调用方自定义标识，原样返回", example = "quote-001")
+    private String id;
+
+    @Schema(description = "还款方式：equalPrincipal(等额本金)、equalInterest(等额本息)", example = "equalInterest")
+    @NotBlank(message = "还款方式不能为空")
+    private String method;
+
+    @Schema(description = "贷款参数")
+    @NotNull(message = "贷款参数不能为空")
+    @Valid
+    private CombinationLoanRequest request;
+}
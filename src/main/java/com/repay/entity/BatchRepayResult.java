@@ -0,0 +1,26 @@
+package com.repay.entity;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+/**
+ * 批量还款计算的单个结果（与请求条目顺序一致）
+ */
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Schema(name = "BatchRepayResult", description = "批量还款计算结果")
+public class BatchRepayResult {
+    @Schema(description = "条目序号（从0开始，与请求顺序一致）")
+    private Integer index;
+    @Schema(description = "调用方自定义标识")
+    private String id;
+    @Schema(description = "还款方式")
+    private String method;
+    @Schema(description = "是否计算成功")
+    private boolean success;
+    @Schema(description = "失败原因（仅失败时返回）")
+    private String error;
+    @Schema(description = "计算结果（仅成功时返回）")
+    private CombinationLoanResponse response;
+}
@@ -0,0 +1,26 @@
+package com.repay.entity;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+/**
+ * 计算结果缓存统计
+ */
+@Data
+@Schema(name = "CacheStatsResponse", description = "计算结果缓存统计（自启动或上次清空以来累计）")
+public class CacheStatsResponse {
+    @Schema(description = "是否启用缓存")
+    private boolean enabled;
+    @Schema(description = "当前缓存条数（近似值）")
+    private long size;
+    @Schema(description = "命中次数")
+    private long hitCount;
+    @Schema(description = "未命中次数")
+    private long missCount;
+    @Schema(description = "命中率（0~1）")
+    private double hitRate;
+    @Schema(description = "按容量淘汰的条数")
+    private long evictionCount;
+    @Schema(description = "未命中时计算结果的平均耗时（毫秒）")
+    private double averageLoadMillis;
+}
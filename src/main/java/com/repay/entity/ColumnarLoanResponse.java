@@ -0,0 +1,81 @@
+package com.repay.entity;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+/**
+ * 列式还款计划响应（紧凑格式）
+ * 每月明细按列存放为并行数组，金额为按 scale 放大的整数（实际金额 = 整数 / 10^scale，通常 scale=2 即「分」），
+ * 不再逐月重复字段名，也不为每个数值创建对象。
+ */
+@Data
+@Schema(name = "ColumnarLoanResponse", description = "列式还款计划（金额为放大 10^scale 倍的整数）")
+public class ColumnarLoanResponse {
+    @Schema(description = "金额小数位数：实际金额 = 整数 / 10^scale")
+    private Integer scale;
+    @Schema(description = "还款年限")
+    private Integer years;
+    @Schema(description = "总还款月数")
+    private Integer totalMonths;
+
+    @Schema(description = "合并后的每月明细（商贷+公积金）")
+    private ColumnarSchedule merged;
+    @Schema(description = "商贷每月明细")
+    private ColumnarSchedule business;
+    @Schema(description = "公积金贷每月明细")
+    private ColumnarSchedule fund;
+    @Schema(description = "商贷年度汇总")
+    private ColumnarYears businessYears;
+    @Schema(description = "公积金贷年度汇总")
+    private ColumnarYears fundYears;
+
+    // 总计信息
+    private BigDecimal businessTotalPrincipal;
+    private BigDecimal businessTotalInterest;
+    private BigDecimal businessTotalRepay;
+    private BigDecimal fundTotalPrincipal;
+    private BigDecimal fundTotalInterest;
+    private BigDecimal fundTotalRepay;
+    @Schema(description = "累计总还本金（元）")
+    private BigDecimal totalAllPrincipal;
+    @Schema(description = "累计总还利息（元）")
+    private BigDecimal totalAllInterest;
+    @Schema(description = "还款总金额（元）")
+    private BigDecimal totalAllRepay;
+
+    /**
+     * 列式每月明细：第 i 个元素对应第 month[i] 期
+     */
+    @Data
+    @Schema(name = "ColumnarSchedule", description = "列式每月明细")
+    public static class ColumnarSchedule {
+        @Schema(description = "期数")
+        private int[] month;
+        @Schema(description = "当月本金（含提前还款）")
+        private long[] principal;
+        @Schema(description = "当月利息")
+        private long[] interest;
+        @Schema(description = "当月还款额")
+        private long[] repay;
+        @Schema(description = "剩余本金")
+        private long[] remaining;
+    }
+
+    /**
+     * 列式年度汇总：第 i 个元素对应第 year[i] 年
+     */
+    @Data
+    @Schema(name = "ColumnarYears", description = "列式年度汇总")
+    public static class ColumnarYears {
+        @Schema(description = "年份")
+        private int[] year;
+        @Schema(description = "当年总还本金")
+        private long[] principal;
+        @Schema(description = "当年总还利息")
+        private long[] interest;
+        @Schema(description = "当年还款总额")
+        private long[] repay;
+    }
+}
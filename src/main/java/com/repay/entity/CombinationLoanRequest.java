@@ -5,6 +5,7 @@ import jakarta.validation.Valid;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
 import lombok.Data;
 
 import java.math.BigDecimal;
@@ -33,6 +34,10 @@ public class CombinationLoanRequest {
     @Min(value = 0, message = "商贷还款年限不能小于1")
     private Integer businessYears = 0;
 
+    @Schema(description = "商贷利率调整计划（浮动利率，第N个月起按新利率计息，等额本息在调整月按剩余本金、剩余月数重算月供）")
+    @Valid
+    private List<RateChange> businessRateChanges = List.of();
+
     // 公积金贷参数
     @Schema(description = "公积金贷总额（元）", example = "500000")
     @Min(value = 0, message = "公积金贷总额不能为负数")
@@ -46,6 +51,10 @@ public class CombinationLoanRequest {
     @Min(value = 0, message = "公积金贷还款年限不能小于1")
     private Integer fundYears = 0;
 
+    @Schema(description = "公积金贷利率调整计划（第N个月起按新利率计息）")
+    @Valid
+    private List<RateChange> fundRateChanges = List.of();
+
     // 公共参数
     @Schema(description = "保留本金（元）", example = "0")
     @Min(value = 0, message = "保留本金不能为负数")
@@ -61,4 +70,44 @@ public class CombinationLoanRequest {
     @Schema(description = "周期性还款列表")
     @Valid
     private List<PeriodRepay> periodicRepayList = List.of();
-}
\ No newline at end of file
+
+    // 分贷款提前还款
+    @Schema(description = "商贷专属提前还款列表（只用于商贷）")
+    @Valid
+    private List<Prepayment> businessPrepayments = List.of();
+
+    @Schema(description = "公积金贷专属提前还款列表（只用于公积金贷）")
+    @Valid
+    private List<Prepayment> fundPrepayments = List.of();
+
+    @Schema(description = "组合贷公共提前还款（prepayments、periodicRepayList）的分配方式："
+            + "businessFirst(先还商贷，未用完的部分留给公积金贷，默认)、business(只还商贷)、fund(只还公积金贷)、"
+            + "proportional(按贷款总额比例拆分)", example = "businessFirst")
+    @Pattern(regexp = "businessFirst|business|fund|proportional", message = "提前还款分配方式不正确")
+    private String prepayAllocation = "businessFirst";
+
+    /**
+     * 浅拷贝（各列表与原对象共享，修改列表时需替换为新列表）
+     * @return 参数相同的新请求
+     */
+    public CombinationLoanRequest copy() {
+        CombinationLoanRequest copy = new CombinationLoanRequest();
+        copy.setLoanType(loanType);
+        copy.setBusinessLoanTotal(businessLoanTotal);
+        copy.setBusinessAnnualRate(businessAnnualRate);
+        copy.setBusinessYears(businessYears);
+        copy.setBusinessRateChanges(businessRateChanges);
+        copy.setFundLoanTotal(fundLoanTotal);
+        copy.setFundAnnualRate(fundAnnualRate);
+        copy.setFundYears(fundYears);
+        copy.setFundRateChanges(fundRateChanges);
+        copy.setReservedPrincipal(reservedPrincipal);
+        copy.setPeriod(period);
+        copy.setPrepayments(prepayments);
+        copy.setPeriodicRepayList(periodicRepayList);
+        copy.setBusinessPrepayments(businessPrepayments);
+        copy.setFundPrepayments(fundPrepayments);
+        copy.setPrepayAllocation(prepayAllocation);
+        return copy;
+    }
+}
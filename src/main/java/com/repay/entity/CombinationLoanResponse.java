@@ -1,5 +1,8 @@
 package com.repay.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonView;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 
@@ -8,26 +11,27 @@ import java.util.List;
 
 /**
  * 组合贷款还款计算响应
+ * 商贷/公积金贷的每月明细、年度汇总及合并总计沿用父类字段
  */
 @Data
 @EqualsAndHashCode(callSuper = true)
+@JsonView(ScheduleView.Summary.class)
 public class CombinationLoanResponse extends EqualPrincipalRepayResponse {
-    // 商贷明细
-    private List<MonthlyDetail> businessMonthlyDetails;
-    private List<YearSummary> businessYearSummaries;
+    // 商贷总计
     private BigDecimal businessTotalPrincipal;
     private BigDecimal businessTotalInterest;
     private BigDecimal businessTotalRepay;
 
-    // 公积金贷明细
-    private List<MonthlyDetail> fundMonthlyDetails;
-    private List<YearSummary> fundYearSummaries;
+    // 公积金贷总计
     private BigDecimal fundTotalPrincipal;
     private BigDecimal fundTotalInterest;
     private BigDecimal fundTotalRepay;
 
-    // 合并后总计
-    private BigDecimal totalAllPrincipal;    // 总还本金（商+公）
-    private BigDecimal totalAllInterest;    // 总还利息（商+公）
-    private BigDecimal totalAllRepay;        // 总还款额（商+公）
-}
\ No newline at end of file
+    // 各条提前还款节省的利息（attribution=true 时计算，否则不输出）
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private List<PrepaymentSaving> prepaymentSavings;
+
+    // 计算时的视图级别（未生成的列表为 null，序列化时只输出该视图的字段）
+    @JsonIgnore
+    private ScheduleView view = ScheduleView.FULL;
+}
@@ -1,6 +1,7 @@
 package com.repay.entity;
 
 import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
 import lombok.Data;
 
@@ -36,6 +37,11 @@ public class EqualPrincipalRepayRequest {
 
     @Schema(description = "提前还款计划")
     Map<Integer, BigDecimal> prepayMoney = new HashMap<>();
+
+    @Schema(description = "利率调整计划（浮动利率，第N个月起按新利率计息）")
+    @Valid
+    private List<RateChange> rateChanges = List.of();
+
     @Data
     private static class PrincipalRepay{
         @NotNull(message = "贷款总额不能为空")
@@ -1,5 +1,6 @@
 package com.repay.entity;
 
+import com.fasterxml.jackson.annotation.JsonView;
 import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.Data;
 import lombok.experimental.Accessors;
@@ -9,9 +10,11 @@ import java.util.List;
 
 /**
  * 等额本金还款计算结果响应
+ * 未单独标注视图的字段属于 summary 视图（见 {@link ScheduleView}）
  */
 @Data
 @Schema(name = "EqualPrincipalRepayResponse", description = "等额本金还款计算结果（含提前还款）")
+@JsonView(ScheduleView.Summary.class)
 //@Accessors(chain = true)
 public class EqualPrincipalRepayResponse {
     // 基础参数
@@ -26,19 +29,25 @@ public class EqualPrincipalRepayResponse {
 
     // 每月明细
     @Schema(description = "每月还款明细列表")
+    @JsonView(ScheduleView.Monthly.class)
     private List<MonthlyDetail> monthlyDetails;
 
     // 年度汇总
     @Schema(description = "每年还款汇总列表")
+    @JsonView(ScheduleView.Yearly.class)
     private List<YearSummary> yearSummaries;
 
     @Schema(description = "每月公积金还款明细列表")
+    @JsonView(ScheduleView.Full.class)
     private List<MonthlyDetail> fundMonthlyDetails;
     @Schema(description = "每年公积金还款汇总列表")
+    @JsonView(ScheduleView.Yearly.class)
     private List<YearSummary> fundYearSummaries;
     @Schema(description = "每月商贷款还款明细列表")
+    @JsonView(ScheduleView.Full.class)
     private List<MonthlyDetail> businessMonthlyDetails;
     @Schema(description = "每年商贷款还款明细列表")
+    @JsonView(ScheduleView.Yearly.class)
     private List<YearSummary> businessYearSummaries;
     // 总计信息
     @Schema(description = "累计总还本金（元）")
@@ -53,6 +62,7 @@ public class EqualPrincipalRepayResponse {
      */
     @Data
     @Schema(name = "MonthlyDetail", description = "每月还款明细")
+    @JsonView(ScheduleView.Summary.class)
     public static class MonthlyDetail {
         @Schema(description = "期数（第N个月）")
         private Integer month;
@@ -71,6 +81,7 @@ public class EqualPrincipalRepayResponse {
      */
     @Data
     @Schema(name = "YearSummary", description = "每年还款汇总")
+    @JsonView(ScheduleView.Summary.class)
     public static class YearSummary {
         @Schema(description = "年份（第N年）")
         private Integer year;
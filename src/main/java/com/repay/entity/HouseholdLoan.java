@@ -0,0 +1,60 @@
+package com.repay.entity;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * 家庭贷款组合中的一笔贷款（房贷、车贷等，各自的还款方式和提前还款）
+ */
+@Data
+@Schema(name = "HouseholdLoan", description = "家庭贷款组合中的一笔贷款")
+public class HouseholdLoan {
+    @Schema(description = "贷款名称", example = "首套房商贷")
+    @NotBlank(message = "贷款名称不能为空")
+    private String name;
+
+    @Schema(description = "还款方式：equalPrincipal(等额本金)、equalInterest(等额本息)", example = "equalInterest")
+    @NotBlank(message = "还款方式不能为空")
+    @Pattern(regexp = "equalPrincipal|equalInterest", message = "还款方式不正确")
+    private String method;
+
+    @Schema(description = "贷款总额（元）", example = "1000000")
+    @NotNull(message = "贷款总额不能为空")
+    @DecimalMin(value = "0", inclusive = false, message = "贷款总额必须大于0")
+    private BigDecimal loanTotal;
+
+    @Schema(description = "年利率（%）", example = "3.85")
+    @NotNull(message = "年利率不能为空")
+    @DecimalMin(value = "0", message = "年利率不能为负数")
+    private BigDecimal annualRate;
+
+    @Schema(description = "还款年限", example = "30")
+    @NotNull(message = "还款年限不能为空")
+    @Min(value = 1, message = "还款年限不能小于1")
+    private Integer years;
+
+    @Schema(description = "保留本金（元）", example = "0")
+    @Min(value = 0, message = "保留本金不能为负数")
+    private BigDecimal reservedPrincipal = BigDecimal.ZERO;
+
+    @Schema(description = "利率调整计划（浮动利率，第N个月起按新利率计息）")
+    @Valid
+    private List<RateChange> rateChanges = List.of();
+
+    @Schema(description = "提前还款列表（只用于本笔贷款）")
+    @Valid
+    private List<Prepayment> prepayments = List.of();
+
+    @Schema(description = "周期性还款列表（只用于本笔贷款）")
+    @Valid
+    private List<PeriodRepay> periodicRepayList = List.of();
+}
@@ -0,0 +1,20 @@
+package com.repay.entity;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 家庭贷款组合请求参数（任意笔数的贷款，如两笔房贷 + 一笔车贷）
+ */
+@Data
+@Schema(name = "HouseholdLoanRequest", description = "家庭贷款组合还款计算请求参数")
+public class HouseholdLoanRequest {
+    @Schema(description = "各笔贷款（相互独立计算，提前还款只用于所在的贷款）")
+    @NotEmpty(message = "贷款列表不能为空")
+    @Valid
+    private List<HouseholdLoan> loans;
+}
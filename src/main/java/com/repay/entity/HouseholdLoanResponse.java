@@ -0,0 +1,58 @@
+package com.repay.entity;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * 家庭贷款组合还款结果
+ */
+@Data
+@Schema(name = "HouseholdLoanResponse", description = "家庭贷款组合还款结果（各笔明细 + 按月合并）")
+public class HouseholdLoanResponse {
+    @Schema(description = "各笔贷款结果（与请求顺序一致）")
+    private List<Leg> legs;
+
+    @Schema(description = "合并后的每月明细（当月各笔贷款之和）")
+    private List<EqualPrincipalRepayResponse.MonthlyDetail> monthlyDetails;
+    @Schema(description = "合并后的总还款月数（各笔贷款期限的最大值）")
+    private Integer totalMonths;
+    @Schema(description = "总还本金（元）")
+    private BigDecimal totalAllPrincipal;
+    @Schema(description = "总还利息（元）")
+    private BigDecimal totalAllInterest;
+    @Schema(description = "总还款额（元）")
+    private BigDecimal totalAllRepay;
+
+    /**
+     * 单笔贷款结果
+     */
+    @Data
+    @Schema(name = "HouseholdLeg", description = "单笔贷款还款结果")
+    public static class Leg {
+        @Schema(description = "贷款名称")
+        private String name;
+        @Schema(description = "还款方式")
+        private String method;
+        @Schema(description = "贷款总额（元）")
+        private BigDecimal loanTotal;
+        @Schema(description = "年利率（%）")
+        private BigDecimal annualRate;
+        @Schema(description = "还款年限")
+        private Integer years;
+        @Schema(description = "总还款月数")
+        private Integer totalMonths;
+        @Schema(description = "总还本金（元）")
+        private BigDecimal totalPrincipal;
+        @Schema(description = "总还利息（元）")
+        private BigDecimal totalInterest;
+        @Schema(description = "总还款额（元）")
+        private BigDecimal totalRepay;
+        @Schema(description = "每月还款明细")
+        private List<EqualPrincipalRepayResponse.MonthlyDetail> monthlyDetails;
+        @Schema(description = "每年还款汇总")
+        private List<EqualPrincipalRepayResponse.YearSummary> yearSummaries;
+    }
+}
@@ -0,0 +1,66 @@
+package com.repay.entity;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * 反向求解参数（最大可贷额、最短年限、结清月份）
+ * 各求解接口只使用其中一部分参数：最大可贷额需要月供预算和年限，最短年限需要月供预算和贷款总额，
+ * 结清月份需要贷款总额、年限和提前还款计划。
+ */
+@Data
+@Schema(name = "LoanSolverRequest", description = "反向求解参数")
+public class LoanSolverRequest {
+    @Schema(description = "还款方式：equalPrincipal(等额本金)、equalInterest(等额本息)", example = "equalInterest")
+    @NotBlank(message = "还款方式不能为空")
+    @Pattern(regexp = "equalPrincipal|equalInterest", message = "还款方式不正确")
+    private String method;
+
+    @Schema(description = "年利率（%）", example = "3.85")
+    @NotNull(message = "年利率不能为空")
+    @DecimalMin(value = "0", message = "年利率不能为负数")
+    private BigDecimal annualRate;
+
+    @Schema(description = "每月还款预算（元，最大可贷额、最短年限使用）", example = "8000")
+    @DecimalMin(value = "0", inclusive = false, message = "月供预算必须大于0")
+    private BigDecimal monthlyBudget;
+
+    @Schema(description = "贷款总额（元，最短年限、结清月份使用）", example = "1000000")
+    @DecimalMin(value = "0", inclusive = false, message = "贷款总额必须大于0")
+    private BigDecimal loanTotal;
+
+    @Schema(description = "还款年限（最大可贷额、结清月份使用）", example = "30")
+    @Min(value = 1, message = "还款年限不能小于1")
+    private Integer years;
+
+    @Schema(description = "最长年限（最短年限求解的搜索上限）", example = "30")
+    @Min(value = 1, message = "最长年限不能小于1")
+    @Max(value = 50, message = "最长年限不能大于50")
+    private Integer maxYears = 30;
+
+    @Schema(description = "保留本金（元，结清月份使用）", example = "0")
+    @Min(value = 0, message = "保留本金不能为负数")
+    private BigDecimal reservedPrincipal = BigDecimal.ZERO;
+
+    @Schema(description = "利率调整计划（浮动利率，第N个月起按新利率计息）")
+    @Valid
+    private List<RateChange> rateChanges = List.of();
+
+    @Schema(description = "提前还款列表（结清月份使用）")
+    @Valid
+    private List<Prepayment> prepayments = List.of();
+
+    @Schema(description = "周期性还款列表（结清月份使用）")
+    @Valid
+    private List<PeriodRepay> periodicRepayList = List.of();
+}
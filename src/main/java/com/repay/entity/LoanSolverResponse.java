@@ -0,0 +1,32 @@
+package com.repay.entity;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+/**
+ * 反向求解结果
+ */
+@Data
+@Schema(name = "LoanSolverResponse", description = "反向求解结果")
+public class LoanSolverResponse {
+    @Schema(description = "还款方式")
+    private String method;
+    @Schema(description = "贷款总额（元；最大可贷额求解时为结果）")
+    private BigDecimal loanTotal;
+    @Schema(description = "还款年限（最短年限求解时为结果）")
+    private Integer years;
+    @Schema(description = "最高月供（元，不含提前还款：等额本息为各期执行的月供，等额本金为首月及各重定价月的月供）")
+    private BigDecimal monthlyRepay;
+    @Schema(description = "结清月份（结清月份求解时返回）")
+    private Integer payoffMonth;
+    @Schema(description = "比合同期限提前的月数（结清月份求解时返回）")
+    private Integer monthsSaved;
+    @Schema(description = "结清前累计利息（元，结清月份求解时返回）")
+    private BigDecimal totalInterest;
+    @Schema(description = "求解方式：closed-form(闭式估算 + 逐分校验)、bisection(二分)、schedule(逐月计算至结清)")
+    private String solver;
+    @Schema(description = "校验/计算还款计划的次数")
+    private Integer evaluations;
+}
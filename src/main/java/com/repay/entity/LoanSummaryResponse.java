@@ -0,0 +1,78 @@
+package com.repay.entity;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * 分段闭式计算的贷款汇总响应
+ */
+@Data
+@Schema(name = "LoanSummaryResponse", description = "分段闭式计算的贷款汇总（按提前还款事件分段，不逐月遍历）")
+public class LoanSummaryResponse {
+    @Schema(description = "还款方式：equalPrincipal(等额本金)、equalInterest(等额本息)")
+    private String method;
+    @Schema(description = "商贷汇总")
+    private LegSummary business;
+    @Schema(description = "公积金贷汇总")
+    private LegSummary fund;
+
+    @Schema(description = "累计总还本金（元）")
+    private BigDecimal totalAllPrincipal;
+    @Schema(description = "累计总还利息（元）")
+    private BigDecimal totalAllInterest;
+    @Schema(description = "还款总金额（元）")
+    private BigDecimal totalAllRepay;
+
+    /**
+     * 单笔贷款汇总
+     */
+    @Data
+    @Schema(name = "LegSummary", description = "单笔贷款汇总")
+    public static class LegSummary {
+        @Schema(description = "贷款总额（元）")
+        private BigDecimal loanTotal;
+        @Schema(description = "贷款年利率（%）")
+        private BigDecimal annualRate;
+        @Schema(description = "总还款月数")
+        private Integer totalMonths;
+        @Schema(description = "还清（至保留本金）的月份")
+        private Integer payoffMonth;
+        @Schema(description = "累计总还本金（元）")
+        private BigDecimal totalAllPrincipal;
+        @Schema(description = "累计总还利息（元）")
+        private BigDecimal totalAllInterest;
+        @Schema(description = "还款总金额（元）")
+        private BigDecimal totalAllRepay;
+        @Schema(description = "分段明细")
+        private List<Segment> segments;
+        @Schema(description = "每月还款明细列表（仅 monthly=true 时返回）")
+        private List<EqualPrincipalRepayResponse.MonthlyDetail> monthlyDetails;
+    }
+
+    /**
+     * 两次提前还款事件之间的还款分段
+     */
+    @Data
+    @Schema(name = "Segment", description = "还款分段")
+    public static class Segment {
+        @Schema(description = "起始月份")
+        private Integer startMonth;
+        @Schema(description = "结束月份")
+        private Integer endMonth;
+        @Schema(description = "分段起始剩余本金（元）")
+        private BigDecimal startPrincipal;
+        @Schema(description = "分段内每月应还（等额本息为月供，等额本金为月还本金）")
+        private BigDecimal monthlyAmount;
+        @Schema(description = "分段内还本金（元，含提前还款）")
+        private BigDecimal principal;
+        @Schema(description = "分段内还利息（元）")
+        private BigDecimal interest;
+        @Schema(description = "分段结束时提前还款金额（元）")
+        private BigDecimal prepayAmount;
+        @Schema(description = "分段结束剩余本金（元）")
+        private BigDecimal endPrincipal;
+    }
+}
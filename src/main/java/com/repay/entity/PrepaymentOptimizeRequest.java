@@ -0,0 +1,54 @@
+package com.repay.entity;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+/**
+ * 提前还款分配优化请求参数
+ * 在 [earliestMonth, latestMonth] 内为商贷、公积金贷各选一个月份，把提前还款预算拆分到两笔贷款（按 amountStep 取值），使总利息最小。
+ * 贷款参数中已有的提前还款照常执行，优化的是在此基础上新增的一笔预算。
+ */
+@Data
+@Schema(name = "PrepaymentOptimizeRequest", description = "提前还款分配优化请求参数")
+public class PrepaymentOptimizeRequest {
+    @Schema(description = "贷款参数（已有的提前还款照常执行）")
+    @NotNull(message = "贷款参数不能为空")
+    @Valid
+    private CombinationLoanRequest loan;
+
+    @Schema(description = "还款方式：equalPrincipal(等额本金)、equalInterest(等额本息)", example = "equalInterest")
+    @NotBlank(message = "还款方式不能为空")
+    @Pattern(regexp = "equalPrincipal|equalInterest", message = "还款方式不正确")
+    private String method;
+
+    @Schema(description = "新增提前还款预算（元）", example = "200000")
+    @NotNull(message = "提前还款预算不能为空")
+    @DecimalMin(value = "0", inclusive = false, message = "提前还款预算必须大于0")
+    private BigDecimal budget;
+
+    @Schema(description = "最早可提前还款的月份", example = "1")
+    @Min(value = 1, message = "月份不能小于1")
+    private Integer earliestMonth = 1;
+
+    @Schema(description = "最晚可提前还款的月份（为空时等于最早月份）", example = "12")
+    @Min(value = 1, message = "月份不能小于1")
+    private Integer latestMonth;
+
+    @Schema(description = "候选月份步长", example = "1")
+    @NotNull(message = "月份步长不能为空")
+    @Min(value = 1, message = "月份步长不能小于1")
+    private Integer monthStep = 1;
+
+    @Schema(description = "拆分金额步长（元）", example = "10000")
+    @NotNull(message = "拆分金额步长不能为空")
+    @DecimalMin(value = "0", inclusive = false, message = "拆分金额步长必须大于0")
+    private BigDecimal amountStep = new BigDecimal("10000");
+}
@@ -0,0 +1,40 @@
+package com.repay.entity;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+/**
+ * 提前还款分配优化结果
+ */
+@Data
+@Schema(name = "PrepaymentOptimizeResponse", description = "提前还款分配优化结果")
+public class PrepaymentOptimizeResponse {
+    @Schema(description = "还款方式")
+    private String method;
+    @Schema(description = "新增提前还款预算（元）")
+    private BigDecimal budget;
+    @Schema(description = "商贷提前还款金额（元）")
+    private BigDecimal businessAmount;
+    @Schema(description = "商贷提前还款月份（金额为0时为空）")
+    private Integer businessMonth;
+    @Schema(description = "公积金贷提前还款金额（元）")
+    private BigDecimal fundAmount;
+    @Schema(description = "公积金贷提前还款月份（金额为0时为空）")
+    private Integer fundMonth;
+    @Schema(description = "不新增提前还款时的总利息（元）")
+    private BigDecimal baselineInterest;
+    @Schema(description = "按最优方案新增提前还款后的总利息（元）")
+    private BigDecimal optimizedInterest;
+    @Schema(description = "节省的利息（元）")
+    private BigDecimal interestSaved;
+    @Schema(description = "最优方案的完整请求参数（新增金额已加入商贷/公积金贷专属提前还款列表，可直接提交计算）")
+    private CombinationLoanRequest plan;
+    @Schema(description = "评估的候选（单笔贷款 × 月份 × 金额）数")
+    private Integer evaluations;
+    @Schema(description = "候选评估实际逐月计算的月数（从检查点继续计算）")
+    private Long computedMonths;
+    @Schema(description = "每个候选都从头计算时需要逐月计算的月数")
+    private Long fullRerunMonths;
+}
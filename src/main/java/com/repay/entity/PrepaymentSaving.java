@@ -0,0 +1,28 @@
+package com.repay.entity;
+
+import com.fasterxml.jackson.annotation.JsonView;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+/**
+ * 单条提前还款（或周期还款规则）节省的利息：去掉该条、其余不变时的总利息 − 实际总利息
+ */
+@Data
+@Schema(name = "PrepaymentSaving", description = "单条提前还款节省的利息")
+@JsonView(ScheduleView.Summary.class)
+public class PrepaymentSaving {
+    @Schema(description = "所在列表：prepayments、periodicRepayList、businessPrepayments、fundPrepayments", example = "prepayments")
+    private String source;
+    @Schema(description = "在列表中的下标（从0开始）", example = "0")
+    private Integer index;
+    @Schema(description = "提前还款月份（周期还款为开始月份）", example = "24")
+    private Integer month;
+    @Schema(description = "提前还款金额（元，周期还款为每期金额）", example = "100000")
+    private BigDecimal amount;
+    @Schema(description = "节省的利息（元）")
+    private BigDecimal interestSaved;
+    @Schema(description = "归因计算时逐月重算的月数（从该条生效月份前的检查点继续计算）")
+    private Integer recomputedMonths;
+}
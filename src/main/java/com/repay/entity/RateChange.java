@@ -0,0 +1,26 @@
+package com.repay.entity;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+/**
+ * 利率调整信息（浮动利率重定价，如每年1月按最新 LPR 调整）
+ */
+@Data
+@Schema(name = "RateChange", description = "利率调整信息")
+public class RateChange {
+    @Schema(description = "新利率开始执行的月份（第N个月）", example = "13", required = true)
+    @NotNull(message = "利率调整月份不能为空")
+    @Min(value = 1, message = "利率调整月份不能小于1")
+    private Integer month;
+
+    @Schema(description = "调整后的年利率（%）", example = "3.6", required = true)
+    @NotNull(message = "调整后的年利率不能为空")
+    @DecimalMin(value = "0", message = "年利率不能为负数")
+    private BigDecimal annualRate;
+}
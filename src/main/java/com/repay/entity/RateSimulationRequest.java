@@ -0,0 +1,73 @@
+package com.repay.entity;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * 浮动利率（LPR 挂钩）商贷蒙特卡洛模拟请求参数
+ * 年利率每满12个月重定价一次，按均值回归（Ornstein-Uhlenbeck）模型逐年生成：
+ * r(t+1) = θ + (r(t) - θ)·e^(-κ) + σ·√((1 - e^(-2κ)) / 2κ)·Z，Z 为标准正态分布，结果不低于 rateFloor。
+ */
+@Data
+@Schema(name = "RateSimulationRequest", description = "浮动利率商贷蒙特卡洛模拟请求参数")
+public class RateSimulationRequest {
+    @Schema(description = "贷款总额（元）", example = "1000000")
+    @NotNull(message = "贷款总额不能为空")
+    @DecimalMin(value = "0", inclusive = false, message = "贷款总额必须大于0")
+    @DecimalMax(value = "10000000000", message = "贷款总额不能超过100亿元")
+    private BigDecimal loanTotal;
+
+    @Schema(description = "首年年利率（%，LPR + 加点）", example = "3.85")
+    @NotNull(message = "首年年利率不能为空")
+    @DecimalMin(value = "0", message = "年利率不能为负数")
+    private BigDecimal annualRate;
+
+    @Schema(description = "还款年限", example = "30")
+    @NotNull(message = "还款年限不能为空")
+    @Min(value = 1, message = "还款年限不能小于1")
+    @Max(value = 100, message = "还款年限不能大于100")
+    private Integer years;
+
+    @Schema(description = "还款方式：equalPrincipal(等额本金)、equalInterest(等额本息)", example = "equalInterest")
+    @Pattern(regexp = "equalPrincipal|equalInterest", message = "还款方式不正确")
+    private String method = "equalInterest";
+
+    @Schema(description = "模拟路径数", example = "10000")
+    @NotNull(message = "模拟路径数不能为空")
+    @Min(value = 1, message = "模拟路径数不能小于1")
+    private Integer paths = 10000;
+
+    @Schema(description = "随机数种子（相同种子结果完全相同）", example = "20240901")
+    private Long seed = 20240901L;
+
+    @Schema(description = "长期均值利率 θ（%）", example = "3.85")
+    @DecimalMin(value = "0", message = "长期均值利率不能为负数")
+    private BigDecimal meanRate;
+
+    @Schema(description = "均值回归速度 κ（每年）", example = "0.3")
+    @DecimalMin(value = "0", message = "均值回归速度不能为负数")
+    @NotNull(message = "均值回归速度不能为空")
+    private BigDecimal reversionSpeed = new BigDecimal("0.3");
+
+    @Schema(description = "年化波动率 σ（%）", example = "0.4")
+    @DecimalMin(value = "0", message = "波动率不能为负数")
+    @NotNull(message = "波动率不能为空")
+    private BigDecimal volatility = new BigDecimal("0.4");
+
+    @Schema(description = "利率下限（%）", example = "0")
+    private BigDecimal rateFloor = BigDecimal.ZERO;
+
+    @Schema(description = "返回的分位数（%）", example = "[5, 25, 50, 75, 95]")
+    @NotEmpty(message = "分位数不能为空")
+    private List<Double> percentiles = List.of(5d, 25d, 50d, 75d, 95d);
+}
@@ -0,0 +1,43 @@
+package com.repay.entity;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * 浮动利率蒙特卡洛模拟结果：各分位数与 percentiles 一一对应
+ */
+@Data
+@Schema(name = "RateSimulationResponse", description = "浮动利率蒙特卡洛模拟结果")
+public class RateSimulationResponse {
+    @Schema(description = "还款方式")
+    private String method;
+    @Schema(description = "模拟路径数")
+    private Integer paths;
+    @Schema(description = "随机数种子")
+    private Long seed;
+    @Schema(description = "分位数（%）")
+    private List<Double> percentiles;
+    @Schema(description = "总利息分位数（元）")
+    private List<BigDecimal> totalInterest;
+    @Schema(description = "总利息均值（元）")
+    private BigDecimal totalInterestMean;
+    @Schema(description = "逐年分位数带")
+    private List<YearBand> years;
+
+    /**
+     * 单个重定价年度的分位数带
+     */
+    @Data
+    @Schema(name = "YearBand", description = "单个重定价年度的分位数带")
+    public static class YearBand {
+        @Schema(description = "第几年")
+        private Integer year;
+        @Schema(description = "当年年利率分位数（%）")
+        private List<BigDecimal> annualRate;
+        @Schema(description = "当年首月月供分位数（元）")
+        private List<BigDecimal> monthlyRepay;
+    }
+}
@@ -7,16 +7,19 @@ import java.math.BigDecimal;
 
 /**
  * 还款计算状态类（用于存储计算过程中的临时状态）
+ * 作为逐月计算的检查点：记录第 paidMonths 月计算完成后的状态，可从下一个月继续计算，结果与从头计算一致。
  */
 @Data
 @Schema(name = "RepayCalculationState", description = "还款计算状态")
 public class RepayCalculationState {
     // 剩余本金
     private BigDecimal remainingPrincipal;
-    // 当前每月应还本金
+    // 当前每月应还本金（最近一个月的正常还款本金，不含提前还款）
     private BigDecimal monthlyPrincipal;
+    // 当前月供（等额本息按剩余本金、剩余月数重算后的月供；等额本金为空）
+    private BigDecimal monthlyRepay;
     // 已还款总月数
     private Integer paidMonths;
     // 提前还款累计金额
     private BigDecimal totalPrepayAmount;
-}
\ No newline at end of file
+}
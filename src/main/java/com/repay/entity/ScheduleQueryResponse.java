@@ -0,0 +1,56 @@
+package com.repay.entity;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+/**
+ * 还款计划按月份/区间查询结果
+ */
+@Data
+@Schema(name = "ScheduleQueryResponse", description = "还款计划按月份/区间查询结果（不返回每月明细）")
+public class ScheduleQueryResponse {
+    @Schema(description = "还款方式：equalPrincipal(等额本金)、equalInterest(等额本息)")
+    private String method;
+    @Schema(description = "结果是否与每月明细逐分一致（false 表示闭式计算，可能相差若干分）")
+    private Boolean exact;
+    @Schema(description = "查询剩余本金的月份")
+    private Integer month;
+    @Schema(description = "区间起始月份（含）")
+    private Integer fromMonth;
+    @Schema(description = "区间结束月份（含）")
+    private Integer toMonth;
+
+    @Schema(description = "商贷查询结果")
+    private LegQuery business;
+    @Schema(description = "公积金贷查询结果")
+    private LegQuery fund;
+
+    @Schema(description = "第 month 月还款后的剩余本金合计（元）")
+    private BigDecimal remainingPrincipal;
+    @Schema(description = "区间内还本金合计（元，含提前还款）")
+    private BigDecimal rangePrincipal;
+    @Schema(description = "区间内还利息合计（元）")
+    private BigDecimal rangeInterest;
+    @Schema(description = "全部贷款还清（至保留本金）的月份")
+    private Integer payoffMonth;
+
+    /**
+     * 单笔贷款查询结果
+     */
+    @Data
+    @Schema(name = "LegQuery", description = "单笔贷款查询结果")
+    public static class LegQuery {
+        @Schema(description = "总还款月数")
+        private Integer totalMonths;
+        @Schema(description = "还清（至保留本金）的月份")
+        private Integer payoffMonth;
+        @Schema(description = "第 month 月还款后的剩余本金（元）")
+        private BigDecimal remainingPrincipal;
+        @Schema(description = "区间内还本金（元，含提前还款）")
+        private BigDecimal rangePrincipal;
+        @Schema(description = "区间内还利息（元）")
+        private BigDecimal rangeInterest;
+    }
+}
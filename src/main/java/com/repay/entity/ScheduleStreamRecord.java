@@ -0,0 +1,53 @@
+package com.repay.entity;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+/**
+ * 流式还款计划（NDJSON）的一行记录
+ * type=month：每月一行（合并、商贷、公积金明细）；
+ * type=year：每满12个月一行（商贷、公积金年度汇总）；
+ * type=total：最后一行，总计信息。
+ */
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Schema(name = "ScheduleStreamRecord", description = "流式还款计划记录（每行一个 JSON）")
+public class ScheduleStreamRecord {
+    @Schema(description = "记录类型：month / year / total")
+    private String type;
+    @Schema(description = "期数（type=month）")
+    private Integer month;
+    @Schema(description = "年份（type=year）")
+    private Integer year;
+
+    @Schema(description = "合并后的当月明细（商贷+公积金）")
+    private EqualPrincipalRepayResponse.MonthlyDetail merged;
+    @Schema(description = "商贷当月明细")
+    private EqualPrincipalRepayResponse.MonthlyDetail business;
+    @Schema(description = "公积金当月明细")
+    private EqualPrincipalRepayResponse.MonthlyDetail fund;
+
+    @Schema(description = "商贷年度汇总")
+    private EqualPrincipalRepayResponse.YearSummary businessYear;
+    @Schema(description = "公积金年度汇总")
+    private EqualPrincipalRepayResponse.YearSummary fundYear;
+
+    // 总计信息（type=total）
+    @Schema(description = "总还款月数")
+    private Integer totalMonths;
+    private BigDecimal businessTotalPrincipal;
+    private BigDecimal businessTotalInterest;
+    private BigDecimal businessTotalRepay;
+    private BigDecimal fundTotalPrincipal;
+    private BigDecimal fundTotalInterest;
+    private BigDecimal fundTotalRepay;
+    @Schema(description = "累计总还本金（元）")
+    private BigDecimal totalAllPrincipal;
+    @Schema(description = "累计总还利息（元）")
+    private BigDecimal totalAllInterest;
+    @Schema(description = "还款总金额（元）")
+    private BigDecimal totalAllRepay;
+}
@@ -0,0 +1,88 @@
+package com.repay.entity;
+
+import java.util.Locale;
+
+/**
+ * 还款结果视图级别（请求参数 view）
+ * 计算引擎只生成视图需要的列表，序列化时按 {@link #jsonView()} 只输出视图包含的字段。
+ * <ul>
+ *     <li>summary：只有总计（合并总计、商贷/公积金贷总计）</li>
+ *     <li>yearly：总计 + 商贷/公积金贷年度汇总，不生成每月明细</li>
+ *     <li>monthly：yearly + 合并后的每月明细（商贷/公积金贷各自的每月明细合并后丢弃）</li>
+ *     <li>full：全部字段（默认，与原接口一致）</li>
+ * </ul>
+ */
+public enum ScheduleView {
+    SUMMARY(Summary.class),
+    YEARLY(Yearly.class),
+    MONTHLY(Monthly.class),
+    FULL(Full.class);
+
+    /** 总计字段 */
+    public interface Summary {
+    }
+
+    /** 年度汇总字段 */
+    public interface Yearly extends Summary {
+    }
+
+    /** 合并后的每月明细 */
+    public interface Monthly extends Yearly {
+    }
+
+    /** 商贷/公积金贷各自的每月明细 */
+    public interface Full extends Monthly {
+    }
+
+    private final Class<?> jsonView;
+
+    ScheduleView(Class<?> jsonView) {
+        this.jsonView = jsonView;
+    }
+
+    /**
+     * @return Jackson 序列化视图（{@link com.fasterxml.jackson.annotation.JsonView}）
+     */
+    public Class<?> jsonView() {
+        return jsonView;
+    }
+
+    /**
+     * @return 是否需要年度汇总
+     */
+    public boolean yearly() {
+        return this != SUMMARY;
+    }
+
+    /**
+     * @return 是否需要合并后的每月明细（此时各笔贷款仍需逐月生成明细）
+     */
+    public boolean monthly() {
+        return this == MONTHLY || this == FULL;
+    }
+
+    /**
+     * @return 是否保留各笔贷款的每月明细
+     */
+    public boolean legMonthly() {
+        return this == FULL;
+    }
+
+    /**
+     * 解析视图参数（不区分大小写，为空时为 full）
+     * @param value summary / yearly / monthly / full
+     * @return 视图级别
+     * @throws IllegalArgumentException 不支持的视图
+     */
+    public static ScheduleView of(String value) {
+        if (value == null || value.isBlank()) {
+            return FULL;
+        }
+        for (ScheduleView view : values()) {
+            if (view.name().equals(value.trim().toUpperCase(Locale.ROOT))) {
+                return view;
+            }
+        }
+        throw new IllegalArgumentException("不支持的视图：" + value + "（summary/yearly/monthly/full）");
+    }
+}
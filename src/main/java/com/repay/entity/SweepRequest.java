@@ -0,0 +1,59 @@
+package com.repay.entity;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+/**
+ * 利率 × 年限 × 贷款金额敏感性分析请求参数（不含提前还款）
+ * 每个维度按 起始值、起始值+步长、… 取值直到不超过结束值；结束值为空时只取起始值。
+ */
+@Data
+@Schema(name = "SweepRequest", description = "利率 × 年限 × 贷款金额敏感性分析请求参数")
+public class SweepRequest {
+    @Schema(description = "年利率起始值（%）", example = "3.1")
+    @NotNull(message = "年利率起始值不能为空")
+    @DecimalMin(value = "0", inclusive = false, message = "年利率必须大于0")
+    private BigDecimal rateFrom;
+
+    @Schema(description = "年利率结束值（%）", example = "4.9")
+    private BigDecimal rateTo;
+
+    @Schema(description = "年利率步长（%）", example = "0.05")
+    @NotNull(message = "年利率步长不能为空")
+    @DecimalMin(value = "0", inclusive = false, message = "年利率步长必须大于0")
+    private BigDecimal rateStep = new BigDecimal("0.05");
+
+    @Schema(description = "还款年限起始值", example = "10")
+    @NotNull(message = "还款年限起始值不能为空")
+    @Min(value = 1, message = "还款年限不能小于1")
+    @Max(value = 100, message = "还款年限不能大于100")
+    private Integer yearsFrom;
+
+    @Schema(description = "还款年限结束值", example = "30")
+    @Max(value = 100, message = "还款年限不能大于100")
+    private Integer yearsTo;
+
+    @Schema(description = "还款年限步长", example = "1")
+    @NotNull(message = "还款年限步长不能为空")
+    @Min(value = 1, message = "还款年限步长不能小于1")
+    private Integer yearsStep = 1;
+
+    @Schema(description = "贷款金额起始值（元）", example = "1000000")
+    @NotNull(message = "贷款金额起始值不能为空")
+    @DecimalMin(value = "0", inclusive = false, message = "贷款金额必须大于0")
+    private BigDecimal amountFrom;
+
+    @Schema(description = "贷款金额结束值（元）", example = "1000000")
+    private BigDecimal amountTo;
+
+    @Schema(description = "贷款金额步长（元）", example = "100000")
+    @NotNull(message = "贷款金额步长不能为空")
+    @DecimalMin(value = "0", inclusive = false, message = "贷款金额步长必须大于0")
+    private BigDecimal amountStep = new BigDecimal("100000");
+}
@@ -0,0 +1,57 @@
+package com.repay.entity;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * 敏感性分析结果
+ * cells 按 利率、年限、金额 的顺序展开：第 i 个利率、第 j 个年限、第 k 个金额的结果下标为
+ * (i × years.size() + j) × amounts.size() + k。
+ */
+@Data
+@Schema(name = "SweepResponse", description = "利率 × 年限 × 贷款金额敏感性分析结果")
+public class SweepResponse {
+    @Schema(description = "年利率取值（%）")
+    private List<BigDecimal> rates;
+    @Schema(description = "还款年限取值")
+    private List<Integer> years;
+    @Schema(description = "贷款金额取值（元）")
+    private List<BigDecimal> amounts;
+    @Schema(description = "各组合的计算结果（按利率、年限、金额顺序展开）")
+    private List<SweepCell> cells;
+
+    /**
+     * 单个组合的计算结果
+     */
+    @Data
+    @Schema(name = "SweepCell", description = "单个利率/年限/金额组合的计算结果")
+    public static class SweepCell {
+        @Schema(description = "年利率（%）")
+        private BigDecimal annualRate;
+        @Schema(description = "还款年限")
+        private Integer years;
+        @Schema(description = "贷款金额（元）")
+        private BigDecimal loanTotal;
+        @Schema(description = "等额本息结果")
+        private MethodTotals equalInterest;
+        @Schema(description = "等额本金结果")
+        private MethodTotals equalPrincipal;
+    }
+
+    /**
+     * 单种还款方式的汇总
+     */
+    @Data
+    @Schema(name = "MethodTotals", description = "单种还款方式的汇总")
+    public static class MethodTotals {
+        @Schema(description = "首月月供（元，等额本金逐月递减）")
+        private BigDecimal monthlyRepay;
+        @Schema(description = "总利息（元）")
+        private BigDecimal totalInterest;
+        @Schema(description = "还款总金额（元）")
+        private BigDecimal totalRepay;
+    }
+}
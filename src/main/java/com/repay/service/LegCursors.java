@@ -0,0 +1,50 @@
+package com.repay.service;
+
+import com.repay.entity.CombinationLoanRequest;
+import com.repay.entity.EqualPrincipalRepayRequest;
+
+/**
+ * 商贷、公积金两笔贷款的还款计划游标（纯商贷/纯公积金时另一方为 null）
+ * 提前还款按 {@link RepayCalculator#allocatePrepayments} 分配；businessFirst 分配时公积金贷台账读取商贷台账的剩余，
+ * 必须按月同步推进：同一个月先推进商贷，再推进公积金贷，结果与 calculateCombination 一致。
+ *
+ * @param business 商贷游标
+ * @param fund 公积金贷游标
+ * @param years 还款年限（与 CombinationLoanResponse.years 规则一致，有公积金贷时取公积金年限）
+ */
+public record LegCursors(ScheduleCursor business, ScheduleCursor fund, Integer years) {
+
+    /**
+     * 按贷款类型创建游标
+     * @param repayCalculator 还款计算器
+     * @param request 贷款参数
+     * @param type 还款方式：equalPrincipal / equalInterest
+     * @return 两笔贷款的游标
+     */
+    public static LegCursors open(RepayCalculator repayCalculator, CombinationLoanRequest request, String type) {
+        LegPrepayments prepayments = repayCalculator.allocatePrepayments(request);
+        PrepaymentLedger businessLedger = prepayments.businessLedger();
+
+        ScheduleCursor business = null;
+        ScheduleCursor fund = null;
+        Integer years = null;
+        if ("single".equals(request.getLoanType()) || "combination".equals(request.getLoanType())) {
+            EqualPrincipalRepayRequest businessReq = repayCalculator.buildBusinessRequest(request);
+            business = repayCalculator.openSchedule(businessReq, businessLedger, type);
+            years = businessReq.getYears();
+        }
+        if ("fund".equals(request.getLoanType()) || "combination".equals(request.getLoanType())) {
+            EqualPrincipalRepayRequest fundReq = repayCalculator.buildFundRequest(request);
+            fund = repayCalculator.openSchedule(fundReq, prepayments.fundLedger(businessLedger), type);
+            years = fundReq.getYears();
+        }
+        return new LegCursors(business, fund, years);
+    }
+
+    /**
+     * @return 合并后的总还款月数（两笔贷款中较长者）
+     */
+    public int maxMonths() {
+        return Math.max(business == null ? 0 : business.getTotalMonths(), fund == null ? 0 : fund.getTotalMonths());
+    }
+}
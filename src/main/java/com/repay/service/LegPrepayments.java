@@ -0,0 +1,35 @@
+package com.repay.service;
+
+/**
+ * 组合贷款各笔贷款的提前还款分配（不可变，可在线程间共享）
+ * 计算时通过 businessLedger / fundLedger 取得各自的台账，分配结果本身不会被计算过程修改。
+ * <p>
+ * spill=true（businessFirst）时商贷按月消耗提前还款，未用完的金额（台账剩余）与公积金贷专属金额相加后作为公积金贷的提前还款，
+ * 因此两笔贷款必须按顺序（或按月同步、同月先商贷后公积金贷）计算；
+ * spill=false 时两笔贷款的台账相互独立，可以并行计算。
+ *
+ * @param business 商贷分配
+ * @param fund 公积金贷分配（spill=true 时只含公积金贷专属部分）
+ * @param spill 商贷未用完的金额是否留给公积金贷
+ */
+public record LegPrepayments(PrepaymentSource business, PrepaymentSource fund, boolean spill) {
+
+    /**
+     * @return 商贷计算用的台账
+     */
+    public PrepaymentLedger businessLedger() {
+        return PrepaymentLedger.of(business);
+    }
+
+    /**
+     * 公积金贷计算用的台账
+     * @param businessLedger 商贷台账（spill=false 时忽略，可为 null）
+     * @return spill=true 时为商贷台账剩余 + 公积金贷专属金额，否则为公积金贷分配
+     */
+    public PrepaymentLedger fundLedger(PrepaymentLedger businessLedger) {
+        if (!spill) {
+            return PrepaymentLedger.of(fund);
+        }
+        return PrepaymentLedger.of(PrepaymentSource.sum(businessLedger.residual(), fund));
+    }
+}
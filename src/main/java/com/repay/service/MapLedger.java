@@ -0,0 +1,67 @@
+package com.repay.service;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+/**
+ * 基于可修改映射的提前还款台账：take 即 remove，giveBack 即 put，与原有逐月计算修改 prepayMoney 的方式一致
+ */
+final class MapLedger implements PrepaymentLedger, PrepaymentSource {
+    private final Map<Integer, BigDecimal> prepayMoney;
+
+    MapLedger(Map<Integer, BigDecimal> prepayMoney) {
+        this.prepayMoney = prepayMoney;
+    }
+
+    @Override
+    public int nextMonth(int month) {
+        int next = NONE;
+        for (Integer key : prepayMoney.keySet()) {
+            if (key != null && key >= month && key < next) {
+                next = key;
+            }
+        }
+        return next;
+    }
+
+    @Override
+    public BigDecimal take(int month) {
+        return prepayMoney.remove(month);
+    }
+
+    @Override
+    public void giveBack(int month, BigDecimal amount) {
+        prepayMoney.put(month, amount);
+    }
+
+    @Override
+    public BigDecimal amountAt(int month) {
+        return prepayMoney.get(month);
+    }
+
+    @Override
+    public PrepaymentSource residual() {
+        return this;
+    }
+
+    @Override
+    public boolean fitsCents() {
+        for (BigDecimal amount : prepayMoney.values()) {
+            if (amount == null || !PrepaymentSchedule.isCents(amount)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public BigDecimal total() {
+        BigDecimal total = BigDecimal.ZERO;
+        for (BigDecimal amount : prepayMoney.values()) {
+            if (amount != null) {
+                total = total.add(amount.abs());
+            }
+        }
+        return total;
+    }
+}
@@ -0,0 +1,87 @@
+package com.repay.service;
+
+import com.repay.entity.EqualPrincipalRepayRequest;
+import com.repay.entity.EqualPrincipalRepayResponse;
+
+import java.math.BigDecimal;
+
+/**
+ * 逐月明细的前缀和索引：下标 i 为第 i 个月还款后的累计本金、累计利息、剩余本金（下标0为放款时）
+ * 与逐月明细逐分一致；游标提前结束（已结清）时，此后月份按结清时的状态返回。
+ */
+final class PrefixSumIndex implements ScheduleIndex {
+    private final int totalMonths;
+    private final int months;
+    private final BigDecimal[] principalPrefix;
+    private final BigDecimal[] interestPrefix;
+    private final BigDecimal[] remaining;
+    private final Integer payoffMonth;
+
+    private PrefixSumIndex(int totalMonths, int months, BigDecimal[] principalPrefix, BigDecimal[] interestPrefix,
+                           BigDecimal[] remaining, Integer payoffMonth) {
+        this.totalMonths = totalMonths;
+        this.months = months;
+        this.principalPrefix = principalPrefix;
+        this.interestPrefix = interestPrefix;
+        this.remaining = remaining;
+        this.payoffMonth = payoffMonth;
+    }
+
+    static PrefixSumIndex build(EqualPrincipalRepayRequest request, ScheduleCursor cursor) {
+        int totalMonths = cursor.getTotalMonths();
+        BigDecimal[] principalPrefix = new BigDecimal[totalMonths + 1];
+        BigDecimal[] interestPrefix = new BigDecimal[totalMonths + 1];
+        BigDecimal[] remaining = new BigDecimal[totalMonths + 1];
+        principalPrefix[0] = BigDecimal.ZERO;
+        interestPrefix[0] = BigDecimal.ZERO;
+        remaining[0] = request.getLoanTotal();
+        BigDecimal reserved = request.getReservedPrincipal() == null ? BigDecimal.ZERO : request.getReservedPrincipal();
+        Integer payoffMonth = null;
+        int month = 0;
+        while (cursor.hasNext() && month < totalMonths) {
+            EqualPrincipalRepayResponse.MonthlyDetail detail = cursor.next();
+            month++;
+            principalPrefix[month] = principalPrefix[month - 1].add(detail.getMonthlyPrincipal());
+            interestPrefix[month] = interestPrefix[month - 1].add(detail.getMonthlyInterest());
+            remaining[month] = detail.getRemainingPrincipal();
+            if (payoffMonth == null && remaining[month].compareTo(reserved) <= 0) {
+                payoffMonth = month;
+            }
+        }
+        return new PrefixSumIndex(totalMonths, month, principalPrefix, interestPrefix, remaining, payoffMonth);
+    }
+
+    @Override
+    public int getTotalMonths() {
+        return totalMonths;
+    }
+
+    @Override
+    public Integer payoffMonth() {
+        return payoffMonth;
+    }
+
+    @Override
+    public BigDecimal remainingAt(int month) {
+        return remaining[clamp(month)];
+    }
+
+    @Override
+    public BigDecimal principalBetween(int fromMonth, int toMonth) {
+        return principalPrefix[clamp(toMonth)].subtract(principalPrefix[clamp(fromMonth - 1)]);
+    }
+
+    @Override
+    public BigDecimal interestBetween(int fromMonth, int toMonth) {
+        return interestPrefix[clamp(toMonth)].subtract(interestPrefix[clamp(fromMonth - 1)]);
+    }
+
+    @Override
+    public boolean exact() {
+        return true;
+    }
+
+    private int clamp(int month) {
+        return Math.max(0, Math.min(month, months));
+    }
+}
@@ -0,0 +1,70 @@
+package com.repay.service;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+/**
+ * 单笔贷款计算过程中的提前还款台账（非线程安全，每次计算单独创建）
+ * 计算按月份递增调用 {@link #take}：取走当月提前还款；等额本金提前还款超过剩余本金时用 {@link #giveBack} 退回未用完的部分。
+ * 未取走的事件和退回的金额构成 {@link #residual()}，businessFirst 分配时作为公积金贷的提前还款。
+ */
+public interface PrepaymentLedger {
+
+    /**
+     * @param month 起始月份（含）
+     * @return month 及以后第一个尚未处理的提前还款月份，没有时返回 {@link PrepaymentSource#NONE}
+     */
+    int nextMonth(int month);
+
+    /**
+     * 取走第 month 月的提前还款（月份需递增）
+     * @param month 月份
+     * @return 提前还款金额，没有时返回 null
+     */
+    BigDecimal take(int month);
+
+    /**
+     * 退回第 month 月未用完的提前还款，留给后续贷款
+     * @param month 刚取走的月份
+     * @param amount 退回金额
+     */
+    void giveBack(int month, BigDecimal amount);
+
+    /**
+     * @return 未取走的事件与退回金额（实时视图）
+     */
+    PrepaymentSource residual();
+
+    /**
+     * @return 所有金额是否均为非负且不超过2位小数（可按分精确计算）
+     */
+    boolean fitsCents();
+
+    /**
+     * @return 所有金额绝对值之和（上界）
+     */
+    BigDecimal total();
+
+    /**
+     * 基于不可变提前还款计划创建台账
+     */
+    static PrepaymentLedger of(PrepaymentSource source) {
+        return new SourceLedger(source, Integer.MIN_VALUE);
+    }
+
+    /**
+     * 从检查点继续计算时创建台账：afterMonth 及以前的月份视为已处理（不取走也不计入剩余）
+     * @param source 提前还款计划
+     * @param afterMonth 检查点月份
+     */
+    static PrepaymentLedger of(PrepaymentSource source, int afterMonth) {
+        return new SourceLedger(source, afterMonth);
+    }
+
+    /**
+     * 基于「月份-金额」映射创建台账：取走/退回直接修改该映射（兼容原有 Map 入参的接口）
+     */
+    static PrepaymentLedger of(Map<Integer, BigDecimal> prepayMoney) {
+        return new MapLedger(prepayMoney);
+    }
+}
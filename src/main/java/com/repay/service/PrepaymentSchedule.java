@@ -0,0 +1,234 @@
+package com.repay.service;
+
+import com.repay.entity.PeriodRepay;
+import com.repay.entity.Prepayment;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static com.repay.constant.CONSTANT.ROUND_MODE;
+import static com.repay.constant.CONSTANT.SCALE;
+
+/**
+ * 不可变的提前还款计划（每个请求构建一次，可在线程间共享）
+ * 一次性提前还款保存为按月份升序的 int[] + 金额数组；周期还款保留为等差数列规则（起始月、结束月、周期、金额），
+ * 不逐月展开，占用内存只与提前还款条数和规则数有关、与贷款月数无关。
+ * <p>
+ * 查询时把一次性序列与各条规则的数列做 k 路归并：nextMonth 取各序列下一项的最小值，amountAt 累加同月各项金额。
+ * 金额规则与 getAllPrepayMoney + updatePayMoney 一致：一次性提前还款保留2位小数、同月以最后一条为准，
+ * 周期还款金额不舍入、在同月金额上累加。
+ */
+public final class PrepaymentSchedule implements PrepaymentSource {
+    private static final int[] NO_MONTHS = new int[0];
+    private static final BigDecimal[] NO_AMOUNTS = new BigDecimal[0];
+    private static final PrepaymentSchedule EMPTY = new PrepaymentSchedule(NO_MONTHS, NO_AMOUNTS,
+            NO_MONTHS, NO_MONTHS, NO_MONTHS, NO_AMOUNTS);
+
+    // 一次性提前还款：月份升序且不重复
+    private final int[] months;
+    private final BigDecimal[] amounts;
+    // 周期还款规则：第 i 条为 ruleStart[i], ruleStart[i]+ruleCycle[i], ... ≤ ruleEnd[i]（ruleEnd 已对齐到最后一期）
+    private final int[] ruleStart;
+    private final int[] ruleEnd;
+    private final int[] ruleCycle;
+    private final BigDecimal[] ruleAmount;
+    private final boolean fitsCents;
+    private final BigDecimal total;
+
+    private PrepaymentSchedule(int[] months, BigDecimal[] amounts,
+                               int[] ruleStart, int[] ruleEnd, int[] ruleCycle, BigDecimal[] ruleAmount) {
+        this.months = months;
+        this.amounts = amounts;
+        this.ruleStart = ruleStart;
+        this.ruleEnd = ruleEnd;
+        this.ruleCycle = ruleCycle;
+        this.ruleAmount = ruleAmount;
+        boolean cents = true;
+        BigDecimal sum = BigDecimal.ZERO;
+        for (BigDecimal amount : amounts) {
+            cents &= isCents(amount);
+            sum = sum.add(amount.abs());
+        }
+        for (int i = 0; i < ruleAmount.length; i++) {
+            cents &= isCents(ruleAmount[i]);
+            long count = ((long) ruleEnd[i] - ruleStart[i]) / ruleCycle[i] + 1;
+            sum = sum.add(ruleAmount[i].abs().multiply(BigDecimal.valueOf(count)));
+        }
+        this.fitsCents = cents;
+        this.total = sum;
+    }
+
+    /**
+     * @return 空计划
+     */
+    public static PrepaymentSchedule empty() {
+        return EMPTY;
+    }
+
+    /**
+     * 由提前还款列表和周期还款列表构建
+     * @param prepayments 一次性提前还款（可为空）
+     * @param periodRepayList 周期还款（可为空，不合法的规则跳过，与 updatePayMoney 一致）
+     * @return 提前还款计划
+     */
+    public static PrepaymentSchedule of(List<Prepayment> prepayments, List<PeriodRepay> periodRepayList) {
+        int size = 0;
+        int[] months = NO_MONTHS;
+        BigDecimal[] amounts = NO_AMOUNTS;
+        if (prepayments != null && !prepayments.isEmpty()) {
+            // 按月份稳定排序，同月保留最后一条（与 HashMap.put 覆盖一致）
+            List<Prepayment> sorted = new ArrayList<>(prepayments.size());
+            for (Prepayment prepayment : prepayments) {
+                if (prepayment.getMonth() != null) {
+                    sorted.add(prepayment);
+                }
+            }
+            sorted.sort((a, b) -> Integer.compare(a.getMonth(), b.getMonth()));
+            months = new int[sorted.size()];
+            amounts = new BigDecimal[sorted.size()];
+            for (Prepayment prepayment : sorted) {
+                BigDecimal amount = prepayment.getAmount().setScale(SCALE, ROUND_MODE);
+                if (size > 0 && months[size - 1] == prepayment.getMonth()) {
+                    amounts[size - 1] = amount;
+                } else {
+                    months[size] = prepayment.getMonth();
+                    amounts[size++] = amount;
+                }
+            }
+        }
+
+        int rules = 0;
+        int count = periodRepayList == null ? 0 : periodRepayList.size();
+        int[] ruleStart = new int[count];
+        int[] ruleEnd = new int[count];
+        int[] ruleCycle = new int[count];
+        BigDecimal[] ruleAmount = new BigDecimal[count];
+        for (int i = 0; i < count; i++) {
+            PeriodRepay periodRepay = periodRepayList.get(i);
+            if (periodRepay == null || periodRepay.getStartMonth() == null || periodRepay.getEndMonth() == null
+                    || periodRepay.getCycleMonths() == null || periodRepay.getAmount() == null
+                    || periodRepay.getCycleMonths() <= 0 || periodRepay.getStartMonth() > periodRepay.getEndMonth()) {
+                continue;
+            }
+            int start = periodRepay.getStartMonth();
+            int cycle = periodRepay.getCycleMonths();
+            ruleStart[rules] = start;
+            ruleEnd[rules] = (int) (start + ((long) periodRepay.getEndMonth() - start) / cycle * cycle);
+            ruleCycle[rules] = cycle;
+            ruleAmount[rules++] = periodRepay.getAmount();
+        }
+        if (size == 0 && rules == 0) {
+            return EMPTY;
+        }
+        return new PrepaymentSchedule(Arrays.copyOf(months, size), Arrays.copyOf(amounts, size),
+                Arrays.copyOf(ruleStart, rules), Arrays.copyOf(ruleEnd, rules), Arrays.copyOf(ruleCycle, rules),
+                Arrays.copyOf(ruleAmount, rules));
+    }
+
+    /**
+     * 两个计划按月相加（一次性部分同月金额相加，周期规则合并）
+     * @param other 另一个计划
+     * @return 新计划
+     */
+    public PrepaymentSchedule plus(PrepaymentSchedule other) {
+        if (other.isEmpty()) {
+            return this;
+        }
+        if (isEmpty()) {
+            return other;
+        }
+        int[] mergedMonths = new int[months.length + other.months.length];
+        BigDecimal[] mergedAmounts = new BigDecimal[mergedMonths.length];
+        int i = 0;
+        int j = 0;
+        int size = 0;
+        while (i < months.length || j < other.months.length) {
+            if (j == other.months.length || (i < months.length && months[i] < other.months[j])) {
+                mergedMonths[size] = months[i];
+                mergedAmounts[size++] = amounts[i++];
+            } else if (i == months.length || other.months[j] < months[i]) {
+                mergedMonths[size] = other.months[j];
+                mergedAmounts[size++] = other.amounts[j++];
+            } else {
+                mergedMonths[size] = months[i];
+                mergedAmounts[size++] = amounts[i++].add(other.amounts[j++]);
+            }
+        }
+        return new PrepaymentSchedule(Arrays.copyOf(mergedMonths, size), Arrays.copyOf(mergedAmounts, size),
+                concat(ruleStart, other.ruleStart), concat(ruleEnd, other.ruleEnd), concat(ruleCycle, other.ruleCycle),
+                concat(ruleAmount, other.ruleAmount));
+    }
+
+    /**
+     * @return 是否没有任何提前还款
+     */
+    public boolean isEmpty() {
+        return months.length == 0 && ruleAmount.length == 0;
+    }
+
+    @Override
+    public int nextMonth(int month) {
+        int next = NONE;
+        int index = Arrays.binarySearch(months, month);
+        if (index < 0) {
+            index = -index - 1;
+        }
+        if (index < months.length) {
+            next = months[index];
+        }
+        for (int i = 0; i < ruleStart.length; i++) {
+            if (month > ruleEnd[i]) {
+                continue;
+            }
+            long term = month <= ruleStart[i] ? ruleStart[i]
+                    : ruleStart[i] + ((long) month - ruleStart[i] + ruleCycle[i] - 1) / ruleCycle[i] * ruleCycle[i];
+            if (term <= ruleEnd[i] && term < next) {
+                next = (int) term;
+            }
+        }
+        return next;
+    }
+
+    @Override
+    public BigDecimal amountAt(int month) {
+        int index = Arrays.binarySearch(months, month);
+        BigDecimal amount = index >= 0 ? amounts[index] : null;
+        for (int i = 0; i < ruleStart.length; i++) {
+            if (month >= ruleStart[i] && month <= ruleEnd[i] && ((long) month - ruleStart[i]) % ruleCycle[i] == 0) {
+                amount = (amount == null ? BigDecimal.ZERO : amount).add(ruleAmount[i]);
+            }
+        }
+        return amount;
+    }
+
+    @Override
+    public boolean fitsCents() {
+        return fitsCents;
+    }
+
+    @Override
+    public BigDecimal total() {
+        return total;
+    }
+
+    /**
+     * 金额是否为非负且不超过2位小数
+     */
+    static boolean isCents(BigDecimal amount) {
+        return amount.signum() >= 0 && amount.stripTrailingZeros().scale() <= SCALE;
+    }
+
+    private static int[] concat(int[] a, int[] b) {
+        int[] result = Arrays.copyOf(a, a.length + b.length);
+        System.arraycopy(b, 0, result, a.length, b.length);
+        return result;
+    }
+
+    private static BigDecimal[] concat(BigDecimal[] a, BigDecimal[] b) {
+        BigDecimal[] result = Arrays.copyOf(a, a.length + b.length);
+        System.arraycopy(b, 0, result, a.length, b.length);
+        return result;
+    }
+}
@@ -0,0 +1,164 @@
+package com.repay.service;
+
+import java.math.BigDecimal;
+
+import static com.repay.constant.CONSTANT.ROUND_MODE;
+import static com.repay.constant.CONSTANT.SCALE;
+
+/**
+ * 提前还款事件源：按月份升序查询「月份-金额」，本身不可修改
+ * 具体实现为 {@link PrepaymentSchedule}；比例拆分、求和等组合均为惰性视图，查询时才按月计算，不展开成逐月映射。
+ */
+public interface PrepaymentSource {
+    // 没有后续事件时 nextMonth 的返回值
+    int NONE = Integer.MAX_VALUE;
+
+    /**
+     * @param month 起始月份（含）
+     * @return month 及以后第一个有提前还款的月份，没有时返回 {@link #NONE}
+     */
+    int nextMonth(int month);
+
+    /**
+     * @param month 月份
+     * @return 该月提前还款金额，没有时返回 null
+     */
+    BigDecimal amountAt(int month);
+
+    /**
+     * @return 所有金额是否均为非负且不超过2位小数（可按分精确计算）
+     */
+    boolean fitsCents();
+
+    /**
+     * @return 所有金额绝对值之和（上界）
+     */
+    BigDecimal total();
+
+    /**
+     * 两个事件源按月相加
+     */
+    static PrepaymentSource sum(PrepaymentSource left, PrepaymentSource right) {
+        if (left instanceof PrepaymentSchedule l && right instanceof PrepaymentSchedule r) {
+            return l.plus(r);
+        }
+        return new Sum(left, right);
+    }
+
+    /**
+     * 按比例拆分：每月金额 × numerator / denominator，保留2位小数（HALF_UP）；denominator 为0时全部归入该部分
+     */
+    static PrepaymentSource proportion(PrepaymentSource base, BigDecimal numerator, BigDecimal denominator) {
+        return new Proportion(base, numerator, denominator);
+    }
+
+    /**
+     * 按月相减：base 中扣除 part 后的剩余部分（月份以 base 为准）
+     */
+    static PrepaymentSource difference(PrepaymentSource base, PrepaymentSource part) {
+        return new Difference(base, part);
+    }
+
+    /**
+     * 两个事件源第一个金额不同的月份（增量重算的起点）
+     * @return 第一个不同的月份，完全相同时返回 {@link #NONE}
+     */
+    static int firstDifference(PrepaymentSource left, PrepaymentSource right) {
+        int month = Math.min(left.nextMonth(Integer.MIN_VALUE), right.nextMonth(Integer.MIN_VALUE));
+        while (month != NONE) {
+            BigDecimal l = left.amountAt(month);
+            BigDecimal r = right.amountAt(month);
+            if (l == null || r == null ? l != r : l.compareTo(r) != 0) {
+                return month;
+            }
+            month = Math.min(left.nextMonth(month + 1), right.nextMonth(month + 1));
+        }
+        return NONE;
+    }
+
+    /**
+     * 求和视图
+     */
+    record Sum(PrepaymentSource left, PrepaymentSource right) implements PrepaymentSource {
+        @Override
+        public int nextMonth(int month) {
+            return Math.min(left.nextMonth(month), right.nextMonth(month));
+        }
+
+        @Override
+        public BigDecimal amountAt(int month) {
+            BigDecimal l = left.amountAt(month);
+            BigDecimal r = right.amountAt(month);
+            if (l == null || r == null) {
+                return l == null ? r : l;
+            }
+            return l.add(r);
+        }
+
+        @Override
+        public boolean fitsCents() {
+            return left.fitsCents() && right.fitsCents();
+        }
+
+        @Override
+        public BigDecimal total() {
+            return left.total().add(right.total());
+        }
+    }
+
+    /**
+     * 比例拆分视图
+     */
+    record Proportion(PrepaymentSource base, BigDecimal numerator, BigDecimal denominator) implements PrepaymentSource {
+        @Override
+        public int nextMonth(int month) {
+            return base.nextMonth(month);
+        }
+
+        @Override
+        public BigDecimal amountAt(int month) {
+            BigDecimal amount = base.amountAt(month);
+            if (amount == null || denominator.signum() == 0) {
+                return amount;
+            }
+            return amount.multiply(numerator).divide(denominator, SCALE, ROUND_MODE);
+        }
+
+        @Override
+        public boolean fitsCents() {
+            return base.fitsCents() && numerator.signum() >= 0 && denominator.signum() >= 0;
+        }
+
+        @Override
+        public BigDecimal total() {
+            return base.total();
+        }
+    }
+
+    /**
+     * 相减视图
+     */
+    record Difference(PrepaymentSource base, PrepaymentSource part) implements PrepaymentSource {
+        @Override
+        public int nextMonth(int month) {
+            return base.nextMonth(month);
+        }
+
+        @Override
+        public BigDecimal amountAt(int month) {
+            BigDecimal amount = base.amountAt(month);
+            BigDecimal subtract = amount == null ? null : part.amountAt(month);
+            return subtract == null ? amount : amount.subtract(subtract);
+        }
+
+        @Override
+        public boolean fitsCents() {
+            return base.fitsCents() && part.fitsCents();
+        }
+
+        @Override
+        public BigDecimal total() {
+            return base.total();
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.repay.service;
+
+import com.repay.entity.EqualPrincipalRepayRequest;
+import com.repay.entity.RateChange;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * 不可变的利率调整计划（浮动利率重定价，每笔贷款构建一次，可在线程间共享）
+ * 调整按月份升序保存为 int[] + 年利率数组，第 month 月起按新利率计息；逐月计算只在调整月重新推导月利率和月供。
+ * <p>
+ * 规范化规则：第1个月及以前的调整视为初始利率；同月以最后一条为准；与当时执行利率相同的调整不算重定价（不重算月供）；
+ * 月份或利率为空的调整忽略。
+ */
+public final class RateSchedule {
+    private static final int[] NO_MONTHS = new int[0];
+    private static final BigDecimal[] NO_RATES = new BigDecimal[0];
+
+    // 初始年利率
+    private final BigDecimal initialRate;
+    // 调整月份（升序、大于1且不重复）及调整后的年利率
+    private final int[] months;
+    private final BigDecimal[] rates;
+
+    private RateSchedule(BigDecimal initialRate, int[] months, BigDecimal[] rates) {
+        this.initialRate = initialRate;
+        this.months = months;
+        this.rates = rates;
+    }
+
+    /**
+     * @param request 单笔贷款参数
+     * @return 该笔贷款的利率调整计划
+     */
+    public static RateSchedule of(EqualPrincipalRepayRequest request) {
+        return of(request.getAnnualRate(), request.getRateChanges());
+    }
+
+    /**
+     * @param annualRate 初始年利率（%）
+     * @param changes 利率调整列表（可为空）
+     * @return 利率调整计划
+     */
+    public static RateSchedule of(BigDecimal annualRate, List<RateChange> changes) {
+        if (changes == null || changes.isEmpty()) {
+            return new RateSchedule(annualRate, NO_MONTHS, NO_RATES);
+        }
+        List<RateChange> sorted = new ArrayList<>(changes.size());
+        for (RateChange change : changes) {
+            if (change != null && change.getMonth() != null && change.getAnnualRate() != null) {
+                sorted.add(change);
+            }
+        }
+        // 稳定排序：同月保持原顺序，以最后一条为准
+        sorted.sort(Comparator.comparingInt(change -> Math.max(change.getMonth(), 1)));
+        BigDecimal initial = annualRate;
+        int[] months = new int[sorted.size()];
+        BigDecimal[] rates = new BigDecimal[sorted.size()];
+        int size = 0;
+        for (int i = 0; i < sorted.size(); i++) {
+            int month = Math.max(sorted.get(i).getMonth(), 1);
+            if (i + 1 < sorted.size() && Math.max(sorted.get(i + 1).getMonth(), 1) == month) {
+                continue;
+            }
+            BigDecimal rate = sorted.get(i).getAnnualRate();
+            if (month == 1) {
+                initial = rate;
+                continue;
+            }
+            BigDecimal current = size == 0 ? initial : rates[size - 1];
+            if (current != null && current.compareTo(rate) == 0) {
+                continue;
+            }
+            months[size] = month;
+            rates[size] = rate;
+            size++;
+        }
+        return new RateSchedule(initial, Arrays.copyOf(months, size), Arrays.copyOf(rates, size));
+    }
+
+    /**
+     * @return 是否为固定利率（没有重定价）
+     */
+    public boolean isFixed() {
+        return months.length == 0;
+    }
+
+    /**
+     * @param month 月份（从1开始）
+     * @return 第 month 月执行的年利率
+     */
+    public BigDecimal rateAt(int month) {
+        int index = Arrays.binarySearch(months, month);
+        if (index < 0) {
+            index = -index - 2;
+        }
+        return index < 0 ? initialRate : rates[index];
+    }
+
+    /**
+     * @param month 月份（从1开始）
+     * @return 第 month 月是否开始执行新利率（需要重算月利率、月供）
+     */
+    public boolean changesAt(int month) {
+        return months.length > 0 && Arrays.binarySearch(months, month) >= 0;
+    }
+
+    /**
+     * @param month 月份（从1开始）
+     * @return month 之后（不含）第一个重定价月份，没有时返回 {@link PrepaymentSource#NONE}
+     */
+    public int nextChange(int month) {
+        int index = Arrays.binarySearch(months, month);
+        index = index < 0 ? -index - 1 : index + 1;
+        return index < months.length ? months[index] : PrepaymentSource.NONE;
+    }
+
+    /**
+     * @return 各期执行利率的最大值
+     */
+    public BigDecimal maxRate() {
+        BigDecimal max = initialRate;
+        for (BigDecimal rate : rates) {
+            max = max.max(rate);
+        }
+        return max;
+    }
+
+    /**
+     * @return 各期执行利率的最小值
+     */
+    public BigDecimal minRate() {
+        BigDecimal min = initialRate;
+        for (BigDecimal rate : rates) {
+            min = min.min(rate);
+        }
+        return min;
+    }
+
+    /**
+     * 规范化后的调整计划（用于请求指纹）：初始利率及各次重定价，年利率去除末尾0
+     */
+    public String canonical() {
+        StringBuilder sb = new StringBuilder().append(plain(initialRate));
+        for (int i = 0; i < months.length; i++) {
+            sb.append(';').append(months[i]).append('=').append(plain(rates[i]));
+        }
+        return sb.toString();
+    }
+
+    private static String plain(BigDecimal value) {
+        return value == null ? "null" : value.stripTrailingZeros().toPlainString();
+    }
+}
@@ -66,6 +66,16 @@ public interface RepayCalculator {
             BigDecimal annualRate,
             Integer years,
             BigDecimal reservedPrincipal);
+
+    /**
+     * 构建组合贷中的商贷请求参数（含商贷利率调整计划）
+     */
+    EqualPrincipalRepayRequest buildBusinessRequest(CombinationLoanRequest request);
+
+    /**
+     * 构建组合贷中的公积金贷请求参数（含公积金贷利率调整计划）
+     */
+    EqualPrincipalRepayRequest buildFundRequest(CombinationLoanRequest request);
     /**
      *
      * @param month 当前月份
@@ -102,4 +112,68 @@ public interface RepayCalculator {
      */
      EqualPrincipalRepayResponse calculateEqualInterestRepay(EqualPrincipalRepayRequest request,
                                                              Map<Integer, BigDecimal> prepayMoney);
-}
\ No newline at end of file
+
+    /**
+     * 打开逐月还款计划游标（按月计算，不生成完整列表）
+     * @param request 单笔贷款参数
+     * @param ledger 提前还款台账（与 calculatorPrincipal/calculateEqualInterestRepay 相同的处理规则）
+     * @param type 还款方式：equalPrincipal / equalInterest
+     * @return 还款计划游标
+     */
+    default ScheduleCursor openSchedule(EqualPrincipalRepayRequest request, PrepaymentLedger ledger, String type) {
+        return openSchedule(request, ledger, type, null);
+    }
+
+    /**
+     * 从检查点继续的逐月还款计划游标
+     * @param request 单笔贷款参数
+     * @param ledger 提前还款台账（只处理检查点之后的月份）
+     * @param type 还款方式：equalPrincipal / equalInterest
+     * @param checkpoint 同一笔贷款此前计算的检查点（{@link ScheduleCursor#checkpoint()}），为 null 时从第1个月开始
+     * @return 还款计划游标，第一条明细为检查点的下一个月
+     */
+    ScheduleCursor openSchedule(EqualPrincipalRepayRequest request, PrepaymentLedger ledger, String type,
+                                RepayCalculationState checkpoint);
+
+    /**
+     * 遍历游标，汇总每月明细、年度汇总和总计
+     * @param request 单笔贷款参数
+     * @param cursor 还款计划游标
+     * @return 单笔贷款还款结果
+     */
+    EqualPrincipalRepayResponse collect(EqualPrincipalRepayRequest request, ScheduleCursor cursor);
+
+    /**
+     * 合并商贷、公积金贷结果（纯商贷/纯公积金时另一方为 null）
+     * @param businessResponse 商贷结果
+     * @param fundResponse 公积金贷结果
+     * @return 组合贷款还款结果
+     */
+    CombinationLoanResponse combine(EqualPrincipalRepayResponse businessResponse, EqualPrincipalRepayResponse fundResponse);
+
+    /**
+     * 计算完整的组合贷款还款结果（商贷 + 公积金 + 合并明细）
+     * @param request 贷款参数
+     * @param type 还款方式：equalPrincipal / equalInterest
+     * @return 组合贷款还款结果
+     */
+    default CombinationLoanResponse calculateCombination(CombinationLoanRequest request, String type) {
+        return calculateCombination(request, type, ScheduleView.FULL);
+    }
+
+    /**
+     * 按视图级别计算组合贷款还款结果（只生成视图需要的每月明细、年度汇总）
+     * @param request 贷款参数
+     * @param type 还款方式：equalPrincipal / equalInterest
+     * @param view 视图级别
+     * @return 组合贷款还款结果（视图不包含的列表为 null）
+     */
+    CombinationLoanResponse calculateCombination(CombinationLoanRequest request, String type, ScheduleView view);
+
+    /**
+     * 按贷款类型和分配方式拆分提前还款（公共提前还款、周期还款、各贷款专属提前还款）
+     * @param request 贷款参数
+     * @return 各笔贷款的提前还款分配
+     */
+    LegPrepayments allocatePrepayments(CombinationLoanRequest request);
+}
@@ -0,0 +1,144 @@
+package com.repay.service;
+
+import com.repay.entity.CombinationLoanRequest;
+import com.repay.entity.PeriodRepay;
+import com.repay.entity.Prepayment;
+import com.repay.entity.ScheduleView;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+
+import static com.repay.constant.CONSTANT.ROUND_MODE;
+import static com.repay.constant.CONSTANT.SCALE;
+
+/**
+ * 贷款请求的规范化指纹（计算结果缓存的键）
+ * 计算结果相同的请求得到相同指纹：金额去除末尾0；利率调整按 {@link RateSchedule} 规则规范化；
+ * 提前还款按计算规则保留2位小数、按月份排序、同月只保留最后一条；
+ * 周期还款去掉不合法的规则、结束月对齐到最后一期后排序；只包含贷款类型实际用到的参数。
+ *
+ * @param type 还款方式
+ * @param canonical 规范化后的请求参数
+ */
+public record RequestFingerprint(String type, String canonical) {
+
+    /**
+     * 计算请求指纹
+     * @param request 贷款参数
+     * @param type 还款方式：equalPrincipal / equalInterest
+     * @return 指纹
+     */
+    public static RequestFingerprint of(CombinationLoanRequest request, String type) {
+        return fingerprint(request, type, true);
+    }
+
+    /**
+     * 计算不含提前还款的贷款指纹（贷款类型、金额、利率及利率调整、年限、分配方式、保留本金）
+     * 指纹相同的请求只有提前还款不同，可以复用提前还款变化之前的计算结果（见 WhatIfService）
+     * @param request 贷款参数
+     * @param type 还款方式：equalPrincipal / equalInterest
+     * @return 指纹
+     */
+    public static RequestFingerprint ofLoan(CombinationLoanRequest request, String type) {
+        return fingerprint(request, type, false);
+    }
+
+    /**
+     * 附加视图级别（同一请求不同视图的计算结果不同，分别缓存；full 视图指纹不变）
+     * @param view 视图级别
+     * @return 指纹
+     */
+    public RequestFingerprint withView(ScheduleView view) {
+        if (view == null || view == ScheduleView.FULL) {
+            return this;
+        }
+        return new RequestFingerprint(type, canonical + "|v:" + view.name().toLowerCase(Locale.ROOT));
+    }
+
+    private static RequestFingerprint fingerprint(CombinationLoanRequest request, String type, boolean withPrepayments) {
+        String loanType = request.getLoanType();
+        boolean business = "single".equals(loanType) || "combination".equals(loanType);
+        boolean fund = "fund".equals(loanType) || "combination".equals(loanType);
+        StringBuilder sb = new StringBuilder(128).append(loanType);
+        if (business) {
+            sb.append("|b:").append(plain(request.getBusinessLoanTotal())).append(',')
+                    .append(RateSchedule.of(request.getBusinessAnnualRate(), request.getBusinessRateChanges()).canonical())
+                    .append(',').append(request.getBusinessYears());
+            if (withPrepayments) {
+                appendPrepayments(sb.append("|bp:"), request.getBusinessPrepayments());
+            }
+        }
+        if (fund) {
+            sb.append("|f:").append(plain(request.getFundLoanTotal())).append(',')
+                    .append(RateSchedule.of(request.getFundAnnualRate(), request.getFundRateChanges()).canonical())
+                    .append(',').append(request.getFundYears());
+            if (withPrepayments) {
+                appendPrepayments(sb.append("|fp:"), request.getFundPrepayments());
+            }
+        }
+        if (business && fund) {
+            sb.append("|a:").append(request.getPrepayAllocation() == null ? "businessFirst" : request.getPrepayAllocation());
+        }
+        sb.append("|r:").append(plain(request.getReservedPrincipal()));
+        if (withPrepayments) {
+            appendPrepayments(sb.append("|p:"), request.getPrepayments());
+            appendPeriodRepays(sb.append("|c:"), request.getPeriodicRepayList());
+        }
+        return new RequestFingerprint(type, sb.toString());
+    }
+
+    /**
+     * 提前还款：与 PrepaymentSchedule 相同的规则（保留2位小数，同月以最后一条为准）
+     */
+    private static void appendPrepayments(StringBuilder sb, List<Prepayment> prepayments) {
+        if (prepayments == null) {
+            return;
+        }
+        List<Prepayment> sorted = new ArrayList<>(prepayments.size());
+        for (Prepayment prepayment : prepayments) {
+            if (prepayment != null && prepayment.getMonth() != null) {
+                sorted.add(prepayment);
+            }
+        }
+        sorted.sort(Comparator.comparingInt(Prepayment::getMonth));
+        for (int i = 0; i < sorted.size(); i++) {
+            Prepayment prepayment = sorted.get(i);
+            if (i + 1 < sorted.size() && sorted.get(i + 1).getMonth().equals(prepayment.getMonth())) {
+                continue;
+            }
+            BigDecimal amount = prepayment.getAmount() == null ? null : prepayment.getAmount().setScale(SCALE, ROUND_MODE);
+            sb.append(prepayment.getMonth()).append('=').append(plain(amount)).append(';');
+        }
+    }
+
+    /**
+     * 周期还款：与 PrepaymentSchedule 相同的合法性校验，结束月对齐到最后一期
+     */
+    private static void appendPeriodRepays(StringBuilder sb, List<PeriodRepay> periodRepayList) {
+        if (periodRepayList == null) {
+            return;
+        }
+        List<String> rules = new ArrayList<>(periodRepayList.size());
+        for (PeriodRepay periodRepay : periodRepayList) {
+            if (periodRepay == null || periodRepay.getStartMonth() == null || periodRepay.getEndMonth() == null
+                    || periodRepay.getCycleMonths() == null || periodRepay.getAmount() == null
+                    || periodRepay.getCycleMonths() <= 0 || periodRepay.getStartMonth() > periodRepay.getEndMonth()) {
+                continue;
+            }
+            int start = periodRepay.getStartMonth();
+            int cycle = periodRepay.getCycleMonths();
+            long end = start + ((long) periodRepay.getEndMonth() - start) / cycle * cycle;
+            // 只有一期时周期不影响结果
+            rules.add(start + "-" + end + "/" + (end == start ? 1 : cycle) + "=" + plain(periodRepay.getAmount()));
+        }
+        rules.sort(null);
+        rules.forEach(rule -> sb.append(rule).append(';'));
+    }
+
+    private static String plain(BigDecimal value) {
+        return value == null ? "null" : value.stripTrailingZeros().toPlainString();
+    }
+}
@@ -0,0 +1,38 @@
+package com.repay.service;
+
+import com.repay.entity.EqualPrincipalRepayResponse;
+import com.repay.entity.RepayCalculationState;
+
+import java.util.Iterator;
+
+/**
+ * 逐月还款计划游标
+ * 每调用一次 {@link #next()} 计算并返回下一个月的明细，计算状态保存在游标内，
+ * 便于多笔贷款按月同步推进（合并、流式输出），无需一次性生成完整列表。
+ */
+public interface ScheduleCursor extends Iterator<EqualPrincipalRepayResponse.MonthlyDetail> {
+
+    /**
+     * @return 总还款月数
+     */
+    int getTotalMonths();
+
+    /**
+     * @return 最近一次 next() 之后的计算状态（检查点），可传给 {@link RepayCalculator#openSchedule} 从下一个月继续计算
+     */
+    RepayCalculationState checkpoint();
+
+    /**
+     * @return 本游标实际逐月计算的月数（不含从检查点复用的月份，用于计算量统计）
+     */
+    default int computedMonths() {
+        return 0;
+    }
+
+    /**
+     * @return 本游标处理的提前还款次数（用于计算量统计）
+     */
+    default int prepaymentEvents() {
+        return 0;
+    }
+}
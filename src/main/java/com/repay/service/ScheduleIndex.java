@@ -0,0 +1,57 @@
+package com.repay.service;
+
+import com.repay.entity.EqualPrincipalRepayRequest;
+
+import java.math.BigDecimal;
+
+/**
+ * 单笔贷款还款计划的随机访问索引：按月份查询剩余本金，按区间查询已还本金/利息
+ * 月份超出范围时截断到 [0, 总月数]，第0个月表示放款时（剩余本金为贷款总额）。
+ */
+public interface ScheduleIndex {
+
+    /**
+     * @return 总还款月数
+     */
+    int getTotalMonths();
+
+    /**
+     * @return 还清（至保留本金）的月份，未还清时返回 null
+     */
+    Integer payoffMonth();
+
+    /**
+     * @param month 月份
+     * @return 第 month 月还款后的剩余本金
+     */
+    BigDecimal remainingAt(int month);
+
+    /**
+     * @param fromMonth 起始月份（含）
+     * @param toMonth 结束月份（含）
+     * @return 区间内还本金合计（含提前还款）
+     */
+    BigDecimal principalBetween(int fromMonth, int toMonth);
+
+    /**
+     * @param fromMonth 起始月份（含）
+     * @param toMonth 结束月份（含）
+     * @return 区间内还利息合计
+     */
+    BigDecimal interestBetween(int fromMonth, int toMonth);
+
+    /**
+     * @return 结果是否与逐月明细逐分一致（闭式计算不做逐月舍入，可能相差若干分）
+     */
+    boolean exact();
+
+    /**
+     * 遍历还款计划游标，建立前缀和索引（建立后每次查询 O(1)）
+     * @param request 单笔贷款参数
+     * @param cursor 还款计划游标
+     * @return 索引
+     */
+    static ScheduleIndex of(EqualPrincipalRepayRequest request, ScheduleCursor cursor) {
+        return PrefixSumIndex.build(request, cursor);
+    }
+}
@@ -0,0 +1,90 @@
+package com.repay.service;
+
+import com.repay.entity.EqualPrincipalRepayResponse;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * 多笔贷款还款计划按月合并（k 路归并）
+ * 各笔贷款的每月明细按月份递增，合并时每笔只顺序迭代一次，不按下标随机访问；某笔贷款当月没有明细（已还清）时按0计。
+ * 合并规则：当月本金、利息、剩余本金为各笔之和，月供 = 本金 + 利息。
+ * 当月只有一笔贷款有明细时直接沿用其金额，多笔时逐笔相加（不与0相加），金额及小数位数与逐项相加的结果完全一致。
+ */
+public final class ScheduleMerger {
+
+    private ScheduleMerger() {
+    }
+
+    /**
+     * 合并各笔贷款的每月明细
+     * @param legs 各笔贷款的每月明细（月份从1开始递增）
+     * @param totalMonths 合并后的月数（各笔贷款期限的最大值，超出各笔明细的月份按0计）
+     * @return 合并后的每月明细
+     */
+    public static List<EqualPrincipalRepayResponse.MonthlyDetail> merge(List<List<EqualPrincipalRepayResponse.MonthlyDetail>> legs,
+                                                                       int totalMonths) {
+        int size = legs.size();
+        List<Iterator<EqualPrincipalRepayResponse.MonthlyDetail>> iterators = new ArrayList<>(size);
+        EqualPrincipalRepayResponse.MonthlyDetail[] heads = new EqualPrincipalRepayResponse.MonthlyDetail[size];
+        for (int k = 0; k < size; k++) {
+            Iterator<EqualPrincipalRepayResponse.MonthlyDetail> iterator = legs.get(k).iterator();
+            iterators.add(iterator);
+            heads[k] = iterator.hasNext() ? iterator.next() : null;
+        }
+        List<EqualPrincipalRepayResponse.MonthlyDetail> merged = new ArrayList<>(totalMonths);
+        EqualPrincipalRepayResponse.MonthlyDetail[] rows = new EqualPrincipalRepayResponse.MonthlyDetail[size];
+        for (int month = 1; month <= totalMonths; month++) {
+            for (int k = 0; k < size; k++) {
+                EqualPrincipalRepayResponse.MonthlyDetail head = heads[k];
+                if (head != null && head.getMonth() == month) {
+                    rows[k] = head;
+                    heads[k] = iterators.get(k).hasNext() ? iterators.get(k).next() : null;
+                } else {
+                    rows[k] = null;
+                }
+            }
+            merged.add(mergeMonth(month, rows));
+        }
+        return merged;
+    }
+
+    /**
+     * 合并同一个月的各笔明细
+     * @param month 月份
+     * @param rows 各笔贷款当月明细（null 表示该笔贷款当月没有明细）
+     * @return 合并后的当月明细
+     */
+    public static EqualPrincipalRepayResponse.MonthlyDetail mergeMonth(int month, EqualPrincipalRepayResponse.MonthlyDetail... rows) {
+        BigDecimal principal = BigDecimal.ZERO;
+        BigDecimal interest = BigDecimal.ZERO;
+        BigDecimal remaining = BigDecimal.ZERO;
+        BigDecimal repay = null;
+        int count = 0;
+        for (EqualPrincipalRepayResponse.MonthlyDetail row : rows) {
+            if (row == null) {
+                continue;
+            }
+            if (count == 0) {
+                principal = row.getMonthlyPrincipal();
+                interest = row.getMonthlyInterest();
+                remaining = row.getRemainingPrincipal();
+                repay = row.getMonthlyRepay();
+            } else {
+                principal = principal.add(row.getMonthlyPrincipal());
+                interest = interest.add(row.getMonthlyInterest());
+                remaining = remaining.add(row.getRemainingPrincipal());
+            }
+            count++;
+        }
+        EqualPrincipalRepayResponse.MonthlyDetail detail = new EqualPrincipalRepayResponse.MonthlyDetail();
+        detail.setMonth(month);
+        detail.setMonthlyPrincipal(principal);
+        detail.setMonthlyInterest(interest);
+        detail.setMonthlyRepay(count == 1 && repay != null ? repay : principal.add(interest));
+        detail.setRemainingPrincipal(remaining);
+        return detail;
+    }
+}
@@ -0,0 +1,129 @@
+package com.repay.service;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+
+/**
+ * 基于提前还款事件源的台账：事件源本身不修改，只记录已处理到的月份；
+ * 处理过程中跳过的事件和退回的金额按月份升序记录在数组中，数量与事件数相关、与贷款月数无关。
+ */
+final class SourceLedger implements PrepaymentLedger {
+    private final PrepaymentSource source;
+    // 已处理到的月份（该月及以前的事件均已取走或记入剩余）
+    private int advanced;
+    // 下一个待处理的事件月份（首次 take 时再查询：businessFirst 按月同步计算时事件源依赖商贷进度）
+    private int pending;
+    private boolean started;
+    // 剩余事件：月份升序
+    private int[] residualMonths = new int[4];
+    private BigDecimal[] residualAmounts = new BigDecimal[4];
+    private int residualSize;
+
+    SourceLedger(PrepaymentSource source, int afterMonth) {
+        this.source = source;
+        this.advanced = afterMonth;
+    }
+
+    @Override
+    public int nextMonth(int month) {
+        if (advanced == PrepaymentSource.NONE) {
+            return PrepaymentSource.NONE;
+        }
+        return source.nextMonth(Math.max(month, advanced + 1));
+    }
+
+    @Override
+    public BigDecimal take(int month) {
+        if (month <= advanced) {
+            return null;
+        }
+        if (!started) {
+            pending = source.nextMonth(advanced + 1);
+            started = true;
+        }
+        // 跳过的事件留给后续贷款
+        while (pending < month) {
+            BigDecimal amount = source.amountAt(pending);
+            if (amount != null) {
+                record(pending, amount);
+            }
+            pending = source.nextMonth(pending + 1);
+        }
+        advanced = month;
+        if (pending != month) {
+            return null;
+        }
+        pending = month == PrepaymentSource.NONE ? PrepaymentSource.NONE : source.nextMonth(month + 1);
+        return source.amountAt(month);
+    }
+
+    @Override
+    public void giveBack(int month, BigDecimal amount) {
+        record(month, amount);
+    }
+
+    @Override
+    public PrepaymentSource residual() {
+        return new Residual();
+    }
+
+    @Override
+    public boolean fitsCents() {
+        return source.fitsCents();
+    }
+
+    @Override
+    public BigDecimal total() {
+        return source.total();
+    }
+
+    private void record(int month, BigDecimal amount) {
+        if (residualSize == residualMonths.length) {
+            residualMonths = Arrays.copyOf(residualMonths, residualSize * 2);
+            residualAmounts = Arrays.copyOf(residualAmounts, residualSize * 2);
+        }
+        residualMonths[residualSize] = month;
+        residualAmounts[residualSize++] = amount;
+    }
+
+    /**
+     * 剩余事件视图：已处理月份取记录的剩余金额，未处理月份取原事件源
+     * 退回金额为提前还款减剩余本金，小数位数不超过原金额；保留本金大于0时可能为负数（与原逐月计算一致）。
+     */
+    private class Residual implements PrepaymentSource {
+        @Override
+        public int nextMonth(int month) {
+            int next = PrepaymentSource.NONE;
+            int index = Arrays.binarySearch(residualMonths, 0, residualSize, month);
+            if (index < 0) {
+                index = -index - 1;
+            }
+            if (index < residualSize) {
+                next = residualMonths[index];
+            }
+            if (advanced != PrepaymentSource.NONE) {
+                next = Math.min(next, source.nextMonth(Math.max(month, advanced + 1)));
+            }
+            return next;
+        }
+
+        @Override
+        public BigDecimal amountAt(int month) {
+            if (month > advanced) {
+                return source.amountAt(month);
+            }
+            int index = Arrays.binarySearch(residualMonths, 0, residualSize, month);
+            return index >= 0 ? residualAmounts[index] : null;
+        }
+
+        @Override
+        public boolean fitsCents() {
+            return source.fitsCents();
+        }
+
+        @Override
+        public BigDecimal total() {
+            return source.total();
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package com.repay.service.impl;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import static com.repay.constant.CONSTANT.ROUND_MODE;
+import static com.repay.constant.CONSTANT.SCALE;
+
+/**
+ * 年金系数服务（等额本息月供）
+ * 年金系数 f = r×(1+r)^n / ((1+r)^n - 1)，月供 = 本金 × f。
+ * <p>
+ * 精度说明：系数在 40 位有效数字（{@link #WORK}）下计算，(1+r)^n 的相对误差不超过 1e-38；
+ * 分母 (1+r)^n - 1 的相消放大倍数不超过 1 + 1/(n×r)，月利率不低于 1e-8 时最多放大 1e8 倍，
+ * 因此系数相对误差上界取 {@link #FACTOR_RELATIVE_ERROR}（1e-28，已留足余量）。
+ * 月供舍入到分之前，若近似值与 HALF_UP 的半分边界距离不超过误差上界，则改用无限精度公式重算，
+ * 保证结果与原 BigDecimal.pow 实现逐分一致。
+ * <p>
+ * 系数按（月利率, 剩余月数）缓存，线程安全；条目数超过上限时整体清空。BigDecimal 和定点数两种计算引擎的月供都经过此缓存。
+ * 系数与贷款金额无关，启动时按 repay.annuity-factor.warm-rates × warm-years 预热常用 LPR/公积金利率和期限（预热不计入命中统计）；
+ * 查询次数按命中/未命中以 repay.annuity.factor.lookups 指标（tag result）输出。
+ * <p>
+ * 逐月明细不能由「每1元本金的还款计划 × 贷款金额」缩放得到：每月利息按上月舍入后的剩余本金计算，舍入误差逐月累积，
+ * 因此只缓存与金额无关的系数，逐月递推照常执行。
+ */
+@Service
+public class AnnuityFactorService implements MeterBinder {
+    // 计算精度：40位有效数字
+    public static final MathContext WORK = new MathContext(40, RoundingMode.HALF_EVEN);
+    // 年金系数相对误差上界
+    public static final BigDecimal FACTOR_RELATIVE_ERROR = new BigDecimal("1e-28");
+    // 缓存条目上限（常见利率几十个 × 最多360个月）
+    private static final int MAX_ENTRIES = 1 << 16;
+    private static final BigDecimal HALF_CENT = new BigDecimal("0.005");
+
+    private final Map<FactorKey, BigDecimal> factorCache = new ConcurrentHashMap<>();
+    private final Map<FactorKey, BigDecimal> compoundCache = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public AnnuityFactorService() {
+    }
+
+    /**
+     * @param warmRates 预热的年利率（%）
+     * @param warmYears 预热的贷款年限
+     */
+    @Autowired
+    public AnnuityFactorService(@Value("${repay.annuity-factor.warm-rates:}") List<BigDecimal> warmRates,
+                                @Value("${repay.annuity-factor.warm-years:}") List<Integer> warmYears) {
+        for (BigDecimal rate : warmRates) {
+            BigDecimal monthRate = EqualPrincipalCalculatorImpl.monthRate(rate);
+            if (monthRate.signum() <= 0) {
+                continue;
+            }
+            for (Integer years : warmYears) {
+                FactorKey key = new FactorKey(monthRate.stripTrailingZeros(), years * 12);
+                factorCache.computeIfAbsent(key, k -> computeFactor(k.monthRate(), k.months()));
+            }
+        }
+    }
+
+    /**
+     * 获取年金系数（带缓存）
+     * @param monthRate 月利率（小数，如 0.00408333）
+     * @param months 还款月数
+     * @return 年金系数，40位有效数字
+     */
+    public BigDecimal factor(BigDecimal monthRate, int months) {
+        FactorKey key = new FactorKey(monthRate.stripTrailingZeros(), months);
+        BigDecimal factor = factorCache.get(key);
+        if (factor != null) {
+            hits.increment();
+        } else {
+            misses.increment();
+            factor = computeFactor(key.monthRate(), months);
+            if (factorCache.size() >= MAX_ENTRIES) {
+                factorCache.clear();
+            }
+            factorCache.put(key, factor);
+        }
+        return factor;
+    }
+
+    /**
+     * 获取复利系数 (1+r)^n（带缓存）
+     * @param monthRate 月利率（小数）
+     * @param months 月数
+     * @return 复利系数，40位有效数字，相对误差不超过 1e-38
+     */
+    public BigDecimal compound(BigDecimal monthRate, int months) {
+        FactorKey key = new FactorKey(monthRate.stripTrailingZeros(), months);
+        BigDecimal compound = compoundCache.get(key);
+        if (compound == null) {
+            compound = BigDecimal.ONE.add(key.monthRate()).pow(months, WORK);
+            if (compoundCache.size() >= MAX_ENTRIES) {
+                compoundCache.clear();
+            }
+            compoundCache.put(key, compound);
+        }
+        return compound;
+    }
+
+    /**
+     * 等额本息月供：本金×月利率×(1+月利率)^n / ((1+月利率)^n - 1)，保留2位小数（HALF_UP）
+     * @param principal 本金（元）
+     * @param monthRate 月利率（小数）
+     * @param months 还款月数
+     * @return 月供（元），与无限精度计算结果逐分一致
+     */
+    public BigDecimal payment(BigDecimal principal, BigDecimal monthRate, int months) {
+        BigDecimal approx = principal.multiply(factor(monthRate, months), WORK);
+        BigDecimal rounded = approx.setScale(SCALE, ROUND_MODE);
+        // 离舍入边界（rounded ± 0.005）过近时，用无限精度公式重算
+        BigDecimal tolerance = approx.abs().multiply(FACTOR_RELATIVE_ERROR, WORK);
+        BigDecimal boundary = approx.compareTo(rounded) >= 0 ? rounded.add(HALF_CENT) : rounded.subtract(HALF_CENT);
+        if (approx.subtract(boundary).abs().compareTo(tolerance) <= 0) {
+            return exactPayment(principal, monthRate, months);
+        }
+        return rounded;
+    }
+
+    /**
+     * 等额本息月供（分）
+     * @param principalCents 本金（分）
+     * @param monthRate 月利率（小数）
+     * @param months 还款月数
+     * @return 月供（分）
+     */
+    public long paymentCents(long principalCents, BigDecimal monthRate, int months) {
+        return payment(BigDecimal.valueOf(principalCents, SCALE), monthRate, months).unscaledValue().longValueExact();
+    }
+
+    /**
+     * 当前缓存的系数个数
+     */
+    public int cachedFactors() {
+        return factorCache.size();
+    }
+
+    /**
+     * @return 系数缓存命中次数
+     */
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * @return 系数缓存未命中次数
+     */
+    public long missCount() {
+        return misses.sum();
+    }
+
+    /**
+     * @return 系数缓存命中率（0~1，没有查询时为 1）
+     */
+    public double hitRate() {
+        long hit = hits.sum();
+        long total = hit + misses.sum();
+        return total == 0 ? 1d : (double) hit / total;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("repay.annuity.factor.lookups", hits, LongAdder::sum)
+                .description("年金系数缓存查询次数")
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("repay.annuity.factor.lookups", misses, LongAdder::sum)
+                .description("年金系数缓存查询次数")
+                .tag("result", "miss")
+                .register(registry);
+        Gauge.builder("repay.annuity.factor.size", factorCache, Map::size)
+                .description("年金系数缓存条目数")
+                .register(registry);
+    }
+
+    /**
+     * 有界精度计算年金系数
+     */
+    private BigDecimal computeFactor(BigDecimal monthRate, int months) {
+        BigDecimal powRate = BigDecimal.ONE.add(monthRate).pow(months, WORK);
+        return monthRate.multiply(powRate, WORK).divide(powRate.subtract(BigDecimal.ONE), WORK);
+    }
+
+    /**
+     * 无限精度计算月供（原实现公式，仅在临界舍入时使用）
+     */
+    private BigDecimal exactPayment(BigDecimal principal, BigDecimal monthRate, int months) {
+        BigDecimal powRate = BigDecimal.ONE.add(monthRate).pow(months);
+        BigDecimal numerator = principal.multiply(monthRate).multiply(powRate);
+        BigDecimal denominator = powRate.subtract(BigDecimal.ONE);
+        return numerator.divide(denominator, SCALE, ROUND_MODE);
+    }
+
+    /**
+     * 缓存键：月利率（去除末尾0）+ 月数
+     */
+    private record FactorKey(BigDecimal monthRate, int months) {
+    }
+}
@@ -0,0 +1,181 @@
+package com.repay.service.impl;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.repay.entity.BatchRepayItem;
+import com.repay.entity.BatchRepayResult;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.stream.Collectors;
+
+/**
+ * 批量还款计算
+ * 各条目在有界线程池上并行计算，结果按请求顺序返回；单个条目参数错误或计算异常只记录在该条目上，不影响其他条目。
+ */
+@Slf4j
+@Service
+public class BatchRepayService {
+
+    @Autowired
+    private RepayResultCache repayResultCache;
+
+    @Qualifier("repayBatchExecutor")
+    @Autowired
+    private ThreadPoolExecutor repayBatchExecutor;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * 逐个解析 JSON 数组中的条目，超过上限时立即停止读取，不把超限的请求体整体反序列化
+     * @param in 请求体（BatchRepayItem 数组）
+     * @param maxItems 最大条目数
+     * @return 计算条目
+     */
+    public List<BatchRepayItem> readItems(InputStream in, int maxItems) throws IOException {
+        List<BatchRepayItem> items = new ArrayList<>();
+        try (JsonParser parser = objectMapper.createParser(in)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IllegalArgumentException("请求体应为条目数组");
+            }
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                if (items.size() >= maxItems) {
+                    throw new IllegalArgumentException("批量条目数超过上限：" + maxItems);
+                }
+                items.add(objectMapper.readValue(parser, BatchRepayItem.class));
+            }
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("请求格式错误：" + e.getOriginalMessage());
+        }
+        return items;
+    }
+
+    /**
+     * 批量计算
+     * @param items 计算条目
+     * @return 计算结果（与 items 顺序一致）
+     */
+    public List<BatchRepayResult> calculate(List<BatchRepayItem> items) {
+        List<CompletableFuture<BatchRepayResult>> futures = new ArrayList<>(items.size());
+        for (int i = 0; i < items.size(); i++) {
+            int index = i;
+            BatchRepayItem item = items.get(i);
+            futures.add(CompletableFuture.supplyAsync(RequestTiming.propagate(() -> evaluate(index, item)), repayBatchExecutor));
+        }
+        List<BatchRepayResult> results = new ArrayList<>(items.size());
+        for (CompletableFuture<BatchRepayResult> future : futures) {
+            results.add(future.join());
+        }
+        return results;
+    }
+
+    /**
+     * 流式批量计算：每行一个 BatchRepayItem（NDJSON），按输入顺序每行输出一个 BatchRepayResult
+     * 同时计算中的条目数不超过 线程数×2，内存占用与批量大小无关；无法解析的行按该条目失败处理。
+     * @param in 请求体
+     * @param out 响应体
+     */
+    public void stream(InputStream in, OutputStream out) throws IOException {
+        ObjectWriter writer = objectMapper.writerFor(BatchRepayResult.class);
+        int window = repayBatchExecutor.getMaximumPoolSize() * 2;
+        Deque<CompletableFuture<BatchRepayResult>> pending = new ArrayDeque<>(window);
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        int index = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.isBlank()) {
+                continue;
+            }
+            if (pending.size() >= window) {
+                writeLine(writer, out, pending.poll().join());
+            }
+            pending.add(submit(index++, line));
+        }
+        while (!pending.isEmpty()) {
+            writeLine(writer, out, pending.poll().join());
+        }
+        out.flush();
+    }
+
+    /**
+     * 解析一行并提交计算
+     */
+    private CompletableFuture<BatchRepayResult> submit(int index, String line) {
+        BatchRepayItem item;
+        try {
+            item = objectMapper.readValue(line, BatchRepayItem.class);
+        } catch (JsonProcessingException e) {
+            BatchRepayResult result = new BatchRepayResult();
+            result.setIndex(index);
+            result.setError("请求格式错误：" + e.getOriginalMessage());
+            return CompletableFuture.completedFuture(result);
+        }
+        return CompletableFuture.supplyAsync(() -> evaluate(index, item), repayBatchExecutor);
+    }
+
+    /**
+     * 校验并计算单个条目
+     */
+    private BatchRepayResult evaluate(int index, BatchRepayItem item) {
+        BatchRepayResult result = new BatchRepayResult();
+        result.setIndex(index);
+        if (item == null) {
+            result.setError("条目不能为空");
+            return result;
+        }
+        result.setId(item.getId());
+        result.setMethod(item.getMethod());
+        Set<ConstraintViolation<BatchRepayItem>> violations = validator.validate(item);
+        if (!violations.isEmpty()) {
+            result.setError("参数校验失败：" + violations.stream()
+                    .map(v -> v.getPropertyPath() + " " + v.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining("; ")));
+            return result;
+        }
+        if (!"equalPrincipal".equals(item.getMethod()) && !"equalInterest".equals(item.getMethod())) {
+            result.setError("不支持的还款方式：" + item.getMethod());
+            return result;
+        }
+        try {
+            result.setResponse(repayResultCache.calculate(item.getRequest(), item.getMethod()));
+            result.setSuccess(true);
+        } catch (IllegalArgumentException e) {
+            result.setError("计算失败：" + e.getMessage());
+        } catch (RuntimeException e) {
+            // 非参数类异常不把异常信息返回给调用方，只记录日志
+            log.error("批量条目计算失败，index：{}，id：{}", index, item.getId(), e);
+            result.setError("计算失败：服务内部错误");
+        }
+        return result;
+    }
+
+    private void writeLine(ObjectWriter writer, OutputStream out, BatchRepayResult result) throws IOException {
+        out.write(writer.writeValueAsBytes(result));
+        out.write('\n');
+    }
+}
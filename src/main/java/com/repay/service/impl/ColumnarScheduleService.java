@@ -0,0 +1,279 @@
+package com.repay.service.impl;
+
+import com.repay.entity.ColumnarLoanResponse;
+import com.repay.entity.CombinationLoanRequest;
+import com.repay.entity.EqualPrincipalRepayResponse;
+import com.repay.service.LegCursors;
+import com.repay.service.RepayCalculator;
+import com.repay.service.ScheduleCursor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static com.repay.constant.CONSTANT.SCALE;
+
+/**
+ * 列式还款计划计算
+ * 商贷、公积金游标按月同步推进，每月结果直接写入 long 数组（按 scale 放大的整数），
+ * 不保存 MonthlyDetail 列表。金额正常为2位小数（scale=2，单位为分）；
+ * 若出现更多小数位（如贷款总额带3位小数、BigDecimal 实现回退），整体提高 scale，保证无损。
+ */
+@Service
+public class ColumnarScheduleService {
+    // 允许的最大小数位数
+    private static final int MAX_SCALE = 8;
+
+    @Qualifier(value = "EqualPrincipalParamValidator")
+    @Autowired
+    private RepayCalculator repayCalculator;
+
+    /**
+     * 计算列式还款计划
+     * @param request 贷款参数
+     * @param type 还款方式：equalPrincipal / equalInterest
+     * @return 列式还款计划
+     */
+    public ColumnarLoanResponse calculate(CombinationLoanRequest request, String type) {
+        LegCursors legs = LegCursors.open(repayCalculator, request, type);
+        int maxMonths = legs.maxMonths();
+        Columns columns = new Columns();
+        LegColumns business = legs.business() == null ? null : new LegColumns(legs.business(), columns);
+        LegColumns fund = legs.fund() == null ? null : new LegColumns(legs.fund(), columns);
+        LegColumns merged = new LegColumns(maxMonths, columns);
+
+        for (int month = 1; month <= maxMonths; month++) {
+            EqualPrincipalRepayResponse.MonthlyDetail businessDetail = business == null ? null : business.next();
+            EqualPrincipalRepayResponse.MonthlyDetail fundDetail = fund == null ? null : fund.next();
+            // 合并规则与 getTotalResponse 一致：缺失的一方按0计
+            int i = month - 1;
+            merged.month[i] = month;
+            if (businessDetail != null) {
+                merged.principal[i] += business.principal[i];
+                merged.interest[i] += business.interest[i];
+                merged.remaining[i] += business.remaining[i];
+            }
+            if (fundDetail != null) {
+                merged.principal[i] += fund.principal[i];
+                merged.interest[i] += fund.interest[i];
+                merged.remaining[i] += fund.remaining[i];
+            }
+            merged.repay[i] = merged.principal[i] + merged.interest[i];
+            merged.size = month;
+        }
+
+        ColumnarLoanResponse response = new ColumnarLoanResponse();
+        response.setScale(columns.scale);
+        response.setYears(legs.years());
+        response.setTotalMonths(maxMonths);
+        response.setMerged(merged.schedule());
+        long totalPrincipal = 0L;
+        long totalInterest = 0L;
+        if (business != null) {
+            response.setBusiness(business.schedule());
+            response.setBusinessYears(business.years());
+            response.setBusinessTotalPrincipal(columns.decimal(business.totalPrincipal));
+            response.setBusinessTotalInterest(columns.decimal(business.totalInterest));
+            response.setBusinessTotalRepay(columns.decimal(business.totalPrincipal + business.totalInterest));
+            totalPrincipal += business.totalPrincipal;
+            totalInterest += business.totalInterest;
+        }
+        if (fund != null) {
+            response.setFund(fund.schedule());
+            response.setFundYears(fund.years());
+            response.setFundTotalPrincipal(columns.decimal(fund.totalPrincipal));
+            response.setFundTotalInterest(columns.decimal(fund.totalInterest));
+            response.setFundTotalRepay(columns.decimal(fund.totalPrincipal + fund.totalInterest));
+            totalPrincipal += fund.totalPrincipal;
+            totalInterest += fund.totalInterest;
+        }
+        response.setTotalAllPrincipal(columns.decimal(totalPrincipal));
+        response.setTotalAllInterest(columns.decimal(totalInterest));
+        response.setTotalAllRepay(columns.decimal(totalPrincipal + totalInterest));
+        return response;
+    }
+
+    /**
+     * 所有金额列共用的 scale；需要提高 scale 时把已登记的列及累计值一并放大
+     */
+    private static class Columns {
+        private int scale = SCALE;
+        private final List<long[]> arrays = new ArrayList<>();
+        private final List<LegColumns> legs = new ArrayList<>();
+
+        long[] register(long[] array) {
+            arrays.add(array);
+            return array;
+        }
+
+        /**
+         * 保证金额可按当前 scale 无损表示，必要时提高 scale
+         */
+        void fit(BigDecimal amount) {
+            if (amount.scale() <= scale) {
+                return;
+            }
+            int needed = amount.stripTrailingZeros().scale();
+            if (needed > scale) {
+                if (needed > MAX_SCALE) {
+                    throw new IllegalArgumentException("金额小数位数超过" + MAX_SCALE + "位：" + amount);
+                }
+                rescale(needed);
+            }
+        }
+
+        /**
+         * 金额转换为按当前 scale 放大的整数（调用前需先 fit）
+         */
+        long unscaled(BigDecimal amount) {
+            try {
+                return amount.movePointRight(scale).longValueExact();
+            } catch (ArithmeticException e) {
+                throw new IllegalArgumentException("金额超出列式格式可表示的范围：" + amount);
+            }
+        }
+
+        BigDecimal decimal(long unscaled) {
+            return BigDecimal.valueOf(unscaled, scale);
+        }
+
+        private void rescale(int newScale) {
+            long factor = BigDecimal.ONE.movePointRight(newScale - scale).longValueExact();
+            try {
+                for (long[] array : arrays) {
+                    for (int i = 0; i < array.length; i++) {
+                        array[i] = Math.multiplyExact(array[i], factor);
+                    }
+                }
+            } catch (ArithmeticException e) {
+                throw new IllegalArgumentException("金额按" + newScale + "位小数放大后超出列式格式可表示的范围");
+            }
+            for (LegColumns leg : legs) {
+                leg.rescale(factor);
+            }
+            scale = newScale;
+        }
+    }
+
+    /**
+     * 单笔贷款（或合并结果）的列数据及年度、总计累加
+     */
+    private static class LegColumns {
+        private final ScheduleCursor cursor;
+        private final Columns columns;
+        private final int[] month;
+        private final long[] principal;
+        private final long[] interest;
+        private final long[] repay;
+        private final long[] remaining;
+        private int size;
+
+        private final int[] year;
+        private final long[] yearPrincipal;
+        private final long[] yearInterest;
+        private int yearSize;
+        private long currentYearPrincipal;
+        private long currentYearInterest;
+        private long totalPrincipal;
+        private long totalInterest;
+
+        LegColumns(ScheduleCursor cursor, Columns columns) {
+            this(cursor, cursor.getTotalMonths(), columns);
+        }
+
+        LegColumns(int months, Columns columns) {
+            this(null, months, columns);
+        }
+
+        private LegColumns(ScheduleCursor cursor, int months, Columns columns) {
+            this.cursor = cursor;
+            this.columns = columns;
+            this.month = new int[months];
+            this.principal = columns.register(new long[months]);
+            this.interest = columns.register(new long[months]);
+            this.repay = columns.register(new long[months]);
+            this.remaining = columns.register(new long[months]);
+            this.year = new int[months / 12];
+            this.yearPrincipal = columns.register(new long[months / 12]);
+            this.yearInterest = columns.register(new long[months / 12]);
+            columns.legs.add(this);
+        }
+
+        /**
+         * 计算下一个月并写入列，已还清时返回 null
+         */
+        EqualPrincipalRepayResponse.MonthlyDetail next() {
+            if (!cursor.hasNext()) {
+                return null;
+            }
+            EqualPrincipalRepayResponse.MonthlyDetail detail = cursor.next();
+            int i = size;
+            month[i] = detail.getMonth();
+            // 先统一 scale 再转换，避免同一行各列 scale 不一致
+            columns.fit(detail.getMonthlyPrincipal());
+            columns.fit(detail.getMonthlyInterest());
+            columns.fit(detail.getMonthlyRepay());
+            columns.fit(detail.getRemainingPrincipal());
+            principal[i] = columns.unscaled(detail.getMonthlyPrincipal());
+            interest[i] = columns.unscaled(detail.getMonthlyInterest());
+            repay[i] = columns.unscaled(detail.getMonthlyRepay());
+            remaining[i] = columns.unscaled(detail.getRemainingPrincipal());
+            size++;
+
+            currentYearPrincipal += principal[i];
+            currentYearInterest += interest[i];
+            totalPrincipal += principal[i];
+            totalInterest += interest[i];
+            if (detail.getMonth() % 12 == 0) {
+                year[yearSize] = detail.getMonth() / 12;
+                yearPrincipal[yearSize] = currentYearPrincipal;
+                yearInterest[yearSize] = currentYearInterest;
+                yearSize++;
+                currentYearPrincipal = 0L;
+                currentYearInterest = 0L;
+            }
+            return detail;
+        }
+
+        void rescale(long factor) {
+            currentYearPrincipal = Math.multiplyExact(currentYearPrincipal, factor);
+            currentYearInterest = Math.multiplyExact(currentYearInterest, factor);
+            totalPrincipal = Math.multiplyExact(totalPrincipal, factor);
+            totalInterest = Math.multiplyExact(totalInterest, factor);
+        }
+
+        ColumnarLoanResponse.ColumnarSchedule schedule() {
+            ColumnarLoanResponse.ColumnarSchedule schedule = new ColumnarLoanResponse.ColumnarSchedule();
+            schedule.setMonth(size == month.length ? month : Arrays.copyOf(month, size));
+            schedule.setPrincipal(trim(principal, size));
+            schedule.setInterest(trim(interest, size));
+            schedule.setRepay(trim(repay, size));
+            schedule.setRemaining(trim(remaining, size));
+            return schedule;
+        }
+
+        ColumnarLoanResponse.ColumnarYears years() {
+            ColumnarLoanResponse.ColumnarYears years = new ColumnarLoanResponse.ColumnarYears();
+            years.setYear(yearSize == year.length ? year : Arrays.copyOf(year, yearSize));
+            years.setPrincipal(trim(yearPrincipal, yearSize));
+            years.setInterest(trim(yearInterest, yearSize));
+            long[] yearRepay = new long[yearSize];
+            for (int i = 0; i < yearSize; i++) {
+                yearRepay[i] = yearPrincipal[i] + yearInterest[i];
+            }
+            years.setRepay(yearRepay);
+            return years;
+        }
+    }
+
+    /**
+     * 截取数组有效部分（已填满时直接返回原数组）
+     */
+    private static long[] trim(long[] array, int size) {
+        return size == array.length ? array : Arrays.copyOf(array, size);
+    }
+}
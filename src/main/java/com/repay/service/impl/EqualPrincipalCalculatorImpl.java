@@ -1,8 +1,18 @@
 package com.repay.service.impl;
 
 import com.repay.entity.*;
+import com.repay.service.LegPrepayments;
+import com.repay.service.PrepaymentLedger;
+import com.repay.service.PrepaymentSchedule;
+import com.repay.service.PrepaymentSource;
+import com.repay.service.RateSchedule;
 import com.repay.service.RepayCalculator;
+import com.repay.service.ScheduleCursor;
+import com.repay.service.ScheduleMerger;
 import com.repay.constant.CONSTANT;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
@@ -10,6 +20,10 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 
 import static com.repay.constant.CONSTANT.ROUND_MODE;
 import static com.repay.constant.CONSTANT.SCALE;
@@ -18,8 +32,22 @@ import static com.repay.constant.CONSTANT.SCALE;
  * 等额本金计算实现类（含提前还款逻辑）
  */
 @Service("EqualPrincipalParamValidator") // 匹配Controller中的@Qualifier名称
+@ConditionalOnProperty(name = "repay.calculator.engine", havingValue = "bigdecimal", matchIfMissing = true)
 public class EqualPrincipalCalculatorImpl implements RepayCalculator {
 
+    // 年金系数服务（等额本息月供计算）
+    @Autowired
+    protected AnnuityFactorService annuityFactorService;
+
+    // 组合贷两笔贷款并行计算的线程池（未配置时顺序计算）
+    @Qualifier("repayLegExecutor")
+    @Autowired(required = false)
+    protected Executor legExecutor;
+
+    // 计算指标（未接入 Spring 容器时不输出）
+    @Autowired(required = false)
+    protected RepayMetrics repayMetrics = RepayMetrics.noop();
+
     /**
      * 计算当月利息：剩余本金 × 月利率（年利率/1200）
      */
@@ -75,54 +103,229 @@ public class EqualPrincipalCalculatorImpl implements RepayCalculator {
         response.setTotalAllInterest(totalInterest);
         response.setTotalAllRepay(totalRepay);
 
-        // 3. 生成合并后的月度明细（单月总还款=商贷+公积金）
-        List<EqualPrincipalRepayResponse.MonthlyDetail> mergeMonthlyDetails = new ArrayList<>();
+        // 3. 生成合并后的月度明细（单月总还款=商贷+公积金，按月归并，一次遍历；视图不含每月明细时各笔贷款没有生成明细，不合并）
+        List<List<EqualPrincipalRepayResponse.MonthlyDetail>> legs = new ArrayList<>(2);
+        boolean monthly = true;
         int maxMonths = 0;
-        if (businessResponse != null) maxMonths = Math.max(maxMonths, businessResponse.getTotalMonths());
-        if (fundResponse != null) maxMonths = Math.max(maxMonths, fundResponse.getTotalMonths());
-
-        for (int month = 1; month <= maxMonths; month++) {
-            EqualPrincipalRepayResponse.MonthlyDetail mergeDetail = new EqualPrincipalRepayResponse.MonthlyDetail();
-            mergeDetail.setMonth(month);
-            // 商贷当月明细
-            BigDecimal businessPrincipal = BigDecimal.ZERO;
-            BigDecimal businessInterest = BigDecimal.ZERO;
-            if (businessResponse != null && month <= businessResponse.getMonthlyDetails().size()) {
-                EqualPrincipalRepayResponse.MonthlyDetail bDetail = businessResponse.getMonthlyDetails().get(month - 1);
-                businessPrincipal = bDetail.getMonthlyPrincipal();
-                businessInterest = bDetail.getMonthlyInterest();
+        for (EqualPrincipalRepayResponse leg : new EqualPrincipalRepayResponse[]{businessResponse, fundResponse}) {
+            if (leg != null) {
+                legs.add(leg.getMonthlyDetails());
+                monthly &= leg.getMonthlyDetails() != null;
+                maxMonths = Math.max(maxMonths, leg.getTotalMonths());
             }
+        }
+        response.setMonthlyDetails(monthly ? ScheduleMerger.merge(legs, maxMonths) : null);
+        response.setTotalMonths(maxMonths);
+        return response;
+    }
 
-            // 公积金当月明细
-            BigDecimal fundPrincipal = BigDecimal.ZERO;
-            BigDecimal fundInterest = BigDecimal.ZERO;
-            if (fundResponse != null && month <= fundResponse.getMonthlyDetails().size()) {
-                EqualPrincipalRepayResponse.MonthlyDetail fDetail = fundResponse.getMonthlyDetails().get(month - 1);
-                fundPrincipal = fDetail.getMonthlyPrincipal();
-                fundInterest = fDetail.getMonthlyInterest();
+    /**
+     * 计算组合贷款
+     * 提前还款按 prepayAllocation 分配到各笔贷款；两笔贷款的分配相互独立时，公积金贷在线程池中与商贷并行计算。
+     * 提前还款分配、两笔贷款计算、合并各阶段分别计时（{@link RepayMetrics.Phase}），整次计算记录为 JFR 事件。
+     * 各笔贷款只生成视图需要的列表（{@link ScheduleView}）。
+     */
+    @Override
+    public CombinationLoanResponse calculateCombination(CombinationLoanRequest request, String type, ScheduleView view) {
+        RepayCalculationEvent event = new RepayCalculationEvent();
+        event.begin();
+        long start = System.nanoTime();
+        LegPrepayments prepayments = allocatePrepayments(request);
+        EqualPrincipalRepayRequest businessReq = hasBusiness(request) ? buildBusinessRequest(request) : null;
+        EqualPrincipalRepayRequest fundReq = hasFund(request) ? buildFundRequest(request) : null;
+
+        EqualPrincipalRepayResponse businessResponse = null;
+        EqualPrincipalRepayResponse fundResponse = null;
+        repayMetrics.record(RepayMetrics.Phase.PREPAYMENTS, start);
+        if (businessReq != null && fundReq != null && !prepayments.spill() && legExecutor != null) {
+            CompletableFuture<EqualPrincipalRepayResponse> fundFuture = CompletableFuture.supplyAsync(
+                    RequestTiming.propagate(() -> timedLeg(RepayMetrics.Phase.FUND, fundReq, prepayments.fundLedger(null), type, view)),
+                    legExecutor);
+            businessResponse = timedLeg(RepayMetrics.Phase.BUSINESS, businessReq, prepayments.businessLedger(), type, view);
+            try {
+                fundResponse = fundFuture.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
             }
+        } else {
+            PrepaymentLedger businessLedger = prepayments.businessLedger();
+            if (businessReq != null) {
+                businessResponse = timedLeg(RepayMetrics.Phase.BUSINESS, businessReq, businessLedger, type, view);
+            }
+            if (fundReq != null) {
+                fundResponse = timedLeg(RepayMetrics.Phase.FUND, fundReq, prepayments.fundLedger(businessLedger), type, view);
+            }
+        }
+        start = System.nanoTime();
+        CombinationLoanResponse response = combine(businessResponse, fundResponse);
+        if (!view.legMonthly()) {
+            // 各笔贷款的每月明细只用于合并
+            response.setBusinessMonthlyDetails(null);
+            response.setFundMonthlyDetails(null);
+        }
+        response.setView(view);
+        repayMetrics.record(RepayMetrics.Phase.MERGE, start);
+        if (event.shouldCommit()) {
+            describe(event, request, type, businessResponse, fundResponse);
+            event.commit();
+        }
+        return response;
+    }
+
+    /**
+     * 填充 JFR 事件的请求形态字段
+     */
+    private static void describe(RepayCalculationEvent event, CombinationLoanRequest request, String type,
+                                 EqualPrincipalRepayResponse businessResponse, EqualPrincipalRepayResponse fundResponse) {
+        event.loanType = request.getLoanType();
+        event.method = type;
+        event.prepayAllocation = request.getPrepayAllocation();
+        event.businessMonths = businessResponse == null ? 0 : businessResponse.getTotalMonths();
+        event.fundMonths = fundResponse == null ? 0 : fundResponse.getTotalMonths();
+        event.computedMonths = months(businessResponse) + months(fundResponse);
+        event.prepaymentEvents = size(request.getPrepayments()) + size(request.getBusinessPrepayments())
+                + size(request.getFundPrepayments());
+        event.periodicRules = size(request.getPeriodicRepayList());
+        event.rateChanges = size(request.getBusinessRateChanges()) + size(request.getFundRateChanges());
+    }
+
+    /**
+     * 单笔贷款的还款月数（视图不含每月明细时按期限计）
+     */
+    private static int months(EqualPrincipalRepayResponse leg) {
+        if (leg == null) {
+            return 0;
+        }
+        return leg.getMonthlyDetails() != null ? leg.getMonthlyDetails().size() : leg.getTotalMonths();
+    }
 
-            // 合并当月数据
-            mergeDetail.setMonthlyPrincipal(businessPrincipal.add(fundPrincipal));
-            mergeDetail.setMonthlyInterest(businessInterest.add(fundInterest));
-            mergeDetail.setMonthlyRepay(mergeDetail.getMonthlyPrincipal().add(mergeDetail.getMonthlyInterest()));
+    private static int size(List<?> list) {
+        return list == null ? 0 : list.size();
+    }
 
-            // 剩余本金（取最大的剩余本金）
-            BigDecimal remainingPrincipal = BigDecimal.ZERO;
-            if (businessResponse != null && month <= businessResponse.getMonthlyDetails().size()) {
-                remainingPrincipal = businessResponse.getMonthlyDetails().get(month - 1).getRemainingPrincipal();
+    /**
+     * 计算单笔贷款并记录该阶段耗时
+     */
+    private EqualPrincipalRepayResponse timedLeg(RepayMetrics.Phase phase, EqualPrincipalRepayRequest request,
+                                                 PrepaymentLedger ledger, String type, ScheduleView view) {
+        long start = System.nanoTime();
+        EqualPrincipalRepayResponse response = calculateLeg(request, ledger, type, view);
+        repayMetrics.record(phase, start);
+        return response;
+    }
+
+    @Override
+    public CombinationLoanResponse combine(EqualPrincipalRepayResponse businessResponse, EqualPrincipalRepayResponse fundResponse) {
+        CombinationLoanResponse response = new CombinationLoanResponse();
+        if (businessResponse != null) {
+            setBusinessDetail(response, businessResponse);
+        }
+        if (fundResponse != null) {
+            setFundDetail(response, fundResponse);
+        }
+        return getTotalResponse(businessResponse, fundResponse, response);
+    }
+
+    @Override
+    public LegPrepayments allocatePrepayments(CombinationLoanRequest request) {
+        // 公共提前还款（含周期还款，周期规则不逐月展开）
+        PrepaymentSchedule shared = PrepaymentSchedule.of(request.getPrepayments(), request.getPeriodicRepayList());
+        PrepaymentSchedule business = PrepaymentSchedule.of(request.getBusinessPrepayments(), null);
+        PrepaymentSchedule fund = PrepaymentSchedule.of(request.getFundPrepayments(), null);
+        if (!hasFund(request)) {
+            return new LegPrepayments(business.plus(shared), fund, false);
+        }
+        if (!hasBusiness(request)) {
+            return new LegPrepayments(business, fund.plus(shared), false);
+        }
+        String allocation = request.getPrepayAllocation() == null ? "businessFirst" : request.getPrepayAllocation();
+        switch (allocation) {
+            case "business" -> {
+                return new LegPrepayments(business.plus(shared), fund, false);
+            }
+            case "fund" -> {
+                return new LegPrepayments(business, fund.plus(shared), false);
+            }
+            case "proportional" -> {
+                // 按贷款总额比例拆分，商贷部分保留2位小数，余下归公积金贷
+                BigDecimal loanTotal = request.getBusinessLoanTotal().add(request.getFundLoanTotal());
+                PrepaymentSource businessPart = PrepaymentSource.proportion(shared, request.getBusinessLoanTotal(), loanTotal);
+                return new LegPrepayments(PrepaymentSource.sum(business, businessPart),
+                        PrepaymentSource.sum(fund, PrepaymentSource.difference(shared, businessPart)), false);
             }
-            if (fundResponse != null && month <= fundResponse.getMonthlyDetails().size()) {
-                BigDecimal fRemaining = fundResponse.getMonthlyDetails().get(month - 1).getRemainingPrincipal();
-                remainingPrincipal = remainingPrincipal.add(fRemaining);
+            default -> {
+                // businessFirst：先还商贷，商贷未用完的部分留给公积金贷（原有规则）
+                return new LegPrepayments(business.plus(shared), fund, !shared.isEmpty());
             }
-            mergeDetail.setRemainingPrincipal(remainingPrincipal);
+        }
+    }
 
-            mergeMonthlyDetails.add(mergeDetail);
+    /**
+     * 计算单笔贷款
+     * @param view 视图级别，决定是否生成每月明细、年度汇总
+     */
+    protected EqualPrincipalRepayResponse calculateLeg(EqualPrincipalRepayRequest request, PrepaymentLedger ledger,
+                                                       String type, ScheduleView view) {
+        return collect(request, openDecimalSchedule(request, ledger, type, null), view);
+    }
+
+    /**
+     * 打开 BigDecimal 逐月游标
+     */
+    private ScheduleCursor openDecimalSchedule(EqualPrincipalRepayRequest request, PrepaymentLedger ledger, String type,
+                                               RepayCalculationState checkpoint) {
+        if ("equalPrincipal".equals(type)) {
+            return new EqualPrincipalCursor(request, ledger, checkpoint);
         }
-        response.setMonthlyDetails(mergeMonthlyDetails);
-        response.setTotalMonths(maxMonths);
-        return response;
+        return new EqualInterestCursor(request, ledger, checkpoint);
+    }
+
+    private boolean hasBusiness(CombinationLoanRequest request) {
+        return "single".equals(request.getLoanType()) || "combination".equals(request.getLoanType());
+    }
+
+    private boolean hasFund(CombinationLoanRequest request) {
+        return "fund".equals(request.getLoanType()) || "combination".equals(request.getLoanType());
+    }
+
+    @Override
+    public EqualPrincipalRepayRequest buildBusinessRequest(CombinationLoanRequest request) {
+        EqualPrincipalRepayRequest req = buildSingleLoanRequest(request.getBusinessLoanTotal(),
+                request.getBusinessAnnualRate(), request.getBusinessYears(), request.getReservedPrincipal());
+        req.setRateChanges(request.getBusinessRateChanges());
+        return req;
+    }
+
+    @Override
+    public EqualPrincipalRepayRequest buildFundRequest(CombinationLoanRequest request) {
+        EqualPrincipalRepayRequest req = buildSingleLoanRequest(request.getFundLoanTotal(),
+                request.getFundAnnualRate(), request.getFundYears(), request.getReservedPrincipal());
+        req.setRateChanges(request.getFundRateChanges());
+        return req;
+    }
+
+    /**
+     * 设置商贷明细
+     */
+    private void setBusinessDetail(CombinationLoanResponse response, EqualPrincipalRepayResponse businessResponse) {
+        response.setBusinessMonthlyDetails(businessResponse.getMonthlyDetails());
+        response.setBusinessYearSummaries(businessResponse.getYearSummaries());
+        response.setBusinessTotalPrincipal(businessResponse.getTotalAllPrincipal());
+        response.setBusinessTotalInterest(businessResponse.getTotalAllInterest());
+        response.setBusinessTotalRepay(businessResponse.getTotalAllRepay());
+        response.setYears(businessResponse.getYears());
+    }
+
+    /**
+     * 设置公积金明细
+     */
+    private void setFundDetail(CombinationLoanResponse response, EqualPrincipalRepayResponse fundResponse) {
+        response.setFundMonthlyDetails(fundResponse.getMonthlyDetails());
+        response.setFundYearSummaries(fundResponse.getYearSummaries());
+        response.setFundTotalPrincipal(fundResponse.getTotalAllPrincipal());
+        response.setFundTotalInterest(fundResponse.getTotalAllInterest());
+        response.setFundTotalRepay(fundResponse.getTotalAllRepay());
+        response.setYears(fundResponse.getYears());
     }
 
     @Override
@@ -131,26 +334,10 @@ public class EqualPrincipalCalculatorImpl implements RepayCalculator {
                                                            CombinationLoanResponse response,String type){
         EqualPrincipalRepayResponse businessResponse = null;
         // 纯商贷/组合贷：计算商贷明细
-        if ("single".equals(request.getLoanType()) || "combination".equals(request.getLoanType())) {
-            EqualPrincipalRepayRequest businessReq = buildSingleLoanRequest(
-                    request.getBusinessLoanTotal(),
-                    request.getBusinessAnnualRate(),
-                    request.getBusinessYears(),
-                    request.getReservedPrincipal()
-            );
-            if(type.equals("equalPrincipal")){
-                businessResponse = calculatorPrincipal(businessReq, prepayMoney);
-            }else {
-                businessResponse = calculateEqualInterestRepay(businessReq, prepayMoney);
-            }
-
+        if (hasBusiness(request)) {
+            businessResponse = calculateLeg(buildBusinessRequest(request), PrepaymentLedger.of(prepayMoney), type, ScheduleView.FULL);
             // 设置商贷明细
-            response.setBusinessMonthlyDetails(businessResponse.getMonthlyDetails());
-            response.setBusinessYearSummaries(businessResponse.getYearSummaries());
-            response.setBusinessTotalPrincipal(businessResponse.getTotalAllPrincipal());
-            response.setBusinessTotalInterest(businessResponse.getTotalAllInterest());
-            response.setBusinessTotalRepay(businessResponse.getTotalAllRepay());
-            response.setYears(businessReq.getYears());
+            setBusinessDetail(response, businessResponse);
         }
         return businessResponse;
     }
@@ -163,26 +350,10 @@ public class EqualPrincipalCalculatorImpl implements RepayCalculator {
         EqualPrincipalRepayResponse fundResponse = null;
 
         // 纯公积金/组合贷：计算公积金贷明细
-        if ("fund".equals(request.getLoanType()) || "combination".equals(request.getLoanType())) {
-            EqualPrincipalRepayRequest fundReq = buildSingleLoanRequest(
-                    request.getFundLoanTotal(),
-                    request.getFundAnnualRate(),
-                    request.getFundYears(),
-                    request.getReservedPrincipal()
-            );
-            if(type.equals("equalPrincipal")){
-                fundResponse = calculatorPrincipal(fundReq, prepayMoney);
-
-            }else {
-                fundResponse = calculateEqualInterestRepay(fundReq, prepayMoney);
-            }
+        if (hasFund(request)) {
+            fundResponse = calculateLeg(buildFundRequest(request), PrepaymentLedger.of(prepayMoney), type, ScheduleView.FULL);
             // 设置公积金明细
-            response.setFundMonthlyDetails(fundResponse.getMonthlyDetails());
-            response.setFundYearSummaries(fundResponse.getYearSummaries());
-            response.setFundTotalPrincipal(fundResponse.getTotalAllPrincipal());
-            response.setFundTotalInterest(fundResponse.getTotalAllInterest());
-            response.setFundTotalRepay(fundResponse.getTotalAllRepay());
-            response.setYears(fundReq.getYears());
+            setFundDetail(response, fundResponse);
         }
         return fundResponse;
     }
@@ -194,64 +365,62 @@ public class EqualPrincipalCalculatorImpl implements RepayCalculator {
      */
     @Override
     public EqualPrincipalRepayResponse calculatorPrincipal(EqualPrincipalRepayRequest request, Map<Integer, BigDecimal> prepayMoney){
-        int totalMonths = request.getYears() * 12;  //需要还款总月数
-        //剩余本金
-        BigDecimal remainingPrincipal = request.getLoanTotal();
-        //获取所有提前还款年份
-
-        // 4. 初始化统计变量和结果列表
-        List<EqualPrincipalRepayResponse.MonthlyDetail> monthlyDetails = new ArrayList<>();
-        List<EqualPrincipalRepayResponse.YearSummary> yearSummaries = new ArrayList<>();
+        return calculateLeg(request, PrepaymentLedger.of(prepayMoney), "equalPrincipal", ScheduleView.FULL);
+    }
+
+    @Override
+    public ScheduleCursor openSchedule(EqualPrincipalRepayRequest request, PrepaymentLedger ledger, String type,
+                                       RepayCalculationState checkpoint) {
+        return openDecimalSchedule(request, ledger, type, checkpoint);
+    }
+
+    /**
+     * 遍历游标，汇总每月明细、年度汇总和总计
+     * @param request 贷款请求参数
+     * @param cursor 还款计划游标
+     * @return 还款汇总
+     */
+    @Override
+    public EqualPrincipalRepayResponse collect(EqualPrincipalRepayRequest request, ScheduleCursor cursor) {
+        return collect(request, cursor, ScheduleView.FULL);
+    }
+
+    /**
+     * 遍历游标，只生成视图需要的列表（不需要的列表为 null）
+     * @param request 贷款请求参数
+     * @param cursor 还款计划游标
+     * @param view 视图级别
+     * @return 还款汇总
+     */
+    protected EqualPrincipalRepayResponse collect(EqualPrincipalRepayRequest request, ScheduleCursor cursor, ScheduleView view) {
+        List<EqualPrincipalRepayResponse.MonthlyDetail> monthlyDetails = view.monthly() ? new ArrayList<>() : null;
+        List<EqualPrincipalRepayResponse.YearSummary> yearSummaries = view.yearly() ? new ArrayList<>() : null;
         BigDecimal totalAllPrincipal = BigDecimal.ZERO; //已还总本金
         BigDecimal totalAllInterest = BigDecimal.ZERO; //已还总利息
         BigDecimal yearPrincipal = BigDecimal.ZERO; //年总本金
         BigDecimal yearInterest = BigDecimal.ZERO; //年总利息
-        // 5. 遍历每月计算明细
-        for (int month = 1; month <= totalMonths; month++) {
-            //计算当月需要还款本金
-            BigDecimal monthlyPrincipal = remainingPrincipal.divide(new BigDecimal(totalMonths).subtract(new BigDecimal(month-1)),
-                    CONSTANT.SCALE, CONSTANT.ROUND_MODE);
-            // 计算当月利息和还款额
-            BigDecimal monthlyInterest = getMonthlyInterest(remainingPrincipal, request.getAnnualRate());
-            // 更新剩余本金
-            remainingPrincipal = remainingPrincipal.subtract(monthlyPrincipal).setScale(CONSTANT.SCALE, CONSTANT.ROUND_MODE);
-            if (remainingPrincipal.compareTo(BigDecimal.ZERO) < 0) {
-                remainingPrincipal = BigDecimal.ZERO;
+        while (cursor.hasNext()) {
+            EqualPrincipalRepayResponse.MonthlyDetail detail = cursor.next();
+            if (monthlyDetails != null) {
+                monthlyDetails.add(detail);
             }
-            BigDecimal prepayMoneyCurrentMonth = BigDecimal.ZERO;
-            BigDecimal monthTotalPrincipal = monthlyPrincipal;
-            if(prepayMoney.containsKey(month)){
-                prepayMoneyCurrentMonth = prepayMoney.get(month);
-                //检查提前还款是否还完剩余本金
-                if(remainingPrincipal.subtract(prepayMoneyCurrentMonth).compareTo(request.getReservedPrincipal()) >=0){
-                    //当前提前还款无法还完
-                    remainingPrincipal = remainingPrincipal.subtract(prepayMoney.get(month));
-                    monthTotalPrincipal = monthlyPrincipal.add(prepayMoneyCurrentMonth);
-                    prepayMoney.remove(month);
-                }else {
-                    BigDecimal subtract1 = prepayMoneyCurrentMonth.subtract(remainingPrincipal);
-                    prepayMoney.put(month, subtract1);
-                    remainingPrincipal = BigDecimal.ZERO;
-                }
-            }
-            // 封装当月明细
-            monthlyDetails.add(setMonthDetail(month, monthTotalPrincipal, monthlyInterest, remainingPrincipal));
             // 累加统计数据
-            yearPrincipal = yearPrincipal.add(monthTotalPrincipal);
-            yearInterest = yearInterest.add(monthlyInterest);
-            totalAllPrincipal = totalAllPrincipal.add(monthTotalPrincipal);
-            totalAllInterest = totalAllInterest.add(monthlyInterest);
+            yearPrincipal = yearPrincipal.add(detail.getMonthlyPrincipal());
+            yearInterest = yearInterest.add(detail.getMonthlyInterest());
+            totalAllPrincipal = totalAllPrincipal.add(detail.getMonthlyPrincipal());
+            totalAllInterest = totalAllInterest.add(detail.getMonthlyInterest());
 
             // 每年结束时封装年度汇总
-            if (month % 12 == 0) {
-                int currentYear = month / 12;
+            if (yearSummaries != null && detail.getMonth() % 12 == 0) {
+                int currentYear = detail.getMonth() / 12;
                 yearSummaries.add(setYearDetail(currentYear, yearPrincipal, yearInterest));
                 // 重置当年统计变量
                 yearPrincipal = BigDecimal.ZERO;
                 yearInterest = BigDecimal.ZERO;
             }
         }
-        // 6. 封装总计信息
+        repayMetrics.recordSchedule(cursor.computedMonths(), cursor.prepaymentEvents());
+        // 封装总计信息
         BigDecimal totalAllRepay = totalAllPrincipal.add(totalAllInterest);
         EqualPrincipalRepayResponse repayResponse = new EqualPrincipalRepayResponse();
         repayResponse.setMonthlyDetails(monthlyDetails);
@@ -262,9 +431,124 @@ public class EqualPrincipalCalculatorImpl implements RepayCalculator {
         repayResponse.setLoanTotal(request.getLoanTotal());
         repayResponse.setAnnualRate(request.getAnnualRate());
         repayResponse.setYears(request.getYears());
-        repayResponse.setTotalMonths(totalMonths);
+        repayResponse.setTotalMonths(cursor.getTotalMonths());
         return repayResponse;
+    }
 
+    /**
+     * 组装检查点
+     */
+    protected static RepayCalculationState state(int paidMonths, BigDecimal remainingPrincipal, BigDecimal monthlyPrincipal,
+                                                 BigDecimal monthlyRepay, BigDecimal totalPrepayAmount) {
+        RepayCalculationState state = new RepayCalculationState();
+        state.setPaidMonths(paidMonths);
+        state.setRemainingPrincipal(remainingPrincipal);
+        state.setMonthlyPrincipal(monthlyPrincipal);
+        state.setMonthlyRepay(monthlyRepay);
+        state.setTotalPrepayAmount(totalPrepayAmount);
+        return state;
+    }
+
+    /**
+     * 等额本金逐月游标（浮动利率时在重定价月切换年利率）
+     */
+    private class EqualPrincipalCursor implements ScheduleCursor {
+        private final EqualPrincipalRepayRequest request;
+        private final PrepaymentLedger ledger;
+        private final RateSchedule rates; //利率调整计划
+        private final int totalMonths;  //需要还款总月数
+        private BigDecimal annualRate; //当前执行的年利率
+        private BigDecimal monthRate; //当前月利率（6位小数）
+        private BigDecimal remainingPrincipal; //剩余本金
+        private BigDecimal monthlyPrincipal; //最近一个月的应还本金
+        private BigDecimal totalPrepayAmount = BigDecimal.ZERO; //提前还款累计金额
+        private int month;
+        private int computed; //本游标计算的月数
+        private int prepaymentEvents; //本游标处理的提前还款次数
+
+        EqualPrincipalCursor(EqualPrincipalRepayRequest request, PrepaymentLedger ledger, RepayCalculationState checkpoint) {
+            this.request = request;
+            this.ledger = ledger;
+            this.rates = RateSchedule.of(request);
+            this.totalMonths = request.getYears() * 12;
+            this.remainingPrincipal = request.getLoanTotal();
+            if (checkpoint != null) {
+                this.month = checkpoint.getPaidMonths();
+                this.remainingPrincipal = checkpoint.getRemainingPrincipal();
+                this.monthlyPrincipal = checkpoint.getMonthlyPrincipal();
+                this.totalPrepayAmount = checkpoint.getTotalPrepayAmount();
+            }
+            this.annualRate = rates.rateAt(month + 1);
+            this.monthRate = equalPrincipalMonthRate(annualRate);
+        }
+
+        @Override
+        public RepayCalculationState checkpoint() {
+            return state(month, remainingPrincipal, monthlyPrincipal, null, totalPrepayAmount);
+        }
+
+        @Override
+        public int getTotalMonths() {
+            return totalMonths;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return month < totalMonths;
+        }
+
+        @Override
+        public int computedMonths() {
+            return computed;
+        }
+
+        @Override
+        public int prepaymentEvents() {
+            return prepaymentEvents;
+        }
+
+        @Override
+        public EqualPrincipalRepayResponse.MonthlyDetail next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            month++;
+            computed++;
+            if (rates.changesAt(month)) {
+                annualRate = rates.rateAt(month);
+                monthRate = equalPrincipalMonthRate(annualRate);
+            }
+            //计算当月需要还款本金
+            monthlyPrincipal = remainingPrincipal.divide(BigDecimal.valueOf(totalMonths - month + 1),
+                    CONSTANT.SCALE, CONSTANT.ROUND_MODE);
+            // 计算当月利息（与 getMonthlyInterest 相同，月利率不再逐月计算）
+            BigDecimal monthlyInterest = remainingPrincipal.multiply(monthRate).setScale(CONSTANT.SCALE, CONSTANT.ROUND_MODE);
+            // 更新剩余本金
+            remainingPrincipal = remainingPrincipal.subtract(monthlyPrincipal).setScale(CONSTANT.SCALE, CONSTANT.ROUND_MODE);
+            if (remainingPrincipal.compareTo(BigDecimal.ZERO) < 0) {
+                remainingPrincipal = BigDecimal.ZERO;
+            }
+            BigDecimal prepayMoneyCurrentMonth = ledger.take(month);
+            BigDecimal monthTotalPrincipal = monthlyPrincipal;
+            if(prepayMoneyCurrentMonth != null){
+                prepaymentEvents++;
+                //检查提前还款是否还完剩余本金
+                if(remainingPrincipal.subtract(prepayMoneyCurrentMonth).compareTo(request.getReservedPrincipal()) >=0){
+                    //当前提前还款无法还完
+                    remainingPrincipal = remainingPrincipal.subtract(prepayMoneyCurrentMonth);
+                    monthTotalPrincipal = monthlyPrincipal.add(prepayMoneyCurrentMonth);
+                    totalPrepayAmount = totalPrepayAmount.add(prepayMoneyCurrentMonth);
+                }else {
+                    // 未用完的提前还款退回台账，留给后续贷款
+                    BigDecimal subtract1 = prepayMoneyCurrentMonth.subtract(remainingPrincipal);
+                    ledger.giveBack(month, subtract1);
+                    totalPrepayAmount = totalPrepayAmount.add(remainingPrincipal);
+                    remainingPrincipal = BigDecimal.ZERO;
+                }
+            }
+            // 封装当月明细
+            return setMonthDetail(month, monthTotalPrincipal, monthlyInterest, remainingPrincipal);
+        }
     }
 
     /**
@@ -381,63 +665,125 @@ public class EqualPrincipalCalculatorImpl implements RepayCalculator {
      */
     @Override
     public EqualPrincipalRepayResponse calculateEqualInterestRepay(EqualPrincipalRepayRequest request, Map<Integer, BigDecimal> prepayMoney) {
-        List<EqualPrincipalRepayResponse.MonthlyDetail> monthlyDetails = new ArrayList<>();
-        List<EqualPrincipalRepayResponse.YearSummary> yearSummaries = new ArrayList<>();
-        // 1. 基础参数计算（和等额本金对齐结构）
-        Integer totalMonths = request.getYears() * 12; // 总还款月数
-        BigDecimal monthRate = request.getAnnualRate().divide(new BigDecimal("12"), 8, ROUND_MODE)
-                .divide(new BigDecimal("100"), 8, ROUND_MODE); // 月利率，保留8位小数保证精度
-        BigDecimal remainingPrincipal = request.getLoanTotal(); // 初始剩余本金=贷款总额
-        BigDecimal totalAllPrincipal = BigDecimal.ZERO; // 已还总本金
-        BigDecimal totalAllInterest = BigDecimal.ZERO; // 已还总利息
-        BigDecimal yearPrincipal = BigDecimal.ZERO; // 年总本金
-        BigDecimal yearInterest = BigDecimal.ZERO; // 年总利息
-        // 初始化每月固定月供（等额本息核心）
-        BigDecimal monthlyFixedRepay = BigDecimal.ZERO;
-
-        // 2. 首次计算初始固定月供（核心公式，补全pow方法精度）
-        if (totalMonths > 0 && remainingPrincipal.compareTo(BigDecimal.ZERO) > 0) {
-            BigDecimal powRate = BigDecimal.ONE.add(monthRate).pow(totalMonths);
-            BigDecimal numerator = remainingPrincipal.multiply(monthRate).multiply(powRate);
-            BigDecimal denominator = powRate.subtract(BigDecimal.ONE);
-            monthlyFixedRepay = numerator.divide(denominator, SCALE, ROUND_MODE);
-        }
-        // 3. 循环计算每月明细（和等额本金遍历逻辑一致）
-        for (int month = 1; month <= totalMonths; month++) {
+        return calculateLeg(request, PrepaymentLedger.of(prepayMoney), "equalInterest", ScheduleView.FULL);
+    }
+
+    /**
+     * 等额本息月利率：年利率/12/100，保留8位小数
+     */
+    protected static BigDecimal monthRate(BigDecimal annualRate) {
+        return annualRate.divide(new BigDecimal("12"), 8, ROUND_MODE).divide(new BigDecimal("100"), 8, ROUND_MODE);
+    }
+
+    /**
+     * 等额本金月利率：年利率 / 1200，保留6位小数（与 getMonthlyInterest 相同）
+     */
+    protected static BigDecimal equalPrincipalMonthRate(BigDecimal annualRate) {
+        return annualRate.divide(new BigDecimal(1200), 6, CONSTANT.ROUND_MODE);
+    }
+
+    /**
+     * 等额本息逐月游标
+     * 浮动利率时在重定价月按新利率、月初剩余本金、剩余月数重算月供，其余月份沿用当前月供。
+     */
+    private class EqualInterestCursor implements ScheduleCursor {
+        private final EqualPrincipalRepayRequest request;
+        private final PrepaymentLedger ledger;
+        private final RateSchedule rates; // 利率调整计划
+        private final int totalMonths; // 总还款月数
+        private BigDecimal monthRate; // 当前月利率，保留8位小数保证精度
+        private BigDecimal remainingPrincipal; // 剩余本金
+        private BigDecimal monthlyFixedRepay = BigDecimal.ZERO; // 每月固定月供（等额本息核心）
+        private BigDecimal monthlyPrincipal; // 最近一个月的正常还款本金
+        private BigDecimal totalPrepayAmount = BigDecimal.ZERO; // 提前还款累计金额
+        private int month;
+        private int computed; // 本游标计算的月数
+        private int prepaymentEvents; // 本游标处理的提前还款次数
+
+        EqualInterestCursor(EqualPrincipalRepayRequest request, PrepaymentLedger ledger, RepayCalculationState checkpoint) {
+            this.request = request;
+            this.ledger = ledger;
+            this.rates = RateSchedule.of(request);
+            this.totalMonths = request.getYears() * 12;
+            this.remainingPrincipal = request.getLoanTotal();
+            if (checkpoint != null) {
+                // 从检查点继续：月供沿用检查点时的值，月利率按下一个月执行的利率
+                this.month = checkpoint.getPaidMonths();
+                this.remainingPrincipal = checkpoint.getRemainingPrincipal();
+                this.monthlyFixedRepay = checkpoint.getMonthlyRepay();
+                this.monthlyPrincipal = checkpoint.getMonthlyPrincipal();
+                this.totalPrepayAmount = checkpoint.getTotalPrepayAmount();
+            }
+            this.monthRate = monthRate(rates.rateAt(month + 1));
+            if (checkpoint == null && totalMonths > 0 && remainingPrincipal.compareTo(BigDecimal.ZERO) > 0) {
+                // 首次计算初始固定月供（年金系数有界精度计算并缓存，结果与无限精度逐分一致）
+                monthlyFixedRepay = annuityFactorService.payment(remainingPrincipal, monthRate, totalMonths);
+            }
+        }
+
+        @Override
+        public RepayCalculationState checkpoint() {
+            return state(month, remainingPrincipal, monthlyPrincipal, monthlyFixedRepay, totalPrepayAmount);
+        }
+
+        @Override
+        public int getTotalMonths() {
+            return totalMonths;
+        }
+
+        @Override
+        public boolean hasNext() {
             // 边界终止：剩余本金为0，无需继续计算
-            if (remainingPrincipal.compareTo(BigDecimal.ZERO) == 0) {
-                break;
+            return month < totalMonths && remainingPrincipal.compareTo(BigDecimal.ZERO) != 0;
+        }
+
+        @Override
+        public int computedMonths() {
+            return computed;
+        }
+
+        @Override
+        public int prepaymentEvents() {
+            return prepaymentEvents;
+        }
+
+        @Override
+        public EqualPrincipalRepayResponse.MonthlyDetail next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            month++;
+            computed++;
+            if (rates.changesAt(month)) {
+                // 重定价：按新利率、月初剩余本金、剩余月数（含本月）重算月供
+                monthRate = monthRate(rates.rateAt(month));
+                monthlyFixedRepay = annuityFactorService.payment(remainingPrincipal, monthRate, totalMonths - month + 1);
             }
             BigDecimal monthlyInterest; // 当月利息
-            BigDecimal monthlyPrincipal; // 当月正常还款本金
             BigDecimal monthTotalPrincipal = BigDecimal.ZERO; // 当月总本金（正常+提前还款）
-            BigDecimal monthlyRepay = BigDecimal.ZERO; // 当月实际还款总额
             BigDecimal finalRemaining = remainingPrincipal; // 当月还款后剩余本金
-            BigDecimal prepayMoneyCurrentMonth = BigDecimal.ZERO; // 当月提前还款本金
+            BigDecimal prepayMoneyCurrentMonth = ledger.take(month); // 当月提前还款本金
 
             // ========== 核心：处理当月提前还款 ==========
-            if (prepayMoney.containsKey(month)) {
-                prepayMoneyCurrentMonth = prepayMoney.get(month);
+            if (prepayMoneyCurrentMonth != null) {
+                prepaymentEvents++;
                 if (remainingPrincipal.compareTo(prepayMoneyCurrentMonth) >= 0) {
                     // 情况1：提前还款 ≤ 剩余本金
                     finalRemaining = remainingPrincipal.subtract(prepayMoneyCurrentMonth).setScale(SCALE, ROUND_MODE);
                     monthTotalPrincipal = monthTotalPrincipal.add(prepayMoneyCurrentMonth);
-                    prepayMoney.remove(month);
+                    totalPrepayAmount = totalPrepayAmount.add(prepayMoneyCurrentMonth);
                 } else {
                     // 情况2：提前还款 > 剩余本金 → 全部还清，多余部分忽略（不 put 回！）
                     monthTotalPrincipal = monthTotalPrincipal.add(remainingPrincipal);
+                    totalPrepayAmount = totalPrepayAmount.add(remainingPrincipal);
                     finalRemaining = BigDecimal.ZERO;
-                    // 注意：不再 put 回未使用部分，避免资金丢失或逻辑混乱
-                    prepayMoney.remove(month); // 清除该月记录
+                    // 注意：不再退回未使用部分，避免资金丢失或逻辑混乱
                 }
 
                 // 重新计算月供（基于新的 finalRemaining 和剩余月份）
                 int remainingMonths = totalMonths - month;
                 if (remainingMonths > 0 && finalRemaining.compareTo(BigDecimal.ZERO) > 0) {
-                    BigDecimal powRate = BigDecimal.ONE.add(monthRate).pow(remainingMonths);
-                    BigDecimal numerator = finalRemaining.multiply(monthRate).multiply(powRate);
-                    BigDecimal denominator = powRate.subtract(BigDecimal.ONE);
-                    monthlyFixedRepay = numerator.divide(denominator, SCALE, ROUND_MODE);
+                    monthlyFixedRepay = annuityFactorService.payment(finalRemaining, monthRate, remainingMonths);
                 } else {
                     monthlyFixedRepay = BigDecimal.ZERO;
                 }
@@ -453,7 +799,6 @@ public class EqualPrincipalCalculatorImpl implements RepayCalculator {
                 if (monthlyPrincipal.compareTo(BigDecimal.ZERO) < 0) {
                     monthlyPrincipal = BigDecimal.ZERO;
                 }
-                monthlyRepay = monthlyPrincipal.add(monthlyInterest);
                 monthTotalPrincipal = monthTotalPrincipal.add(monthlyPrincipal);
                 finalRemaining = request.getReservedPrincipal();
             } else {
@@ -462,7 +807,6 @@ public class EqualPrincipalCalculatorImpl implements RepayCalculator {
                 if (monthlyPrincipal.compareTo(BigDecimal.ZERO) < 0) {
                     monthlyPrincipal = BigDecimal.ZERO;
                 }
-                monthlyRepay = monthlyFixedRepay;
                 monthTotalPrincipal = monthTotalPrincipal.add(monthlyPrincipal);
                 // ✅ 关键修复：无论是否有提前还款，都要从 finalRemaining 中扣除正常还款本金
                 finalRemaining = finalRemaining.subtract(monthlyPrincipal).setScale(SCALE, ROUND_MODE);
@@ -472,38 +816,9 @@ public class EqualPrincipalCalculatorImpl implements RepayCalculator {
                 }
             }
 
-            // ========== 数据统计 ==========
-            yearPrincipal = yearPrincipal.add(monthTotalPrincipal);
-            yearInterest = yearInterest.add(monthlyInterest);
-            totalAllPrincipal = totalAllPrincipal.add(monthTotalPrincipal);
-            totalAllInterest = totalAllInterest.add(monthlyInterest);
-
-            monthlyDetails.add(setMonthDetail(month, monthTotalPrincipal, monthlyInterest, finalRemaining));
-
-            // ========== 年度汇总 ==========
-            if (month % 12 == 0) {
-                int currentYear = month / 12;
-                yearSummaries.add(setYearDetail(currentYear, yearPrincipal, yearInterest));
-                yearPrincipal = BigDecimal.ZERO;
-                yearInterest = BigDecimal.ZERO;
-            }
-
             // 更新剩余本金
             remainingPrincipal = finalRemaining;
+            return setMonthDetail(month, monthTotalPrincipal, monthlyInterest, finalRemaining);
         }
-
-        // 4. 封装总计信息
-        BigDecimal totalAllRepay = totalAllPrincipal.add(totalAllInterest);
-        EqualPrincipalRepayResponse repayResponse = new EqualPrincipalRepayResponse();
-        repayResponse.setMonthlyDetails(monthlyDetails);
-        repayResponse.setYearSummaries(yearSummaries);
-        repayResponse.setTotalAllPrincipal(totalAllPrincipal);
-        repayResponse.setTotalAllInterest(totalAllInterest);
-        repayResponse.setTotalAllRepay(totalAllRepay);
-        repayResponse.setLoanTotal(request.getLoanTotal());
-        repayResponse.setAnnualRate(request.getAnnualRate());
-        repayResponse.setYears(request.getYears());
-        repayResponse.setTotalMonths(totalMonths);
-        return repayResponse;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,471 @@
+package com.repay.service.impl;
+
+import com.repay.entity.*;
+import com.repay.service.PrepaymentLedger;
+import com.repay.service.RateSchedule;
+import com.repay.service.ScheduleCursor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import static com.repay.constant.CONSTANT.ROUND_MODE;
+import static com.repay.constant.CONSTANT.SCALE;
+
+/**
+ * 定点数还款计算实现类（repay.calculator.engine=fixed-point 时启用）
+ * 金额统一换算为「分」的 long，利率按固定小数位放大为 long，逐月计算不再创建 BigDecimal；
+ * 舍入规则与 {@link EqualPrincipalCalculatorImpl} 完全一致（HALF_UP），输出逐分相同且均为2位小数
+ * （原实现清零、还清时输出 0，本实现输出 0.00，数值相等）；
+ * 等额本息月供由 {@link AnnuityFactorService} 计算（临界舍入时回退无限精度）。
+ * 入参无法无损转换为分（超过2位小数、负数或可能溢出）时，回退到 BigDecimal 实现。
+ */
+@Service("EqualPrincipalParamValidator")
+@ConditionalOnProperty(name = "repay.calculator.engine", havingValue = "fixed-point")
+public class FixedPointCalculatorImpl extends EqualPrincipalCalculatorImpl {
+
+    // 等额本金月利率保留6位小数（与 getMonthlyInterest 一致）
+    private static final long RATE6_UNIT = 1_000_000L;
+    // 等额本息月利率保留8位小数（与 calculateEqualInterestRepay 一致）
+    private static final long RATE8_UNIT = 100_000_000L;
+    // 无法转换为分时的标记值
+    private static final long NOT_CENTS = Long.MIN_VALUE;
+
+    /**
+     * 单笔贷款计算（等额本金/等额本息，定点数版本）
+     */
+    @Override
+    protected EqualPrincipalRepayResponse calculateLeg(EqualPrincipalRepayRequest request, PrepaymentLedger ledger, String type,
+                                                       ScheduleView view) {
+        CentsCursor cursor = openCentsCursor(request, ledger, type, null);
+        if (cursor == null) {
+            return super.calculateLeg(request, ledger, type, view);
+        }
+        return drainCents(request, cursor, view);
+    }
+
+    @Override
+    public ScheduleCursor openSchedule(EqualPrincipalRepayRequest request, PrepaymentLedger ledger, String type,
+                                       RepayCalculationState checkpoint) {
+        CentsCursor cursor = openCentsCursor(request, ledger, type, checkpoint);
+        return cursor != null ? cursor : super.openSchedule(request, ledger, type, checkpoint);
+    }
+
+    /**
+     * 创建定点数游标，入参或检查点不支持定点数计算时返回 null
+     */
+    private CentsCursor openCentsCursor(EqualPrincipalRepayRequest request, PrepaymentLedger ledger, String type,
+                                        RepayCalculationState checkpoint) {
+        CentsCursor cursor = "equalPrincipal".equals(type)
+                ? openPrincipalCursor(request, ledger) : openInterestCursor(request, ledger);
+        if (cursor != null && checkpoint != null && !cursor.resume(checkpoint)) {
+            return null;
+        }
+        return cursor;
+    }
+
+    /**
+     * 创建等额本金定点数游标，入参不支持定点数计算时返回 null
+     */
+    private CentsCursor openPrincipalCursor(EqualPrincipalRepayRequest request, PrepaymentLedger ledger) {
+        RateSchedule rates = RateSchedule.of(request);
+        // 月利率随年利率单调，按最高、最低利率校验即可覆盖各次重定价
+        if (rate6(rates.minRate()) < 0 || !supports(request, ledger, rate6(rates.maxRate()))) {
+            return null;
+        }
+        return new PrincipalCentsCursor(request, ledger, rates);
+    }
+
+    /**
+     * 创建等额本息定点数游标，入参不支持定点数计算时返回 null
+     */
+    private CentsCursor openInterestCursor(EqualPrincipalRepayRequest request, PrepaymentLedger ledger) {
+        RateSchedule rates = RateSchedule.of(request);
+        long minRate8 = scaledRate(monthRate(rates.minRate()), 8);
+        // 月利率为0时原实现除零抛异常，交由原实现保持行为一致
+        if (minRate8 <= 0 || !supports(request, ledger, scaledRate(monthRate(rates.maxRate()), 8))) {
+            return null;
+        }
+        return new InterestCentsCursor(request, ledger, rates);
+    }
+
+    /**
+     * 遍历定点数游标，按分累加年度汇总与总计
+     * 视图不需要每月明细时只推进游标、不创建明细对象，不需要年度汇总时不生成年度汇总
+     */
+    private EqualPrincipalRepayResponse drainCents(EqualPrincipalRepayRequest request, CentsCursor cursor, ScheduleView view) {
+        int totalMonths = cursor.getTotalMonths();
+        List<EqualPrincipalRepayResponse.MonthlyDetail> monthlyDetails = view.monthly() ? new ArrayList<>(totalMonths) : null;
+        List<EqualPrincipalRepayResponse.YearSummary> yearSummaries = view.yearly() ? new ArrayList<>(totalMonths / 12) : null;
+        long totalAllPrincipal = 0L;
+        long totalAllInterest = 0L;
+        long yearPrincipal = 0L;
+        long yearInterest = 0L;
+        while (cursor.hasNext()) {
+            if (monthlyDetails != null) {
+                monthlyDetails.add(cursor.next());
+            } else {
+                cursor.step();
+            }
+            yearPrincipal += cursor.principal;
+            yearInterest += cursor.interest;
+            totalAllPrincipal += cursor.principal;
+            totalAllInterest += cursor.interest;
+            if (yearSummaries != null && cursor.month % 12 == 0) {
+                yearSummaries.add(setYearDetail(cursor.month / 12, BigDecimal.valueOf(yearPrincipal, SCALE),
+                        BigDecimal.valueOf(yearInterest, SCALE)));
+                yearPrincipal = 0L;
+                yearInterest = 0L;
+            }
+        }
+        repayMetrics.recordSchedule(cursor.computedMonths(), cursor.prepaymentEvents());
+        return buildResponse(request, totalMonths, monthlyDetails, yearSummaries, totalAllPrincipal, totalAllInterest);
+    }
+
+    /**
+     * 定点数游标：每月计算结果以分保存在 principal/interest/remaining 中
+     */
+    private abstract class CentsCursor implements ScheduleCursor {
+        final PrepaymentLedger ledger;
+        final int totalMonths;
+        final long reserved;
+        // 当前月份及当月还本金（含提前还款）、利息、剩余本金（分）
+        int month;
+        long principal;
+        long interest;
+        long remaining;
+        // 最近一个月的正常还款本金、提前还款累计金额（分），用于生成检查点
+        long regularPrincipal;
+        long prepaid;
+        // 本游标计算的月数、处理的提前还款次数
+        int computed;
+        int prepaymentEvents;
+
+        CentsCursor(EqualPrincipalRepayRequest request, PrepaymentLedger ledger) {
+            this.ledger = ledger;
+            this.totalMonths = request.getYears() * 12;
+            this.reserved = toCents(request.getReservedPrincipal());
+            this.remaining = toCents(request.getLoanTotal());
+        }
+
+        @Override
+        public int getTotalMonths() {
+            return totalMonths;
+        }
+
+        @Override
+        public int computedMonths() {
+            return computed;
+        }
+
+        @Override
+        public int prepaymentEvents() {
+            return prepaymentEvents;
+        }
+
+        @Override
+        public RepayCalculationState checkpoint() {
+            return state(month, BigDecimal.valueOf(remaining, SCALE),
+                    month == 0 ? null : BigDecimal.valueOf(regularPrincipal, SCALE), monthlyRepay(),
+                    BigDecimal.valueOf(prepaid, SCALE));
+        }
+
+        /**
+         * 从检查点恢复状态，检查点金额无法无损转换为分时返回 false
+         */
+        boolean resume(RepayCalculationState checkpoint) {
+            long remainingCents = toCents(checkpoint.getRemainingPrincipal());
+            long regularCents = checkpoint.getMonthlyPrincipal() == null ? 0L : toCents(checkpoint.getMonthlyPrincipal());
+            long prepaidCents = checkpoint.getTotalPrepayAmount() == null ? 0L : prepayCents(checkpoint.getTotalPrepayAmount());
+            if (remainingCents == NOT_CENTS || regularCents == NOT_CENTS || remainingCents > remaining) {
+                return false;
+            }
+            month = checkpoint.getPaidMonths();
+            remaining = remainingCents;
+            regularPrincipal = regularCents;
+            prepaid = prepaidCents;
+            return true;
+        }
+
+        /**
+         * @return 当前月供（等额本金为 null）
+         */
+        BigDecimal monthlyRepay() {
+            return null;
+        }
+
+        @Override
+        public EqualPrincipalRepayResponse.MonthlyDetail next() {
+            step();
+            return setMonthDetail(month, BigDecimal.valueOf(principal, SCALE),
+                    BigDecimal.valueOf(interest, SCALE), BigDecimal.valueOf(remaining, SCALE));
+        }
+
+        /**
+         * 计算下一个月，结果只保存在 principal/interest/remaining 中，不创建明细对象
+         */
+        void step() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            month++;
+            computed++;
+            advance();
+        }
+
+        /**
+         * 计算第 month 月
+         */
+        abstract void advance();
+    }
+
+    /**
+     * 等额本金定点数游标
+     */
+    private class PrincipalCentsCursor extends CentsCursor {
+        private final RateSchedule rates;
+        private long rate6;
+
+        PrincipalCentsCursor(EqualPrincipalRepayRequest request, PrepaymentLedger ledger, RateSchedule rates) {
+            super(request, ledger);
+            this.rates = rates;
+            this.rate6 = rate6(rates.rateAt(1));
+        }
+
+        @Override
+        public boolean hasNext() {
+            return month < totalMonths;
+        }
+
+        @Override
+        boolean resume(RepayCalculationState checkpoint) {
+            if (!super.resume(checkpoint)) {
+                return false;
+            }
+            rate6 = rate6(rates.rateAt(month + 1));
+            return true;
+        }
+
+        @Override
+        void advance() {
+            if (rates.changesAt(month)) {
+                rate6 = rate6(rates.rateAt(month));
+            }
+            long monthlyPrincipal = roundHalfUp(remaining, totalMonths - month + 1);
+            interest = roundHalfUp(remaining * rate6, RATE6_UNIT);
+            remaining -= monthlyPrincipal;
+            if (remaining < 0) {
+                remaining = 0;
+            }
+            principal = monthlyPrincipal;
+            regularPrincipal = monthlyPrincipal;
+            BigDecimal prepay = ledger.take(month);
+            if (prepay != null) {
+                prepaymentEvents++;
+                long prepayCents = prepayCents(prepay);
+                if (remaining - prepayCents >= reserved) {
+                    remaining -= prepayCents;
+                    principal = monthlyPrincipal + prepayCents;
+                    prepaid += prepayCents;
+                } else {
+                    // 与 BigDecimal 实现保持一致：未用完的提前还款留给后续贷款
+                    ledger.giveBack(month, BigDecimal.valueOf(prepayCents - remaining, SCALE));
+                    prepaid += remaining;
+                    remaining = 0;
+                }
+            }
+        }
+    }
+
+    /**
+     * 等额本息定点数游标
+     */
+    private class InterestCentsCursor extends CentsCursor {
+        private final RateSchedule rates;
+        private BigDecimal monthRate;
+        private long rate8;
+        private long monthlyFixedRepay;
+
+        InterestCentsCursor(EqualPrincipalRepayRequest request, PrepaymentLedger ledger, RateSchedule rates) {
+            super(request, ledger);
+            this.rates = rates;
+            reprice(1);
+            if (totalMonths > 0 && remaining > 0) {
+                monthlyFixedRepay = annuityFactorService.paymentCents(remaining, monthRate, totalMonths);
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return month < totalMonths && remaining != 0;
+        }
+
+        @Override
+        boolean resume(RepayCalculationState checkpoint) {
+            long repayCents = toCents(checkpoint.getMonthlyRepay());
+            if (repayCents == NOT_CENTS || !super.resume(checkpoint)) {
+                return false;
+            }
+            monthlyFixedRepay = repayCents;
+            reprice(month + 1);
+            return true;
+        }
+
+        /**
+         * 切换为第 month 月执行的利率
+         */
+        private void reprice(int month) {
+            monthRate = monthRate(rates.rateAt(month));
+            rate8 = scaledRate(monthRate, 8);
+        }
+
+        @Override
+        BigDecimal monthlyRepay() {
+            return BigDecimal.valueOf(monthlyFixedRepay, SCALE);
+        }
+
+        @Override
+        void advance() {
+            if (rates.changesAt(month)) {
+                // 重定价：按新利率、月初剩余本金、剩余月数（含本月）重算月供
+                reprice(month);
+                monthlyFixedRepay = annuityFactorService.paymentCents(remaining, monthRate, totalMonths - month + 1);
+            }
+            long monthTotalPrincipal = 0L;
+            long finalRemaining = remaining;
+            BigDecimal prepay = ledger.take(month);
+            if (prepay != null) {
+                prepaymentEvents++;
+                long prepayCents = prepayCents(prepay);
+                if (remaining >= prepayCents) {
+                    finalRemaining = remaining - prepayCents;
+                    monthTotalPrincipal += prepayCents;
+                    prepaid += prepayCents;
+                } else {
+                    monthTotalPrincipal += remaining;
+                    prepaid += remaining;
+                    finalRemaining = 0L;
+                }
+                int remainingMonths = totalMonths - month;
+                monthlyFixedRepay = remainingMonths > 0 && finalRemaining > 0
+                        ? annuityFactorService.paymentCents(finalRemaining, monthRate, remainingMonths) : 0L;
+            }
+            interest = roundHalfUp(remaining * rate8, RATE8_UNIT);
+            long monthlyPrincipal;
+            if (month == totalMonths || finalRemaining <= reserved) {
+                monthlyPrincipal = Math.max(finalRemaining - reserved, 0L);
+                monthTotalPrincipal += monthlyPrincipal;
+                finalRemaining = reserved;
+            } else {
+                monthlyPrincipal = Math.max(monthlyFixedRepay - interest, 0L);
+                monthTotalPrincipal += monthlyPrincipal;
+                finalRemaining = Math.max(finalRemaining - monthlyPrincipal, 0L);
+            }
+            regularPrincipal = monthlyPrincipal;
+            principal = monthTotalPrincipal;
+            remaining = finalRemaining;
+        }
+    }
+
+    /**
+     * 封装总计信息
+     */
+    private EqualPrincipalRepayResponse buildResponse(EqualPrincipalRepayRequest request, int totalMonths,
+                                                      List<EqualPrincipalRepayResponse.MonthlyDetail> monthlyDetails,
+                                                      List<EqualPrincipalRepayResponse.YearSummary> yearSummaries,
+                                                      long totalAllPrincipal, long totalAllInterest) {
+        EqualPrincipalRepayResponse repayResponse = new EqualPrincipalRepayResponse();
+        repayResponse.setMonthlyDetails(monthlyDetails);
+        repayResponse.setYearSummaries(yearSummaries);
+        repayResponse.setTotalAllPrincipal(BigDecimal.valueOf(totalAllPrincipal, SCALE));
+        repayResponse.setTotalAllInterest(BigDecimal.valueOf(totalAllInterest, SCALE));
+        repayResponse.setTotalAllRepay(BigDecimal.valueOf(totalAllPrincipal + totalAllInterest, SCALE));
+        repayResponse.setLoanTotal(request.getLoanTotal());
+        repayResponse.setAnnualRate(request.getAnnualRate());
+        repayResponse.setYears(request.getYears());
+        repayResponse.setTotalMonths(totalMonths);
+        return repayResponse;
+    }
+
+    /**
+     * 校验入参能否无损使用定点数计算：金额均可精确表示为非负的分，且 剩余本金×放大后的利率 不会溢出
+     */
+    private boolean supports(EqualPrincipalRepayRequest request, PrepaymentLedger ledger, long scaledRate) {
+        if (scaledRate < 0 || request.getYears() == null) {
+            return false;
+        }
+        long loanTotal = toCents(request.getLoanTotal());
+        long reserved = toCents(request.getReservedPrincipal());
+        if (loanTotal == NOT_CENTS || reserved == NOT_CENTS) {
+            return false;
+        }
+        // 剩余本金不会超过贷款总额，保证逐月乘法不溢出
+        if (scaledRate > 0 && loanTotal > Long.MAX_VALUE / scaledRate) {
+            return false;
+        }
+        // 提前还款按规则汇总校验，不逐月展开
+        if (!ledger.fitsCents()) {
+            return false;
+        }
+        long prepayTotal = toCents(ledger.total());
+        return prepayTotal != NOT_CENTS && prepayTotal <= Long.MAX_VALUE / 2 - loanTotal;
+    }
+
+    /**
+     * 金额转换为分，无法无损转换（超过2位小数/负数/溢出）时返回 NOT_CENTS
+     */
+    private static long toCents(BigDecimal amount) {
+        if (amount == null || amount.signum() < 0) {
+            return NOT_CENTS;
+        }
+        try {
+            return amount.movePointRight(SCALE).longValueExact();
+        } catch (ArithmeticException e) {
+            return NOT_CENTS;
+        }
+    }
+
+    /**
+     * 提前还款金额转换为分：商贷退回的剩余金额在保留本金大于0时可能为负数，按原值参与计算（与 BigDecimal 实现一致）
+     */
+    private static long prepayCents(BigDecimal amount) {
+        try {
+            return amount.movePointRight(SCALE).longValueExact();
+        } catch (ArithmeticException e) {
+            throw new IllegalStateException("提前还款金额无法按分计算：" + amount, e);
+        }
+    }
+
+    /**
+     * 等额本金放大后的月利率（年利率/1200 保留6位小数），溢出时返回-1
+     */
+    private static long rate6(BigDecimal annualRate) {
+        return scaledRate(annualRate.divide(new BigDecimal(1200), 6, ROUND_MODE), 6);
+    }
+
+    /**
+     * 已按固定小数位舍入的利率转换为放大后的 long，溢出时返回-1（回退 BigDecimal 实现）
+     */
+    private static long scaledRate(BigDecimal rate, int digits) {
+        try {
+            return rate.movePointRight(digits).longValueExact();
+        } catch (ArithmeticException e) {
+            return -1L;
+        }
+    }
+
+    /**
+     * 整数除法，按 HALF_UP 舍入（与 CONSTANT.ROUND_MODE 一致）
+     */
+    static long roundHalfUp(long dividend, long divisor) {
+        long quotient = dividend / divisor;
+        long remainder = Math.abs(dividend % divisor);
+        if (remainder * 2 >= divisor) {
+            quotient += dividend < 0 ? -1 : 1;
+        }
+        return quotient;
+    }
+}
@@ -0,0 +1,117 @@
+package com.repay.service.impl;
+
+import com.repay.entity.EqualPrincipalRepayRequest;
+import com.repay.entity.EqualPrincipalRepayResponse;
+import com.repay.entity.HouseholdLoan;
+import com.repay.entity.HouseholdLoanRequest;
+import com.repay.entity.HouseholdLoanResponse;
+import com.repay.service.PrepaymentLedger;
+import com.repay.service.PrepaymentSchedule;
+import com.repay.service.RepayCalculator;
+import com.repay.service.ScheduleMerger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+/**
+ * 家庭贷款组合计算（N 笔贷款，各自的还款方式、利率调整和提前还款）
+ * 各笔贷款相互独立：第一笔在调用线程计算，其余在组合贷线程池中并行计算；
+ * 全部完成后用 {@link ScheduleMerger} 按月归并为合并明细，规则与组合贷（商贷 + 公积金）的合并相同。
+ */
+@Service
+public class HouseholdService {
+
+    @Qualifier(value = "EqualPrincipalParamValidator")
+    @Autowired
+    private RepayCalculator repayCalculator;
+
+    // 各笔贷款并行计算的线程池（未配置时顺序计算）
+    @Qualifier("repayLegExecutor")
+    @Autowired(required = false)
+    private Executor legExecutor;
+
+    @Autowired(required = false)
+    private RepayMetrics repayMetrics = RepayMetrics.noop();
+
+    /**
+     * @param request 各笔贷款参数
+     * @return 各笔贷款结果与合并结果
+     */
+    public HouseholdLoanResponse calculate(HouseholdLoanRequest request) {
+        List<HouseholdLoan> loans = request.getLoans();
+        List<CompletableFuture<EqualPrincipalRepayResponse>> futures = new ArrayList<>(loans.size());
+        for (int k = 1; k < loans.size(); k++) {
+            HouseholdLoan loan = loans.get(k);
+            futures.add(legExecutor == null
+                    ? CompletableFuture.completedFuture(calculateLeg(loan))
+                    : CompletableFuture.supplyAsync(RequestTiming.propagate(() -> calculateLeg(loan)), legExecutor));
+        }
+        List<EqualPrincipalRepayResponse> results = new ArrayList<>(loans.size());
+        results.add(calculateLeg(loans.get(0)));
+        try {
+            for (CompletableFuture<EqualPrincipalRepayResponse> future : futures) {
+                results.add(future.join());
+            }
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+
+        long start = System.nanoTime();
+        HouseholdLoanResponse response = new HouseholdLoanResponse();
+        List<HouseholdLoanResponse.Leg> legs = new ArrayList<>(loans.size());
+        List<List<EqualPrincipalRepayResponse.MonthlyDetail>> schedules = new ArrayList<>(loans.size());
+        BigDecimal totalPrincipal = BigDecimal.ZERO;
+        BigDecimal totalInterest = BigDecimal.ZERO;
+        int maxMonths = 0;
+        for (int k = 0; k < loans.size(); k++) {
+            EqualPrincipalRepayResponse result = results.get(k);
+            legs.add(leg(loans.get(k), result));
+            schedules.add(result.getMonthlyDetails());
+            totalPrincipal = totalPrincipal.add(result.getTotalAllPrincipal());
+            totalInterest = totalInterest.add(result.getTotalAllInterest());
+            maxMonths = Math.max(maxMonths, result.getTotalMonths());
+        }
+        response.setLegs(legs);
+        response.setMonthlyDetails(ScheduleMerger.merge(schedules, maxMonths));
+        response.setTotalMonths(maxMonths);
+        response.setTotalAllPrincipal(totalPrincipal);
+        response.setTotalAllInterest(totalInterest);
+        response.setTotalAllRepay(totalPrincipal.add(totalInterest));
+        repayMetrics.record(RepayMetrics.Phase.MERGE, start);
+        return response;
+    }
+
+    /**
+     * 计算单笔贷款（提前还款、周期还款只用于本笔）
+     */
+    private EqualPrincipalRepayResponse calculateLeg(HouseholdLoan loan) {
+        EqualPrincipalRepayRequest request = repayCalculator.buildSingleLoanRequest(loan.getLoanTotal(),
+                loan.getAnnualRate(), loan.getYears(), loan.getReservedPrincipal());
+        request.setRateChanges(loan.getRateChanges());
+        PrepaymentLedger ledger = PrepaymentLedger.of(PrepaymentSchedule.of(loan.getPrepayments(), loan.getPeriodicRepayList()));
+        return repayCalculator.collect(request, repayCalculator.openSchedule(request, ledger, loan.getMethod()));
+    }
+
+    private static HouseholdLoanResponse.Leg leg(HouseholdLoan loan, EqualPrincipalRepayResponse result) {
+        HouseholdLoanResponse.Leg leg = new HouseholdLoanResponse.Leg();
+        leg.setName(loan.getName());
+        leg.setMethod(loan.getMethod());
+        leg.setLoanTotal(result.getLoanTotal());
+        leg.setAnnualRate(result.getAnnualRate());
+        leg.setYears(result.getYears());
+        leg.setTotalMonths(result.getTotalMonths());
+        leg.setTotalPrincipal(result.getTotalAllPrincipal());
+        leg.setTotalInterest(result.getTotalAllInterest());
+        leg.setTotalRepay(result.getTotalAllRepay());
+        leg.setMonthlyDetails(result.getMonthlyDetails());
+        leg.setYearSummaries(result.getYearSummaries());
+        return leg;
+    }
+}
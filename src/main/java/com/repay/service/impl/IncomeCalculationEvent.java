@@ -0,0 +1,38 @@
+package com.repay.service.impl;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * 收益统计 JFR 事件（{@link IncomeCalculatorService#calculateIncome}）
+ */
+@Name("com.repay.IncomeCalculation")
+@Label("Income Calculation")
+@Category({"Repay", "Calculation"})
+@Description("储蓄产品月度/年度收益统计")
+@StackTrace(false)
+public class IncomeCalculationEvent extends Event {
+
+    @Label("Target Year")
+    int targetYear;
+
+    @Label("Product Count")
+    @Description("储蓄产品数量")
+    int productCount;
+
+    @Label("Bank Deposits")
+    int bankDeposits;
+
+    @Label("Bonds")
+    int bonds;
+
+    @Label("Funds")
+    int funds;
+
+    @Label("Stocks")
+    int stocks;
+}
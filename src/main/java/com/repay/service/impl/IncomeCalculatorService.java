@@ -26,6 +26,8 @@ public class IncomeCalculatorService {
      * @return 收益统计结果
      */
     public IncomeResponse calculateIncome(IncomeCalculateRequest request, int targetYear) {
+        IncomeCalculationEvent event = new IncomeCalculationEvent();
+        event.begin();
         List<SavingsProduct> products = request.getProducts();
         BigDecimal totalYearSalary = request.getSalaryConfig().getMonthlySalary().multiply(new BigDecimal(12));
         // 1. 初始化月度收益容器（1-12月）
@@ -72,9 +74,29 @@ public class IncomeCalculatorService {
                 .sorted(Comparator.comparingInt(MonthlyIncome::getMonth))
                 .collect(Collectors.toList()));
 
+        if (event.shouldCommit()) {
+            describe(event, products, targetYear);
+            event.commit();
+        }
         return response;
     }
 
+    /**
+     * 填充 JFR 事件的请求形态字段
+     */
+    private static void describe(IncomeCalculationEvent event, List<SavingsProduct> products, int targetYear) {
+        event.targetYear = targetYear;
+        event.productCount = products.size();
+        for (SavingsProduct product : products) {
+            switch (product.getSavingsType()) {
+                case BANK_DEPOSIT -> event.bankDeposits++;
+                case BOND -> event.bonds++;
+                case FUND -> event.funds++;
+                case STOCK -> event.stocks++;
+            }
+        }
+    }
+
     /**
      * 计算银行存款收益（活期/定期）
      */
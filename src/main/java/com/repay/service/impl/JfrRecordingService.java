@@ -0,0 +1,66 @@
+package com.repay.service.impl;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 按需 JFR 记录：在限定时长内记录 JVM 事件（GC、CPU 采样、内存分配等）和还款计算事件
+ * （{@link RepayCalculationEvent}、{@link IncomeCalculationEvent}），返回 .jfr 文件内容。
+ * 同一时间只允许一个记录，文件大小受 max-size-mb 限制（超出时丢弃最早的数据）。
+ */
+@Service
+@ConditionalOnProperty(name = "repay.jfr.enabled", havingValue = "true")
+public class JfrRecordingService {
+
+    private final AtomicBoolean recording = new AtomicBoolean();
+
+    // 单个记录的最大文件大小（MB）
+    @Value("${repay.jfr.max-size-mb:64}")
+    private long maxSizeMb;
+
+    /**
+     * 记录指定时长（阻塞到记录结束）
+     * @param duration 记录时长
+     * @param settings JFR 预置配置：default（开销约1%）/ profile（开销约2%，含更细的分配、锁采样）
+     * @return .jfr 文件内容
+     * @throws IllegalStateException 已有记录正在进行
+     * @throws IllegalArgumentException 预置配置不存在
+     */
+    public byte[] record(Duration duration, String settings) throws IOException, InterruptedException {
+        Configuration configuration;
+        try {
+            configuration = Configuration.getConfiguration(settings);
+        } catch (ParseException | IOException e) {
+            throw new IllegalArgumentException("JFR 配置不存在：" + settings, e);
+        }
+        if (!recording.compareAndSet(false, true)) {
+            throw new IllegalStateException("已有 JFR 记录正在进行");
+        }
+        Path file = Files.createTempFile("repay-", ".jfr");
+        try (Recording jfr = new Recording(configuration)) {
+            jfr.setName("repay-on-demand");
+            jfr.setMaxSize(maxSizeMb * 1024 * 1024);
+            jfr.setToDisk(true);
+            jfr.enable(RepayCalculationEvent.class);
+            jfr.enable(IncomeCalculationEvent.class);
+            jfr.start();
+            Thread.sleep(duration.toMillis());
+            jfr.stop();
+            jfr.dump(file);
+            return Files.readAllBytes(file);
+        } finally {
+            Files.deleteIfExists(file);
+            recording.set(false);
+        }
+    }
+}
@@ -0,0 +1,301 @@
+package com.repay.service.impl;
+
+import com.repay.entity.EqualPrincipalRepayRequest;
+import com.repay.entity.EqualPrincipalRepayResponse;
+import com.repay.entity.LoanSolverRequest;
+import com.repay.entity.LoanSolverResponse;
+import com.repay.service.PrepaymentLedger;
+import com.repay.service.PrepaymentSchedule;
+import com.repay.service.PrepaymentSource;
+import com.repay.service.RateSchedule;
+import com.repay.service.RepayCalculator;
+import com.repay.service.ScheduleCursor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+
+import static com.repay.constant.CONSTANT.ROUND_MODE;
+import static com.repay.constant.CONSTANT.SCALE;
+
+/**
+ * 反向求解：最大可贷额、最短年限、结清月份
+ * <ul>
+ *     <li>最大可贷额：固定利率时按年金系数（等额本息）或 1/n + 月利率（等额本金）闭式估算，得到只差几分（等额本金几百分）的区间，
+ *     再用计算引擎逐分校验、在区间内二分；有利率调整时在 [0, (预算+0.01)×月数] 内二分</li>
+ *     <li>最短年限：固定利率时按年金公式反解月数取整到年，再校验相邻年限；有利率调整时在 [1, 最长年限] 内二分</li>
+ *     <li>结清月份：按提前还款计划逐月计算，剩余本金降到保留本金时停止，最多计算合同期限的月数</li>
+ * </ul>
+ * 校验用的「最高月供」由计算引擎给出（与还款计划逐分一致）：不含提前还款，取首月及各重定价月的月供，
+ * 等额本息末月的舍入尾差不计入。月供随贷款总额单调不减、随年限单调不增，二分结果即为最优解。
+ * 每次校验只计算到最后一个重定价月，固定利率时只计算首月。
+ */
+@Service
+public class LoanSolverService {
+    // 二分最多校验次数（金额区间最多约 2^40 分）
+    private static final int MAX_EVALUATIONS = 64;
+    private static final BigDecimal CENT = new BigDecimal("0.01");
+    private static final BigDecimal HALF_CENT = new BigDecimal("0.005");
+    private static final MathContext ESTIMATE = MathContext.DECIMAL64;
+
+    @Qualifier(value = "EqualPrincipalParamValidator")
+    @Autowired
+    private RepayCalculator repayCalculator;
+
+    @Autowired
+    private AnnuityFactorService annuityFactorService;
+
+    /**
+     * 给定月供预算、利率、年限，求最大贷款总额（精确到分）
+     * @param request 求解参数（method、annualRate、monthlyBudget、years，可选 rateChanges）
+     * @return 最大贷款总额及对应的最高月供
+     */
+    public LoanSolverResponse maxLoan(LoanSolverRequest request) {
+        require(request.getMonthlyBudget(), "月供预算");
+        require(request.getYears(), "还款年限");
+        RateSchedule rates = rates(request);
+        BigDecimal budget = request.getMonthlyBudget().setScale(SCALE, ROUND_MODE);
+        int months = request.getYears() * 12;
+        Evaluator evaluator = new Evaluator(request);
+
+        // 区间 (lo, hi]：lo 分满足预算（0 视为满足），hi 分超出预算
+        long lo = 0L;
+        long hi = cents(budget.add(CENT).multiply(BigDecimal.valueOf(months))) + 1;
+        if (rates.isFixed()) {
+            long[] bracket = closedFormBracket(request, budget, months);
+            if (bracket[0] > lo && evaluator.fits(bracket[0], request.getYears(), budget)) {
+                lo = bracket[0];
+            }
+            if (bracket[1] < hi && !evaluator.fits(bracket[1], request.getYears(), budget)) {
+                hi = bracket[1];
+            }
+        }
+        while (hi - lo > 1 && evaluator.evaluations < MAX_EVALUATIONS) {
+            long mid = lo + (hi - lo) / 2;
+            if (evaluator.fits(mid, request.getYears(), budget)) {
+                lo = mid;
+            } else {
+                hi = mid;
+            }
+        }
+        if (lo == 0L) {
+            throw new IllegalArgumentException("月供预算不足以贷款");
+        }
+        BigDecimal loanTotal = BigDecimal.valueOf(lo, SCALE);
+        LoanSolverResponse response = response(request, rates.isFixed() ? "closed-form" : "bisection");
+        response.setLoanTotal(loanTotal);
+        response.setYears(request.getYears());
+        response.setMonthlyRepay(evaluator.peakPayment(loanTotal, request.getYears()));
+        response.setEvaluations(evaluator.evaluations);
+        return response;
+    }
+
+    /**
+     * 给定月供预算、贷款总额、利率，求最短还款年限
+     * @param request 求解参数（method、annualRate、monthlyBudget、loanTotal、maxYears，可选 rateChanges）
+     * @return 最短年限及对应的最高月供
+     */
+    public LoanSolverResponse minTerm(LoanSolverRequest request) {
+        require(request.getMonthlyBudget(), "月供预算");
+        require(request.getLoanTotal(), "贷款总额");
+        RateSchedule rates = rates(request);
+        BigDecimal budget = request.getMonthlyBudget().setScale(SCALE, ROUND_MODE);
+        long loanCents = cents(request.getLoanTotal());
+        int maxYears = request.getMaxYears() == null ? 30 : request.getMaxYears();
+        Evaluator evaluator = new Evaluator(request);
+
+        int years;
+        if (rates.isFixed()) {
+            years = Math.min(maxYears, closedFormYears(request, budget));
+            if (evaluator.fits(loanCents, years, budget)) {
+                while (years > 1 && evaluator.fits(loanCents, years - 1, budget)) {
+                    years--;
+                }
+            } else {
+                do {
+                    years++;
+                } while (years <= maxYears && !evaluator.fits(loanCents, years, budget));
+            }
+        } else {
+            // (lo, hi]：lo 年超出预算（0 为哨兵），hi 年满足预算
+            int lo = 0;
+            int hi = maxYears;
+            if (evaluator.fits(loanCents, hi, budget)) {
+                while (hi - lo > 1) {
+                    int mid = (lo + hi) >>> 1;
+                    if (evaluator.fits(loanCents, mid, budget)) {
+                        hi = mid;
+                    } else {
+                        lo = mid;
+                    }
+                }
+                years = hi;
+            } else {
+                years = maxYears + 1;
+            }
+        }
+        if (years > maxYears) {
+            throw new IllegalArgumentException("月供预算在" + maxYears + "年内不足以偿还贷款");
+        }
+        LoanSolverResponse response = response(request, rates.isFixed() ? "closed-form" : "bisection");
+        response.setLoanTotal(request.getLoanTotal());
+        response.setYears(years);
+        response.setMonthlyRepay(evaluator.peakPayment(request.getLoanTotal(), years));
+        response.setEvaluations(evaluator.evaluations);
+        return response;
+    }
+
+    /**
+     * 给定提前还款计划，求结清月份
+     * @param request 求解参数（method、annualRate、loanTotal、years，可选 reservedPrincipal、rateChanges、prepayments、periodicRepayList）
+     * @return 结清月份、提前的月数和结清前累计利息
+     */
+    public LoanSolverResponse payoff(LoanSolverRequest request) {
+        require(request.getLoanTotal(), "贷款总额");
+        require(request.getYears(), "还款年限");
+        rates(request);
+        BigDecimal reserved = request.getReservedPrincipal() == null ? BigDecimal.ZERO : request.getReservedPrincipal();
+        EqualPrincipalRepayRequest loan = repayCalculator.buildSingleLoanRequest(request.getLoanTotal(),
+                request.getAnnualRate(), request.getYears(), reserved);
+        loan.setRateChanges(request.getRateChanges());
+        PrepaymentLedger ledger = PrepaymentLedger.of(PrepaymentSchedule.of(request.getPrepayments(), request.getPeriodicRepayList()));
+        ScheduleCursor cursor = repayCalculator.openSchedule(loan, ledger, request.getMethod());
+
+        int totalMonths = cursor.getTotalMonths();
+        int payoffMonth = totalMonths;
+        BigDecimal totalInterest = BigDecimal.ZERO;
+        while (cursor.hasNext()) {
+            EqualPrincipalRepayResponse.MonthlyDetail row = cursor.next();
+            totalInterest = totalInterest.add(row.getMonthlyInterest());
+            if (row.getRemainingPrincipal().compareTo(reserved) <= 0) {
+                payoffMonth = row.getMonth();
+                break;
+            }
+        }
+        LoanSolverResponse response = response(request, "schedule");
+        response.setLoanTotal(request.getLoanTotal());
+        response.setYears(request.getYears());
+        response.setPayoffMonth(payoffMonth);
+        response.setMonthsSaved(totalMonths - payoffMonth);
+        response.setTotalInterest(totalInterest);
+        response.setEvaluations(1);
+        return response;
+    }
+
+    /**
+     * 固定利率最大可贷额的闭式区间（分）：[满足预算的下界, 超出预算的上界]
+     * 等额本息月供 = round(L×f)，L×f < 预算+0.005 时不超出预算；
+     * 等额本金首月月供 = round(L/n) + round(L×月利率)，与 L×(1/n+月利率) 相差不超过 0.01。
+     */
+    private long[] closedFormBracket(LoanSolverRequest request, BigDecimal budget, int months) {
+        if ("equalInterest".equals(request.getMethod())) {
+            BigDecimal factor = annuityFactorService.factor(EqualPrincipalCalculatorImpl.monthRate(request.getAnnualRate()), months);
+            long edge = budget.add(HALF_CENT).divide(factor, ESTIMATE).movePointRight(SCALE)
+                    .setScale(0, RoundingMode.CEILING).longValueExact();
+            return new long[]{edge - 2, edge + 1};
+        }
+        BigDecimal perUnit = BigDecimal.ONE.divide(BigDecimal.valueOf(months), ESTIMATE)
+                .add(request.getAnnualRate().divide(new BigDecimal(1200), 6, ROUND_MODE));
+        long low = budget.subtract(CENT).divide(perUnit, ESTIMATE).movePointRight(SCALE)
+                .setScale(0, RoundingMode.FLOOR).longValueExact();
+        long high = budget.add(CENT).divide(perUnit, ESTIMATE).movePointRight(SCALE)
+                .setScale(0, RoundingMode.FLOOR).longValueExact() + 1;
+        return new long[]{low - 1, high + 1};
+    }
+
+    /**
+     * 固定利率最短年限的闭式估算：等额本息 n = -ln(1 - L×r/A) / ln(1+r)，等额本金 n = L / (A - L×月利率)，取整到年
+     * 预算不足以支付首月利息时返回 {@link Integer#MAX_VALUE}
+     */
+    private int closedFormYears(LoanSolverRequest request, BigDecimal budget) {
+        double loan = request.getLoanTotal().doubleValue();
+        double payment = budget.doubleValue();
+        double months;
+        if ("equalInterest".equals(request.getMethod())) {
+            double rate = EqualPrincipalCalculatorImpl.monthRate(request.getAnnualRate()).doubleValue();
+            double ratio = loan * rate / payment;
+            months = ratio >= 1 ? Double.POSITIVE_INFINITY : -Math.log1p(-ratio) / Math.log1p(rate);
+        } else {
+            double rate = request.getAnnualRate().divide(new BigDecimal(1200), 6, ROUND_MODE).doubleValue();
+            double principal = payment - loan * rate;
+            months = principal <= 0 ? Double.POSITIVE_INFINITY : loan / principal;
+        }
+        if (!(months < Integer.MAX_VALUE - 11)) {
+            return Integer.MAX_VALUE;
+        }
+        return Math.max(1, (int) Math.ceil(months / 12));
+    }
+
+    /**
+     * 利率调整计划；等额本息执行利率为0时原计算除零，提前拒绝
+     */
+    private static RateSchedule rates(LoanSolverRequest request) {
+        RateSchedule rates = RateSchedule.of(request.getAnnualRate(), request.getRateChanges());
+        if ("equalInterest".equals(request.getMethod()) && rates.minRate().signum() <= 0) {
+            throw new IllegalArgumentException("等额本息年利率必须大于0");
+        }
+        return rates;
+    }
+
+    private static void require(Object value, String name) {
+        if (value == null) {
+            throw new IllegalArgumentException(name + "不能为空");
+        }
+    }
+
+    private static long cents(BigDecimal amount) {
+        return amount.setScale(SCALE, ROUND_MODE).unscaledValue().longValueExact();
+    }
+
+    private static LoanSolverResponse response(LoanSolverRequest request, String solver) {
+        LoanSolverResponse response = new LoanSolverResponse();
+        response.setMethod(request.getMethod());
+        response.setSolver(solver);
+        return response;
+    }
+
+    /**
+     * 最高月供校验（计数校验次数）
+     */
+    private class Evaluator {
+        private final LoanSolverRequest request;
+        private int evaluations;
+
+        Evaluator(LoanSolverRequest request) {
+            this.request = request;
+        }
+
+        boolean fits(long loanCents, int years, BigDecimal budget) {
+            evaluations++;
+            return peakPayment(BigDecimal.valueOf(loanCents, SCALE), years).compareTo(budget) <= 0;
+        }
+
+        /**
+         * 不含提前还款的最高月供：首月及各重定价月的月供（等额本息末月尾差不计），计算到最后一个重定价月为止
+         */
+        BigDecimal peakPayment(BigDecimal loanTotal, int years) {
+            EqualPrincipalRepayRequest loan = repayCalculator.buildSingleLoanRequest(loanTotal,
+                    request.getAnnualRate(), years, BigDecimal.ZERO);
+            loan.setRateChanges(request.getRateChanges());
+            RateSchedule rates = RateSchedule.of(loan);
+            ScheduleCursor cursor = repayCalculator.openSchedule(loan, PrepaymentLedger.of(PrepaymentSchedule.empty()),
+                    request.getMethod());
+            int totalMonths = cursor.getTotalMonths();
+            BigDecimal peak = BigDecimal.ZERO;
+            while (cursor.hasNext()) {
+                EqualPrincipalRepayResponse.MonthlyDetail row = cursor.next();
+                int month = row.getMonth();
+                if ((month == 1 || rates.changesAt(month)) && (month < totalMonths || totalMonths == 1)) {
+                    peak = peak.max(row.getMonthlyRepay());
+                }
+                if (rates.nextChange(month) == PrepaymentSource.NONE) {
+                    break;
+                }
+            }
+            return peak;
+        }
+    }
+}
@@ -0,0 +1,322 @@
+package com.repay.service.impl;
+
+import com.repay.entity.CombinationLoanRequest;
+import com.repay.entity.CombinationLoanResponse;
+import com.repay.entity.EqualPrincipalRepayRequest;
+import com.repay.entity.EqualPrincipalRepayResponse;
+import com.repay.entity.PrepaymentSaving;
+import com.repay.entity.RepayCalculationState;
+import com.repay.entity.ScheduleView;
+import com.repay.service.LegPrepayments;
+import com.repay.service.PrepaymentLedger;
+import com.repay.service.PrepaymentSource;
+import com.repay.service.RepayCalculator;
+import com.repay.service.ScheduleCursor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.BiConsumer;
+
+/**
+ * 提前还款节省利息归因：逐条计算「去掉该条提前还款（或整条周期还款规则）、其余不变」时多付的利息
+ * <ul>
+ *     <li>去掉某条后，还款计划在其生效月份 k 之前与实际计划完全相同：按 {@link PrepaymentSource#firstDifference} 找到各笔贷款的 k，
+ *     从实际计划第 k-1 月的检查点继续计算，之前的月份和累计利息直接复用</li>
+ *     <li>实际计划只计算一次（同时生成返回的还款计划），计算时只在各条的 k-1 月记录检查点和累计利息</li>
+ *     <li>businessFirst 分配时公积金贷的提前还款依赖商贷剩余，两笔贷款从同一个月份继续计算（与 what-if 增量计算相同）</li>
+ * </ul>
+ * 每条的重算量为 k 之后的月数（而不是整个期限），周期还款规则作为一条整体归因，不按期展开。
+ * 利息逐分舍入、等额本息按剩余本金重算月供，各条节省的利息之和一般不等于全部提前还款节省的利息。
+ */
+@Service
+public class PrepaymentAttributionService {
+
+    @Qualifier(value = "EqualPrincipalParamValidator")
+    @Autowired
+    private RepayCalculator repayCalculator;
+
+    // 单次最多归因的条数（每条从其生效月份起重算一次）
+    @Value("${repay.attribution.max-units:100}")
+    private int maxUnits = 100;
+
+    /**
+     * 计算组合贷款，并计算各条提前还款节省的利息
+     * @param request 贷款参数
+     * @param type 还款方式：equalPrincipal / equalInterest
+     * @param view 视图级别
+     * @return 还款结果（prepaymentSavings 按 prepayments、periodicRepayList、businessPrepayments、fundPrepayments 的顺序）
+     * @throws IllegalArgumentException 归因条数超过上限
+     */
+    public CombinationLoanResponse calculate(CombinationLoanRequest request, String type, ScheduleView view) {
+        int unitCount = size(request.getPrepayments()) + size(request.getPeriodicRepayList())
+                + size(request.getBusinessPrepayments()) + size(request.getFundPrepayments());
+        if (unitCount > maxUnits) {
+            throw new IllegalArgumentException("归因的提前还款条数超过上限：" + unitCount + " > " + maxUnits);
+        }
+        boolean hasBusiness = "single".equals(request.getLoanType()) || "combination".equals(request.getLoanType());
+        boolean hasFund = "fund".equals(request.getLoanType()) || "combination".equals(request.getLoanType());
+        LegPrepayments prepayments = repayCalculator.allocatePrepayments(request);
+        List<Unit> units = units(request, prepayments);
+        Set<Integer> businessMonths = new TreeSet<>();
+        Set<Integer> fundMonths = new TreeSet<>();
+        for (Unit unit : units) {
+            if (unit.businessChange != PrepaymentSource.NONE) {
+                businessMonths.add(unit.businessChange - 1);
+            }
+            if (unit.fundChange != PrepaymentSource.NONE) {
+                fundMonths.add(unit.fundChange - 1);
+            }
+        }
+
+        // 实际还款计划：生成返回结果，同时记录检查点
+        EqualPrincipalRepayRequest businessReq = hasBusiness ? repayCalculator.buildBusinessRequest(request) : null;
+        EqualPrincipalRepayRequest fundReq = hasFund ? repayCalculator.buildFundRequest(request) : null;
+        EqualPrincipalRepayResponse businessResponse = null;
+        EqualPrincipalRepayResponse fundResponse = null;
+        Baseline business = null;
+        Baseline fund = null;
+        PrepaymentLedger businessLedger = prepayments.businessLedger();
+        if (businessReq != null) {
+            RecordingCursor cursor = new RecordingCursor(repayCalculator.openSchedule(businessReq, businessLedger, type), businessMonths);
+            businessResponse = repayCalculator.collect(businessReq, cursor);
+            business = cursor.baseline();
+        }
+        if (fundReq != null) {
+            RecordingCursor cursor = new RecordingCursor(
+                    repayCalculator.openSchedule(fundReq, prepayments.fundLedger(businessLedger), type), fundMonths);
+            fundResponse = repayCalculator.collect(fundReq, cursor);
+            fund = cursor.baseline();
+        }
+
+        List<PrepaymentSaving> savings = new ArrayList<>(units.size());
+        for (Unit unit : units) {
+            BigDecimal interest = BigDecimal.ZERO;
+            int recomputed = 0;
+            PrepaymentLedger looBusinessLedger = null;
+            if (business != null) {
+                if (unit.businessChange == PrepaymentSource.NONE) {
+                    interest = interest.add(business.interest);
+                } else {
+                    looBusinessLedger = ledger(unit.prepayments.business(), unit.businessChange);
+                    Suffix suffix = resume(businessReq, business, looBusinessLedger, type, unit.businessChange);
+                    interest = interest.add(suffix.interest);
+                    recomputed += suffix.months;
+                }
+            }
+            if (fund != null) {
+                if (unit.fundChange == PrepaymentSource.NONE) {
+                    interest = interest.add(fund.interest);
+                } else {
+                    PrepaymentSource fundSource = unit.prepayments.spill() && looBusinessLedger != null
+                            ? PrepaymentSource.sum(looBusinessLedger.residual(), unit.prepayments.fund()) : unit.prepayments.fund();
+                    Suffix suffix = resume(fundReq, fund, ledger(fundSource, unit.fundChange), type, unit.fundChange);
+                    interest = interest.add(suffix.interest);
+                    recomputed += suffix.months;
+                }
+            }
+            BigDecimal actual = (business == null ? BigDecimal.ZERO : business.interest)
+                    .add(fund == null ? BigDecimal.ZERO : fund.interest);
+            PrepaymentSaving saving = new PrepaymentSaving();
+            saving.setSource(unit.source);
+            saving.setIndex(unit.index);
+            saving.setMonth(unit.month);
+            saving.setAmount(unit.amount);
+            saving.setInterestSaved(interest.subtract(actual));
+            saving.setRecomputedMonths(recomputed);
+            savings.add(saving);
+        }
+
+        CombinationLoanResponse response = repayCalculator.combine(businessResponse, fundResponse);
+        if (!view.legMonthly()) {
+            // 各笔贷款的每月明细只用于合并
+            response.setBusinessMonthlyDetails(null);
+            response.setFundMonthlyDetails(null);
+        }
+        response.setView(view);
+        response.setPrepaymentSavings(savings);
+        return response;
+    }
+
+    private static int size(List<?> list) {
+        return list == null ? 0 : list.size();
+    }
+
+    /**
+     * 逐条列出提前还款，计算去掉该条后的分配和各笔贷款第一个变化的月份
+     */
+    private List<Unit> units(CombinationLoanRequest request, LegPrepayments prepayments) {
+        List<Unit> units = new ArrayList<>();
+        forEach(request.getPrepayments(), (index, prepayment) -> {
+            CombinationLoanRequest without = request.copy();
+            without.setPrepayments(remove(request.getPrepayments(), index));
+            units.add(unit("prepayments", index, prepayment.getMonth(), prepayment.getAmount(), without, prepayments));
+        });
+        forEach(request.getPeriodicRepayList(), (index, periodRepay) -> {
+            CombinationLoanRequest without = request.copy();
+            without.setPeriodicRepayList(remove(request.getPeriodicRepayList(), index));
+            units.add(unit("periodicRepayList", index, periodRepay.getStartMonth(), periodRepay.getAmount(), without, prepayments));
+        });
+        forEach(request.getBusinessPrepayments(), (index, prepayment) -> {
+            CombinationLoanRequest without = request.copy();
+            without.setBusinessPrepayments(remove(request.getBusinessPrepayments(), index));
+            units.add(unit("businessPrepayments", index, prepayment.getMonth(), prepayment.getAmount(), without, prepayments));
+        });
+        forEach(request.getFundPrepayments(), (index, prepayment) -> {
+            CombinationLoanRequest without = request.copy();
+            without.setFundPrepayments(remove(request.getFundPrepayments(), index));
+            units.add(unit("fundPrepayments", index, prepayment.getMonth(), prepayment.getAmount(), without, prepayments));
+        });
+        return units;
+    }
+
+    private Unit unit(String source, int index, Integer month, BigDecimal amount, CombinationLoanRequest without,
+                      LegPrepayments prepayments) {
+        LegPrepayments loo = repayCalculator.allocatePrepayments(without);
+        int businessChange = PrepaymentSource.firstDifference(prepayments.business(), loo.business());
+        int fundChange = PrepaymentSource.firstDifference(prepayments.fund(), loo.fund());
+        if (prepayments.spill()) {
+            businessChange = fundChange = Math.min(businessChange, fundChange);
+        }
+        return new Unit(source, index, month, amount, loo, businessChange, fundChange);
+    }
+
+    /**
+     * 从实际计划第 change-1 月的检查点继续计算，返回总利息（复用的累计利息 + 重算部分）
+     */
+    private Suffix resume(EqualPrincipalRepayRequest request, Baseline baseline, PrepaymentLedger ledger, String type, int change) {
+        int after = change - 1;
+        ScheduleCursor cursor = repayCalculator.openSchedule(request, ledger, type, baseline.checkpoints.get(after));
+        BigDecimal interest = baseline.prefixInterest.get(after);
+        while (cursor.hasNext()) {
+            interest = interest.add(cursor.next().getMonthlyInterest());
+        }
+        return new Suffix(interest, cursor.computedMonths());
+    }
+
+    /**
+     * 第 change 月及以后的提前还款有变化时的台账：此前月份已反映在检查点中
+     */
+    private static PrepaymentLedger ledger(PrepaymentSource source, int change) {
+        return change <= 1 ? PrepaymentLedger.of(source) : PrepaymentLedger.of(source, change - 1);
+    }
+
+    private static <T> void forEach(List<T> list, BiConsumer<Integer, T> action) {
+        if (list == null) {
+            return;
+        }
+        for (int index = 0; index < list.size(); index++) {
+            if (list.get(index) != null) {
+                action.accept(index, list.get(index));
+            }
+        }
+    }
+
+    private static <T> List<T> remove(List<T> list, int index) {
+        List<T> result = new ArrayList<>(list);
+        result.remove(index);
+        return result;
+    }
+
+    /**
+     * 一条提前还款（或一条周期还款规则）
+     * @param prepayments 去掉该条后的分配
+     * @param businessChange 去掉该条后商贷第一个变化的月份，不变时为 {@link PrepaymentSource#NONE}
+     * @param fundChange 去掉该条后公积金贷第一个变化的月份，不变时为 {@link PrepaymentSource#NONE}
+     */
+    private record Unit(String source, int index, Integer month, BigDecimal amount, LegPrepayments prepayments,
+                        int businessChange, int fundChange) {
+    }
+
+    /**
+     * 实际还款计划：总利息，以及指定月份末的检查点和累计利息（月份0为 null 和 0，从头计算）
+     */
+    private record Baseline(BigDecimal interest, Map<Integer, RepayCalculationState> checkpoints,
+                            Map<Integer, BigDecimal> prefixInterest) {
+    }
+
+    /**
+     * 重算结果
+     * @param interest 总利息
+     * @param months 逐月重算的月数
+     */
+    private record Suffix(BigDecimal interest, int months) {
+    }
+
+    /**
+     * 遍历实际还款计划时，在指定月份末记录检查点和累计利息
+     * 贷款提前结清后的月份记录结清时的状态（从该状态继续计算不会再产生利息）。
+     */
+    private static class RecordingCursor implements ScheduleCursor {
+        private final ScheduleCursor cursor;
+        private final Set<Integer> months;
+        private final Map<Integer, RepayCalculationState> checkpoints = new HashMap<>();
+        private final Map<Integer, BigDecimal> prefixInterest = new HashMap<>();
+        private BigDecimal interest = BigDecimal.ZERO;
+
+        RecordingCursor(ScheduleCursor cursor, Set<Integer> months) {
+            this.cursor = cursor;
+            this.months = months;
+            checkpoints.put(0, null);
+            prefixInterest.put(0, BigDecimal.ZERO);
+        }
+
+        @Override
+        public boolean hasNext() {
+            return cursor.hasNext();
+        }
+
+        @Override
+        public EqualPrincipalRepayResponse.MonthlyDetail next() {
+            EqualPrincipalRepayResponse.MonthlyDetail row = cursor.next();
+            interest = interest.add(row.getMonthlyInterest());
+            if (months.contains(row.getMonth())) {
+                checkpoints.put(row.getMonth(), cursor.checkpoint());
+                prefixInterest.put(row.getMonth(), interest);
+            }
+            return row;
+        }
+
+        @Override
+        public int getTotalMonths() {
+            return cursor.getTotalMonths();
+        }
+
+        @Override
+        public RepayCalculationState checkpoint() {
+            return cursor.checkpoint();
+        }
+
+        @Override
+        public int computedMonths() {
+            return cursor.computedMonths();
+        }
+
+        @Override
+        public int prepaymentEvents() {
+            return cursor.prepaymentEvents();
+        }
+
+        /**
+         * @return 实际还款计划（遍历结束后调用）
+         */
+        Baseline baseline() {
+            RepayCalculationState last = cursor.checkpoint();
+            for (Integer month : months) {
+                if (!checkpoints.containsKey(month)) {
+                    checkpoints.put(month, last);
+                    prefixInterest.put(month, interest);
+                }
+            }
+            return new Baseline(interest, checkpoints, prefixInterest);
+        }
+    }
+}
@@ -0,0 +1,416 @@
+package com.repay.service.impl;
+
+import com.repay.entity.CombinationLoanRequest;
+import com.repay.entity.CombinationLoanResponse;
+import com.repay.entity.EqualPrincipalRepayRequest;
+import com.repay.entity.EqualPrincipalRepayResponse;
+import com.repay.entity.Prepayment;
+import com.repay.entity.PrepaymentOptimizeRequest;
+import com.repay.entity.PrepaymentOptimizeResponse;
+import com.repay.entity.RepayCalculationState;
+import com.repay.entity.ScheduleView;
+import com.repay.service.LegPrepayments;
+import com.repay.service.PrepaymentLedger;
+import com.repay.service.PrepaymentSchedule;
+import com.repay.service.PrepaymentSource;
+import com.repay.service.RepayCalculator;
+import com.repay.service.ScheduleCursor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.LongAdder;
+
+import static com.repay.constant.CONSTANT.ROUND_MODE;
+import static com.repay.constant.CONSTANT.SCALE;
+
+/**
+ * 提前还款分配优化：把一笔新增的提前还款预算拆分到商贷、公积金贷，并为每笔贷款选择提前还款月份，使总利息最小
+ * <ul>
+ *     <li>候选：商贷金额取 0、步长、2×步长…直至预算，公积金贷为预算减商贷金额；月份取 [最早月份, 最晚月份] 内按步长的各月</li>
+ *     <li>约束：新增金额必须全部用于还本（不超过当月剩余本金），还款后剩余本金不低于保留本金；贷款已结清的月份不可选</li>
+ *     <li>增量计算：每笔贷款先按已有提前还款计算一次基线，记录各候选月份前一个月的检查点和此前的累计利息；
+ *     每个候选从检查点继续计算（{@link RepayCalculator#openSchedule}），不重算之前的月份</li>
+ *     <li>两笔贷款的台账相互独立，总利息 = 商贷利息 + 公积金贷利息，各笔贷款 × 月份 × 金额的候选在 fork-join 线程池上并行评估，
+ *     再对每种拆分取两笔贷款各自的最优月份</li>
+ * </ul>
+ * 最优方案按完整请求参数（新增金额加入各笔贷款专属提前还款列表）重新计算一次，返回的利息与 /combination 接口逐分一致。
+ * businessFirst 分配下商贷未用完的已有提前还款会转给公积金贷，候选评估时按基线的转入金额计算，最终利息以重新计算的结果为准。
+ */
+@Service
+public class PrepaymentOptimizerService {
+    // 分治到不超过该候选数时直接计算
+    private static final int LEAF_CANDIDATES = 4;
+
+    @Qualifier(value = "EqualPrincipalParamValidator")
+    @Autowired
+    private RepayCalculator repayCalculator;
+
+    @Qualifier("repaySweepPool")
+    @Autowired
+    private ForkJoinPool repaySweepPool;
+
+    // 单次最多评估的候选数（单笔贷款 × 月份 × 金额）
+    @Value("${repay.optimizer.max-evaluations:20000}")
+    private int maxEvaluations = 20000;
+
+    /**
+     * 搜索最优提前还款方案
+     * @param request 贷款参数、预算、可选月份范围和拆分步长
+     * @return 最优方案、节省的利息和评估统计
+     */
+    public PrepaymentOptimizeResponse optimize(PrepaymentOptimizeRequest request) {
+        CombinationLoanRequest loan = request.getLoan();
+        String type = request.getMethod();
+        int earliest = request.getEarliestMonth() == null ? 1 : request.getEarliestMonth();
+        int latest = request.getLatestMonth() == null ? earliest : request.getLatestMonth();
+        int monthStep = request.getMonthStep() == null ? 1 : request.getMonthStep();
+        if (latest < earliest) {
+            throw new IllegalArgumentException("最晚月份不能早于最早月份");
+        }
+        if (request.getBudget().scale() > SCALE || request.getAmountStep().scale() > SCALE) {
+            throw new IllegalArgumentException("金额最多保留2位小数");
+        }
+        boolean hasBusiness = "single".equals(loan.getLoanType()) || "combination".equals(loan.getLoanType());
+        boolean hasFund = "fund".equals(loan.getLoanType()) || "combination".equals(loan.getLoanType());
+        if (!hasBusiness && !hasFund) {
+            throw new IllegalArgumentException("贷款类型不正确：" + loan.getLoanType());
+        }
+        BigDecimal budget = request.getBudget().setScale(SCALE, ROUND_MODE);
+        // 先按算术估算候选数，超过上限时在生成金额、分配结果数组之前拒绝
+        BigDecimal candidateCount = candidateCount(loan, budget, request.getAmountStep(), earliest, latest, monthStep,
+                hasBusiness, hasFund);
+        if (candidateCount.compareTo(BigDecimal.valueOf(maxEvaluations)) > 0) {
+            throw new IllegalArgumentException("候选数超过上限：" + candidateCount.toPlainString() + " > " + maxEvaluations
+                    + "，请缩小月份范围或增大步长");
+        }
+        List<BigDecimal> shares = businessShares(budget, request.getAmountStep(), hasBusiness, hasFund);
+
+        LegPrepayments prepayments = repayCalculator.allocatePrepayments(loan);
+        Leg business = null;
+        Leg fund = null;
+        PrepaymentLedger businessLedger = null;
+        if (hasBusiness) {
+            businessLedger = prepayments.businessLedger();
+            business = baseline(repayCalculator.buildBusinessRequest(loan), prepayments.business(), businessLedger, type,
+                    earliest, latest, monthStep, shares, false, budget);
+        }
+        if (hasFund) {
+            PrepaymentSource fundSource = prepayments.spill() && businessLedger != null
+                    ? PrepaymentSource.sum(businessLedger.residual(), prepayments.fund()) : prepayments.fund();
+            fund = baseline(repayCalculator.buildFundRequest(loan), fundSource, PrepaymentLedger.of(fundSource), type,
+                    earliest, latest, monthStep, shares, true, budget);
+        }
+
+        List<Candidate> candidates = new ArrayList<>();
+        for (Leg leg : new Leg[]{business, fund}) {
+            if (leg == null) {
+                continue;
+            }
+            for (int i = 0; i < leg.months.length; i++) {
+                for (int k = 0; k < leg.amounts.length; k++) {
+                    if (leg.amounts[k].signum() > 0) {
+                        candidates.add(new Candidate(leg, i, k));
+                    }
+                }
+            }
+        }
+        LongAdder computedMonths = new LongAdder();
+        repaySweepPool.invoke(new CandidateTask(candidates, type, computedMonths, 0, candidates.size()));
+
+        // 每种拆分取两笔贷款各自的最优月份
+        int bestShare = -1;
+        int bestBusinessMonth = -1;
+        int bestFundMonth = -1;
+        BigDecimal bestInterest = null;
+        for (int k = 0; k < shares.size(); k++) {
+            int businessMonth = business == null ? Leg.NO_PREPAYMENT : business.bestMonth(k);
+            int fundMonth = fund == null ? Leg.NO_PREPAYMENT : fund.bestMonth(k);
+            if (businessMonth == Leg.INFEASIBLE || fundMonth == Leg.INFEASIBLE) {
+                continue;
+            }
+            BigDecimal interest = BigDecimal.ZERO;
+            if (business != null) {
+                interest = interest.add(business.interest(businessMonth, k));
+            }
+            if (fund != null) {
+                interest = interest.add(fund.interest(fundMonth, k));
+            }
+            if (bestInterest == null || interest.compareTo(bestInterest) < 0) {
+                bestInterest = interest;
+                bestShare = k;
+                bestBusinessMonth = businessMonth;
+                bestFundMonth = fundMonth;
+            }
+        }
+        if (bestInterest == null) {
+            throw new IllegalArgumentException("可选月份内剩余本金不足以使用全部提前还款预算");
+        }
+
+        BigDecimal businessAmount = shares.get(bestShare);
+        BigDecimal fundAmount = budget.subtract(businessAmount);
+        Integer businessMonth = business == null || businessAmount.signum() == 0 ? null : business.months[bestBusinessMonth];
+        Integer fundMonth = fund == null || fundAmount.signum() == 0 ? null : fund.months[bestFundMonth];
+        CombinationLoanRequest plan = withPrepayments(loan, businessMonth, businessAmount, fundMonth, fundAmount);
+        CombinationLoanResponse baseline = repayCalculator.calculateCombination(loan, type, ScheduleView.SUMMARY);
+        CombinationLoanResponse optimized = repayCalculator.calculateCombination(plan, type, ScheduleView.SUMMARY);
+
+        PrepaymentOptimizeResponse response = new PrepaymentOptimizeResponse();
+        response.setMethod(type);
+        response.setBudget(budget);
+        response.setBusinessAmount(businessAmount);
+        response.setBusinessMonth(businessMonth);
+        response.setFundAmount(fundAmount);
+        response.setFundMonth(fundMonth);
+        response.setBaselineInterest(baseline.getTotalAllInterest());
+        response.setOptimizedInterest(optimized.getTotalAllInterest());
+        response.setInterestSaved(baseline.getTotalAllInterest().subtract(optimized.getTotalAllInterest()));
+        response.setPlan(plan);
+        response.setEvaluations(candidates.size());
+        response.setComputedMonths(computedMonths.sum());
+        long fullRerunMonths = 0L;
+        for (Candidate candidate : candidates) {
+            fullRerunMonths += candidate.leg.totalMonths;
+        }
+        response.setFullRerunMonths(fullRerunMonths);
+        return response;
+    }
+
+    /**
+     * 候选数上界（不生成候选）：各笔贷款期限内的候选月份数 × 该笔贷款分得金额大于0的拆分数
+     * 两笔贷款时每笔的拆分数为 ⌈预算 / 步长⌉，只有一笔贷款时为1。
+     */
+    private static BigDecimal candidateCount(CombinationLoanRequest loan, BigDecimal budget, BigDecimal step,
+                                             int earliest, int latest, int monthStep, boolean hasBusiness, boolean hasFund) {
+        BigDecimal amounts = hasBusiness && hasFund ? budget.divide(step, 0, RoundingMode.CEILING) : BigDecimal.ONE;
+        long months = 0L;
+        if (hasBusiness) {
+            months += windowMonths(loan.getBusinessYears(), earliest, latest, monthStep);
+        }
+        if (hasFund) {
+            months += windowMonths(loan.getFundYears(), earliest, latest, monthStep);
+        }
+        return amounts.multiply(BigDecimal.valueOf(months));
+    }
+
+    /**
+     * [earliest, latest] 内按步长、不超过贷款期限的月份数
+     */
+    private static long windowMonths(Integer years, int earliest, int latest, int monthStep) {
+        long to = Math.min(latest, years == null ? 0L : years * 12L);
+        return to < earliest ? 0L : (to - earliest) / monthStep + 1;
+    }
+
+    /**
+     * 商贷分得的金额候选：0、步长、2×步长…（小于预算）及预算本身；只有一笔贷款时全部归该笔贷款
+     */
+    private static List<BigDecimal> businessShares(BigDecimal budget, BigDecimal step, boolean hasBusiness, boolean hasFund) {
+        if (!hasFund) {
+            return List.of(budget);
+        }
+        if (!hasBusiness) {
+            return List.of(BigDecimal.ZERO.setScale(SCALE));
+        }
+        List<BigDecimal> shares = new ArrayList<>();
+        for (BigDecimal share = BigDecimal.ZERO.setScale(SCALE); share.compareTo(budget) < 0; share = share.add(step)) {
+            shares.add(share);
+        }
+        shares.add(budget);
+        return shares;
+    }
+
+    /**
+     * 按已有提前还款计算基线，记录各候选月份前一个月的检查点和累计利息
+     * @param fundShare 该笔贷款分得的金额为预算减商贷金额（公积金贷）
+     */
+    private Leg baseline(EqualPrincipalRepayRequest request, PrepaymentSource source, PrepaymentLedger ledger, String type,
+                         int earliest, int latest, int monthStep, List<BigDecimal> shares, boolean fundShare, BigDecimal budget) {
+        ScheduleCursor cursor = repayCalculator.openSchedule(request, ledger, type);
+        int totalMonths = cursor.getTotalMonths();
+        List<Integer> months = new ArrayList<>();
+        List<RepayCalculationState> checkpoints = new ArrayList<>();
+        List<BigDecimal> prefixInterest = new ArrayList<>();
+        int next = earliest;
+        BigDecimal interest = BigDecimal.ZERO;
+        if (next == 1 && next <= totalMonths) {
+            months.add(1);
+            checkpoints.add(null);
+            prefixInterest.add(interest);
+            next += monthStep;
+        }
+        while (cursor.hasNext()) {
+            EqualPrincipalRepayResponse.MonthlyDetail row = cursor.next();
+            interest = interest.add(row.getMonthlyInterest());
+            if (row.getMonth() + 1 == next && next <= latest && next <= totalMonths) {
+                months.add(next);
+                checkpoints.add(cursor.checkpoint());
+                prefixInterest.add(interest);
+                next += monthStep;
+            }
+        }
+        BigDecimal[] amounts = new BigDecimal[shares.size()];
+        for (int k = 0; k < amounts.length; k++) {
+            amounts[k] = fundShare ? budget.subtract(shares.get(k)) : shares.get(k);
+        }
+        return new Leg(request, source, totalMonths, months.stream().mapToInt(Integer::intValue).toArray(),
+                checkpoints.toArray(new RepayCalculationState[0]), prefixInterest.toArray(new BigDecimal[0]), interest, amounts);
+    }
+
+    /**
+     * 从候选月份前一个月的检查点继续计算，返回总利息；新增金额未全部用于还本或剩余本金低于保留本金时返回 null
+     */
+    private BigDecimal evaluate(Candidate candidate, String type, LongAdder computedMonths) {
+        Leg leg = candidate.leg;
+        int month = leg.months[candidate.month];
+        BigDecimal amount = leg.amounts[candidate.amount];
+        Prepayment extra = new Prepayment();
+        extra.setMonth(month);
+        extra.setAmount(amount);
+        PrepaymentSource source = PrepaymentSource.sum(leg.source, PrepaymentSchedule.of(List.of(extra), null));
+        BigDecimal scheduled = source.amountAt(month);
+        PrepaymentLedger ledger = month == 1 ? PrepaymentLedger.of(source) : PrepaymentLedger.of(source, month - 1);
+        RepayCalculationState checkpoint = leg.checkpoints[candidate.month];
+        ScheduleCursor cursor = repayCalculator.openSchedule(leg.request, ledger, type, checkpoint);
+        BigDecimal prepaidBefore = checkpoint == null || checkpoint.getTotalPrepayAmount() == null
+                ? BigDecimal.ZERO : checkpoint.getTotalPrepayAmount();
+        BigDecimal interest = leg.prefixInterest[candidate.month];
+        while (cursor.hasNext()) {
+            EqualPrincipalRepayResponse.MonthlyDetail row = cursor.next();
+            interest = interest.add(row.getMonthlyInterest());
+            if (row.getMonth() == month) {
+                RepayCalculationState state = cursor.checkpoint();
+                if (state.getTotalPrepayAmount().subtract(prepaidBefore).compareTo(scheduled) != 0
+                        || state.getRemainingPrincipal().compareTo(leg.request.getReservedPrincipal()) < 0) {
+                    computedMonths.add(cursor.computedMonths());
+                    return null;
+                }
+            }
+        }
+        computedMonths.add(cursor.computedMonths());
+        return interest;
+    }
+
+    /**
+     * 复制贷款参数，把新增金额加入商贷/公积金贷专属提前还款列表
+     */
+    private static CombinationLoanRequest withPrepayments(CombinationLoanRequest loan, Integer businessMonth, BigDecimal businessAmount,
+                                                          Integer fundMonth, BigDecimal fundAmount) {
+        CombinationLoanRequest plan = loan.copy();
+        plan.setBusinessPrepayments(append(loan.getBusinessPrepayments(), businessMonth, businessAmount));
+        plan.setFundPrepayments(append(loan.getFundPrepayments(), fundMonth, fundAmount));
+        return plan;
+    }
+
+    private static List<Prepayment> append(List<Prepayment> prepayments, Integer month, BigDecimal amount) {
+        List<Prepayment> result = new ArrayList<>(prepayments == null ? List.of() : prepayments);
+        if (month != null) {
+            Prepayment prepayment = new Prepayment();
+            prepayment.setMonth(month);
+            prepayment.setAmount(amount);
+            result.add(prepayment);
+        }
+        return result;
+    }
+
+    /**
+     * 单笔贷款的基线与候选评估结果
+     */
+    private static final class Leg {
+        static final int INFEASIBLE = -2;
+        // 金额为0（不提前还款）时的月份下标
+        static final int NO_PREPAYMENT = -1;
+
+        final EqualPrincipalRepayRequest request;
+        final PrepaymentSource source;
+        final int totalMonths;
+        // 候选月份（升序）
+        final int[] months;
+        // 第 i 个候选月份前一个月的检查点（第1个月为 null）与此前的累计利息
+        final RepayCalculationState[] checkpoints;
+        final BigDecimal[] prefixInterest;
+        final BigDecimal baselineInterest;
+        // 第 k 种拆分下该笔贷款分得的金额
+        final BigDecimal[] amounts;
+        // [月份下标][拆分下标] 的总利息，不可行为 null
+        final BigDecimal[][] interests;
+
+        Leg(EqualPrincipalRepayRequest request, PrepaymentSource source, int totalMonths, int[] months,
+            RepayCalculationState[] checkpoints, BigDecimal[] prefixInterest, BigDecimal baselineInterest, BigDecimal[] amounts) {
+            this.request = request;
+            this.source = source;
+            this.totalMonths = totalMonths;
+            this.months = months;
+            this.checkpoints = checkpoints;
+            this.prefixInterest = prefixInterest;
+            this.baselineInterest = baselineInterest;
+            this.amounts = amounts;
+            this.interests = new BigDecimal[months.length][amounts.length];
+        }
+
+        /**
+         * @return 第 k 种拆分下总利息最小的月份下标（相同时取较早月份）；金额为0时为 {@link #NO_PREPAYMENT}，没有可行月份时为 {@link #INFEASIBLE}
+         */
+        int bestMonth(int k) {
+            if (amounts[k].signum() == 0) {
+                return NO_PREPAYMENT;
+            }
+            int best = INFEASIBLE;
+            for (int i = 0; i < months.length; i++) {
+                if (interests[i][k] != null && (best == INFEASIBLE || interests[i][k].compareTo(interests[best][k]) < 0)) {
+                    best = i;
+                }
+            }
+            return best;
+        }
+
+        BigDecimal interest(int month, int k) {
+            return month == NO_PREPAYMENT ? baselineInterest : interests[month][k];
+        }
+    }
+
+    /**
+     * 候选：某笔贷款第 month 个候选月份、第 amount 种拆分
+     */
+    private record Candidate(Leg leg, int month, int amount) {
+    }
+
+    /**
+     * 按候选区间分治评估，结果写入各笔贷款的 interests（各候选写不同位置）
+     */
+    private class CandidateTask extends RecursiveAction {
+        private final List<Candidate> candidates;
+        private final String type;
+        private final LongAdder computedMonths;
+        private final int from;
+        private final int to;
+
+        CandidateTask(List<Candidate> candidates, String type, LongAdder computedMonths, int from, int to) {
+            this.candidates = candidates;
+            this.type = type;
+            this.computedMonths = computedMonths;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= LEAF_CANDIDATES) {
+                for (int index = from; index < to; index++) {
+                    Candidate candidate = candidates.get(index);
+                    candidate.leg.interests[candidate.month][candidate.amount] = evaluate(candidate, type, computedMonths);
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new CandidateTask(candidates, type, computedMonths, from, mid),
+                    new CandidateTask(candidates, type, computedMonths, mid, to));
+        }
+    }
+}
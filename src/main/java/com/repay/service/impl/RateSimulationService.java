@@ -0,0 +1,242 @@
+package com.repay.service.impl;
+
+import com.repay.entity.RateSimulationRequest;
+import com.repay.entity.RateSimulationResponse;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import static com.repay.constant.CONSTANT.SCALE;
+
+/**
+ * 浮动利率（LPR 挂钩）商贷蒙特卡洛模拟
+ * 每条路径逐年生成利率（均值回归模型），逐月按分计算摊还：利息、本金的舍入规则与 {@link FixedPointCalculatorImpl} 相同，
+ * 等额本息每次重定价时按剩余本金、剩余月数重算月供（月供用 double 计算后舍入到分，模拟结果不要求与确定性计算逐分一致）。
+ * <p>
+ * 路径内循环只做 long/double 运算、不创建对象；每条路径的随机数由（种子, 路径序号）经 SplitMix64 生成，
+ * 与线程数、任务拆分方式无关，相同种子的结果完全相同。路径按区间在 fork-join 线程池上并行计算。
+ */
+@Service
+public class RateSimulationService {
+    // 等额本金月利率保留6位小数、等额本息保留8位小数（与逐月计算一致）
+    private static final long RATE6_UNIT = 1_000_000L;
+    private static final long RATE8_UNIT = 100_000_000L;
+    // 模拟利率上限（%），保证 剩余本金（分）× 放大后的月利率 不溢出
+    private static final double RATE_CAP = 100d;
+    // 每个任务最少计算的路径数
+    private static final int LEAF_PATHS = 256;
+    // SplitMix64 步长
+    private static final long GOLDEN = 0x9E3779B97F4A7C15L;
+
+    @Qualifier("repaySweepPool")
+    @Autowired
+    private ForkJoinPool repaySweepPool;
+
+    /**
+     * 运行模拟
+     * @param request 模拟参数
+     * @return 总利息、逐年利率和月供的分位数带
+     */
+    public RateSimulationResponse simulate(RateSimulationRequest request) {
+        int paths = request.getPaths();
+        int years = request.getYears();
+        double reversion = request.getReversionSpeed().doubleValue();
+        double decay = Math.exp(-reversion);
+        double shock = request.getVolatility().doubleValue()
+                * (reversion == 0 ? 1d : Math.sqrt((1 - decay * decay) / (2 * reversion)));
+        Model model = new Model(
+                request.getLoanTotal().movePointRight(SCALE).setScale(0, RoundingMode.HALF_UP).longValueExact(),
+                years * 12,
+                "equalInterest".equals(request.getMethod()),
+                Math.min(request.getAnnualRate().doubleValue(), RATE_CAP),
+                (request.getMeanRate() == null ? request.getAnnualRate() : request.getMeanRate()).doubleValue(),
+                decay, shock,
+                request.getRateFloor() == null ? 0d : request.getRateFloor().doubleValue(),
+                request.getSeed() == null ? 0L : request.getSeed());
+
+        double[] rates = new double[paths * years];
+        long[] payments = new long[paths * years];
+        long[] interests = new long[paths];
+        repaySweepPool.invoke(new PathTask(model, rates, payments, interests, 0, paths));
+
+        RateSimulationResponse response = new RateSimulationResponse();
+        response.setMethod(request.getMethod());
+        response.setPaths(paths);
+        response.setSeed(model.seed());
+        response.setPercentiles(request.getPercentiles());
+        long sum = 0L;
+        for (long interest : interests) {
+            sum += interest;
+        }
+        response.setTotalInterestMean(BigDecimal.valueOf(sum).divide(BigDecimal.valueOf(paths), 0, RoundingMode.HALF_UP)
+                .movePointLeft(SCALE));
+        Arrays.sort(interests);
+        response.setTotalInterest(centsBand(interests, request.getPercentiles()));
+
+        List<RateSimulationResponse.YearBand> bands = new ArrayList<>(years);
+        double[] yearRates = new double[paths];
+        long[] yearPayments = new long[paths];
+        for (int year = 0; year < years; year++) {
+            for (int path = 0; path < paths; path++) {
+                yearRates[path] = rates[path * years + year];
+                yearPayments[path] = payments[path * years + year];
+            }
+            Arrays.sort(yearRates);
+            Arrays.sort(yearPayments);
+            RateSimulationResponse.YearBand band = new RateSimulationResponse.YearBand();
+            band.setYear(year + 1);
+            band.setAnnualRate(rateBand(yearRates, request.getPercentiles()));
+            band.setMonthlyRepay(centsBand(yearPayments, request.getPercentiles()));
+            bands.add(band);
+        }
+        response.setYears(bands);
+        return response;
+    }
+
+    /**
+     * 模拟参数（各路径共享，只读）
+     */
+    private record Model(long loanCents, int totalMonths, boolean equalInterest, double initialRate, double meanRate,
+                         double decay, double shock, double rateFloor, long seed) {
+    }
+
+    /**
+     * 按路径区间分治
+     */
+    private static class PathTask extends RecursiveAction {
+        private final Model model;
+        private final double[] rates;
+        private final long[] payments;
+        private final long[] interests;
+        private final int fromPath;
+        private final int toPath;
+
+        PathTask(Model model, double[] rates, long[] payments, long[] interests, int fromPath, int toPath) {
+            this.model = model;
+            this.rates = rates;
+            this.payments = payments;
+            this.interests = interests;
+            this.fromPath = fromPath;
+            this.toPath = toPath;
+        }
+
+        @Override
+        protected void compute() {
+            if (toPath - fromPath <= LEAF_PATHS) {
+                for (int path = fromPath; path < toPath; path++) {
+                    interests[path] = simulatePath(model, path, rates, payments);
+                }
+                return;
+            }
+            int mid = (fromPath + toPath) >>> 1;
+            invokeAll(new PathTask(model, rates, payments, interests, fromPath, mid),
+                    new PathTask(model, rates, payments, interests, mid, toPath));
+        }
+    }
+
+    /**
+     * 单条路径：逐年生成利率、逐月摊还，写入当年利率与首月月供，返回总利息（分）
+     */
+    private static long simulatePath(Model model, int path, double[] rates, long[] payments) {
+        int years = model.totalMonths() / 12;
+        int offset = path * years;
+        long state = mix64(model.seed() + (path + 1L) * GOLDEN);
+        double annualRate = model.initialRate();
+        long balance = model.loanCents();
+        long totalInterest = 0L;
+        int month = 0;
+        for (int year = 0; year < years; year++) {
+            if (year > 0) {
+                // Box-Muller 生成标准正态分布
+                state += GOLDEN;
+                double u1 = ((mix64(state) >>> 11) + 1) * 0x1.0p-53;
+                state += GOLDEN;
+                double u2 = (mix64(state) >>> 11) * 0x1.0p-53;
+                double z = Math.sqrt(-2 * Math.log(u1)) * Math.cos(2 * Math.PI * u2);
+                annualRate = model.meanRate() + (annualRate - model.meanRate()) * model.decay() + model.shock() * z;
+                annualRate = Math.min(Math.max(annualRate, model.rateFloor()), RATE_CAP);
+            }
+            rates[offset + year] = annualRate;
+            if (balance == 0) {
+                payments[offset + year] = 0L;
+                continue;
+            }
+            int remainingMonths = model.totalMonths() - month;
+            if (model.equalInterest()) {
+                long rate8 = Math.round(annualRate / 1200 * RATE8_UNIT);
+                long payment = paymentCents(balance, rate8, remainingMonths);
+                payments[offset + year] = payment;
+                for (int m = 0; m < 12 && balance > 0; m++) {
+                    month++;
+                    long interest = FixedPointCalculatorImpl.roundHalfUp(balance * rate8, RATE8_UNIT);
+                    long principal = month == model.totalMonths() ? balance : Math.min(Math.max(payment - interest, 0L), balance);
+                    balance -= principal;
+                    totalInterest += interest;
+                }
+            } else {
+                long rate6 = Math.round(annualRate / 1200 * RATE6_UNIT);
+                long firstPrincipal = FixedPointCalculatorImpl.roundHalfUp(balance, remainingMonths);
+                payments[offset + year] = firstPrincipal + FixedPointCalculatorImpl.roundHalfUp(balance * rate6, RATE6_UNIT);
+                for (int m = 0; m < 12 && balance > 0; m++) {
+                    month++;
+                    long principal = Math.min(FixedPointCalculatorImpl.roundHalfUp(balance, model.totalMonths() - month + 1), balance);
+                    totalInterest += FixedPointCalculatorImpl.roundHalfUp(balance * rate6, RATE6_UNIT);
+                    balance -= principal;
+                }
+            }
+        }
+        return totalInterest;
+    }
+
+    /**
+     * 等额本息月供（分）：本金×r/(1-(1+r)^-n)，四舍五入到分；月利率为0时按剩余月数平摊
+     */
+    private static long paymentCents(long balance, long rate8, int months) {
+        if (rate8 == 0) {
+            return FixedPointCalculatorImpl.roundHalfUp(balance, months);
+        }
+        double r = (double) rate8 / RATE8_UNIT;
+        return Math.round(balance * r / -Math.expm1(-months * Math.log1p(r)));
+    }
+
+    /**
+     * SplitMix64 混合函数
+     */
+    private static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * 最近秩分位数：第 ⌈p/100 × N⌉ 个（从1开始）
+     */
+    private static int rank(double percentile, int size) {
+        int index = (int) Math.ceil(percentile / 100 * size) - 1;
+        return Math.max(0, Math.min(index, size - 1));
+    }
+
+    private static List<BigDecimal> centsBand(long[] sorted, List<Double> percentiles) {
+        List<BigDecimal> band = new ArrayList<>(percentiles.size());
+        for (Double percentile : percentiles) {
+            band.add(BigDecimal.valueOf(sorted[rank(percentile, sorted.length)], SCALE));
+        }
+        return band;
+    }
+
+    private static List<BigDecimal> rateBand(double[] sorted, List<Double> percentiles) {
+        List<BigDecimal> band = new ArrayList<>(percentiles.size());
+        for (Double percentile : percentiles) {
+            band.add(BigDecimal.valueOf(sorted[rank(percentile, sorted.length)]).setScale(4, RoundingMode.HALF_UP));
+        }
+        return band;
+    }
+}
@@ -0,0 +1,56 @@
+package com.repay.service.impl;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * 组合贷款计算 JFR 事件（{@link EqualPrincipalCalculatorImpl#calculateCombination}）
+ * 事件持续时间为整次计算，字段记录请求形态，便于把 GC、CPU 峰值与具体请求对应起来。
+ * 未开启 JFR 记录时 {@link #shouldCommit()} 为 false，不填充字段。
+ */
+@Name("com.repay.RepayCalculation")
+@Label("Repay Calculation")
+@Category({"Repay", "Calculation"})
+@Description("组合贷款还款计划计算")
+@StackTrace(false)
+public class RepayCalculationEvent extends Event {
+
+    @Label("Loan Type")
+    @Description("贷款类型：business / fund / combination")
+    String loanType;
+
+    @Label("Method")
+    @Description("还款方式：equalPrincipal / equalInterest")
+    String method;
+
+    @Label("Prepay Allocation")
+    String prepayAllocation;
+
+    @Label("Business Months")
+    @Description("商贷期限（月）")
+    int businessMonths;
+
+    @Label("Fund Months")
+    @Description("公积金贷期限（月）")
+    int fundMonths;
+
+    @Label("Computed Months")
+    @Description("两笔贷款实际计算的月数（提前结清后不再计算）")
+    int computedMonths;
+
+    @Label("Prepayment Events")
+    @Description("请求中的提前还款条数（含各笔贷款专属提前还款）")
+    int prepaymentEvents;
+
+    @Label("Periodic Rules")
+    @Description("周期还款规则条数")
+    int periodicRules;
+
+    @Label("Rate Changes")
+    @Description("两笔贷款的利率调整条数")
+    int rateChanges;
+}
@@ -0,0 +1,131 @@
+package com.repay.service.impl;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 还款计算指标
+ * <ul>
+ *     <li>repay.phase：各计算阶段耗时（tag phase，直方图桶由 management.metrics.distribution 配置）</li>
+ *     <li>repay.months.computed：逐月计算的月数（不含从检查点复用的月份）</li>
+ *     <li>repay.prepayment.events：处理的提前还款次数</li>
+ * </ul>
+ * 计时器在启动时注册好，记录时不查找、不加锁；计数先在游标内累加，每笔贷款计算结束后一次性加到 {@link LongAdder}，
+ * 多线程并发记录时没有竞争点。未接入 Spring 容器（单元测试、基准测试）时使用 {@link #noop()}。
+ * 当前线程开启了 {@link RequestTiming} 时，同时累加到该请求的耗时分解。
+ */
+@Component
+public class RepayMetrics {
+    private static final RepayMetrics NOOP = new RepayMetrics(new CompositeMeterRegistry());
+
+    /**
+     * 计算阶段
+     */
+    public enum Phase {
+        // 提前还款分配（构建各笔贷款的提前还款计划）
+        PREPAYMENTS("prepayments"),
+        // 商贷逐月计算
+        BUSINESS("business"),
+        // 公积金贷逐月计算
+        FUND("fund"),
+        // 两笔贷款合并汇总
+        MERGE("merge"),
+        // 响应序列化（JSON/CBOR/Smile，含写出响应体）
+        SERIALIZATION("serialization");
+
+        private final String tag;
+
+        Phase(String tag) {
+            this.tag = tag;
+        }
+
+        /**
+         * @return 指标 tag、Server-Timing 中的名称
+         */
+        public String tag() {
+            return tag;
+        }
+    }
+
+    private final Timer[] timers;
+    private final LongAdder monthsComputed = new LongAdder();
+    private final LongAdder prepaymentEvents = new LongAdder();
+
+    @Autowired
+    public RepayMetrics(MeterRegistry registry) {
+        Phase[] phases = Phase.values();
+        this.timers = new Timer[phases.length];
+        for (Phase phase : phases) {
+            timers[phase.ordinal()] = Timer.builder("repay.phase")
+                    .description("还款计算各阶段耗时")
+                    .tag("phase", phase.tag)
+                    .register(registry);
+        }
+        FunctionCounter.builder("repay.months.computed", monthsComputed, LongAdder::sum)
+                .description("逐月计算的月数")
+                .register(registry);
+        FunctionCounter.builder("repay.prepayment.events", prepaymentEvents, LongAdder::sum)
+                .description("处理的提前还款次数")
+                .register(registry);
+    }
+
+    /**
+     * @return 不输出到任何监控系统的实例（计数仍然累加）
+     */
+    public static RepayMetrics noop() {
+        return NOOP;
+    }
+
+    /**
+     * 记录阶段耗时
+     * @param phase 计算阶段
+     * @param startNanos 阶段开始时的 {@link System#nanoTime()}
+     */
+    public void record(Phase phase, long startNanos) {
+        long nanos = System.nanoTime() - startNanos;
+        timers[phase.ordinal()].record(nanos, TimeUnit.NANOSECONDS);
+        RequestTiming timing = RequestTiming.current();
+        if (timing != null) {
+            timing.record(phase, nanos);
+        }
+    }
+
+    /**
+     * 记录一笔贷款的计算量
+     * @param months 逐月计算的月数
+     * @param prepayments 处理的提前还款次数
+     */
+    public void recordSchedule(int months, int prepayments) {
+        if (months > 0) {
+            monthsComputed.add(months);
+        }
+        if (prepayments > 0) {
+            prepaymentEvents.add(prepayments);
+        }
+        RequestTiming timing = RequestTiming.current();
+        if (timing != null) {
+            timing.recordSchedule(months, prepayments);
+        }
+    }
+
+    /**
+     * @return 累计逐月计算的月数
+     */
+    public long monthsComputed() {
+        return monthsComputed.sum();
+    }
+
+    /**
+     * @return 累计处理的提前还款次数
+     */
+    public long prepaymentEvents() {
+        return prepaymentEvents.sum();
+    }
+}
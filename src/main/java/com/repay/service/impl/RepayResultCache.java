@@ -0,0 +1,175 @@
+package com.repay.service.impl;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.repay.entity.CombinationLoanRequest;
+import com.repay.entity.CombinationLoanResponse;
+import com.repay.entity.EqualPrincipalRepayResponse;
+import com.repay.entity.ScheduleView;
+import com.repay.service.RepayCalculator;
+import com.repay.service.RequestFingerprint;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 组合贷款计算结果缓存
+ * 以请求的规范化指纹（{@link RequestFingerprint}，含视图级别）为键，按条数淘汰，淘汰策略为 Caffeine 的 W-TinyLFU
+ * （新结果需比被淘汰者访问频率更高才被保留，偶发的一次性请求不会挤掉常用结果）。
+ * <p>
+ * 缓存中的结果只读：列表为不可修改列表，调用方拿到的是复制的明细对象（BigDecimal 本身不可变，直接共用），
+ * 并发读取和调用方修改都不会影响缓存内容。
+ * 命中、未命中、淘汰次数及条数以 cache 指标（tag cache=repay.result）输出。
+ */
+@Service
+public class RepayResultCache implements MeterBinder {
+
+    @Qualifier(value = "EqualPrincipalParamValidator")
+    @Autowired
+    private RepayCalculator repayCalculator;
+
+    private final boolean enabled;
+    private final Cache<RequestFingerprint, CombinationLoanResponse> cache;
+
+    public RepayResultCache(@Value("${repay.cache.enabled:true}") boolean enabled,
+                            @Value("${repay.cache.maximum-size:1000}") long maximumSize) {
+        this.enabled = enabled;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * 计算组合贷款（命中缓存时直接返回）
+     * @param request 贷款参数
+     * @param type 还款方式：equalPrincipal / equalInterest
+     * @return 组合贷款还款结果（调用方可自由修改）
+     */
+    public CombinationLoanResponse calculate(CombinationLoanRequest request, String type) {
+        return calculate(request, type, ScheduleView.FULL);
+    }
+
+    /**
+     * 按视图级别计算组合贷款（命中缓存时直接返回，不同视图分别缓存）
+     * @param request 贷款参数
+     * @param type 还款方式：equalPrincipal / equalInterest
+     * @param view 视图级别
+     * @return 组合贷款还款结果（调用方可自由修改）
+     */
+    public CombinationLoanResponse calculate(CombinationLoanRequest request, String type, ScheduleView view) {
+        if (!enabled) {
+            return repayCalculator.calculateCombination(request, type, view);
+        }
+        CombinationLoanResponse cached = cache.get(RequestFingerprint.of(request, type).withView(view),
+                key -> freeze(repayCalculator.calculateCombination(request, type, view)));
+        return copy(cached);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "repay.result");
+    }
+
+    /**
+     * @return 命中、未命中、淘汰等统计
+     */
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    /**
+     * @return 是否启用缓存
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @return 当前缓存条数（近似值）
+     */
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    /**
+     * 清空缓存
+     */
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    /**
+     * 列表替换为不可修改列表后放入缓存
+     */
+    private static CombinationLoanResponse freeze(CombinationLoanResponse response) {
+        response.setMonthlyDetails(frozen(response.getMonthlyDetails()));
+        response.setYearSummaries(frozen(response.getYearSummaries()));
+        response.setBusinessMonthlyDetails(frozen(response.getBusinessMonthlyDetails()));
+        response.setBusinessYearSummaries(frozen(response.getBusinessYearSummaries()));
+        response.setFundMonthlyDetails(frozen(response.getFundMonthlyDetails()));
+        response.setFundYearSummaries(frozen(response.getFundYearSummaries()));
+        return response;
+    }
+
+    private static <T> List<T> frozen(List<T> list) {
+        return list == null ? null : List.copyOf(list);
+    }
+
+    /**
+     * 复制缓存结果：标量直接复制，明细逐条复制为新对象
+     */
+    private static CombinationLoanResponse copy(CombinationLoanResponse cached) {
+        CombinationLoanResponse response = new CombinationLoanResponse();
+        BeanUtils.copyProperties(cached, response);
+        response.setMonthlyDetails(copyDetails(cached.getMonthlyDetails()));
+        response.setYearSummaries(copySummaries(cached.getYearSummaries()));
+        response.setBusinessMonthlyDetails(copyDetails(cached.getBusinessMonthlyDetails()));
+        response.setBusinessYearSummaries(copySummaries(cached.getBusinessYearSummaries()));
+        response.setFundMonthlyDetails(copyDetails(cached.getFundMonthlyDetails()));
+        response.setFundYearSummaries(copySummaries(cached.getFundYearSummaries()));
+        return response;
+    }
+
+    private static List<EqualPrincipalRepayResponse.MonthlyDetail> copyDetails(List<EqualPrincipalRepayResponse.MonthlyDetail> details) {
+        if (details == null) {
+            return null;
+        }
+        List<EqualPrincipalRepayResponse.MonthlyDetail> copy = new ArrayList<>(details.size());
+        for (EqualPrincipalRepayResponse.MonthlyDetail detail : details) {
+            EqualPrincipalRepayResponse.MonthlyDetail row = new EqualPrincipalRepayResponse.MonthlyDetail();
+            row.setMonth(detail.getMonth());
+            row.setMonthlyPrincipal(detail.getMonthlyPrincipal());
+            row.setMonthlyInterest(detail.getMonthlyInterest());
+            row.setMonthlyRepay(detail.getMonthlyRepay());
+            row.setRemainingPrincipal(detail.getRemainingPrincipal());
+            copy.add(row);
+        }
+        return copy;
+    }
+
+    private static List<EqualPrincipalRepayResponse.YearSummary> copySummaries(List<EqualPrincipalRepayResponse.YearSummary> summaries) {
+        if (summaries == null) {
+            return null;
+        }
+        List<EqualPrincipalRepayResponse.YearSummary> copy = new ArrayList<>(summaries.size());
+        for (EqualPrincipalRepayResponse.YearSummary summary : summaries) {
+            EqualPrincipalRepayResponse.YearSummary row = new EqualPrincipalRepayResponse.YearSummary();
+            row.setYear(summary.getYear());
+            row.setYearPrincipal(summary.getYearPrincipal());
+            row.setYearInterest(summary.getYearInterest());
+            row.setYearTotalRepay(summary.getYearTotalRepay());
+            copy.add(row);
+        }
+        return copy;
+    }
+}
@@ -0,0 +1,148 @@
+package com.repay.service.impl;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * 单个请求的耗时分解（Server-Timing 响应头）
+ * 请求线程开始时 {@link #begin()} 绑定到当前线程，{@link RepayMetrics} 记录阶段耗时、计算量时同时累加到当前请求；
+ * 组合贷公积金贷、批量条目在线程池中计算时用 {@link #propagate} 把当前请求带到工作线程。
+ * 分配字节数取自线程分配计数器（HotSpot 的 com.sun.management.ThreadMXBean），为请求线程与被带到的工作线程之和，
+ * JVM 不支持时不输出。
+ * <p>
+ * 阶段耗时可能来自多个线程并发累加，使用原子数组/LongAdder，不加锁。
+ */
+public final class RequestTiming {
+    private static final ThreadLocal<RequestTiming> CURRENT = new ThreadLocal<>();
+    private static final com.sun.management.ThreadMXBean THREADS = allocationCounter();
+    private static final RepayMetrics.Phase[] PHASES = RepayMetrics.Phase.values();
+
+    private final long startNanos = System.nanoTime();
+    private final long startAllocated = allocatedBytes();
+    private final AtomicLongArray phaseNanos = new AtomicLongArray(PHASES.length);
+    private final AtomicLongArray phaseCounts = new AtomicLongArray(PHASES.length);
+    private final LongAdder months = new LongAdder();
+    private final LongAdder prepaymentEvents = new LongAdder();
+    private final LongAdder workerAllocated = new LongAdder();
+    private long totalNanos = -1L;
+    private long allocated = -1L;
+
+    private RequestTiming() {
+    }
+
+    /**
+     * 开始统计当前线程上的请求
+     */
+    public static RequestTiming begin() {
+        RequestTiming timing = new RequestTiming();
+        CURRENT.set(timing);
+        return timing;
+    }
+
+    /**
+     * @return 当前线程正在统计的请求，未开启时返回 null
+     */
+    public static RequestTiming current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * 结束统计（在 {@link #begin()} 的线程上调用）：记录总耗时、请求线程分配的字节数并解除绑定
+     */
+    public void end() {
+        totalNanos = System.nanoTime() - startNanos;
+        if (startAllocated >= 0) {
+            allocated = allocatedBytes() - startAllocated + workerAllocated.sum();
+        }
+        CURRENT.remove();
+    }
+
+    /**
+     * 把当前请求带到执行任务的线程（没有正在统计的请求时原样返回）
+     * 任务由提交线程自行执行（队列满时的 CallerRunsPolicy）时不重复统计分配字节数。
+     */
+    public static <T> Supplier<T> propagate(Supplier<T> task) {
+        RequestTiming timing = CURRENT.get();
+        if (timing == null) {
+            return task;
+        }
+        return () -> {
+            RequestTiming previous = CURRENT.get();
+            if (previous == timing) {
+                return task.get();
+            }
+            CURRENT.set(timing);
+            long start = allocatedBytes();
+            try {
+                return task.get();
+            } finally {
+                if (start >= 0) {
+                    timing.workerAllocated.add(allocatedBytes() - start);
+                }
+                if (previous == null) {
+                    CURRENT.remove();
+                } else {
+                    CURRENT.set(previous);
+                }
+            }
+        };
+    }
+
+    void record(RepayMetrics.Phase phase, long nanos) {
+        phaseNanos.addAndGet(phase.ordinal(), nanos);
+        phaseCounts.incrementAndGet(phase.ordinal());
+    }
+
+    void recordSchedule(int months, int prepayments) {
+        this.months.add(months);
+        this.prepaymentEvents.add(prepayments);
+    }
+
+    /**
+     * Server-Timing 响应头：总耗时、各阶段耗时（毫秒，多次执行的阶段为累计值）、逐月计算的月数、提前还款次数、分配字节数
+     * 例如 total;dur=12.5, business;dur=6.1, fund;dur=3.9, merge;dur=0.4, months;desc="660", alloc;desc="1048576"
+     */
+    public String header() {
+        StringBuilder sb = new StringBuilder("total;dur=").append(millis(totalNanos));
+        for (RepayMetrics.Phase phase : PHASES) {
+            if (phaseCounts.get(phase.ordinal()) > 0) {
+                sb.append(", ").append(phase.tag()).append(";dur=").append(millis(phaseNanos.get(phase.ordinal())));
+            }
+        }
+        long monthCount = months.sum();
+        if (monthCount > 0) {
+            sb.append(", months;desc=\"").append(monthCount).append('"');
+        }
+        long events = prepaymentEvents.sum();
+        if (events > 0) {
+            sb.append(", prepayment-events;desc=\"").append(events).append('"');
+        }
+        if (allocated >= 0) {
+            sb.append(", alloc;desc=\"").append(allocated).append('"');
+        }
+        return sb.toString();
+    }
+
+    private static String millis(long nanos) {
+        return String.valueOf(Math.round(nanos / 1000d) / 1000d);
+    }
+
+    /**
+     * @return 当前线程累计分配的字节数，不支持时返回 -1
+     */
+    private static long allocatedBytes() {
+        return THREADS == null ? -1L : THREADS.getCurrentThreadAllocatedBytes();
+    }
+
+    private static com.sun.management.ThreadMXBean allocationCounter() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean threads
+                && threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled()) {
+            return threads;
+        }
+        return null;
+    }
+}
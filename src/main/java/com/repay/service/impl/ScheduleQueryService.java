@@ -0,0 +1,312 @@
+package com.repay.service.impl;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.repay.entity.CombinationLoanRequest;
+import com.repay.entity.EqualPrincipalRepayRequest;
+import com.repay.entity.ScheduleQueryResponse;
+import com.repay.service.LegPrepayments;
+import com.repay.service.PrepaymentLedger;
+import com.repay.service.PrepaymentSource;
+import com.repay.service.RepayCalculator;
+import com.repay.service.RequestFingerprint;
+import com.repay.service.ScheduleIndex;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+
+import static com.repay.constant.CONSTANT.ROUND_MODE;
+import static com.repay.constant.CONSTANT.SCALE;
+
+/**
+ * 还款计划按月份/区间查询
+ * 没有提前还款且没有保留本金时直接用闭式公式计算，不生成还款计划（与 /summary 相同，不做逐月舍入，可能相差若干分）；
+ * 其余情况（或要求 exact）逐月计算一次，建立累计本金/利息的前缀和索引并按请求指纹缓存，之后每次查询 O(1)。
+ */
+@Service
+public class ScheduleQueryService implements MeterBinder {
+    // 闭式计算精度
+    private static final MathContext MC = AnnuityFactorService.WORK;
+
+    @Qualifier(value = "EqualPrincipalParamValidator")
+    @Autowired
+    private RepayCalculator repayCalculator;
+
+    @Autowired
+    private AnnuityFactorService annuityFactorService;
+
+    private final Cache<RequestFingerprint, LegIndexes> indexes;
+
+    public ScheduleQueryService(@Value("${repay.query.maximum-size:500}") long maximumSize) {
+        this.indexes = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .recordStats()
+                .build();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, indexes, "repay.query");
+    }
+
+    /**
+     * 查询剩余本金、区间本金/利息、还清月份
+     * @param request 贷款参数
+     * @param type 还款方式：equalPrincipal / equalInterest
+     * @param month 查询剩余本金的月份（为 null 时不查询）
+     * @param fromMonth 区间起始月份（含，为 null 时取1）
+     * @param toMonth 区间结束月份（含，为 null 时取最后一个月；起止均为 null 时不查询区间）
+     * @param exact 是否要求与每月明细逐分一致（不使用闭式计算）
+     * @return 查询结果
+     */
+    public ScheduleQueryResponse query(CombinationLoanRequest request, String type, Integer month,
+                                       Integer fromMonth, Integer toMonth, boolean exact) {
+        LegIndexes legs = indexes(request, type, exact);
+        int maxMonths = Math.max(legs.business() == null ? 0 : legs.business().getTotalMonths(),
+                legs.fund() == null ? 0 : legs.fund().getTotalMonths());
+        boolean range = fromMonth != null || toMonth != null;
+        int from = fromMonth == null ? 1 : fromMonth;
+        int to = toMonth == null ? maxMonths : toMonth;
+
+        ScheduleQueryResponse response = new ScheduleQueryResponse();
+        response.setMethod(type);
+        response.setMonth(month);
+        if (range) {
+            response.setFromMonth(from);
+            response.setToMonth(to);
+        }
+        response.setBusiness(legQuery(legs.business(), month, range, from, to));
+        response.setFund(legQuery(legs.fund(), month, range, from, to));
+
+        boolean allExact = true;
+        Integer payoffMonth = 0;
+        BigDecimal remaining = month == null ? null : BigDecimal.ZERO;
+        BigDecimal rangePrincipal = range ? BigDecimal.ZERO : null;
+        BigDecimal rangeInterest = range ? BigDecimal.ZERO : null;
+        for (ScheduleIndex index : new ScheduleIndex[]{legs.business(), legs.fund()}) {
+            if (index == null) {
+                continue;
+            }
+            allExact &= index.exact();
+            payoffMonth = payoffMonth == null || index.payoffMonth() == null ? null : Math.max(payoffMonth, index.payoffMonth());
+            if (month != null) {
+                remaining = remaining.add(round(index.remainingAt(month)));
+            }
+            if (range) {
+                rangePrincipal = rangePrincipal.add(round(index.principalBetween(from, to)));
+                rangeInterest = rangeInterest.add(round(index.interestBetween(from, to)));
+            }
+        }
+        response.setExact(allExact);
+        response.setPayoffMonth(payoffMonth);
+        response.setRemainingPrincipal(remaining);
+        response.setRangePrincipal(rangePrincipal);
+        response.setRangeInterest(rangeInterest);
+        return response;
+    }
+
+    /**
+     * 取得各笔贷款的索引：可用闭式计算时直接创建，否则逐月计算一次后缓存
+     */
+    private LegIndexes indexes(CombinationLoanRequest request, String type, boolean exact) {
+        LegPrepayments prepayments = repayCalculator.allocatePrepayments(request);
+        EqualPrincipalRepayRequest businessReq = null;
+        EqualPrincipalRepayRequest fundReq = null;
+        if ("single".equals(request.getLoanType()) || "combination".equals(request.getLoanType())) {
+            businessReq = repayCalculator.buildBusinessRequest(request);
+        }
+        if ("fund".equals(request.getLoanType()) || "combination".equals(request.getLoanType())) {
+            fundReq = repayCalculator.buildFundRequest(request);
+        }
+        if (!exact && supportsClosedForm(prepayments, businessReq) && supportsClosedForm(prepayments, fundReq)) {
+            return new LegIndexes(businessReq == null ? null : closedForm(businessReq, type),
+                    fundReq == null ? null : closedForm(fundReq, type));
+        }
+        EqualPrincipalRepayRequest business = businessReq;
+        EqualPrincipalRepayRequest fund = fundReq;
+        return indexes.get(RequestFingerprint.of(request, type), key -> {
+            // businessFirst 时公积金贷台账读取商贷剩余：先遍历完商贷，再遍历公积金贷
+            PrepaymentLedger businessLedger = prepayments.businessLedger();
+            ScheduleIndex businessIndex = business == null ? null
+                    : ScheduleIndex.of(business, repayCalculator.openSchedule(business, businessLedger, type));
+            ScheduleIndex fundIndex = fund == null ? null
+                    : ScheduleIndex.of(fund, repayCalculator.openSchedule(fund, prepayments.fundLedger(businessLedger), type));
+            return new LegIndexes(businessIndex, fundIndex);
+        });
+    }
+
+    /**
+     * 闭式计算条件：没有提前还款、没有保留本金、没有利率调整、年利率大于0
+     */
+    private static boolean supportsClosedForm(LegPrepayments prepayments, EqualPrincipalRepayRequest request) {
+        if (request == null) {
+            return true;
+        }
+        return prepayments.business().nextMonth(Integer.MIN_VALUE) == PrepaymentSource.NONE
+                && prepayments.fund().nextMonth(Integer.MIN_VALUE) == PrepaymentSource.NONE
+                && request.getReservedPrincipal().signum() == 0
+                && request.getAnnualRate().signum() > 0
+                && (request.getRateChanges() == null || request.getRateChanges().isEmpty())
+                && request.getYears() > 0;
+    }
+
+    private ScheduleIndex closedForm(EqualPrincipalRepayRequest request, String type) {
+        if ("equalPrincipal".equals(type)) {
+            return new EqualPrincipalClosedForm(request);
+        }
+        return new EqualInterestClosedForm(request, annuityFactorService);
+    }
+
+    private static ScheduleQueryResponse.LegQuery legQuery(ScheduleIndex index, Integer month, boolean range, int from, int to) {
+        if (index == null) {
+            return null;
+        }
+        ScheduleQueryResponse.LegQuery query = new ScheduleQueryResponse.LegQuery();
+        query.setTotalMonths(index.getTotalMonths());
+        query.setPayoffMonth(index.payoffMonth());
+        if (month != null) {
+            query.setRemainingPrincipal(round(index.remainingAt(month)));
+        }
+        if (range) {
+            query.setRangePrincipal(round(index.principalBetween(from, to)));
+            query.setRangeInterest(round(index.interestBetween(from, to)));
+        }
+        return query;
+    }
+
+    private static BigDecimal round(BigDecimal value) {
+        return value.setScale(SCALE, ROUND_MODE);
+    }
+
+    /**
+     * 商贷、公积金贷索引（没有时为 null）
+     */
+    private record LegIndexes(ScheduleIndex business, ScheduleIndex fund) {
+    }
+
+    /**
+     * 闭式计算基类：按「前 k 个月累计」求区间差，月份截断到 [0, 总月数]
+     */
+    private abstract static class ClosedForm implements ScheduleIndex {
+        final BigDecimal loanTotal;
+        final int totalMonths;
+
+        ClosedForm(EqualPrincipalRepayRequest request) {
+            this.loanTotal = request.getLoanTotal();
+            this.totalMonths = request.getYears() * 12;
+        }
+
+        @Override
+        public int getTotalMonths() {
+            return totalMonths;
+        }
+
+        @Override
+        public Integer payoffMonth() {
+            return totalMonths;
+        }
+
+        @Override
+        public BigDecimal remainingAt(int month) {
+            return balance(clamp(month));
+        }
+
+        @Override
+        public BigDecimal principalBetween(int fromMonth, int toMonth) {
+            return balance(clamp(fromMonth - 1)).subtract(balance(clamp(toMonth)), MC);
+        }
+
+        @Override
+        public BigDecimal interestBetween(int fromMonth, int toMonth) {
+            return interestTo(clamp(toMonth)).subtract(interestTo(clamp(fromMonth - 1)), MC);
+        }
+
+        @Override
+        public boolean exact() {
+            return false;
+        }
+
+        int clamp(int month) {
+            return Math.max(0, Math.min(month, totalMonths));
+        }
+
+        /**
+         * @return 第 k 个月还款后的剩余本金
+         */
+        abstract BigDecimal balance(int k);
+
+        /**
+         * @return 前 k 个月累计利息
+         */
+        abstract BigDecimal interestTo(int k);
+    }
+
+    /**
+     * 等额本金闭式计算：月还本金 L/n，剩余本金 L×(n-k)/n，前 k 月利息 r×(k×L - L/n×k(k-1)/2)
+     */
+    private static class EqualPrincipalClosedForm extends ClosedForm {
+        private final BigDecimal rate;
+        private final BigDecimal monthlyPrincipal;
+
+        EqualPrincipalClosedForm(EqualPrincipalRepayRequest request) {
+            super(request);
+            this.rate = EqualPrincipalCalculatorImpl.equalPrincipalMonthRate(request.getAnnualRate());
+            this.monthlyPrincipal = loanTotal.divide(BigDecimal.valueOf(totalMonths), MC);
+        }
+
+        @Override
+        BigDecimal balance(int k) {
+            return k == totalMonths ? BigDecimal.ZERO
+                    : loanTotal.subtract(monthlyPrincipal.multiply(BigDecimal.valueOf(k), MC), MC);
+        }
+
+        @Override
+        BigDecimal interestTo(int k) {
+            return rate.multiply(loanTotal.multiply(BigDecimal.valueOf(k), MC)
+                    .subtract(monthlyPrincipal.multiply(BigDecimal.valueOf((long) k * (k - 1) / 2), MC), MC), MC);
+        }
+    }
+
+    /**
+     * 等额本息闭式计算：剩余本金 L×q^k - A×(q^k-1)/r，前 k 月利息 A×k - (L - 剩余本金)；末月结清剩余本金
+     */
+    private static class EqualInterestClosedForm extends ClosedForm {
+        private final AnnuityFactorService annuityFactorService;
+        private final BigDecimal rate;
+        private final BigDecimal payment;
+
+        EqualInterestClosedForm(EqualPrincipalRepayRequest request, AnnuityFactorService annuityFactorService) {
+            super(request);
+            this.annuityFactorService = annuityFactorService;
+            this.rate = EqualPrincipalCalculatorImpl.monthRate(request.getAnnualRate());
+            this.payment = annuityFactorService.payment(loanTotal, rate, totalMonths);
+        }
+
+        @Override
+        BigDecimal balance(int k) {
+            if (k == totalMonths) {
+                return BigDecimal.ZERO;
+            }
+            BigDecimal compound = annuityFactorService.compound(rate, k);
+            return loanTotal.multiply(compound, MC).subtract(payment.multiply(
+                    compound.subtract(BigDecimal.ONE, MC), MC).divide(rate, MC), MC).max(BigDecimal.ZERO);
+        }
+
+        @Override
+        BigDecimal interestTo(int k) {
+            if (k == totalMonths) {
+                // 末月：按月初剩余本金计息并结清
+                BigDecimal last = balance(k - 1);
+                return interestTo(k - 1).add(last.multiply(rate, MC), MC);
+            }
+            return payment.multiply(BigDecimal.valueOf(k), MC).subtract(loanTotal.subtract(balance(k), MC), MC);
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.repay.service.impl;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.repay.entity.CombinationLoanRequest;
+import com.repay.entity.EqualPrincipalRepayResponse;
+import com.repay.entity.ScheduleStreamRecord;
+import com.repay.service.LegCursors;
+import com.repay.service.RepayCalculator;
+import com.repay.service.ScheduleCursor;
+import com.repay.service.ScheduleMerger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+
+/**
+ * 流式还款计划输出（NDJSON）
+ * 商贷、公积金两个游标按月同步推进，每算出一个月立即写出一行，不保存每月明细列表，
+ * 首字节时间和单请求内存占用与贷款期限无关。
+ * 同一个月先算商贷再算公积金，提前还款的分配与 calculateCombination 完全一致。
+ */
+@Service
+public class ScheduleStreamService {
+    // 每输出多少个月刷新一次输出流
+    private static final int FLUSH_MONTHS = 12;
+
+    @Qualifier(value = "EqualPrincipalParamValidator")
+    @Autowired
+    private RepayCalculator repayCalculator;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * 创建流式还款计划
+     * 参数解析和游标创建在调用线程完成（参数错误仍按普通异常返回），逐月计算在写出时进行
+     * @param request 贷款参数
+     * @param type 还款方式：equalPrincipal / equalInterest
+     * @return NDJSON 响应体
+     */
+    public StreamingResponseBody stream(CombinationLoanRequest request, String type) {
+        LegCursors legs = LegCursors.open(repayCalculator, request, type);
+        LegStream business = legs.business() == null ? null : new LegStream(legs.business());
+        LegStream fund = legs.fund() == null ? null : new LegStream(legs.fund());
+        return out -> write(legs, business, fund, out);
+    }
+
+    /**
+     * 逐月计算并写出
+     */
+    private void write(LegCursors legs, LegStream business, LegStream fund, OutputStream out) throws IOException {
+        int maxMonths = legs.maxMonths();
+        ObjectWriter writer = objectMapper.writerFor(ScheduleStreamRecord.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            ScheduleStreamRecord record = new ScheduleStreamRecord();
+            for (int month = 1; month <= maxMonths; month++) {
+                EqualPrincipalRepayResponse.MonthlyDetail businessDetail = business == null ? null : business.next();
+                EqualPrincipalRepayResponse.MonthlyDetail fundDetail = fund == null ? null : fund.next();
+                record.setType("month");
+                record.setMonth(month);
+                record.setBusiness(businessDetail);
+                record.setFund(fundDetail);
+                record.setMerged(ScheduleMerger.mergeMonth(month, businessDetail, fundDetail));
+                writeLine(writer, generator, record);
+                record.setMonth(null);
+                record.setBusiness(null);
+                record.setFund(null);
+                record.setMerged(null);
+
+                if (month % 12 == 0) {
+                    record.setType("year");
+                    record.setYear(month / 12);
+                    record.setBusinessYear(business == null ? null : business.closeYear(month / 12));
+                    record.setFundYear(fund == null ? null : fund.closeYear(month / 12));
+                    if (record.getBusinessYear() != null || record.getFundYear() != null) {
+                        writeLine(writer, generator, record);
+                    }
+                    record.setYear(null);
+                    record.setBusinessYear(null);
+                    record.setFundYear(null);
+                }
+                if (month % FLUSH_MONTHS == 0) {
+                    generator.flush();
+                }
+            }
+            writeLine(writer, generator, totals(business, fund, maxMonths));
+        }
+    }
+
+    /**
+     * 生成总计记录
+     */
+    private ScheduleStreamRecord totals(LegStream business, LegStream fund, int maxMonths) {
+        ScheduleStreamRecord record = new ScheduleStreamRecord();
+        record.setType("total");
+        record.setTotalMonths(maxMonths);
+        BigDecimal totalPrincipal = BigDecimal.ZERO;
+        BigDecimal totalInterest = BigDecimal.ZERO;
+        if (business != null) {
+            record.setBusinessTotalPrincipal(business.totalPrincipal);
+            record.setBusinessTotalInterest(business.totalInterest);
+            record.setBusinessTotalRepay(business.totalPrincipal.add(business.totalInterest));
+            totalPrincipal = totalPrincipal.add(business.totalPrincipal);
+            totalInterest = totalInterest.add(business.totalInterest);
+        }
+        if (fund != null) {
+            record.setFundTotalPrincipal(fund.totalPrincipal);
+            record.setFundTotalInterest(fund.totalInterest);
+            record.setFundTotalRepay(fund.totalPrincipal.add(fund.totalInterest));
+            totalPrincipal = totalPrincipal.add(fund.totalPrincipal);
+            totalInterest = totalInterest.add(fund.totalInterest);
+        }
+        record.setTotalAllPrincipal(totalPrincipal);
+        record.setTotalAllInterest(totalInterest);
+        record.setTotalAllRepay(totalPrincipal.add(totalInterest));
+        return record;
+    }
+
+    private void writeLine(ObjectWriter writer, JsonGenerator generator, ScheduleStreamRecord record) throws IOException {
+        writer.writeValue(generator, record);
+        generator.writeRaw('\n');
+    }
+
+    /**
+     * 单笔贷款的游标及年度/总计累加状态
+     */
+    private class LegStream {
+        private final ScheduleCursor cursor;
+        private BigDecimal yearPrincipal = BigDecimal.ZERO;
+        private BigDecimal yearInterest = BigDecimal.ZERO;
+        private BigDecimal totalPrincipal = BigDecimal.ZERO;
+        private BigDecimal totalInterest = BigDecimal.ZERO;
+        // 本年第12个月是否有还款记录（等额本息提前还清后不再输出年度汇总）
+        private boolean yearEnded;
+
+        LegStream(ScheduleCursor cursor) {
+            this.cursor = cursor;
+        }
+
+        /**
+         * 下一个月明细，已还清时返回 null
+         */
+        EqualPrincipalRepayResponse.MonthlyDetail next() {
+            if (!cursor.hasNext()) {
+                return null;
+            }
+            EqualPrincipalRepayResponse.MonthlyDetail detail = cursor.next();
+            yearPrincipal = yearPrincipal.add(detail.getMonthlyPrincipal());
+            yearInterest = yearInterest.add(detail.getMonthlyInterest());
+            totalPrincipal = totalPrincipal.add(detail.getMonthlyPrincipal());
+            totalInterest = totalInterest.add(detail.getMonthlyInterest());
+            yearEnded = detail.getMonth() % 12 == 0;
+            return detail;
+        }
+
+        /**
+         * 结束当前年度，本年第12个月有还款记录时返回年度汇总（与 yearSummaries 规则一致）
+         */
+        EqualPrincipalRepayResponse.YearSummary closeYear(int year) {
+            if (!yearEnded) {
+                return null;
+            }
+            EqualPrincipalRepayResponse.YearSummary summary = repayCalculator.setYearDetail(year, yearPrincipal, yearInterest);
+            yearPrincipal = BigDecimal.ZERO;
+            yearInterest = BigDecimal.ZERO;
+            yearEnded = false;
+            return summary;
+        }
+    }
+}
@@ -0,0 +1,332 @@
+package com.repay.service.impl;
+
+import com.repay.entity.EqualPrincipalRepayRequest;
+import com.repay.entity.EqualPrincipalRepayResponse;
+import com.repay.entity.LoanSummaryResponse;
+import com.repay.service.PrepaymentLedger;
+import com.repay.service.PrepaymentSource;
+import com.repay.service.RateSchedule;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static com.repay.constant.CONSTANT.ROUND_MODE;
+import static com.repay.constant.CONSTANT.SCALE;
+
+/**
+ * 分段闭式还款引擎
+ * 按提前还款事件和利率重定价把贷款切分为若干分段，分段内的本金、利息、期末剩余本金用闭式公式一次求出，
+ * 计算量只与事件数有关、与还款月数无关；仅在调用方需要时才逐月生成明细。
+ * <p>
+ * 等额本金：分段内月还本金 p = R/n 不变，利息 = r×(k×R - p×k(k-1)/2)；
+ * 等额本息：分段内 R_k = R×q^k - A×(q^k-1)/r，利息 = R×(q^k-1) - A×((q^k-1)/r - k)，q = 1+r；
+ * 重定价月按新利率、剩余本金、剩余月数重算 A。
+ * <p>
+ * 提前还款、保留本金、末期结清等规则与逐月计算（{@link EqualPrincipalCalculatorImpl}）一致，
+ * 但分段内不做逐月舍入，汇总结果与逐月计算可能相差若干分。
+ */
+@Service
+public class SegmentRepayEngine {
+    // 分段计算精度
+    private static final MathContext MC = MathContext.DECIMAL128;
+
+    @Autowired
+    private AnnuityFactorService annuityFactorService;
+
+    /**
+     * 计算单笔贷款汇总
+     * @param request 单笔贷款参数
+     * @param prepayMoney 提前还款信息（与逐月计算一致：已使用的事件会被移除，等额本金未用完的部分留给后续贷款）
+     * @param type 还款方式：equalPrincipal / equalInterest
+     * @param monthly 是否生成每月明细
+     * @return 单笔贷款汇总
+     */
+    public LoanSummaryResponse.LegSummary summarize(EqualPrincipalRepayRequest request,
+                                                    Map<Integer, BigDecimal> prepayMoney,
+                                                    String type, boolean monthly) {
+        return summarize(request, PrepaymentLedger.of(prepayMoney), type, monthly);
+    }
+
+    /**
+     * 计算单笔贷款汇总
+     * @param request 单笔贷款参数
+     * @param ledger 提前还款台账（按事件月份依次取走，等额本金未用完的部分退回台账）
+     * @param type 还款方式：equalPrincipal / equalInterest
+     * @param monthly 是否生成每月明细
+     * @return 单笔贷款汇总
+     */
+    public LoanSummaryResponse.LegSummary summarize(EqualPrincipalRepayRequest request, PrepaymentLedger ledger,
+                                                    String type, boolean monthly) {
+        int totalMonths = request.getYears() * 12;
+        LegBuilder leg = new LegBuilder(totalMonths, monthly);
+        if ("equalPrincipal".equals(type)) {
+            equalPrincipal(request, ledger, leg);
+        } else {
+            equalInterest(request, ledger, leg);
+        }
+        LoanSummaryResponse.LegSummary summary = leg.build();
+        summary.setLoanTotal(request.getLoanTotal());
+        summary.setAnnualRate(request.getAnnualRate());
+        return summary;
+    }
+
+    /**
+     * 等额本金分段计算
+     */
+    private void equalPrincipal(EqualPrincipalRepayRequest request, PrepaymentLedger ledger, LegBuilder leg) {
+        int totalMonths = leg.totalMonths;
+        RateSchedule rates = RateSchedule.of(request);
+        BigDecimal reserved = request.getReservedPrincipal();
+        BigDecimal remaining = request.getLoanTotal();
+        int start = 1;
+        while (start <= totalMonths && remaining.signum() > 0) {
+            // 分段止于提前还款月或下次重定价的前一个月
+            int end = Math.min(Math.min(ledger.nextMonth(start), rates.nextChange(start) - 1), totalMonths);
+            BigDecimal rate = rates.rateAt(start).divide(new BigDecimal(1200), 6, ROUND_MODE);
+            int k = end - start + 1;
+            BigDecimal monthlyPrincipal = remaining.divide(BigDecimal.valueOf(totalMonths - start + 1), MC);
+            BigDecimal principal = monthlyPrincipal.multiply(BigDecimal.valueOf(k), MC);
+            BigDecimal interest = rate.multiply(remaining.multiply(BigDecimal.valueOf(k), MC)
+                    .subtract(monthlyPrincipal.multiply(BigDecimal.valueOf((long) k * (k - 1) / 2), MC), MC), MC);
+            BigDecimal endPrincipal = remaining.subtract(principal, MC);
+            if (leg.monthly) {
+                BigDecimal balance = remaining;
+                for (int month = start; month < end; month++) {
+                    BigDecimal next = balance.subtract(monthlyPrincipal, MC);
+                    leg.row(month, monthlyPrincipal, balance.multiply(rate, MC), next);
+                    balance = next;
+                }
+            }
+            BigDecimal prepay = BigDecimal.ZERO;
+            BigDecimal amount = ledger.take(end);
+            if (amount != null) {
+                if (endPrincipal.subtract(amount).compareTo(reserved) >= 0) {
+                    endPrincipal = endPrincipal.subtract(amount, MC);
+                    prepay = amount;
+                } else {
+                    // 与逐月计算一致：剩余本金清零，未用完的提前还款留给后续贷款
+                    ledger.giveBack(end, amount.subtract(endPrincipal, MC));
+                    endPrincipal = BigDecimal.ZERO;
+                }
+            }
+            if (leg.monthly) {
+                BigDecimal balance = remaining.subtract(monthlyPrincipal.multiply(BigDecimal.valueOf(k - 1), MC), MC);
+                leg.row(end, monthlyPrincipal.add(prepay), balance.multiply(rate, MC), endPrincipal);
+            }
+            leg.segment(start, end, remaining, monthlyPrincipal, principal.add(prepay), interest, prepay, endPrincipal);
+            if (endPrincipal.signum() <= 0) {
+                leg.payoffMonth = end;
+            }
+            remaining = endPrincipal;
+            start = end + 1;
+        }
+    }
+
+    /**
+     * 等额本息分段计算
+     */
+    private void equalInterest(EqualPrincipalRepayRequest request, PrepaymentLedger ledger, LegBuilder leg) {
+        int totalMonths = leg.totalMonths;
+        RateSchedule rates = RateSchedule.of(request);
+        BigDecimal rate = EqualPrincipalCalculatorImpl.monthRate(rates.rateAt(1));
+        BigDecimal reserved = request.getReservedPrincipal();
+        BigDecimal remaining = request.getLoanTotal();
+        BigDecimal payment = BigDecimal.ZERO;
+        if (totalMonths > 0 && remaining.signum() > 0) {
+            payment = annuityFactorService.payment(remaining, rate, totalMonths);
+        }
+        int month = 1;
+        while (month <= totalMonths && remaining.signum() > 0) {
+            if (remaining.compareTo(reserved) <= 0) {
+                // 已还至保留本金：此后每月只付保留本金利息
+                reservedTail(month, remaining, reserved, rates, ledger, leg);
+                return;
+            }
+            if (rates.changesAt(month)) {
+                // 重定价：按新利率、月初剩余本金、剩余月数（含本月）重算月供
+                rate = EqualPrincipalCalculatorImpl.monthRate(rates.rateAt(month));
+                payment = annuityFactorService.payment(remaining, rate, totalMonths - month + 1);
+            }
+            int eventMonth = ledger.nextMonth(month);
+            int stop = Math.min(Math.min(eventMonth, rates.nextChange(month) - 1), totalMonths);
+            int start = month;
+            BigDecimal startPrincipal = remaining;
+            BigDecimal principal = BigDecimal.ZERO;
+            BigDecimal interest = BigDecimal.ZERO;
+            // 1. 分段内的普通月份（闭式）
+            int k = stop - month;
+            if (k > 0) {
+                int t = firstAtOrBelowReserved(remaining, payment, rate, k, reserved);
+                BigDecimal compound = annuityFactorService.compound(rate, t);
+                BigDecimal growth = compound.subtract(BigDecimal.ONE, MC);
+                BigDecimal segmentInterest = remaining.multiply(growth, MC).subtract(payment.multiply(
+                        growth.divide(rate, MC).subtract(BigDecimal.valueOf(t), MC), MC), MC);
+                BigDecimal next = remaining.multiply(compound, MC)
+                        .subtract(payment.multiply(growth, MC).divide(rate, MC), MC);
+                if (leg.monthly) {
+                    BigDecimal balance = remaining;
+                    for (int j = 0; j < t; j++) {
+                        BigDecimal monthInterest = balance.multiply(rate, MC);
+                        BigDecimal monthPrincipal = payment.subtract(monthInterest, MC);
+                        balance = balance.subtract(monthPrincipal, MC);
+                        leg.row(month + j, monthPrincipal, monthInterest, balance);
+                    }
+                }
+                principal = principal.add(remaining.subtract(next, MC), MC);
+                interest = interest.add(segmentInterest, MC);
+                remaining = next;
+                month += t;
+                if (t < k) {
+                    // 分段内先还至保留本金，本月结清
+                    stop = month;
+                    eventMonth = PrepaymentSource.NONE;
+                }
+            }
+            // 2. 分段末月：提前还款/末期结清/还至保留本金（与逐月计算一致）
+            BigDecimal finalRemaining = remaining;
+            BigDecimal monthPrincipal = BigDecimal.ZERO;
+            BigDecimal prepay = BigDecimal.ZERO;
+            BigDecimal amount = eventMonth == month ? ledger.take(month) : null;
+            if (amount != null) {
+                prepay = remaining.compareTo(amount) >= 0 ? amount : remaining;
+                finalRemaining = remaining.subtract(prepay, MC);
+                monthPrincipal = prepay;
+                int remainingMonths = totalMonths - month;
+                payment = remainingMonths > 0 && finalRemaining.signum() > 0
+                        ? annuityFactorService.payment(finalRemaining, rate, remainingMonths) : BigDecimal.ZERO;
+            }
+            BigDecimal monthInterest = remaining.multiply(rate, MC);
+            if (month == totalMonths || finalRemaining.compareTo(reserved) <= 0) {
+                monthPrincipal = monthPrincipal.add(finalRemaining.subtract(reserved).max(BigDecimal.ZERO), MC);
+                finalRemaining = reserved;
+                leg.payoffMonth = month;
+            } else {
+                BigDecimal normal = payment.subtract(monthInterest, MC).max(BigDecimal.ZERO);
+                monthPrincipal = monthPrincipal.add(normal, MC);
+                finalRemaining = finalRemaining.subtract(normal, MC).max(BigDecimal.ZERO);
+            }
+            if (leg.monthly) {
+                leg.row(month, monthPrincipal, monthInterest, finalRemaining);
+            }
+            principal = principal.add(monthPrincipal, MC);
+            interest = interest.add(monthInterest, MC);
+            leg.segment(start, stop, startPrincipal, payment, principal, interest, prepay, finalRemaining);
+            remaining = finalRemaining;
+            month++;
+        }
+    }
+
+    /**
+     * 已还至保留本金后的剩余月份：每月按保留本金计息（按重定价、提前还款分段）。
+     * 与逐月计算一致，期间的提前还款（不超过月初剩余本金的部分）计入当月本金和提前还款金额，月末剩余本金仍为保留本金；
+     * 贷款总额低于保留本金时，首月按贷款总额计息
+     */
+    private void reservedTail(int month, BigDecimal remaining, BigDecimal reserved, RateSchedule rates,
+                              PrepaymentLedger ledger, LegBuilder leg) {
+        int totalMonths = leg.totalMonths;
+        BigDecimal balance = remaining;
+        for (int start = month; start <= totalMonths; ) {
+            int end = balance.compareTo(reserved) < 0 ? start
+                    : Math.min(Math.min(ledger.nextMonth(start), rates.nextChange(start) - 1), totalMonths);
+            BigDecimal monthInterest = balance.multiply(EqualPrincipalCalculatorImpl.monthRate(rates.rateAt(start)), MC);
+            BigDecimal amount = ledger.take(end);
+            BigDecimal prepay = amount == null ? BigDecimal.ZERO : amount.min(balance);
+            if (leg.monthly) {
+                for (int m = start; m < end; m++) {
+                    leg.row(m, BigDecimal.ZERO, monthInterest, reserved);
+                }
+                leg.row(end, prepay, monthInterest, reserved);
+            }
+            leg.segment(start, end, balance, monthInterest, prepay,
+                    monthInterest.multiply(BigDecimal.valueOf(end - start + 1), MC), prepay, reserved);
+            balance = reserved;
+            start = end + 1;
+        }
+    }
+
+    /**
+     * 二分查找普通月份中首个月初剩余本金不高于保留本金的月份偏移（1..k-1，当前月份已确定高于保留本金），不存在时返回 k
+     */
+    private int firstAtOrBelowReserved(BigDecimal remaining, BigDecimal payment, BigDecimal rate, int k, BigDecimal reserved) {
+        int lo = 1;
+        int hi = k;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            BigDecimal compound = annuityFactorService.compound(rate, mid);
+            BigDecimal balance = remaining.multiply(compound, MC)
+                    .subtract(payment.multiply(compound.subtract(BigDecimal.ONE), MC).divide(rate, MC), MC);
+            if (balance.compareTo(reserved) <= 0) {
+                hi = mid;
+            } else {
+                lo = mid + 1;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * 单笔贷款结果收集
+     */
+    private static class LegBuilder {
+        private final int totalMonths;
+        private final boolean monthly;
+        private final List<LoanSummaryResponse.Segment> segments = new ArrayList<>();
+        private final List<EqualPrincipalRepayResponse.MonthlyDetail> monthlyDetails;
+        private BigDecimal totalPrincipal = BigDecimal.ZERO;
+        private BigDecimal totalInterest = BigDecimal.ZERO;
+        private Integer payoffMonth;
+
+        LegBuilder(int totalMonths, boolean monthly) {
+            this.totalMonths = totalMonths;
+            this.monthly = monthly;
+            this.monthlyDetails = monthly ? new ArrayList<>(totalMonths) : null;
+        }
+
+        void segment(int startMonth, int endMonth, BigDecimal startPrincipal, BigDecimal monthlyAmount,
+                     BigDecimal principal, BigDecimal interest, BigDecimal prepay, BigDecimal endPrincipal) {
+            LoanSummaryResponse.Segment segment = new LoanSummaryResponse.Segment();
+            segment.setStartMonth(startMonth);
+            segment.setEndMonth(endMonth);
+            segment.setStartPrincipal(round(startPrincipal));
+            segment.setMonthlyAmount(round(monthlyAmount));
+            segment.setPrincipal(round(principal));
+            segment.setInterest(round(interest));
+            segment.setPrepayAmount(round(prepay));
+            segment.setEndPrincipal(round(endPrincipal));
+            segments.add(segment);
+            totalPrincipal = totalPrincipal.add(principal, MC);
+            totalInterest = totalInterest.add(interest, MC);
+        }
+
+        void row(int month, BigDecimal principal, BigDecimal interest, BigDecimal remaining) {
+            EqualPrincipalRepayResponse.MonthlyDetail detail = new EqualPrincipalRepayResponse.MonthlyDetail();
+            detail.setMonth(month);
+            detail.setMonthlyPrincipal(round(principal));
+            detail.setMonthlyInterest(round(interest));
+            detail.setMonthlyRepay(detail.getMonthlyPrincipal().add(detail.getMonthlyInterest()));
+            detail.setRemainingPrincipal(round(remaining));
+            monthlyDetails.add(detail);
+        }
+
+        LoanSummaryResponse.LegSummary build() {
+            LoanSummaryResponse.LegSummary summary = new LoanSummaryResponse.LegSummary();
+            summary.setTotalMonths(totalMonths);
+            summary.setPayoffMonth(payoffMonth);
+            summary.setTotalAllPrincipal(round(totalPrincipal));
+            summary.setTotalAllInterest(round(totalInterest));
+            summary.setTotalAllRepay(summary.getTotalAllPrincipal().add(summary.getTotalAllInterest()));
+            summary.setSegments(segments);
+            summary.setMonthlyDetails(monthlyDetails);
+            return summary;
+        }
+
+        private static BigDecimal round(BigDecimal value) {
+            return value.setScale(SCALE, ROUND_MODE);
+        }
+    }
+}
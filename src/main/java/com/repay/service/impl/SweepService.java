@@ -0,0 +1,195 @@
+package com.repay.service.impl;
+
+import com.repay.entity.EqualPrincipalRepayRequest;
+import com.repay.entity.EqualPrincipalRepayResponse;
+import com.repay.entity.SweepRequest;
+import com.repay.entity.SweepResponse;
+import com.repay.service.PrepaymentLedger;
+import com.repay.service.PrepaymentSchedule;
+import com.repay.service.RepayCalculator;
+import com.repay.service.ScheduleCursor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * 利率 × 年限 × 贷款金额敏感性分析
+ * 在 fork-join 线程池上按「利率 × 年限」行分治计算，同一行的各金额在同一任务内连续计算；
+ * 等额本息月供的年金系数只与（月利率, 月数）有关，由 {@link AnnuityFactorService} 缓存，同一行只计算一次、各行之间共享。
+ * 每个组合逐月计算（与 /equal-interest、/equal-principal 相同的舍入规则），结果与单笔计算逐分一致。
+ */
+@Service
+public class SweepService {
+    // 分治到不超过该行数时直接计算
+    private static final int LEAF_ROWS = 1;
+
+    @Qualifier(value = "EqualPrincipalParamValidator")
+    @Autowired
+    private RepayCalculator repayCalculator;
+
+    @Qualifier("repaySweepPool")
+    @Autowired
+    private ForkJoinPool repaySweepPool;
+
+    @Autowired(required = false)
+    private RepayMetrics repayMetrics = RepayMetrics.noop();
+
+    /**
+     * @param request 敏感性分析参数
+     * @return 组合总数
+     */
+    public long cellCount(SweepRequest request) {
+        int yearsTo = request.getYearsTo() == null ? request.getYearsFrom() : request.getYearsTo();
+        BigDecimal yearCount = count(BigDecimal.valueOf(request.getYearsFrom()), BigDecimal.valueOf(yearsTo),
+                BigDecimal.valueOf(request.getYearsStep()));
+        BigDecimal cells = count(request.getRateFrom(), request.getRateTo(), request.getRateStep())
+                .multiply(yearCount)
+                .multiply(count(request.getAmountFrom(), request.getAmountTo(), request.getAmountStep()));
+        return cells.compareTo(BigDecimal.valueOf(Long.MAX_VALUE)) > 0 ? Long.MAX_VALUE : cells.longValue();
+    }
+
+    /**
+     * 计算所有组合
+     * @param request 敏感性分析参数
+     * @return 各组合的月供、总利息、还款总额（等额本息、等额本金）
+     */
+    public SweepResponse sweep(SweepRequest request) {
+        List<BigDecimal> rates = rates(request);
+        List<Integer> years = years(request);
+        List<BigDecimal> amounts = amounts(request);
+        SweepResponse.SweepCell[] cells = new SweepResponse.SweepCell[rates.size() * years.size() * amounts.size()];
+        repaySweepPool.invoke(new RowTask(rates, years, amounts, cells, 0, rates.size() * years.size()));
+
+        SweepResponse response = new SweepResponse();
+        response.setRates(rates);
+        response.setYears(years);
+        response.setAmounts(amounts);
+        response.setCells(Arrays.asList(cells));
+        return response;
+    }
+
+    /**
+     * 按「利率 × 年限」行分治：行号 row 对应第 row / years.size() 个利率、第 row % years.size() 个年限
+     */
+    private class RowTask extends RecursiveAction {
+        private final List<BigDecimal> rates;
+        private final List<Integer> years;
+        private final List<BigDecimal> amounts;
+        private final SweepResponse.SweepCell[] cells;
+        private final int fromRow;
+        private final int toRow;
+
+        RowTask(List<BigDecimal> rates, List<Integer> years, List<BigDecimal> amounts, SweepResponse.SweepCell[] cells,
+                int fromRow, int toRow) {
+            this.rates = rates;
+            this.years = years;
+            this.amounts = amounts;
+            this.cells = cells;
+            this.fromRow = fromRow;
+            this.toRow = toRow;
+        }
+
+        @Override
+        protected void compute() {
+            if (toRow - fromRow <= LEAF_ROWS) {
+                for (int row = fromRow; row < toRow; row++) {
+                    BigDecimal rate = rates.get(row / years.size());
+                    int term = years.get(row % years.size());
+                    for (int k = 0; k < amounts.size(); k++) {
+                        cells[row * amounts.size() + k] = cell(rate, term, amounts.get(k));
+                    }
+                }
+                return;
+            }
+            int mid = (fromRow + toRow) >>> 1;
+            invokeAll(new RowTask(rates, years, amounts, cells, fromRow, mid),
+                    new RowTask(rates, years, amounts, cells, mid, toRow));
+        }
+    }
+
+    private SweepResponse.SweepCell cell(BigDecimal rate, int term, BigDecimal amount) {
+        EqualPrincipalRepayRequest request = repayCalculator.buildSingleLoanRequest(amount, rate, term, BigDecimal.ZERO);
+        SweepResponse.SweepCell cell = new SweepResponse.SweepCell();
+        cell.setAnnualRate(rate);
+        cell.setYears(term);
+        cell.setLoanTotal(amount);
+        cell.setEqualInterest(totals(request, "equalInterest"));
+        cell.setEqualPrincipal(totals(request, "equalPrincipal"));
+        return cell;
+    }
+
+    /**
+     * 逐月遍历，只累加总计，不保留每月明细
+     */
+    private SweepResponse.MethodTotals totals(EqualPrincipalRepayRequest request, String type) {
+        ScheduleCursor cursor = repayCalculator.openSchedule(request, PrepaymentLedger.of(PrepaymentSchedule.empty()), type);
+        BigDecimal firstRepay = null;
+        BigDecimal totalPrincipal = BigDecimal.ZERO;
+        BigDecimal totalInterest = BigDecimal.ZERO;
+        while (cursor.hasNext()) {
+            EqualPrincipalRepayResponse.MonthlyDetail detail = cursor.next();
+            if (firstRepay == null) {
+                firstRepay = detail.getMonthlyRepay();
+            }
+            totalPrincipal = totalPrincipal.add(detail.getMonthlyPrincipal());
+            totalInterest = totalInterest.add(detail.getMonthlyInterest());
+        }
+        repayMetrics.recordSchedule(cursor.computedMonths(), cursor.prepaymentEvents());
+        SweepResponse.MethodTotals totals = new SweepResponse.MethodTotals();
+        totals.setMonthlyRepay(firstRepay);
+        totals.setTotalInterest(totalInterest);
+        totals.setTotalRepay(totalPrincipal.add(totalInterest));
+        return totals;
+    }
+
+    private static List<BigDecimal> rates(SweepRequest request) {
+        return steps(request.getRateFrom(), request.getRateTo(), request.getRateStep());
+    }
+
+    private static List<BigDecimal> amounts(SweepRequest request) {
+        return steps(request.getAmountFrom(), request.getAmountTo(), request.getAmountStep());
+    }
+
+    private static List<Integer> years(SweepRequest request) {
+        int to = request.getYearsTo() == null ? request.getYearsFrom() : request.getYearsTo();
+        List<Integer> values = new ArrayList<>();
+        for (int value = request.getYearsFrom(); value <= to; value += request.getYearsStep()) {
+            values.add(value);
+        }
+        return values;
+    }
+
+    /**
+     * 按步长取值的个数（不生成取值，用于在计算前校验规模）
+     */
+    private static BigDecimal count(BigDecimal from, BigDecimal to, BigDecimal step) {
+        if (to == null) {
+            return BigDecimal.ONE;
+        }
+        if (to.compareTo(from) < 0) {
+            return BigDecimal.ZERO;
+        }
+        return to.subtract(from).divideToIntegralValue(step).add(BigDecimal.ONE);
+    }
+
+    /**
+     * 按步长取值（BigDecimal 精确累加，不产生 0.1+0.2 类误差）
+     */
+    private static List<BigDecimal> steps(BigDecimal from, BigDecimal to, BigDecimal step) {
+        if (to == null) {
+            return List.of(from);
+        }
+        List<BigDecimal> values = new ArrayList<>();
+        for (BigDecimal value = from; value.compareTo(to) <= 0; value = value.add(step)) {
+            values.add(value);
+        }
+        return values;
+    }
+}
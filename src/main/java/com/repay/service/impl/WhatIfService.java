@@ -0,0 +1,238 @@
+package com.repay.service.impl;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.repay.entity.CombinationLoanRequest;
+import com.repay.entity.CombinationLoanResponse;
+import com.repay.entity.EqualPrincipalRepayRequest;
+import com.repay.entity.EqualPrincipalRepayResponse;
+import com.repay.entity.RepayCalculationState;
+import com.repay.service.LegPrepayments;
+import com.repay.service.PrepaymentLedger;
+import com.repay.service.PrepaymentSource;
+import com.repay.service.RepayCalculator;
+import com.repay.service.RequestFingerprint;
+import com.repay.service.ScheduleCursor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 提前还款 what-if 增量计算
+ * 按贷款指纹（{@link RequestFingerprint#ofLoan}，不含提前还款）保存上一次的计算结果：每月明细和每年末的检查点。
+ * 新请求只有提前还款不同时，找到提前还款第一个变化的月份 k，复用 k 所在年份之前的明细，
+ * 从该年年初的检查点继续计算，结果与 {@link RepayCalculator#calculateCombination} 完全一致。
+ * <p>
+ * businessFirst 分配时公积金贷的提前还款依赖商贷剩余，两笔贷款从同一个月份继续计算。
+ */
+@Service
+public class WhatIfService implements MeterBinder {
+
+    @Qualifier(value = "EqualPrincipalParamValidator")
+    @Autowired
+    private RepayCalculator repayCalculator;
+
+    private final Cache<RequestFingerprint, Snapshot> snapshots;
+
+    public WhatIfService(@Value("${repay.what-if.maximum-size:200}") long maximumSize) {
+        this.snapshots = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .recordStats()
+                .build();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, snapshots, "repay.what-if");
+    }
+
+    /**
+     * 计算组合贷款，复用同一贷款上一次计算中提前还款变化之前的部分
+     * @param request 贷款参数
+     * @param type 还款方式：equalPrincipal / equalInterest
+     * @return 组合贷款还款结果
+     */
+    public CombinationLoanResponse calculate(CombinationLoanRequest request, String type) {
+        RequestFingerprint key = RequestFingerprint.ofLoan(request, type);
+        LegPrepayments prepayments = repayCalculator.allocatePrepayments(request);
+        Snapshot base = snapshots.getIfPresent(key);
+
+        // 提前还款第一个变化的月份，没有可复用的结果时为1（从头计算）
+        int businessChange = 1;
+        int fundChange = 1;
+        if (base != null && base.prepayments().spill() == prepayments.spill()) {
+            businessChange = PrepaymentSource.firstDifference(base.prepayments().business(), prepayments.business());
+            fundChange = PrepaymentSource.firstDifference(base.prepayments().fund(), prepayments.fund());
+            if (prepayments.spill()) {
+                businessChange = fundChange = Math.min(businessChange, fundChange);
+            }
+        }
+
+        EqualPrincipalRepayResponse businessResponse = null;
+        EqualPrincipalRepayResponse fundResponse = null;
+        LegRun businessRun = null;
+        LegRun fundRun = null;
+        PrepaymentLedger businessLedger = ledger(prepayments.business(), businessChange);
+        if ("single".equals(request.getLoanType()) || "combination".equals(request.getLoanType())) {
+            EqualPrincipalRepayRequest businessReq = repayCalculator.buildBusinessRequest(request);
+            ResumedCursor cursor = resume(businessReq, businessLedger, type, base == null ? null : base.business(), businessChange);
+            businessResponse = repayCalculator.collect(businessReq, cursor);
+            businessRun = cursor.run();
+        }
+        if ("fund".equals(request.getLoanType()) || "combination".equals(request.getLoanType())) {
+            EqualPrincipalRepayRequest fundReq = repayCalculator.buildFundRequest(request);
+            PrepaymentSource fundSource = prepayments.spill()
+                    ? PrepaymentSource.sum(businessLedger.residual(), prepayments.fund()) : prepayments.fund();
+            ResumedCursor cursor = resume(fundReq, ledger(fundSource, fundChange), type,
+                    base == null ? null : base.fund(), fundChange);
+            fundResponse = repayCalculator.collect(fundReq, cursor);
+            fundRun = cursor.run();
+        }
+        snapshots.put(key, new Snapshot(prepayments, businessRun, fundRun));
+        return repayCalculator.combine(businessResponse, fundResponse);
+    }
+
+    /**
+     * 清空保存的计算结果
+     */
+    public void invalidateAll() {
+        snapshots.invalidateAll();
+    }
+
+    /**
+     * 第 change 月及以后的提前还款有变化时，可以复用的年数
+     */
+    private static int reusableYears(int change) {
+        return change <= 1 ? 0 : (change - 1) / 12;
+    }
+
+    /**
+     * 从可复用年份末尾开始的台账：此前月份的提前还款已反映在检查点中
+     */
+    private static PrepaymentLedger ledger(PrepaymentSource source, int change) {
+        int years = reusableYears(change);
+        return years == 0 ? PrepaymentLedger.of(source) : PrepaymentLedger.of(source, years * 12);
+    }
+
+    /**
+     * 创建游标：先返回上一次结果中可复用的明细，再从对应检查点继续计算
+     */
+    private ResumedCursor resume(EqualPrincipalRepayRequest request, PrepaymentLedger ledger, String type,
+                                 LegRun base, int change) {
+        int years = base == null ? 0 : Math.min(reusableYears(change), base.checkpoints().size() - 1);
+        if (years == 0) {
+            return new ResumedCursor(repayCalculator.openSchedule(request, ledger, type), List.of(),
+                    Collections.singletonList(null));
+        }
+        RepayCalculationState checkpoint = base.checkpoints().get(years);
+        List<EqualPrincipalRepayResponse.MonthlyDetail> prefix = base.rows().subList(0,
+                Math.min(years * 12, base.rows().size()));
+        return new ResumedCursor(repayCalculator.openSchedule(request, ledger, type, checkpoint), prefix,
+                base.checkpoints().subList(0, years + 1));
+    }
+
+    /**
+     * 上一次计算结果
+     * @param prepayments 提前还款分配
+     * @param business 商贷（没有时为 null）
+     * @param fund 公积金贷（没有时为 null）
+     */
+    private record Snapshot(LegPrepayments prepayments, LegRun business, LegRun fund) {
+    }
+
+    /**
+     * 单笔贷款的计算结果
+     * @param rows 每月明细（不会交给调用方，只读）
+     * @param checkpoints 第 y 年末的检查点（下标0为 null，表示从头计算；提前结清后各年均为结清时的状态）
+     */
+    private record LegRun(List<EqualPrincipalRepayResponse.MonthlyDetail> rows, List<RepayCalculationState> checkpoints) {
+    }
+
+    /**
+     * 先返回复用的明细，再返回继续计算的明细；同时记录本次的明细和每年末的检查点
+     */
+    private static class ResumedCursor implements ScheduleCursor {
+        private final ScheduleCursor cursor;
+        private final List<EqualPrincipalRepayResponse.MonthlyDetail> prefix;
+        private final List<EqualPrincipalRepayResponse.MonthlyDetail> rows;
+        private final List<RepayCalculationState> checkpoints;
+        private int index;
+
+        ResumedCursor(ScheduleCursor cursor, List<EqualPrincipalRepayResponse.MonthlyDetail> prefix,
+                      List<RepayCalculationState> checkpoints) {
+            this.cursor = cursor;
+            this.prefix = prefix;
+            this.rows = new ArrayList<>(cursor.getTotalMonths());
+            this.checkpoints = new ArrayList<>(checkpoints);
+        }
+
+        @Override
+        public boolean hasNext() {
+            return index < prefix.size() || cursor.hasNext();
+        }
+
+        @Override
+        public EqualPrincipalRepayResponse.MonthlyDetail next() {
+            if (index < prefix.size()) {
+                EqualPrincipalRepayResponse.MonthlyDetail row = prefix.get(index++);
+                rows.add(row);
+                return copy(row);
+            }
+            EqualPrincipalRepayResponse.MonthlyDetail row = cursor.next();
+            rows.add(copy(row));
+            if (row.getMonth() % 12 == 0) {
+                checkpoints.add(cursor.checkpoint());
+            }
+            return row;
+        }
+
+        @Override
+        public int getTotalMonths() {
+            return cursor.getTotalMonths();
+        }
+
+        @Override
+        public RepayCalculationState checkpoint() {
+            return cursor.checkpoint();
+        }
+
+        @Override
+        public int computedMonths() {
+            return cursor.computedMonths();
+        }
+
+        @Override
+        public int prepaymentEvents() {
+            return cursor.prepaymentEvents();
+        }
+
+        /**
+         * @return 本次计算结果（遍历结束后调用）
+         */
+        LegRun run() {
+            RepayCalculationState last = cursor.checkpoint();
+            while (checkpoints.size() <= cursor.getTotalMonths() / 12) {
+                checkpoints.add(last);
+            }
+            return new LegRun(Collections.unmodifiableList(rows), Collections.unmodifiableList(checkpoints));
+        }
+
+        private static EqualPrincipalRepayResponse.MonthlyDetail copy(EqualPrincipalRepayResponse.MonthlyDetail detail) {
+            EqualPrincipalRepayResponse.MonthlyDetail row = new EqualPrincipalRepayResponse.MonthlyDetail();
+            row.setMonth(detail.getMonth());
+            row.setMonthlyPrincipal(detail.getMonthlyPrincipal());
+            row.setMonthlyInterest(detail.getMonthlyInterest());
+            row.setMonthlyRepay(detail.getMonthlyRepay());
+            row.setRemainingPrincipal(detail.getRemainingPrincipal());
+            return row;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.repay;
+
+import com.repay.entity.CombinationLoanRequest;
+import com.repay.service.impl.AnnuityFactorService;
+import com.repay.service.impl.EqualPrincipalCalculatorImpl;
+import com.repay.service.impl.FixedPointCalculatorImpl;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Random;
+
+import static com.repay.RepayTestSupport.combination;
+import static com.repay.RepayTestSupport.prepayment;
+import static com.repay.constant.CONSTANT.ROUND_MODE;
+import static com.repay.constant.CONSTANT.SCALE;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 有界精度年金系数与无限精度公式逐分一致性校验；预热后常用利率、期限在两种计算引擎下都命中缓存
+ */
+class AnnuityFactorServiceTest {
+
+    private final AnnuityFactorService annuityFactorService = new AnnuityFactorService();
+
+    @Test
+    void paymentMatchesUnboundedPrecision() {
+        Random random = new Random(7L);
+        for (int i = 0; i < 2000; i++) {
+            BigDecimal principal = BigDecimal.valueOf(random.nextInt(500_000_000), 2);
+            BigDecimal monthRate = BigDecimal.valueOf(1 + random.nextInt(1_000_000), 8);
+            int months = 1 + random.nextInt(360);
+            assertThat(annuityFactorService.payment(principal, monthRate, months))
+                    .isEqualByComparingTo(exactPayment(principal, monthRate, months));
+        }
+    }
+
+    @Test
+    void factorIsCachedPerRateAndMonths() {
+        BigDecimal first = annuityFactorService.factor(new BigDecimal("0.00408333"), 360);
+        BigDecimal second = annuityFactorService.factor(new BigDecimal("0.004083330"), 360);
+        assertThat(second).isSameAs(first);
+        assertThat(annuityFactorService.cachedFactors()).isEqualTo(1);
+    }
+
+    @Test
+    void warmedFactorsAreHitsForBothEngines() {
+        AnnuityFactorService warmed = new AnnuityFactorService(
+                List.of(new BigDecimal("3.85"), new BigDecimal("2.85")), List.of(25, 30));
+        assertThat(warmed.cachedFactors()).isEqualTo(4);
+        assertThat(warmed.missCount()).isZero();
+
+        CombinationLoanRequest request = combination("1000000", "3.85", 30, "500000", "2.85", 25);
+        long hits = 0;
+        for (EqualPrincipalCalculatorImpl calculator : new EqualPrincipalCalculatorImpl[]{
+                new EqualPrincipalCalculatorImpl(), new FixedPointCalculatorImpl()}) {
+            ReflectionTestUtils.setField(calculator, "annuityFactorService", warmed);
+            calculator.calculateCombination(request, "equalInterest");
+            // 商贷、公积金贷各查询一次初始月供的系数
+            hits += 2;
+            assertThat(warmed.hitCount()).isEqualTo(hits);
+            assertThat(warmed.missCount()).isZero();
+        }
+
+        // 商贷提前还款后按剩余月数重算月供：BigDecimal 引擎首次未命中，定点数引擎命中同一系数
+        request.setPrepayments(List.of(prepayment(36, "100000")));
+        for (EqualPrincipalCalculatorImpl calculator : new EqualPrincipalCalculatorImpl[]{
+                new EqualPrincipalCalculatorImpl(), new FixedPointCalculatorImpl()}) {
+            ReflectionTestUtils.setField(calculator, "annuityFactorService", warmed);
+            calculator.calculateCombination(request, "equalInterest");
+        }
+        assertThat(warmed.missCount()).isEqualTo(1);
+        assertThat(warmed.hitCount()).isEqualTo(hits + 4 + 1);
+        assertThat(warmed.hitRate()).isEqualTo((double) warmed.hitCount() / (warmed.hitCount() + 1));
+    }
+
+    private BigDecimal exactPayment(BigDecimal principal, BigDecimal monthRate, int months) {
+        BigDecimal powRate = BigDecimal.ONE.add(monthRate).pow(months);
+        return principal.multiply(monthRate).multiply(powRate)
+                .divide(powRate.subtract(BigDecimal.ONE), SCALE, ROUND_MODE);
+    }
+}
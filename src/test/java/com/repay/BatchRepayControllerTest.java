@@ -0,0 +1,115 @@
+package com.repay;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.repay.controller.BatchRepayController;
+import com.repay.service.impl.BatchRepayService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * 批量还款计算接口校验：结果顺序、单条目失败隔离、与单笔接口结果一致；条目数超过上限或格式错误时返回 400
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class BatchRepayControllerTest {
+
+    private static final String LOAN = """
+            {"loanType":"combination","businessLoanTotal":%s,"businessAnnualRate":3.85,"businessYears":30,
+             "fundLoanTotal":500000,"fundAnnualRate":2.85,"fundYears":25,"reservedPrincipal":0,
+             "prepayments":[{"month":36,"amount":100000}],"periodicRepayList":[]}""";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void batchKeepsOrderAndIsolatesFailures() throws Exception {
+        String items = "[" + item("a", "equalInterest", 1000000) + ","
+                + "{\"id\":\"b\",\"request\":" + LOAN.formatted(1000000) + "},"
+                + item("c", "equalPrincipal", 800000) + ","
+                + item("d", "unknown", 800000) + "]";
+        JsonNode results = objectMapper.readTree(mockMvc.perform(post("/api/repay/batch")
+                        .contentType(MediaType.APPLICATION_JSON).content(items))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsByteArray());
+
+        assertThat(results).hasSize(4);
+        assertThat(results.get(0).get("success").asBoolean()).isTrue();
+        assertThat(results.get(1).get("success").asBoolean()).isFalse();
+        assertThat(results.get(1).get("error").asText()).contains("method");
+        assertThat(results.get(2).get("id").asText()).isEqualTo("c");
+        assertThat(results.get(3).get("error").asText()).contains("unknown");
+        assertThat(results.get(0).get("response").get("totalAllRepay").decimalValue())
+                .isEqualByComparingTo(single("/api/repay/equal-interest", 1000000).get("totalAllRepay").decimalValue());
+        assertThat(results.get(2).get("response").get("totalAllInterest").decimalValue())
+                .isEqualByComparingTo(single("/api/repay/equal-principal", 800000).get("totalAllInterest").decimalValue());
+    }
+
+    @Test
+    void streamReturnsOneLinePerItemInOrder() throws Exception {
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < 40; i++) {
+            body.append(i == 7 ? "{broken json" : item(String.valueOf(i), i % 2 == 0 ? "equalInterest" : "equalPrincipal",
+                    500000 + i * 1000).replace("\n", "")).append('\n');
+        }
+        MvcResult async = mockMvc.perform(post("/api/repay/batch/stream")
+                        .contentType(MediaType.APPLICATION_NDJSON).content(body.toString()))
+                .andReturn();
+        String[] lines = mockMvc.perform(asyncDispatch(async))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString().split("\n");
+
+        assertThat(lines).hasSize(40);
+        for (int i = 0; i < lines.length; i++) {
+            JsonNode result = objectMapper.readTree(lines[i]);
+            assertThat(result.get("index").asInt()).isEqualTo(i);
+            assertThat(result.get("success").asBoolean()).isEqualTo(i != 7);
+        }
+    }
+
+    @Test
+    void rejectsTooManyItemsAndMalformedBody() throws Exception {
+        BatchRepayService service = new BatchRepayService();
+        ReflectionTestUtils.setField(service, "objectMapper", objectMapper);
+        BatchRepayController controller = new BatchRepayController();
+        ReflectionTestUtils.setField(controller, "batchRepayService", service);
+        ReflectionTestUtils.setField(controller, "maxItems", 2);
+        MockMvc standalone = MockMvcBuilders.standaloneSetup(controller).build();
+        // 第3个条目之后是截断的 JSON：超限时已停止读取，不会走到格式错误
+        String tooMany = "[" + item("a", "equalInterest", 1000000) + "," + item("b", "equalInterest", 1000000) + ","
+                + item("c", "equalInterest", 1000000) + ",{broken";
+        standalone.perform(post("/api/repay/batch").contentType(MediaType.APPLICATION_JSON).content(tooMany))
+                .andExpect(status().isBadRequest())
+                .andExpect(status().reason(containsString("上限")));
+        standalone.perform(post("/api/repay/batch").contentType(MediaType.APPLICATION_JSON).content("{\"id\":\"a\"}"))
+                .andExpect(status().isBadRequest());
+        standalone.perform(post("/api/repay/batch").contentType(MediaType.APPLICATION_JSON).content("[{broken"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private JsonNode single(String path, int businessTotal) throws Exception {
+        return objectMapper.readTree(mockMvc.perform(post(path)
+                        .contentType(MediaType.APPLICATION_JSON).content(LOAN.formatted(businessTotal)))
+                .andReturn().getResponse().getContentAsByteArray());
+    }
+
+    private String item(String id, String method, int businessTotal) {
+        return "{\"id\":\"" + id + "\",\"method\":\"" + method + "\",\"request\":" + LOAN.formatted(businessTotal) + "}";
+    }
+}
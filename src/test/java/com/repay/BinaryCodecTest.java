@@ -0,0 +1,70 @@
+package com.repay;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * CBOR / Smile 内容协商校验：二进制请求、二进制响应与 JSON 结果一致，BigDecimal 无损
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class BinaryCodecTest {
+
+    private static final MediaType SMILE = MediaType.parseMediaType("application/x-jackson-smile");
+
+    private static final String REQUEST = """
+            {"loanType":"combination","businessLoanTotal":1000000.01,"businessAnnualRate":3.85,"businessYears":30,
+             "fundLoanTotal":500000,"fundAnnualRate":2.85,"fundYears":25,"reservedPrincipal":0,
+             "prepayments":[{"month":36,"amount":100000.5}],"periodicRepayList":[]}""";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    private final ObjectMapper json = new ObjectMapper().enable(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS);
+
+    @Test
+    void binaryEncodingsMatchJson() throws Exception {
+        JsonNode tree = json.readTree(REQUEST);
+        JsonNode expected = json.readTree(mockMvc.perform(post("/api/repay/equal-interest")
+                        .contentType(MediaType.APPLICATION_JSON).content(REQUEST))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsByteArray());
+
+        ObjectMapper[] mappers = {new CBORMapper(), new SmileMapper()};
+        MediaType[] types = {MediaType.APPLICATION_CBOR, SMILE};
+        for (int i = 0; i < mappers.length; i++) {
+            byte[] body = mockMvc.perform(post("/api/repay/equal-interest")
+                            .contentType(types[i]).accept(types[i])
+                            .content(mappers[i].writeValueAsBytes(tree)))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentTypeCompatibleWith(types[i]))
+                    .andReturn().getResponse().getContentAsByteArray();
+            JsonNode actual = mappers[i].readTree(body);
+
+            assertThat(actual.get("totalAllRepay").isBigDecimal()).isTrue();
+            assertThat(actual.get("totalAllRepay").decimalValue())
+                    .isEqualTo(new BigDecimal(expected.get("totalAllRepay").asText()));
+            assertThat(actual.get("monthlyDetails")).hasSize(expected.get("monthlyDetails").size());
+            JsonNode last = actual.get("monthlyDetails").get(actual.get("monthlyDetails").size() - 1);
+            JsonNode expectedLast = expected.get("monthlyDetails").get(expected.get("monthlyDetails").size() - 1);
+            assertThat(last.get("monthlyInterest").decimalValue())
+                    .isEqualTo(new BigDecimal(expectedLast.get("monthlyInterest").asText()));
+        }
+    }
+}
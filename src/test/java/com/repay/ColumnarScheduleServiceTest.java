@@ -0,0 +1,97 @@
+package com.repay;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.repay.controller.EqualInterestRepayController;
+import com.repay.controller.EqualPrincipalRepayController;
+import com.repay.entity.*;
+import com.repay.service.RepayCalculator;
+import com.repay.service.impl.ColumnarScheduleService;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static com.repay.RepayTestSupport.calculators;
+import static com.repay.RepayTestSupport.combination;
+import static com.repay.RepayTestSupport.legacyCombination;
+import static com.repay.RepayTestSupport.periodRepay;
+import static com.repay.RepayTestSupport.prepayment;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * 列式格式与对象列表格式一致性校验；金额小数位数超过列式格式支持的位数时返回 400
+ */
+class ColumnarScheduleServiceTest {
+
+    @Test
+    void columnsMatchMonthlyDetails() {
+        for (RepayCalculator calculator : calculators()) {
+            ColumnarScheduleService service = new ColumnarScheduleService();
+            ReflectionTestUtils.setField(service, "repayCalculator", calculator);
+            for (String type : new String[]{"equalPrincipal", "equalInterest"}) {
+                // 周期还款金额带3位小数（不经过舍入）：回退 BigDecimal 计算，列式 scale 需自动提高到3
+                for (String periodAmount : new String[]{"1000", "1000.005"}) {
+                    CombinationLoanResponse expected = legacyCombination(calculator, request(periodAmount), type);
+                    ColumnarLoanResponse actual = service.calculate(request(periodAmount), type);
+
+                    assertThat(actual.getScale()).isEqualTo(periodAmount.contains(".") ? 3 : 2);
+                    assertThat(actual.getTotalMonths()).isEqualTo(expected.getTotalMonths());
+                    assertThat(actual.getYears()).isEqualTo(expected.getYears());
+                    assertThat(actual.getTotalAllRepay()).isEqualByComparingTo(expected.getTotalAllRepay());
+                    assertThat(actual.getBusinessTotalInterest()).isEqualByComparingTo(expected.getBusinessTotalInterest());
+                    assertSameColumns(expected.getMonthlyDetails(), actual.getMerged(), actual.getScale());
+                    assertSameColumns(expected.getBusinessMonthlyDetails(), actual.getBusiness(), actual.getScale());
+                    assertSameColumns(expected.getFundMonthlyDetails(), actual.getFund(), actual.getScale());
+                    assertThat(actual.getFundYears().getYear()).hasSize(expected.getFundYearSummaries().size());
+                    for (int i = 0; i < expected.getFundYearSummaries().size(); i++) {
+                        assertThat(BigDecimal.valueOf(actual.getFundYears().getRepay()[i], actual.getScale()))
+                                .isEqualByComparingTo(expected.getFundYearSummaries().get(i).getYearTotalRepay());
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void rejectsAmountBeyondMaxScale() throws Exception {
+        ColumnarScheduleService service = new ColumnarScheduleService();
+        ReflectionTestUtils.setField(service, "repayCalculator", calculators().get(0));
+        EqualPrincipalRepayController principalController = new EqualPrincipalRepayController();
+        ReflectionTestUtils.setField(principalController, "columnarScheduleService", service);
+        EqualInterestRepayController interestController = new EqualInterestRepayController();
+        ReflectionTestUtils.setField(interestController, "columnarScheduleService", service);
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(principalController, interestController).build();
+        // 周期还款金额带9位小数
+        String body = new ObjectMapper().writeValueAsString(request("1000.000000001"));
+        for (String path : new String[]{"/api/repay/equal-principal/columnar", "/api/repay/equal-interest/columnar"}) {
+            mockMvc.perform(post(path).contentType(MediaType.APPLICATION_JSON).content(body))
+                    .andExpect(status().isBadRequest());
+        }
+    }
+
+    private void assertSameColumns(List<EqualPrincipalRepayResponse.MonthlyDetail> expected,
+                                   ColumnarLoanResponse.ColumnarSchedule actual, int scale) {
+        assertThat(actual.getMonth()).hasSize(expected.size());
+        for (int i = 0; i < expected.size(); i++) {
+            EqualPrincipalRepayResponse.MonthlyDetail e = expected.get(i);
+            assertThat(actual.getMonth()[i]).isEqualTo(e.getMonth());
+            assertThat(BigDecimal.valueOf(actual.getPrincipal()[i], scale)).isEqualByComparingTo(e.getMonthlyPrincipal());
+            assertThat(BigDecimal.valueOf(actual.getInterest()[i], scale)).isEqualByComparingTo(e.getMonthlyInterest());
+            assertThat(BigDecimal.valueOf(actual.getRepay()[i], scale)).isEqualByComparingTo(e.getMonthlyRepay());
+            assertThat(BigDecimal.valueOf(actual.getRemaining()[i], scale)).isEqualByComparingTo(e.getRemainingPrincipal());
+        }
+    }
+
+    private CombinationLoanRequest request(String periodAmount) {
+        CombinationLoanRequest request = combination("1200000", "3.85", 25, "500000", "2.85", 30);
+        request.setPrepayments(List.of(prepayment(100, "300000")));
+        request.setPeriodicRepayList(List.of(periodRepay(6, 60, 6, periodAmount)));
+        return request;
+    }
+}
@@ -0,0 +1,146 @@
+package com.repay;
+
+import com.repay.entity.*;
+import com.repay.service.RepayCalculator;
+import com.repay.service.impl.EqualPrincipalCalculatorImpl;
+import com.repay.service.impl.FixedPointCalculatorImpl;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Random;
+
+import static com.repay.RepayTestSupport.legacyCombination;
+import static com.repay.RepayTestSupport.withFactorService;
+import static com.repay.constant.CONSTANT.SCALE;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 定点数实现与 BigDecimal 实现逐分一致性校验
+ */
+class FixedPointCalculatorTest {
+
+    private static final String[] RATES = {"4.9", "4.2", "3.85", "3.1", "2.85", "2.6", "5.88", "0"};
+
+    private final RepayCalculator bigDecimalCalculator = withFactorService(new EqualPrincipalCalculatorImpl());
+    private final RepayCalculator fixedPointCalculator = withFactorService(new FixedPointCalculatorImpl());
+
+    @Test
+    void combinationLoanMatchesBigDecimalToTheCent() {
+        Random random = new Random(20240601L);
+        for (int i = 0; i < 300; i++) {
+            CombinationLoanRequest request = randomRequest(random);
+            for (String type : new String[]{"equalPrincipal", "equalInterest"}) {
+                if ("equalInterest".equals(type) && (request.getBusinessAnnualRate().signum() == 0
+                        || request.getFundAnnualRate().signum() == 0)) {
+                    continue;
+                }
+                assertSameResponse(legacyCombination(bigDecimalCalculator, request, type),
+                        legacyCombination(fixedPointCalculator, request, type));
+            }
+        }
+    }
+
+    @Test
+    void fallsBackWhenAmountHasMoreThanTwoDecimals() {
+        EqualPrincipalRepayRequest request = fixedPointCalculator.buildSingleLoanRequest(
+                new BigDecimal("123456.789"), new BigDecimal("4.9"), 10, BigDecimal.ZERO);
+        assertSameDetails(bigDecimalCalculator.calculatorPrincipal(request, new HashMap<>()),
+                fixedPointCalculator.calculatorPrincipal(request, new HashMap<>()));
+        assertSameDetails(bigDecimalCalculator.calculateEqualInterestRepay(request, new HashMap<>()),
+                fixedPointCalculator.calculateEqualInterestRepay(request, new HashMap<>()));
+    }
+
+    private CombinationLoanRequest randomRequest(Random random) {
+        CombinationLoanRequest request = new CombinationLoanRequest();
+        request.setLoanType(new String[]{"single", "fund", "combination"}[random.nextInt(3)]);
+        request.setBusinessLoanTotal(BigDecimal.valueOf(random.nextInt(300_000_000), 2));
+        request.setBusinessAnnualRate(new BigDecimal(RATES[random.nextInt(RATES.length)]));
+        request.setBusinessYears(1 + random.nextInt(30));
+        request.setFundLoanTotal(BigDecimal.valueOf(random.nextInt(100_000_000), 2));
+        request.setFundAnnualRate(new BigDecimal(RATES[random.nextInt(RATES.length - 1)]));
+        request.setFundYears(1 + random.nextInt(30));
+        request.setReservedPrincipal(random.nextInt(4) == 0 ? BigDecimal.valueOf(random.nextInt(5_000_000), 2) : BigDecimal.ZERO);
+        List<Prepayment> prepayments = new ArrayList<>();
+        for (int j = random.nextInt(6); j > 0; j--) {
+            Prepayment prepayment = new Prepayment();
+            prepayment.setMonth(1 + random.nextInt(360));
+            prepayment.setAmount(BigDecimal.valueOf(random.nextInt(150_000_000), 2));
+            prepayments.add(prepayment);
+        }
+        request.setPrepayments(prepayments);
+        List<PeriodRepay> periodRepays = new ArrayList<>();
+        if (random.nextBoolean()) {
+            int start = 1 + random.nextInt(60);
+            periodRepays.add(new PeriodRepay().setStartMonth(start).setEndMonth(start + random.nextInt(300))
+                    .setCycleMonths(1 + random.nextInt(12)).setAmount(BigDecimal.valueOf(random.nextInt(2_000_000), 2)));
+        }
+        request.setPeriodicRepayList(periodRepays);
+        return request;
+    }
+
+    private void assertSameResponse(CombinationLoanResponse expected, CombinationLoanResponse actual) {
+        assertThat(actual.getTotalMonths()).isEqualTo(expected.getTotalMonths());
+        assertSameAmount(expected.getTotalAllPrincipal(), actual.getTotalAllPrincipal());
+        assertSameAmount(expected.getTotalAllInterest(), actual.getTotalAllInterest());
+        assertSameAmount(expected.getTotalAllRepay(), actual.getTotalAllRepay());
+        assertSameRows(expected.getMonthlyDetails(), actual.getMonthlyDetails());
+        assertSameRows(expected.getBusinessMonthlyDetails(), actual.getBusinessMonthlyDetails());
+        assertSameRows(expected.getFundMonthlyDetails(), actual.getFundMonthlyDetails());
+        assertSameYears(expected.getBusinessYearSummaries(), actual.getBusinessYearSummaries());
+        assertSameYears(expected.getFundYearSummaries(), actual.getFundYearSummaries());
+    }
+
+    private void assertSameDetails(EqualPrincipalRepayResponse expected, EqualPrincipalRepayResponse actual) {
+        assertSameAmount(expected.getTotalAllInterest(), actual.getTotalAllInterest());
+        assertSameRows(expected.getMonthlyDetails(), actual.getMonthlyDetails());
+        assertSameYears(expected.getYearSummaries(), actual.getYearSummaries());
+    }
+
+    private void assertSameRows(List<EqualPrincipalRepayResponse.MonthlyDetail> expected,
+                                List<EqualPrincipalRepayResponse.MonthlyDetail> actual) {
+        if (expected == null) {
+            assertThat(actual).isNull();
+            return;
+        }
+        assertThat(actual).hasSameSizeAs(expected);
+        for (int i = 0; i < expected.size(); i++) {
+            EqualPrincipalRepayResponse.MonthlyDetail e = expected.get(i);
+            EqualPrincipalRepayResponse.MonthlyDetail a = actual.get(i);
+            assertThat(a.getMonth()).isEqualTo(e.getMonth());
+            assertSameAmount(e.getMonthlyPrincipal(), a.getMonthlyPrincipal());
+            assertSameAmount(e.getMonthlyInterest(), a.getMonthlyInterest());
+            assertSameAmount(e.getMonthlyRepay(), a.getMonthlyRepay());
+            assertSameAmount(e.getRemainingPrincipal(), a.getRemainingPrincipal());
+        }
+    }
+
+    private void assertSameYears(List<EqualPrincipalRepayResponse.YearSummary> expected,
+                                 List<EqualPrincipalRepayResponse.YearSummary> actual) {
+        if (expected == null) {
+            assertThat(actual).isNull();
+            return;
+        }
+        assertThat(actual).hasSameSizeAs(expected);
+        for (int i = 0; i < expected.size(); i++) {
+            assertThat(actual.get(i).getYear()).isEqualTo(expected.get(i).getYear());
+            assertSameAmount(expected.get(i).getYearPrincipal(), actual.get(i).getYearPrincipal());
+            assertSameAmount(expected.get(i).getYearInterest(), actual.get(i).getYearInterest());
+        }
+    }
+
+    /**
+     * 金额及小数位数一致（scale 敏感的 equals）。
+     * 唯一的有意差异：BigDecimal 实现在清零、还清时输出 0（BigDecimal.ZERO 或保留本金原样），
+     * 定点数实现的金额一律为2位小数，输出 0.00（回退 BigDecimal 实现时与其相同）
+     */
+    private void assertSameAmount(BigDecimal expected, BigDecimal actual) {
+        if (actual.equals(expected)) {
+            return;
+        }
+        assertThat(expected.signum()).as("仅零值允许小数位数不同：%s / %s", expected, actual).isZero();
+        assertThat(actual).isEqualTo(BigDecimal.ZERO.setScale(SCALE));
+    }
+}
@@ -0,0 +1,126 @@
+package com.repay;
+
+import com.repay.entity.CombinationLoanRequest;
+import com.repay.entity.CombinationLoanResponse;
+import com.repay.entity.EqualPrincipalRepayResponse;
+import com.repay.entity.HouseholdLoan;
+import com.repay.entity.HouseholdLoanRequest;
+import com.repay.entity.HouseholdLoanResponse;
+import com.repay.entity.Prepayment;
+import com.repay.service.RepayCalculator;
+import com.repay.service.impl.EqualPrincipalCalculatorImpl;
+import com.repay.service.impl.HouseholdService;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static com.repay.RepayTestSupport.calculators;
+import static com.repay.RepayTestSupport.combination;
+import static com.repay.RepayTestSupport.prepayment;
+import static com.repay.RepayTestSupport.withFactorService;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 家庭贷款组合：两笔时与组合贷合并结果逐项一致，N 笔时合并明细为各笔之和
+ */
+class HouseholdServiceTest {
+
+    @Test
+    void twoLegsMatchCombination() {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            for (RepayCalculator calculator : calculators()) {
+                HouseholdService service = service(calculator);
+                ReflectionTestUtils.setField(service, "legExecutor", executor);
+                for (String type : new String[]{"equalPrincipal", "equalInterest"}) {
+                    // 公共提前还款只还商贷（allocation=business），与各笔贷款只用自己的提前还款等价
+                    CombinationLoanRequest combination = combination("1000000", "3.85", 20, "500000", "2.85", 30);
+                    combination.setPrepayments(List.of(prepayment(36, "300000"), prepayment(100, "900000")));
+                    combination.setFundPrepayments(List.of(prepayment(60, "50000")));
+                    combination.setPrepayAllocation("business");
+                    CombinationLoanResponse expected = calculator.calculateCombination(combination, type);
+
+                    HouseholdLoanRequest request = new HouseholdLoanRequest();
+                    request.setLoans(List.of(
+                            loan("商贷", type, "1000000", "3.85", 20, prepayment(36, "300000"), prepayment(100, "900000")),
+                            loan("公积金", type, "500000", "2.85", 30, prepayment(60, "50000"))));
+                    HouseholdLoanResponse actual = service.calculate(request);
+
+                    assertThat(actual.getTotalMonths()).isEqualTo(expected.getTotalMonths());
+                    assertThat(rows(actual.getMonthlyDetails())).isEqualTo(rows(expected.getMonthlyDetails()));
+                    assertThat(rows(actual.getLegs().get(0).getMonthlyDetails())).isEqualTo(rows(expected.getBusinessMonthlyDetails()));
+                    assertThat(actual.getTotalAllInterest()).isEqualByComparingTo(expected.getTotalAllInterest());
+                    assertThat(actual.getTotalAllRepay()).isEqualByComparingTo(expected.getTotalAllRepay());
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void mergesAnyNumberOfLegs() {
+        HouseholdService service = service(withFactorService(new EqualPrincipalCalculatorImpl()));
+        HouseholdLoanRequest request = new HouseholdLoanRequest();
+        request.setLoans(List.of(
+                loan("首套房", "equalInterest", "1200000", "3.85", 30, prepayment(24, "200000")),
+                loan("二套房", "equalPrincipal", "600000", "4.2", 25),
+                loan("车贷", "equalInterest", "150000", "5.5", 5, prepayment(12, "150000"))));
+        HouseholdLoanResponse response = service.calculate(request);
+
+        assertThat(response.getLegs()).extracting(HouseholdLoanResponse.Leg::getName).containsExactly("首套房", "二套房", "车贷");
+        assertThat(response.getTotalMonths()).isEqualTo(360);
+        assertThat(response.getMonthlyDetails()).hasSize(360);
+        // 车贷第12个月提前结清
+        assertThat(response.getLegs().get(2).getMonthlyDetails()).hasSize(12);
+        for (int month : new int[]{1, 12, 13, 24, 300, 301, 360}) {
+            BigDecimal principal = BigDecimal.ZERO;
+            BigDecimal interest = BigDecimal.ZERO;
+            BigDecimal remaining = BigDecimal.ZERO;
+            for (HouseholdLoanResponse.Leg leg : response.getLegs()) {
+                if (month <= leg.getMonthlyDetails().size()) {
+                    EqualPrincipalRepayResponse.MonthlyDetail row = leg.getMonthlyDetails().get(month - 1);
+                    principal = principal.add(row.getMonthlyPrincipal());
+                    interest = interest.add(row.getMonthlyInterest());
+                    remaining = remaining.add(row.getRemainingPrincipal());
+                }
+            }
+            EqualPrincipalRepayResponse.MonthlyDetail merged = response.getMonthlyDetails().get(month - 1);
+            assertThat(merged.getMonth()).isEqualTo(month);
+            assertThat(merged.getMonthlyPrincipal()).isEqualByComparingTo(principal);
+            assertThat(merged.getMonthlyInterest()).isEqualByComparingTo(interest);
+            assertThat(merged.getMonthlyRepay()).isEqualByComparingTo(principal.add(interest));
+            assertThat(merged.getRemainingPrincipal()).isEqualByComparingTo(remaining);
+        }
+        BigDecimal totalInterest = response.getLegs().stream().map(HouseholdLoanResponse.Leg::getTotalInterest)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        assertThat(response.getTotalAllInterest()).isEqualByComparingTo(totalInterest);
+    }
+
+    private static HouseholdService service(RepayCalculator calculator) {
+        HouseholdService service = new HouseholdService();
+        ReflectionTestUtils.setField(service, "repayCalculator", calculator);
+        return service;
+    }
+
+    private static List<String> rows(List<EqualPrincipalRepayResponse.MonthlyDetail> details) {
+        return details.stream().map(row -> row.getMonth() + ":" + row.getMonthlyPrincipal().toPlainString() + ","
+                + row.getMonthlyInterest().toPlainString() + "," + row.getMonthlyRepay().toPlainString() + ","
+                + row.getRemainingPrincipal().toPlainString()).toList();
+    }
+
+    private static HouseholdLoan loan(String name, String method, String total, String rate, int years, Prepayment... prepayments) {
+        HouseholdLoan loan = new HouseholdLoan();
+        loan.setName(name);
+        loan.setMethod(method);
+        loan.setLoanTotal(new BigDecimal(total));
+        loan.setAnnualRate(new BigDecimal(rate));
+        loan.setYears(years);
+        loan.setPrepayments(List.of(prepayments));
+        return loan;
+    }
+}
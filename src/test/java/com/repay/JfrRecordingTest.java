@@ -0,0 +1,124 @@
+package com.repay;
+
+import com.repay.entity.CombinationLoanRequest;
+import com.repay.entity.income.DepositType;
+import com.repay.entity.income.IncomeCalculateRequest;
+import com.repay.entity.income.SavingsProduct;
+import com.repay.entity.income.SavingsType;
+import com.repay.service.impl.EqualPrincipalCalculatorImpl;
+import com.repay.service.impl.IncomeCalculationEvent;
+import com.repay.service.impl.IncomeCalculatorService;
+import com.repay.service.impl.RepayCalculationEvent;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+
+import static com.repay.RepayTestSupport.combination;
+import static com.repay.RepayTestSupport.prepayment;
+import static com.repay.RepayTestSupport.withFactorService;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * JFR：计算事件携带请求形态字段，按需记录接口返回 .jfr 文件
+ */
+@SpringBootTest(properties = "repay.jfr.enabled=true")
+@AutoConfigureMockMvc
+class JfrRecordingTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void calculationsEmitEventsWithRequestShape(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("events.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(RepayCalculationEvent.class);
+            recording.enable(IncomeCalculationEvent.class);
+            recording.start();
+            withFactorService(new EqualPrincipalCalculatorImpl())
+                    .calculateCombination(loan(), "equalInterest");
+            new IncomeCalculatorService().calculateIncome(income(), 2025);
+            recording.stop();
+            recording.dump(file);
+        }
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+        RecordedEvent repay = events.stream()
+                .filter(event -> event.getEventType().getName().equals("com.repay.RepayCalculation")).findFirst().orElseThrow();
+        assertThat(repay.getString("loanType")).isEqualTo("combination");
+        assertThat(repay.getString("method")).isEqualTo("equalInterest");
+        assertThat(repay.getInt("businessMonths")).isEqualTo(360);
+        assertThat(repay.getInt("fundMonths")).isEqualTo(300);
+        assertThat(repay.getInt("computedMonths")).isBetween(1, 660);
+        assertThat(repay.getInt("prepaymentEvents")).isEqualTo(2);
+
+        RecordedEvent income = events.stream()
+                .filter(event -> event.getEventType().getName().equals("com.repay.IncomeCalculation")).findFirst().orElseThrow();
+        assertThat(income.getInt("targetYear")).isEqualTo(2025);
+        assertThat(income.getInt("productCount")).isEqualTo(2);
+        assertThat(income.getInt("bankDeposits")).isEqualTo(1);
+        assertThat(income.getInt("stocks")).isEqualTo(1);
+    }
+
+    @Test
+    void recordingEndpointReturnsJfrFile() throws Exception {
+        byte[] body = mockMvc.perform(post("/api/admin/jfr/recording").param("seconds", "1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Disposition", containsString(".jfr")))
+                .andReturn().getResponse().getContentAsByteArray();
+        // .jfr 文件头魔数
+        assertThat(new String(body, 0, 3, StandardCharsets.US_ASCII)).isEqualTo("FLR");
+
+        mockMvc.perform(post("/api/admin/jfr/recording").param("seconds", "3600"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/api/admin/jfr/recording").param("seconds", "1").param("settings", "missing"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private static CombinationLoanRequest loan() {
+        CombinationLoanRequest request = combination("1000000", "3.85", 30, "500000", "2.85", 25);
+        request.setPrepayments(List.of(prepayment(36, "100000")));
+        request.setFundPrepayments(List.of(prepayment(60, "50000")));
+        request.setPeriodicRepayList(List.of());
+        return request;
+    }
+
+    private static IncomeCalculateRequest income() {
+        SavingsProduct deposit = new SavingsProduct();
+        deposit.setProductName("活期");
+        deposit.setSavingsType(SavingsType.BANK_DEPOSIT);
+        deposit.setDepositType(DepositType.DEMAND);
+        deposit.setPrincipal(new BigDecimal("50000"));
+        deposit.setAnnualRate(new BigDecimal("0.35"));
+        deposit.setStartDate(LocalDate.of(2024, 1, 1));
+        SavingsProduct stock = new SavingsProduct();
+        stock.setProductName("股票");
+        stock.setSavingsType(SavingsType.STOCK);
+        stock.setPrincipal(new BigDecimal("20000"));
+        stock.setMonthlyRate(new BigDecimal("0.5"));
+        stock.setStartDate(LocalDate.of(2024, 6, 1));
+        IncomeCalculateRequest.SalaryConfig salary = new IncomeCalculateRequest.SalaryConfig();
+        salary.setSalaryDay(10);
+        salary.setMonthlySalary(new BigDecimal("20000"));
+        IncomeCalculateRequest request = new IncomeCalculateRequest();
+        request.setProducts(List.of(deposit, stock));
+        request.setSalaryConfig(salary);
+        return request;
+    }
+}
@@ -0,0 +1,142 @@
+package com.repay;
+
+import com.repay.entity.EqualPrincipalRepayRequest;
+import com.repay.entity.EqualPrincipalRepayResponse;
+import com.repay.entity.LoanSolverRequest;
+import com.repay.entity.LoanSolverResponse;
+import com.repay.entity.RateChange;
+import com.repay.service.RateSchedule;
+import com.repay.service.RepayCalculator;
+import com.repay.service.impl.AnnuityFactorService;
+import com.repay.service.impl.EqualPrincipalCalculatorImpl;
+import com.repay.service.impl.LoanSolverService;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.repay.RepayTestSupport.prepayment;
+import static com.repay.RepayTestSupport.withFactorService;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 反向求解：最大可贷额、最短年限为满足预算的最优解（由完整还款计划校验），结清月份与完整还款计划一致
+ */
+class LoanSolverTest {
+    private static final BigDecimal CENT = new BigDecimal("0.01");
+
+    private final RepayCalculator calculator = withFactorService(new EqualPrincipalCalculatorImpl());
+    private final LoanSolverService service = service(calculator);
+
+    @Test
+    void maxLoanIsLargestAffordableAmount() {
+        for (String method : new String[]{"equalPrincipal", "equalInterest"}) {
+            for (List<RateChange> changes : List.of(List.<RateChange>of(), List.of(rateChange(25, "4.35"), rateChange(61, "3.6")))) {
+                for (String budget : new String[]{"5000", "8888.88", "12345.67"}) {
+                    LoanSolverRequest request = request(method, "3.85", changes);
+                    request.setMonthlyBudget(new BigDecimal(budget));
+                    request.setYears(25);
+                    LoanSolverResponse response = service.maxLoan(request);
+
+                    assertThat(response.getSolver()).isEqualTo(changes.isEmpty() ? "closed-form" : "bisection");
+                    assertThat(peak(method, response.getLoanTotal(), 25, changes)).isLessThanOrEqualTo(new BigDecimal(budget))
+                            .isEqualByComparingTo(response.getMonthlyRepay());
+                    assertThat(peak(method, response.getLoanTotal().add(CENT), 25, changes)).isGreaterThan(new BigDecimal(budget));
+                    if (changes.isEmpty()) {
+                        assertThat(response.getEvaluations()).isLessThanOrEqualTo(method.equals("equalInterest") ? 4 : 20);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void minTermIsShortestAffordableTerm() {
+        for (String method : new String[]{"equalPrincipal", "equalInterest"}) {
+            for (List<RateChange> changes : List.of(List.<RateChange>of(), List.of(rateChange(13, "4.9")))) {
+                LoanSolverRequest request = request(method, "3.85", changes);
+                request.setMonthlyBudget(new BigDecimal("7000"));
+                request.setLoanTotal(new BigDecimal("1000000"));
+                LoanSolverResponse response = service.minTerm(request);
+
+                int years = response.getYears();
+                assertThat(peak(method, request.getLoanTotal(), years, changes)).isLessThanOrEqualTo(request.getMonthlyBudget());
+                assertThat(peak(method, request.getLoanTotal(), years - 1, changes)).isGreaterThan(request.getMonthlyBudget());
+            }
+        }
+        // 预算不足以支付首月利息
+        LoanSolverRequest request = request("equalInterest", "3.85", List.of());
+        request.setMonthlyBudget(new BigDecimal("3000"));
+        request.setLoanTotal(new BigDecimal("1000000"));
+        assertThatThrownBy(() -> service.minTerm(request)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void payoffMatchesFullSchedule() {
+        for (String method : new String[]{"equalPrincipal", "equalInterest"}) {
+            LoanSolverRequest request = request(method, "3.85", List.of(rateChange(37, "3.1")));
+            request.setLoanTotal(new BigDecimal("800000"));
+            request.setYears(30);
+            request.setPrepayments(List.of(prepayment(24, "200000"), prepayment(60, "600000")));
+            LoanSolverResponse response = service.payoff(request);
+
+            EqualPrincipalRepayRequest loan = calculator.buildSingleLoanRequest(request.getLoanTotal(), request.getAnnualRate(), 30, BigDecimal.ZERO);
+            loan.setRateChanges(request.getRateChanges());
+            Map<Integer, BigDecimal> prepayMoney = new HashMap<>(Map.of(24, new BigDecimal("200000"), 60, new BigDecimal("600000")));
+            EqualPrincipalRepayResponse full = method.equals("equalInterest")
+                    ? calculator.calculateEqualInterestRepay(loan, prepayMoney)
+                    : calculator.calculatorPrincipal(loan, prepayMoney);
+            EqualPrincipalRepayResponse.MonthlyDetail last = full.getMonthlyDetails().stream()
+                    .filter(row -> row.getRemainingPrincipal().signum() <= 0).findFirst().orElseThrow();
+            BigDecimal interest = full.getMonthlyDetails().stream().filter(row -> row.getMonth() <= last.getMonth())
+                    .map(EqualPrincipalRepayResponse.MonthlyDetail::getMonthlyInterest).reduce(BigDecimal.ZERO, BigDecimal::add);
+
+            assertThat(response.getPayoffMonth()).isEqualTo(last.getMonth()).isLessThan(360);
+            assertThat(response.getMonthsSaved()).isEqualTo(360 - last.getMonth());
+            assertThat(response.getTotalInterest()).isEqualByComparingTo(interest);
+        }
+    }
+
+    /**
+     * 由完整还款计划计算最高月供：首月及各重定价月（末月尾差不计）
+     */
+    private BigDecimal peak(String method, BigDecimal loanTotal, int years, List<RateChange> changes) {
+        EqualPrincipalRepayRequest loan = calculator.buildSingleLoanRequest(loanTotal, new BigDecimal("3.85"), years, BigDecimal.ZERO);
+        loan.setRateChanges(changes);
+        EqualPrincipalRepayResponse full = method.equals("equalInterest")
+                ? calculator.calculateEqualInterestRepay(loan, new HashMap<>())
+                : calculator.calculatorPrincipal(loan, new HashMap<>());
+        RateSchedule rates = RateSchedule.of(loan);
+        int totalMonths = years * 12;
+        return full.getMonthlyDetails().stream()
+                .filter(row -> (row.getMonth() == 1 || rates.changesAt(row.getMonth())) && (row.getMonth() < totalMonths || totalMonths == 1))
+                .map(EqualPrincipalRepayResponse.MonthlyDetail::getMonthlyRepay)
+                .reduce(BigDecimal.ZERO, BigDecimal::max);
+    }
+
+    private static LoanSolverService service(RepayCalculator calculator) {
+        LoanSolverService service = new LoanSolverService();
+        ReflectionTestUtils.setField(service, "repayCalculator", calculator);
+        ReflectionTestUtils.setField(service, "annuityFactorService", new AnnuityFactorService());
+        return service;
+    }
+
+    private static LoanSolverRequest request(String method, String rate, List<RateChange> changes) {
+        LoanSolverRequest request = new LoanSolverRequest();
+        request.setMethod(method);
+        request.setAnnualRate(new BigDecimal(rate));
+        request.setRateChanges(changes);
+        return request;
+    }
+
+    private static RateChange rateChange(int month, String rate) {
+        RateChange change = new RateChange();
+        change.setMonth(month);
+        change.setAnnualRate(new BigDecimal(rate));
+        return change;
+    }
+}
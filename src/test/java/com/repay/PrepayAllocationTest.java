@@ -0,0 +1,123 @@
+package com.repay;
+
+import com.repay.entity.*;
+import com.repay.service.RepayCalculator;
+import com.repay.service.impl.ColumnarScheduleService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static com.repay.RepayTestSupport.calculators;
+import static com.repay.RepayTestSupport.combination;
+import static com.repay.RepayTestSupport.periodRepay;
+import static com.repay.RepayTestSupport.prepayment;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 组合贷提前还款分配校验：默认规则与原有实现一致、独立分配可并行、按月同步计算结果一致
+ */
+class PrepayAllocationTest {
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(2);
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void businessFirstMatchesSharedMapCalculation() {
+        for (RepayCalculator calculator : calculators()) {
+            for (String type : new String[]{"equalPrincipal", "equalInterest"}) {
+                // 第180个月大额提前还款超过商贷剩余本金，等额本金时多余部分留给公积金贷
+                CombinationLoanRequest request = request("businessFirst", "900000");
+                request.setFundPrepayments(List.of());
+                CombinationLoanResponse legacy = new CombinationLoanResponse();
+                Map<Integer, BigDecimal> prepayMoney = calculator.updatePayMoney(
+                        calculator.getAllPrepayMoney(request.getPrepayments()), request.getPeriodicRepayList());
+                EqualPrincipalRepayResponse business = calculator.businessResponse(request, prepayMoney, legacy, type);
+                EqualPrincipalRepayResponse fund = calculator.fundResponse(request, prepayMoney, legacy, type);
+                calculator.getTotalResponse(business, fund, legacy);
+
+                assertSameTotals(legacy, calculator.calculateCombination(request, type));
+            }
+        }
+    }
+
+    @Test
+    void isolatedLegsRunConcurrentlyWithSameResult() {
+        for (RepayCalculator calculator : calculators()) {
+            for (String allocation : new String[]{"business", "fund", "proportional"}) {
+                for (String type : new String[]{"equalPrincipal", "equalInterest"}) {
+                    CombinationLoanRequest request = request(allocation, "150000");
+                    CombinationLoanResponse sequential = calculator.calculateCombination(request, type);
+                    ReflectionTestUtils.setField(calculator, "legExecutor", executor);
+                    CombinationLoanResponse concurrent = calculator.calculateCombination(request, type);
+                    ReflectionTestUtils.setField(calculator, "legExecutor", null);
+                    assertSameTotals(sequential, concurrent);
+                }
+            }
+            // fund：公共提前还款全部归公积金贷，商贷与无提前还款时相同
+            CombinationLoanRequest request = request("fund", "150000");
+            CombinationLoanRequest businessOnly = request("business", "0");
+            businessOnly.setPrepayments(List.of());
+            businessOnly.setPeriodicRepayList(List.of());
+            assertThat(calculator.calculateCombination(request, "equalInterest").getBusinessTotalInterest())
+                    .isEqualByComparingTo(calculator.calculateCombination(businessOnly, "equalInterest").getBusinessTotalInterest());
+            // proportional：按贷款总额 2:1 拆分，商贷、公积金贷提前还款本金之和不变
+            CombinationLoanResponse proportional = calculator.calculateCombination(request("proportional", "150000"), "equalPrincipal");
+            CombinationLoanResponse none = calculator.calculateCombination(businessOnly, "equalPrincipal");
+            assertThat(proportional.getTotalAllPrincipal()).isEqualByComparingTo(none.getTotalAllPrincipal());
+        }
+    }
+
+    @Test
+    void lockstepCursorsMatchCalculateCombination() {
+        for (RepayCalculator calculator : calculators()) {
+            ColumnarScheduleService columnar = new ColumnarScheduleService();
+            ReflectionTestUtils.setField(columnar, "repayCalculator", calculator);
+            for (String allocation : new String[]{"businessFirst", "fund", "proportional"}) {
+                for (String type : new String[]{"equalPrincipal", "equalInterest"}) {
+                    CombinationLoanRequest request = request(allocation, "900000");
+                    CombinationLoanResponse expected = calculator.calculateCombination(request, type);
+                    ColumnarLoanResponse actual = columnar.calculate(request, type);
+                    assertThat(actual.getTotalAllRepay()).isEqualByComparingTo(expected.getTotalAllRepay());
+                    assertThat(actual.getFundTotalInterest()).isEqualByComparingTo(expected.getFundTotalInterest());
+                    assertThat(actual.getMerged().getMonth()).hasSize(expected.getMonthlyDetails().size());
+                }
+            }
+        }
+    }
+
+    private void assertSameTotals(CombinationLoanResponse expected, CombinationLoanResponse actual) {
+        assertThat(actual.getTotalMonths()).isEqualTo(expected.getTotalMonths());
+        assertThat(actual.getYears()).isEqualTo(expected.getYears());
+        assertThat(actual.getBusinessTotalPrincipal()).isEqualByComparingTo(expected.getBusinessTotalPrincipal());
+        assertThat(actual.getBusinessTotalInterest()).isEqualByComparingTo(expected.getBusinessTotalInterest());
+        assertThat(actual.getFundTotalPrincipal()).isEqualByComparingTo(expected.getFundTotalPrincipal());
+        assertThat(actual.getFundTotalInterest()).isEqualByComparingTo(expected.getFundTotalInterest());
+        assertThat(actual.getMonthlyDetails()).hasSameSizeAs(expected.getMonthlyDetails());
+        for (int i = 0; i < expected.getMonthlyDetails().size(); i++) {
+            assertThat(actual.getMonthlyDetails().get(i).getMonthlyRepay())
+                    .isEqualByComparingTo(expected.getMonthlyDetails().get(i).getMonthlyRepay());
+        }
+    }
+
+    /**
+     * 商贷100万/20年 + 公积金50万/30年，公共提前还款在第180个月，公积金贷另有专属提前还款
+     */
+    private CombinationLoanRequest request(String allocation, String sharedAmount) {
+        CombinationLoanRequest request = combination("1000000", "3.85", 20, "500000", "2.85", 30);
+        request.setPrepayments(List.of(prepayment(180, sharedAmount)));
+        request.setPeriodicRepayList(List.of(periodRepay(12, 60, 12, "10000")));
+        request.setFundPrepayments(List.of(prepayment(180, "20000"), prepayment(300, "50000")));
+        request.setPrepayAllocation(allocation);
+        return request;
+    }
+}
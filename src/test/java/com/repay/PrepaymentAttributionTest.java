@@ -0,0 +1,114 @@
+package com.repay;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.repay.controller.EqualInterestRepayController;
+import com.repay.entity.CombinationLoanRequest;
+import com.repay.entity.CombinationLoanResponse;
+import com.repay.entity.PrepaymentSaving;
+import com.repay.entity.ScheduleView;
+import com.repay.service.RepayCalculator;
+import com.repay.service.impl.EqualPrincipalCalculatorImpl;
+import com.repay.service.impl.PrepaymentAttributionService;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.repay.RepayTestSupport.calculators;
+import static com.repay.RepayTestSupport.combination;
+import static com.repay.RepayTestSupport.periodRepay;
+import static com.repay.RepayTestSupport.prepayment;
+import static com.repay.RepayTestSupport.withFactorService;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * 提前还款节省利息归因：每条的结果与「去掉该条后完整重算」逐分一致，还款计划与 calculateCombination 一致；条数超过上限时返回 400
+ */
+class PrepaymentAttributionTest {
+
+    @Test
+    void matchesLeaveOneOutReruns() {
+        for (RepayCalculator calculator : calculators()) {
+            PrepaymentAttributionService service = new PrepaymentAttributionService();
+            ReflectionTestUtils.setField(service, "repayCalculator", calculator);
+            for (String type : new String[]{"equalPrincipal", "equalInterest"}) {
+                for (String allocation : new String[]{"businessFirst", "proportional", "business"}) {
+                    CombinationLoanRequest request = request(allocation);
+                    CombinationLoanResponse response = service.calculate(request, type, ScheduleView.FULL);
+                    CombinationLoanResponse expected = calculator.calculateCombination(request, type);
+
+                    assertThat(response.getTotalAllInterest()).isEqualByComparingTo(expected.getTotalAllInterest());
+                    assertThat(response.getMonthlyDetails()).isEqualTo(expected.getMonthlyDetails());
+                    assertThat(response.getPrepaymentSavings()).extracting(PrepaymentSaving::getSource).containsExactly(
+                            "prepayments", "prepayments", "prepayments", "periodicRepayList", "businessPrepayments", "fundPrepayments");
+                    for (PrepaymentSaving saving : response.getPrepaymentSavings()) {
+                        CombinationLoanRequest without = without(request, saving.getSource(), saving.getIndex());
+                        BigDecimal rerun = calculator.calculateCombination(without, type).getTotalAllInterest();
+                        assertThat(saving.getInterestSaved())
+                                .as("%s %s %s[%d]", type, allocation, saving.getSource(), saving.getIndex())
+                                .isEqualByComparingTo(rerun.subtract(expected.getTotalAllInterest()));
+                    }
+                    // 第200个月的提前还款只重算之后的月份
+                    PrepaymentSaving late = response.getPrepaymentSavings().get(2);
+                    assertThat(late.getRecomputedMonths()).isLessThanOrEqualTo(2 * (360 - 199));
+                }
+            }
+        }
+    }
+
+    @Test
+    void rejectsTooManyUnits() throws Exception {
+        PrepaymentAttributionService service = new PrepaymentAttributionService();
+        ReflectionTestUtils.setField(service, "repayCalculator", withFactorService(new EqualPrincipalCalculatorImpl()));
+        ReflectionTestUtils.setField(service, "maxUnits", 5);
+        // 3 条单次提前还款 + 1 条周期还款规则 + 商贷、公积金贷各 1 条专属提前还款
+        CombinationLoanRequest request = request("businessFirst");
+        assertThatThrownBy(() -> service.calculate(request, "equalInterest", ScheduleView.FULL))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("6 > 5");
+
+        EqualInterestRepayController controller = new EqualInterestRepayController();
+        ReflectionTestUtils.setField(controller, "prepaymentAttributionService", service);
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(controller).build();
+        mockMvc.perform(post("/api/repay/equal-interest").param("attribution", "true")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(new ObjectMapper().writeValueAsString(request)))
+                .andExpect(status().isBadRequest());
+    }
+
+    private static CombinationLoanRequest request(String allocation) {
+        CombinationLoanRequest request = combination("1000000", "3.85", 20, "500000", "2.85", 30);
+        // 第120个月的金额超过商贷剩余本金（businessFirst 时剩余部分转给公积金贷）
+        request.setPrepayments(List.of(prepayment(12, "100000"), prepayment(120, "900000"), prepayment(200, "50000")));
+        request.setPeriodicRepayList(List.of(periodRepay(24, 360, 12, "20000")));
+        request.setBusinessPrepayments(List.of(prepayment(36, "30000")));
+        request.setFundPrepayments(List.of(prepayment(48, "40000")));
+        request.setPrepayAllocation(allocation);
+        return request;
+    }
+
+    private static CombinationLoanRequest without(CombinationLoanRequest request, String source, int index) {
+        CombinationLoanRequest copy = request.copy();
+        switch (source) {
+            case "prepayments" -> copy.setPrepayments(remove(request.getPrepayments(), index));
+            case "periodicRepayList" -> copy.setPeriodicRepayList(remove(request.getPeriodicRepayList(), index));
+            case "businessPrepayments" -> copy.setBusinessPrepayments(remove(request.getBusinessPrepayments(), index));
+            default -> copy.setFundPrepayments(remove(request.getFundPrepayments(), index));
+        }
+        return copy;
+    }
+
+    private static <T> List<T> remove(List<T> list, int index) {
+        List<T> result = new ArrayList<>(list);
+        result.remove(index);
+        return result;
+    }
+}
@@ -0,0 +1,169 @@
+package com.repay;
+
+import com.repay.entity.CombinationLoanRequest;
+import com.repay.entity.Prepayment;
+import com.repay.entity.PrepaymentOptimizeRequest;
+import com.repay.entity.PrepaymentOptimizeResponse;
+import com.repay.service.RepayCalculator;
+import com.repay.service.impl.EqualPrincipalCalculatorImpl;
+import com.repay.service.impl.FixedPointCalculatorImpl;
+import com.repay.service.impl.PrepaymentOptimizerService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static com.repay.RepayTestSupport.calculators;
+import static com.repay.RepayTestSupport.combination;
+import static com.repay.RepayTestSupport.prepayment;
+import static com.repay.RepayTestSupport.withFactorService;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 提前还款分配优化：结果与逐个方案完整计算的最优解一致，且满足剩余本金、保留本金约束
+ */
+class PrepaymentOptimizerTest {
+
+    @Test
+    void matchesBruteForce() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (RepayCalculator calculator : calculators()) {
+                PrepaymentOptimizerService service = service(calculator, pool);
+                for (String method : new String[]{"equalPrincipal", "equalInterest"}) {
+                    PrepaymentOptimizeRequest request = request(loan("business"), method, "200000", "50000", 3, 8, 2);
+                    PrepaymentOptimizeResponse response = service.optimize(request);
+
+                    // 逐个方案完整计算：商贷金额 0~200000（步长50000）× 商贷月份 × 公积金贷月份
+                    BigDecimal best = null;
+                    for (int share = 0; share <= 200000; share += 50000) {
+                        for (int businessMonth : new int[]{3, 5, 7}) {
+                            for (int fundMonth : new int[]{3, 5, 7}) {
+                                CombinationLoanRequest plan = loan("business");
+                                plan.setBusinessPrepayments(append(plan.getBusinessPrepayments(), businessMonth, share));
+                                plan.setFundPrepayments(append(plan.getFundPrepayments(), fundMonth, 200000 - share));
+                                BigDecimal interest = calculator.calculateCombination(plan, method).getTotalAllInterest();
+                                best = best == null || interest.compareTo(best) < 0 ? interest : best;
+                            }
+                        }
+                    }
+                    assertThat(response.getOptimizedInterest()).isEqualByComparingTo(best);
+                    assertThat(response.getBaselineInterest())
+                            .isEqualByComparingTo(calculator.calculateCombination(loan("business"), method).getTotalAllInterest());
+                    assertThat(response.getInterestSaved()).isEqualByComparingTo(response.getBaselineInterest().subtract(best));
+                    assertThat(response.getBusinessAmount().add(response.getFundAmount())).isEqualByComparingTo("200000");
+                    assertThat(calculator.calculateCombination(response.getPlan(), method).getTotalAllInterest()).isEqualByComparingTo(best);
+                    // 公积金贷利率低但剩余期限长（30年 vs 20年），同一笔钱还公积金贷节省的利息更多；越早还越好
+                    assertThat(response.getFundAmount()).isEqualByComparingTo("200000");
+                    assertThat(response.getFundMonth()).isEqualTo(3);
+                    assertThat(response.getBusinessMonth()).isNull();
+                    assertThat(response.getEvaluations()).isEqualTo(2 * 3 * 4);
+                    assertThat(response.getComputedMonths()).isLessThan(response.getFullRerunMonths());
+
+                    // businessFirst：候选按基线转入公积金贷的金额评估，返回的利息为最优方案完整计算的结果
+                    PrepaymentOptimizeResponse spill = service.optimize(request(loan("businessFirst"), method, "200000", "50000", 3, 8, 2));
+                    assertThat(spill.getOptimizedInterest())
+                            .isEqualByComparingTo(calculator.calculateCombination(spill.getPlan(), method).getTotalAllInterest());
+                    assertThat(spill.getInterestSaved()).isPositive();
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void respectsRemainingAndReservedPrincipal() {
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            RepayCalculator calculator = withFactorService(new EqualPrincipalCalculatorImpl());
+            CombinationLoanRequest loan = loan("business");
+            loan.setBusinessLoanTotal(new BigDecimal("150000"));
+            loan.setBusinessAnnualRate(new BigDecimal("4.9"));
+            loan.setBusinessYears(30);
+            loan.setReservedPrincipal(new BigDecimal("10000"));
+            loan.setPrepayments(List.of());
+            for (String method : new String[]{"equalPrincipal", "equalInterest"}) {
+                PrepaymentOptimizeResponse response = service(calculator, pool)
+                        .optimize(request(loan, method, "200000", "10000", 1, 12, 1));
+
+                // 商贷利率更高、优先提前还商贷，但剩余本金不足15万且需保留1万，超出部分只能还公积金贷
+                // （等额本息当月先提前还款再扣正常还款本金，可以还到恰好剩余保留本金）
+                assertThat(response.getBusinessAmount()).isEqualByComparingTo(method.equals("equalInterest") ? "140000" : "130000");
+                assertThat(response.getFundAmount()).isEqualByComparingTo(new BigDecimal("200000").subtract(response.getBusinessAmount()));
+                assertThat(response.getInterestSaved()).isPositive();
+                BigDecimal remaining = calculator.calculateCombination(response.getPlan(), method).getBusinessMonthlyDetails()
+                        .get(response.getBusinessMonth() - 1).getRemainingPrincipal();
+                assertThat(remaining).isGreaterThanOrEqualTo(new BigDecimal("10000"));
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void latestMonthDefaultsToEarliest() {
+        PrepaymentOptimizeRequest request = request(loan("business"), "equalInterest", "200000", "50000", 24, 24, 1);
+        request.setLatestMonth(null);
+        PrepaymentOptimizeResponse response = service(withFactorService(new EqualPrincipalCalculatorImpl()),
+                ForkJoinPool.commonPool()).optimize(request);
+
+        // 只评估第24个月：两笔贷款 × 4 种拆分金额
+        assertThat(response.getEvaluations()).isEqualTo(2 * 4);
+        assertThat(response.getFundMonth()).isEqualTo(24);
+    }
+
+    @Test
+    @Timeout(5)
+    void rejectsOversizedSearchBeforeEnumerating() {
+        // 0.01 元步长在 200000 预算上约 2000 万种拆分，必须在生成候选前按算术估算拒绝
+        PrepaymentOptimizeRequest request = request(loan("business"), "equalInterest", "200000", "0.01", 1, 360, 1);
+        PrepaymentOptimizerService service = service(withFactorService(new FixedPointCalculatorImpl()),
+                ForkJoinPool.commonPool());
+
+        assertThatThrownBy(() -> service.optimize(request))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("候选数超过上限");
+    }
+
+    private static PrepaymentOptimizerService service(RepayCalculator calculator, ForkJoinPool pool) {
+        PrepaymentOptimizerService service = new PrepaymentOptimizerService();
+        ReflectionTestUtils.setField(service, "repayCalculator", calculator);
+        ReflectionTestUtils.setField(service, "repaySweepPool", pool);
+        return service;
+    }
+
+    private static PrepaymentOptimizeRequest request(CombinationLoanRequest loan, String method, String budget, String step,
+                                                     int earliest, int latest, int monthStep) {
+        PrepaymentOptimizeRequest request = new PrepaymentOptimizeRequest();
+        request.setLoan(loan);
+        request.setMethod(method);
+        request.setBudget(new BigDecimal(budget));
+        request.setAmountStep(new BigDecimal(step));
+        request.setEarliestMonth(earliest);
+        request.setLatestMonth(latest);
+        request.setMonthStep(monthStep);
+        return request;
+    }
+
+    private static CombinationLoanRequest loan(String allocation) {
+        CombinationLoanRequest request = combination("1000000", "3.85", 20, "500000", "2.85", 30);
+        request.setPrepayments(List.of(prepayment(24, "100000")));
+        request.setFundPrepayments(List.of(prepayment(36, "50000")));
+        request.setPrepayAllocation(allocation);
+        return request;
+    }
+
+    private static List<Prepayment> append(List<Prepayment> prepayments, int month, int amount) {
+        List<Prepayment> result = new ArrayList<>(prepayments);
+        if (amount > 0) {
+            result.add(prepayment(month, String.valueOf(amount)));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,80 @@
+package com.repay;
+
+import com.repay.entity.PeriodRepay;
+import com.repay.entity.Prepayment;
+import com.repay.service.PrepaymentLedger;
+import com.repay.service.PrepaymentSchedule;
+import com.repay.service.PrepaymentSource;
+import com.repay.service.RepayCalculator;
+import com.repay.service.impl.EqualPrincipalCalculatorImpl;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static com.repay.RepayTestSupport.periodRepay;
+import static com.repay.RepayTestSupport.prepayment;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 提前还款计划与原有「月份-金额」映射逐月一致性校验
+ */
+class PrepaymentScheduleTest {
+
+    private final RepayCalculator calculator = new EqualPrincipalCalculatorImpl();
+
+    @Test
+    void matchesExpandedMap() {
+        Random random = new Random(20240901L);
+        for (int i = 0; i < 500; i++) {
+            List<Prepayment> prepayments = new ArrayList<>();
+            for (int j = random.nextInt(8); j > 0; j--) {
+                Prepayment prepayment = new Prepayment();
+                prepayment.setMonth(1 + random.nextInt(60));
+                prepayment.setAmount(BigDecimal.valueOf(random.nextInt(1_000_000), 3));
+                prepayments.add(prepayment);
+            }
+            List<PeriodRepay> periodRepays = new ArrayList<>();
+            for (int j = random.nextInt(4); j > 0; j--) {
+                int start = random.nextInt(40) - 5;
+                periodRepays.add(new PeriodRepay().setStartMonth(start).setEndMonth(start + random.nextInt(50))
+                        .setCycleMonths(random.nextInt(7)).setAmount(BigDecimal.valueOf(random.nextInt(100_000), 2)));
+            }
+
+            Map<Integer, BigDecimal> expected = new TreeMap<>(calculator.updatePayMoney(
+                    calculator.getAllPrepayMoney(prepayments), periodRepays));
+            PrepaymentSchedule schedule = PrepaymentSchedule.of(prepayments, periodRepays);
+            Map<Integer, BigDecimal> actual = new TreeMap<>();
+            for (int month = schedule.nextMonth(Integer.MIN_VALUE); month != PrepaymentSource.NONE;
+                 month = schedule.nextMonth(month + 1)) {
+                actual.put(month, schedule.amountAt(month));
+            }
+            assertThat(actual).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    void ledgerKeepsUnusedAmountsForNextLeg() {
+        PrepaymentSchedule schedule = PrepaymentSchedule.of(List.of(prepayment(3, "500")),
+                List.of(periodRepay(2, 8, 2, "10")));
+
+        PrepaymentLedger ledger = PrepaymentLedger.of(schedule);
+        assertThat(ledger.take(1)).isNull();
+        assertThat(ledger.take(2)).isEqualByComparingTo("10");
+        assertThat(ledger.take(3)).isEqualByComparingTo("500");
+        ledger.giveBack(3, new BigDecimal("120"));
+        // 第4个月之后未处理（贷款已结清），剩余事件全部留给后续贷款
+        assertThat(ledger.take(4)).isEqualByComparingTo("10");
+
+        PrepaymentSource residual = ledger.residual();
+        assertThat(residual.nextMonth(1)).isEqualTo(3);
+        assertThat(residual.amountAt(3)).isEqualByComparingTo("120");
+        assertThat(residual.nextMonth(4)).isEqualTo(6);
+        assertThat(residual.amountAt(8)).isEqualByComparingTo("10");
+        assertThat(residual.nextMonth(9)).isEqualTo(PrepaymentSource.NONE);
+    }
+}
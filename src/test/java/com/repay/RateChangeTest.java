@@ -0,0 +1,175 @@
+package com.repay;
+
+import com.repay.entity.CombinationLoanRequest;
+import com.repay.entity.CombinationLoanResponse;
+import com.repay.entity.EqualPrincipalRepayRequest;
+import com.repay.entity.EqualPrincipalRepayResponse;
+import com.repay.entity.LoanSummaryResponse;
+import com.repay.entity.RateChange;
+import com.repay.entity.RepayCalculationState;
+import com.repay.service.PrepaymentLedger;
+import com.repay.service.PrepaymentSchedule;
+import com.repay.service.RepayCalculator;
+import com.repay.service.RequestFingerprint;
+import com.repay.service.ScheduleCursor;
+import com.repay.service.impl.AnnuityFactorService;
+import com.repay.service.impl.EqualPrincipalCalculatorImpl;
+import com.repay.service.impl.FixedPointCalculatorImpl;
+import com.repay.service.impl.SegmentRepayEngine;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+import static com.repay.RepayTestSupport.combination;
+import static com.repay.RepayTestSupport.periodRepay;
+import static com.repay.RepayTestSupport.prepayment;
+import static com.repay.RepayTestSupport.withFactorService;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 浮动利率重定价：与分段串联计算逐分一致，两种实现逐分一致，可从检查点继续
+ */
+class RateChangeTest {
+
+    private final RepayCalculator bigDecimalCalculator = withFactorService(new EqualPrincipalCalculatorImpl());
+    private final RepayCalculator fixedPointCalculator = withFactorService(new FixedPointCalculatorImpl());
+
+    @Test
+    void repricingMatchesChainedRequests() {
+        for (String type : new String[]{"equalPrincipal", "equalInterest"}) {
+            EqualPrincipalRepayRequest floating = bigDecimalCalculator.buildSingleLoanRequest(new BigDecimal("1000000"),
+                    new BigDecimal("4.2"), 30, BigDecimal.ZERO);
+            floating.setRateChanges(List.of(rateChange(13, "3.85"), rateChange(25, "3.6")));
+            EqualPrincipalRepayResponse actual = calculate(bigDecimalCalculator, floating, type);
+            assertThat(actual.getYearSummaries()).hasSize(30);
+
+            // 串联：第1年按4.2%，剩余本金按3.85%重新计算29年，再按3.6%重新计算28年
+            List<String> expected = new ArrayList<>();
+            BigDecimal loanTotal = floating.getLoanTotal();
+            String[] rates = {"4.2", "3.85", "3.6"};
+            for (int segment = 0; segment < rates.length; segment++) {
+                EqualPrincipalRepayRequest chained = bigDecimalCalculator.buildSingleLoanRequest(loanTotal,
+                        new BigDecimal(rates[segment]), 30 - segment, BigDecimal.ZERO);
+                List<EqualPrincipalRepayResponse.MonthlyDetail> rows = calculate(bigDecimalCalculator, chained, type).getMonthlyDetails();
+                List<EqualPrincipalRepayResponse.MonthlyDetail> used = segment < 2 ? rows.subList(0, 12) : rows;
+                for (EqualPrincipalRepayResponse.MonthlyDetail row : used) {
+                    expected.add(row(segment * 12 + row.getMonth(), row));
+                }
+                loanTotal = used.get(used.size() - 1).getRemainingPrincipal();
+            }
+            assertThat(rows(actual.getMonthlyDetails())).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    void fixedPointMatchesBigDecimalAndResumesFromCheckpoint() {
+        for (String allocation : new String[]{"businessFirst", "proportional"}) {
+            for (String type : new String[]{"equalPrincipal", "equalInterest"}) {
+                CombinationLoanRequest request = request(allocation);
+                CombinationLoanResponse expected = bigDecimalCalculator.calculateCombination(request, type);
+                CombinationLoanResponse actual = fixedPointCalculator.calculateCombination(request, type);
+                assertThat(rows(actual.getMonthlyDetails())).isEqualTo(rows(expected.getMonthlyDetails()));
+                assertThat(actual.getTotalAllInterest()).isEqualByComparingTo(expected.getTotalAllInterest());
+                assertThat(expected.getBusinessYearSummaries()).hasSize(20);
+
+                // 从重定价当月之前的检查点继续
+                for (RepayCalculator calculator : new RepayCalculator[]{bigDecimalCalculator, fixedPointCalculator}) {
+                    EqualPrincipalRepayRequest business = calculator.buildBusinessRequest(request);
+                    ScheduleCursor cursor = calculator.openSchedule(business, PrepaymentLedger.of(PrepaymentSchedule.empty()), type);
+                    List<String> full = new ArrayList<>();
+                    RepayCalculationState checkpoint = null;
+                    while (cursor.hasNext()) {
+                        full.add(row(0, cursor.next()));
+                        if (full.size() == 24) {
+                            checkpoint = cursor.checkpoint();
+                        }
+                    }
+                    ScheduleCursor resumed = calculator.openSchedule(business, PrepaymentLedger.of(PrepaymentSchedule.empty()),
+                            type, checkpoint);
+                    List<String> tail = new ArrayList<>();
+                    while (resumed.hasNext()) {
+                        tail.add(row(0, resumed.next()));
+                    }
+                    assertThat(tail).isEqualTo(full.subList(24, full.size()));
+                }
+            }
+        }
+    }
+
+    @Test
+    void segmentEngineSplitsAtRepricing() {
+        SegmentRepayEngine segmentRepayEngine = new SegmentRepayEngine();
+        ReflectionTestUtils.setField(segmentRepayEngine, "annuityFactorService", new AnnuityFactorService());
+        EqualPrincipalRepayRequest request = bigDecimalCalculator.buildSingleLoanRequest(new BigDecimal("800000"),
+                new BigDecimal("4.2"), 25, new BigDecimal("10000"));
+        request.setRateChanges(List.of(rateChange(13, "3.85"), rateChange(25, "3.6"), rateChange(250, "3.2")));
+        for (String type : new String[]{"equalPrincipal", "equalInterest"}) {
+            EqualPrincipalRepayResponse expected = calculate(bigDecimalCalculator, request, type);
+            LoanSummaryResponse.LegSummary actual = segmentRepayEngine.summarize(request, new HashMap<>(), type, false);
+            BigDecimal tolerance = new BigDecimal("0.01").multiply(BigDecimal.valueOf(300));
+            assertThat(actual.getTotalAllInterest().subtract(expected.getTotalAllInterest()).abs()).isLessThanOrEqualTo(tolerance);
+            assertThat(actual.getSegments()).extracting(LoanSummaryResponse.Segment::getStartMonth).contains(13, 25, 250);
+        }
+    }
+
+    @Test
+    void fingerprintIncludesRateChanges() {
+        CombinationLoanRequest request = request("businessFirst");
+        CombinationLoanRequest same = request("businessFirst");
+        // 与当时利率相同的调整不算重定价
+        List<RateChange> changes = new ArrayList<>(same.getBusinessRateChanges());
+        changes.add(rateChange(50, "3.6"));
+        same.setBusinessRateChanges(changes);
+        assertThat(RequestFingerprint.of(same, "equalInterest")).isEqualTo(RequestFingerprint.of(request, "equalInterest"));
+
+        CombinationLoanRequest fixed = request("businessFirst");
+        fixed.setBusinessRateChanges(List.of());
+        assertThat(RequestFingerprint.ofLoan(fixed, "equalInterest")).isNotEqualTo(RequestFingerprint.ofLoan(request, "equalInterest"));
+    }
+
+    private static EqualPrincipalRepayResponse calculate(RepayCalculator calculator, EqualPrincipalRepayRequest request, String type) {
+        return "equalPrincipal".equals(type)
+                ? calculator.calculatorPrincipal(request, new HashMap<>())
+                : calculator.calculateEqualInterestRepay(request, new HashMap<>());
+    }
+
+    private static List<String> rows(List<EqualPrincipalRepayResponse.MonthlyDetail> details) {
+        return details.stream().map(row -> row(row.getMonth(), row)).toList();
+    }
+
+    private static String row(int month, EqualPrincipalRepayResponse.MonthlyDetail row) {
+        return month + ":" + cents(row.getMonthlyPrincipal()) + "," + cents(row.getMonthlyInterest())
+                + "," + cents(row.getRemainingPrincipal());
+    }
+
+    /**
+     * BigDecimal 实现还清时剩余本金为 0（scale 0），按分统一格式
+     */
+    private static String cents(BigDecimal amount) {
+        return amount.setScale(2).toPlainString();
+    }
+
+    /**
+     * 商贷100万/20年（每年1月按 LPR 重定价）+ 公积金50万/30年（第61个月调整），含提前还款和周期还款
+     */
+    private static CombinationLoanRequest request(String allocation) {
+        CombinationLoanRequest request = combination("1000000", "4.2", 20, "500000", "3.1", 30);
+        request.setBusinessRateChanges(List.of(rateChange(13, "3.95"), rateChange(25, "3.85"), rateChange(37, "3.6")));
+        request.setFundRateChanges(List.of(rateChange(61, "2.85")));
+        request.setPrepayments(List.of(prepayment(25, "50000"), prepayment(100, "80000")));
+        request.setPeriodicRepayList(List.of(periodRepay(12, 60, 12, "10000")));
+        request.setPrepayAllocation(allocation);
+        return request;
+    }
+
+    private static RateChange rateChange(int month, String annualRate) {
+        RateChange change = new RateChange();
+        change.setMonth(month);
+        change.setAnnualRate(new BigDecimal(annualRate));
+        return change;
+    }
+}
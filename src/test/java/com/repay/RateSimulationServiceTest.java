@@ -0,0 +1,96 @@
+package com.repay;
+
+import com.repay.entity.EqualPrincipalRepayRequest;
+import com.repay.entity.EqualPrincipalRepayResponse;
+import com.repay.entity.RateSimulationRequest;
+import com.repay.entity.RateSimulationResponse;
+import com.repay.service.PrepaymentLedger;
+import com.repay.service.PrepaymentSchedule;
+import com.repay.service.RepayCalculator;
+import com.repay.service.impl.EqualPrincipalCalculatorImpl;
+import com.repay.service.impl.RateSimulationService;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.concurrent.ForkJoinPool;
+
+import static com.repay.RepayTestSupport.withFactorService;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 浮动利率蒙特卡洛模拟：相同种子结果与并行度无关；波动率为0时与固定利率逐月计算一致
+ */
+class RateSimulationServiceTest {
+
+    @Test
+    void sameSeedSameResultAcrossParallelism() {
+        RateSimulationRequest request = request("equalInterest", 10000);
+        RateSimulationResponse single = service(new ForkJoinPool(1)).simulate(request);
+        RateSimulationResponse parallel = service(new ForkJoinPool(4)).simulate(request);
+        assertThat(parallel).isEqualTo(single);
+        assertThat(single.getYears()).hasSize(30);
+        assertThat(single.getTotalInterest()).isSorted();
+        assertThat(single.getYears().get(29).getAnnualRate()).isSorted();
+        // 首年利率固定，之后逐年分散
+        assertThat(single.getYears().get(0).getAnnualRate()).allMatch(rate -> rate.compareTo(new BigDecimal("3.8500")) == 0);
+        assertThat(single.getYears().get(10).getMonthlyRepay().get(0))
+                .isLessThan(single.getYears().get(10).getMonthlyRepay().get(4));
+
+        request.setSeed(request.getSeed() + 1);
+        assertThat(service(new ForkJoinPool(1)).simulate(request).getTotalInterest()).isNotEqualTo(single.getTotalInterest());
+    }
+
+    @Test
+    void zeroVolatilityMatchesFixedRateSchedule() {
+        RepayCalculator calculator = withFactorService(new EqualPrincipalCalculatorImpl());
+        for (String method : new String[]{"equalPrincipal", "equalInterest"}) {
+            RateSimulationRequest request = request(method, 3);
+            request.setVolatility(BigDecimal.ZERO);
+            RateSimulationResponse simulated = service(new ForkJoinPool(1)).simulate(request);
+            EqualPrincipalRepayRequest loan = calculator.buildSingleLoanRequest(request.getLoanTotal(), request.getAnnualRate(),
+                    request.getYears(), BigDecimal.ZERO);
+            EqualPrincipalRepayResponse expected = calculator.collect(loan,
+                    calculator.openSchedule(loan, PrepaymentLedger.of(PrepaymentSchedule.empty()), method));
+            assertThat(simulated.getTotalInterest()).allMatch(interest -> interest.compareTo(simulated.getTotalInterestMean()) == 0);
+            if ("equalPrincipal".equals(method)) {
+                assertThat(simulated.getTotalInterestMean()).isEqualByComparingTo(expected.getTotalAllInterest());
+                assertThat(simulated.getYears().get(0).getMonthlyRepay().get(0))
+                        .isEqualByComparingTo(expected.getMonthlyDetails().get(0).getMonthlyRepay());
+            } else {
+                // 每年按剩余本金重算月供，与固定月供只差逐月舍入
+                assertThat(simulated.getTotalInterestMean().subtract(expected.getTotalAllInterest()).abs())
+                        .isLessThanOrEqualTo(new BigDecimal("3.60"));
+            }
+        }
+    }
+
+    @Test
+    void tenThousandThirtyYearPathsFinishQuickly() {
+        RateSimulationService service = service(new ForkJoinPool(1));
+        RateSimulationRequest request = request("equalInterest", 10000);
+        service.simulate(request);
+        long start = System.nanoTime();
+        service.simulate(request);
+        assertThat((System.nanoTime() - start) / 1_000_000).isLessThan(1000);
+    }
+
+    private static RateSimulationService service(ForkJoinPool pool) {
+        RateSimulationService service = new RateSimulationService();
+        ReflectionTestUtils.setField(service, "repaySweepPool", pool);
+        return service;
+    }
+
+    /**
+     * 商贷100万/30年，首年3.85%
+     */
+    private static RateSimulationRequest request(String method, int paths) {
+        RateSimulationRequest request = new RateSimulationRequest();
+        request.setLoanTotal(new BigDecimal("1000000"));
+        request.setAnnualRate(new BigDecimal("3.85"));
+        request.setYears(30);
+        request.setMethod(method);
+        request.setPaths(paths);
+        return request;
+    }
+}
@@ -0,0 +1,104 @@
+package com.repay;
+
+import com.repay.entity.CombinationLoanRequest;
+import com.repay.service.impl.EqualPrincipalCalculatorImpl;
+import com.repay.service.impl.FixedPointCalculatorImpl;
+import com.repay.service.impl.RepayMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalManagementPort;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static com.repay.RepayTestSupport.combination;
+import static com.repay.RepayTestSupport.prepayment;
+import static com.repay.RepayTestSupport.withFactorService;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * 监控指标：计算量计数准确，Prometheus 端点输出阶段耗时直方图、计算量、缓存和线程池指标；
+ * 监控端点只在管理端口提供，接口端口不暴露
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = "management.server.port=0")
+@AutoConfigureMockMvc
+@AutoConfigureObservability(tracing = false)
+class RepayMetricsTest {
+
+    private static final String REQUEST = """
+            {"loanType":"combination","businessLoanTotal":1000000,"businessAnnualRate":3.85,"businessYears":30,
+             "fundLoanTotal":500000,"fundAnnualRate":2.85,"fundYears":25,"reservedPrincipal":0,
+             "prepayments":[{"month":36,"amount":100000}],"periodicRepayList":[]}""";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @LocalServerPort
+    private int serverPort;
+
+    @LocalManagementPort
+    private int managementPort;
+
+    @Test
+    void countsMonthsAndPrepaymentEvents() {
+        for (EqualPrincipalCalculatorImpl calculator : new EqualPrincipalCalculatorImpl[]{
+                withFactorService(new EqualPrincipalCalculatorImpl()),
+                withFactorService(new FixedPointCalculatorImpl())}) {
+            SimpleMeterRegistry registry = new SimpleMeterRegistry();
+            RepayMetrics metrics = new RepayMetrics(registry);
+            ReflectionTestUtils.setField(calculator, "repayMetrics", metrics);
+
+            calculator.calculateCombination(request(), "equalPrincipal");
+            // 商贷30年 + 公积金贷25年，等额本金提前还款后不缩短期限
+            assertThat(metrics.monthsComputed()).isEqualTo(360 + 300);
+            assertThat(metrics.prepaymentEvents()).isEqualTo(1);
+            assertThat(registry.get("repay.months.computed").functionCounter().count()).isEqualTo(660);
+            for (String phase : new String[]{"prepayments", "business", "fund", "merge"}) {
+                assertThat(registry.get("repay.phase").tag("phase", phase).timer().count()).isEqualTo(1);
+            }
+        }
+    }
+
+    @Test
+    void prometheusEndpointExposesRepayMetrics() throws Exception {
+        mockMvc.perform(post("/api/repay/equal-interest").contentType(MediaType.APPLICATION_JSON).content(REQUEST))
+                .andExpect(status().isOk());
+
+        ResponseEntity<String> publicScrape = restTemplate.getForEntity(
+                "http://localhost:" + serverPort + "/demo/actuator/prometheus", String.class);
+        assertThat(publicScrape.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+        ResponseEntity<String> scrape = restTemplate.getForEntity(
+                "http://127.0.0.1:" + managementPort + "/actuator/prometheus", String.class);
+        assertThat(scrape.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(scrape.getBody())
+                .contains("repay_phase_seconds_bucket{phase=\"business\"")
+                .contains("repay_phase_seconds_bucket{phase=\"serialization\"")
+                .contains("repay_months_computed_total")
+                .contains("repay_prepayment_events_total")
+                .contains("http_server_requests_seconds_bucket")
+                .contains("cache=\"repay.result\"")
+                .contains("name=\"repayLegExecutor\"");
+    }
+
+    private static CombinationLoanRequest request() {
+        CombinationLoanRequest request = combination("1000000", "3.85", 30, "500000", "2.85", 25);
+        request.setPrepayments(List.of(prepayment(36, "100000")));
+        request.setPeriodicRepayList(List.of());
+        return request;
+    }
+}
@@ -0,0 +1,66 @@
+package com.repay;
+
+import com.repay.entity.CombinationLoanRequest;
+import com.repay.entity.CombinationLoanResponse;
+import com.repay.entity.Prepayment;
+import com.repay.service.RequestFingerprint;
+import com.repay.service.impl.EqualPrincipalCalculatorImpl;
+import com.repay.service.impl.RepayResultCache;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static com.repay.RepayTestSupport.periodRepay;
+import static com.repay.RepayTestSupport.prepayment;
+import static com.repay.RepayTestSupport.single;
+import static com.repay.RepayTestSupport.withFactorService;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 计算结果缓存：规范化指纹、命中统计、返回结果与缓存隔离
+ */
+class RepayResultCacheTest {
+
+    @Test
+    void equivalentRequestsShareFingerprint() {
+        CombinationLoanRequest request = request("1000000", "4.9", prepayment(24, "100000"), prepayment(12, "50000"));
+        // 金额小数位不同、提前还款顺序不同、同月重复（以最后一条为准）、单期周期还款的周期不同
+        CombinationLoanRequest equivalent = request("1000000.00", "4.90", prepayment(12, "1"), prepayment(12, "50000.004"),
+                prepayment(24, "100000.0"));
+        equivalent.getPeriodicRepayList().get(0).setCycleMonths(6).setEndMonth(40);
+        equivalent.setFundLoanTotal(new BigDecimal("123"));
+
+        assertThat(RequestFingerprint.of(equivalent, "equalInterest")).isEqualTo(RequestFingerprint.of(request, "equalInterest"));
+        assertThat(RequestFingerprint.of(request, "equalPrincipal")).isNotEqualTo(RequestFingerprint.of(request, "equalInterest"));
+        CombinationLoanRequest other = request("1000000", "4.9", prepayment(24, "100000"), prepayment(12, "50000.01"));
+        assertThat(RequestFingerprint.of(other, "equalInterest")).isNotEqualTo(RequestFingerprint.of(request, "equalInterest"));
+    }
+
+    @Test
+    void hitsReturnIndependentCopies() {
+        RepayResultCache cache = new RepayResultCache(true, 100);
+        ReflectionTestUtils.setField(cache, "repayCalculator",
+                withFactorService(new EqualPrincipalCalculatorImpl()));
+        CombinationLoanRequest request = request("1000000", "4.9", prepayment(12, "50000"));
+
+        CombinationLoanResponse first = cache.calculate(request, "equalInterest");
+        BigDecimal firstPrincipal = first.getMonthlyDetails().get(0).getMonthlyPrincipal();
+        first.getMonthlyDetails().get(0).setMonthlyPrincipal(BigDecimal.ZERO);
+        first.getMonthlyDetails().clear();
+
+        CombinationLoanResponse second = cache.calculate(request("1000000.00", "4.90", prepayment(12, "50000")), "equalInterest");
+        assertThat(second.getMonthlyDetails()).hasSize(360);
+        assertThat(second.getMonthlyDetails().get(0).getMonthlyPrincipal()).isEqualByComparingTo(firstPrincipal);
+        assertThat(cache.stats().hitCount()).isEqualTo(1);
+        assertThat(cache.stats().missCount()).isEqualTo(1);
+    }
+
+    private CombinationLoanRequest request(String loanTotal, String rate, Prepayment... prepayments) {
+        CombinationLoanRequest request = single(new BigDecimal(loanTotal), new BigDecimal(rate), 30);
+        request.setPrepayments(List.of(prepayments));
+        request.setPeriodicRepayList(List.of(periodRepay(36, 36, 1, "20000")));
+        return request;
+    }
+}
@@ -0,0 +1,93 @@
+package com.repay;
+
+import com.repay.entity.CombinationLoanRequest;
+import com.repay.entity.CombinationLoanResponse;
+import com.repay.entity.EqualPrincipalRepayResponse;
+import com.repay.entity.PeriodRepay;
+import com.repay.entity.Prepayment;
+import com.repay.service.RepayCalculator;
+import com.repay.service.impl.AnnuityFactorService;
+import com.repay.service.impl.EqualPrincipalCalculatorImpl;
+import com.repay.service.impl.FixedPointCalculatorImpl;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 测试公共方法：组装计算引擎（不启动 Spring 容器）和常用的贷款请求
+ */
+final class RepayTestSupport {
+
+    private RepayTestSupport() {
+    }
+
+    /**
+     * 注入年金系数服务（不预热）
+     */
+    static <T extends RepayCalculator> T withFactorService(T calculator) {
+        ReflectionTestUtils.setField(calculator, "annuityFactorService", new AnnuityFactorService());
+        return calculator;
+    }
+
+    /**
+     * 两种计算引擎：BigDecimal 实现和定点数实现，结果应逐分一致
+     */
+    static List<RepayCalculator> calculators() {
+        return List.of(withFactorService(new EqualPrincipalCalculatorImpl()),
+                withFactorService(new FixedPointCalculatorImpl()));
+    }
+
+    /**
+     * 按原有流程（提前还款 Map + 商贷/公积金贷分别计算 + 合并）计算组合贷款，作为对照结果
+     */
+    static CombinationLoanResponse legacyCombination(RepayCalculator calculator, CombinationLoanRequest request, String type) {
+        CombinationLoanResponse response = new CombinationLoanResponse();
+        Map<Integer, BigDecimal> prepayMoney = calculator.getAllPrepayMoney(request.getPrepayments());
+        prepayMoney = calculator.updatePayMoney(prepayMoney, request.getPeriodicRepayList());
+        EqualPrincipalRepayResponse business = calculator.businessResponse(request, prepayMoney, response, type);
+        EqualPrincipalRepayResponse fund = calculator.fundResponse(request, prepayMoney, response, type);
+        return calculator.getTotalResponse(business, fund, response);
+    }
+
+    /**
+     * 组合贷款（保留本金为0，无提前还款）
+     */
+    static CombinationLoanRequest combination(String businessTotal, String businessRate, int businessYears,
+                                              String fundTotal, String fundRate, int fundYears) {
+        CombinationLoanRequest request = new CombinationLoanRequest();
+        request.setLoanType("combination");
+        request.setBusinessLoanTotal(new BigDecimal(businessTotal));
+        request.setBusinessAnnualRate(new BigDecimal(businessRate));
+        request.setBusinessYears(businessYears);
+        request.setFundLoanTotal(new BigDecimal(fundTotal));
+        request.setFundAnnualRate(new BigDecimal(fundRate));
+        request.setFundYears(fundYears);
+        return request;
+    }
+
+    /**
+     * 纯商业贷款（保留本金为0，无提前还款）
+     */
+    static CombinationLoanRequest single(BigDecimal total, BigDecimal rate, int years) {
+        CombinationLoanRequest request = new CombinationLoanRequest();
+        request.setLoanType("single");
+        request.setBusinessLoanTotal(total);
+        request.setBusinessAnnualRate(rate);
+        request.setBusinessYears(years);
+        return request;
+    }
+
+    static Prepayment prepayment(int month, String amount) {
+        Prepayment prepayment = new Prepayment();
+        prepayment.setMonth(month);
+        prepayment.setAmount(new BigDecimal(amount));
+        return prepayment;
+    }
+
+    static PeriodRepay periodRepay(int startMonth, int endMonth, int cycleMonths, String amount) {
+        return new PeriodRepay().setStartMonth(startMonth).setEndMonth(endMonth)
+                .setCycleMonths(cycleMonths).setAmount(new BigDecimal(amount));
+    }
+}
@@ -0,0 +1,131 @@
+package com.repay;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.repay.controller.ScheduleQueryController;
+import com.repay.entity.CombinationLoanRequest;
+import com.repay.entity.CombinationLoanResponse;
+import com.repay.entity.EqualPrincipalRepayResponse;
+import com.repay.entity.Prepayment;
+import com.repay.entity.ScheduleQueryResponse;
+import com.repay.service.RepayCalculator;
+import com.repay.service.impl.AnnuityFactorService;
+import com.repay.service.impl.EqualPrincipalCalculatorImpl;
+import com.repay.service.impl.ScheduleQueryService;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Random;
+
+import static com.repay.RepayTestSupport.combination;
+import static com.repay.RepayTestSupport.periodRepay;
+import static com.repay.RepayTestSupport.prepayment;
+import static com.repay.RepayTestSupport.withFactorService;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * 还款计划查询：索引结果与每月明细逐分一致，闭式计算结果在逐月舍入误差范围内，未知还款方式返回 400
+ */
+class ScheduleQueryServiceTest {
+
+    private final RepayCalculator calculator = withFactorService(new EqualPrincipalCalculatorImpl());
+    private final ScheduleQueryService service = new ScheduleQueryService(10);
+
+    ScheduleQueryServiceTest() {
+        ReflectionTestUtils.setField(service, "repayCalculator", calculator);
+        ReflectionTestUtils.setField(service, "annuityFactorService", new AnnuityFactorService());
+    }
+
+    @Test
+    void indexedQueriesMatchMonthlyDetails() {
+        Random random = new Random(7L);
+        for (String type : new String[]{"equalPrincipal", "equalInterest"}) {
+            CombinationLoanRequest request = request(List.of(prepayment(30, "50000"), prepayment(150, "900000")));
+            CombinationLoanResponse expected = calculator.calculateCombination(request, type);
+            for (int i = 0; i < 50; i++) {
+                int month = random.nextInt(400);
+                int from = 1 + random.nextInt(360);
+                int to = from + random.nextInt(60);
+                ScheduleQueryResponse actual = service.query(request, type, month, from, to, false);
+                assertThat(actual.getExact()).isTrue();
+                assertThat(actual.getFund().getRemainingPrincipal())
+                        .isEqualByComparingTo(remainingAt(expected.getFundMonthlyDetails(), month, request.getFundLoanTotal()));
+                assertThat(actual.getBusiness().getRangeInterest())
+                        .isEqualByComparingTo(interestBetween(expected.getBusinessMonthlyDetails(), from, to));
+                assertThat(actual.getRangePrincipal()).isEqualByComparingTo(
+                        principalBetween(expected.getBusinessMonthlyDetails(), from, to)
+                                .add(principalBetween(expected.getFundMonthlyDetails(), from, to)));
+            }
+        }
+    }
+
+    @Test
+    void closedFormWithoutPrepaymentsWithinRounding() {
+        for (String type : new String[]{"equalPrincipal", "equalInterest"}) {
+            CombinationLoanRequest request = request(List.of());
+            request.setPeriodicRepayList(List.of());
+            request.setFundPrepayments(List.of());
+            CombinationLoanResponse expected = calculator.calculateCombination(request, type);
+            for (int month : new int[]{0, 1, 60, 239, 240, 359, 360}) {
+                ScheduleQueryResponse closed = service.query(request, type, month, 1, month, false);
+                ScheduleQueryResponse exact = service.query(request, type, month, 1, month, true);
+                assertThat(closed.getExact()).isFalse();
+                assertThat(exact.getExact()).isTrue();
+                assertThat(closed.getPayoffMonth()).isEqualTo(exact.getPayoffMonth()).isEqualTo(360);
+                BigDecimal tolerance = new BigDecimal("0.01").multiply(BigDecimal.valueOf(month + 1));
+                assertThat(closed.getRemainingPrincipal().subtract(exact.getRemainingPrincipal()).abs()).isLessThanOrEqualTo(tolerance);
+                assertThat(closed.getRangeInterest().subtract(exact.getRangeInterest()).abs()).isLessThanOrEqualTo(tolerance);
+                assertThat(exact.getBusiness().getRemainingPrincipal()).isEqualByComparingTo(
+                        remainingAt(expected.getBusinessMonthlyDetails(), month, request.getBusinessLoanTotal()));
+            }
+        }
+    }
+
+    private static BigDecimal remainingAt(List<EqualPrincipalRepayResponse.MonthlyDetail> rows, int month, BigDecimal loanTotal) {
+        if (month == 0) {
+            return loanTotal;
+        }
+        return rows.get(Math.min(month, rows.size()) - 1).getRemainingPrincipal();
+    }
+
+    private static BigDecimal principalBetween(List<EqualPrincipalRepayResponse.MonthlyDetail> rows, int from, int to) {
+        return rows.stream().filter(row -> row.getMonth() >= from && row.getMonth() <= to)
+                .map(EqualPrincipalRepayResponse.MonthlyDetail::getMonthlyPrincipal).reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+
+    private static BigDecimal interestBetween(List<EqualPrincipalRepayResponse.MonthlyDetail> rows, int from, int to) {
+        return rows.stream().filter(row -> row.getMonth() >= from && row.getMonth() <= to)
+                .map(EqualPrincipalRepayResponse.MonthlyDetail::getMonthlyInterest).reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+
+    @Test
+    void unknownMethodIsRejected() throws Exception {
+        ScheduleQueryController controller = new ScheduleQueryController();
+        ReflectionTestUtils.setField(controller, "scheduleQueryService", service);
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(controller).build();
+        String body = new ObjectMapper().writeValueAsString(request(List.of()));
+        mockMvc.perform(post("/api/repay/query").param("method", "equalInterest").param("month", "12")
+                        .contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isOk());
+        mockMvc.perform(post("/api/repay/query").param("method", "balloon").param("month", "12")
+                        .contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isBadRequest());
+    }
+
+    /**
+     * 商贷100万/20年 + 公积金50万/30年（businessFirst）
+     */
+    private CombinationLoanRequest request(List<Prepayment> prepayments) {
+        CombinationLoanRequest request = combination("1000000", "3.85", 20, "500000", "2.85", 30);
+        request.setPrepayments(prepayments);
+        request.setPeriodicRepayList(List.of(periodRepay(12, 60, 12, "10000")));
+        request.setFundPrepayments(List.of(prepayment(180, "20000")));
+        return request;
+    }
+}
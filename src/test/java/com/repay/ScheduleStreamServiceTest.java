@@ -0,0 +1,91 @@
+package com.repay;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.repay.entity.*;
+import com.repay.service.RepayCalculator;
+import com.repay.service.impl.ScheduleStreamService;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static com.repay.RepayTestSupport.calculators;
+import static com.repay.RepayTestSupport.combination;
+import static com.repay.RepayTestSupport.periodRepay;
+import static com.repay.RepayTestSupport.prepayment;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 流式输出与一次性计算结果一致性校验
+ */
+class ScheduleStreamServiceTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void streamMatchesInMemoryResponse() throws Exception {
+        for (RepayCalculator calculator : calculators()) {
+            ScheduleStreamService service = new ScheduleStreamService();
+            ReflectionTestUtils.setField(service, "repayCalculator", calculator);
+            ReflectionTestUtils.setField(service, "objectMapper", objectMapper);
+            for (String type : new String[]{"equalPrincipal", "equalInterest"}) {
+                CombinationLoanRequest request = request();
+                CombinationLoanResponse expected = calculate(calculator, request(), type);
+
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                service.stream(request, type).writeTo(out);
+                String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+
+                List<JsonNode> months = new ArrayList<>();
+                int years = 0;
+                for (String line : lines) {
+                    JsonNode node = objectMapper.readTree(line);
+                    if ("month".equals(node.get("type").asText())) {
+                        months.add(node);
+                    } else if ("year".equals(node.get("type").asText()) && node.has("businessYear")) {
+                        years++;
+                    }
+                }
+                JsonNode total = objectMapper.readTree(lines[lines.length - 1]);
+                assertThat(total.get("type").asText()).isEqualTo("total");
+                assertThat(total.get("totalMonths").asInt()).isEqualTo(expected.getTotalMonths());
+                assertThat(total.get("totalAllRepay").decimalValue()).isEqualByComparingTo(expected.getTotalAllRepay());
+                assertThat(total.get("fundTotalInterest").decimalValue()).isEqualByComparingTo(expected.getFundTotalInterest());
+                assertThat(years).isEqualTo(expected.getBusinessYearSummaries().size());
+                assertThat(months).hasSameSizeAs(expected.getMonthlyDetails());
+                for (int i = 0; i < months.size(); i++) {
+                    EqualPrincipalRepayResponse.MonthlyDetail e = expected.getMonthlyDetails().get(i);
+                    JsonNode merged = months.get(i).get("merged");
+                    assertThat(merged.get("month").asInt()).isEqualTo(e.getMonth());
+                    assertThat(merged.get("monthlyRepay").decimalValue()).isEqualByComparingTo(e.getMonthlyRepay());
+                    assertThat(merged.get("remainingPrincipal").decimalValue()).isEqualByComparingTo(e.getRemainingPrincipal());
+                }
+            }
+        }
+    }
+
+    private CombinationLoanResponse calculate(RepayCalculator calculator, CombinationLoanRequest request, String type) {
+        CombinationLoanResponse response = new CombinationLoanResponse();
+        Map<Integer, BigDecimal> prepayMoney = calculator.getAllPrepayMoney(request.getPrepayments());
+        prepayMoney = calculator.updatePayMoney(prepayMoney, request.getPeriodicRepayList());
+        EqualPrincipalRepayResponse business = calculator.businessResponse(request, prepayMoney, response, type);
+        EqualPrincipalRepayResponse fund = calculator.fundResponse(request, prepayMoney, response, type);
+        return calculator.getTotalResponse(business, fund, response);
+    }
+
+    /**
+     * 组合贷：商贷30年、公积金20年，含一次大额提前还款（等额本金时多余部分留给公积金贷）和周期还款
+     */
+    private CombinationLoanRequest request() {
+        CombinationLoanRequest request = combination("1200000", "3.85", 30, "600000", "2.85", 20);
+        request.setPrepayments(List.of(prepayment(180, "900000")));
+        request.setPeriodicRepayList(List.of(periodRepay(12, 120, 12, "20000")));
+        return request;
+    }
+}
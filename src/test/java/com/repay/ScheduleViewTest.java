@@ -0,0 +1,120 @@
+package com.repay;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.repay.entity.CombinationLoanRequest;
+import com.repay.entity.CombinationLoanResponse;
+import com.repay.entity.ScheduleView;
+import com.repay.service.RepayCalculator;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.List;
+
+import static com.repay.RepayTestSupport.calculators;
+import static com.repay.RepayTestSupport.combination;
+import static com.repay.RepayTestSupport.prepayment;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * 视图级别：各视图总计与 full 一致、只生成视图需要的列表；接口只输出视图包含的字段，不同视图分别缓存
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class ScheduleViewTest {
+
+    private static final String REQUEST = """
+            {"loanType":"combination","businessLoanTotal":1000000,"businessAnnualRate":3.85,"businessYears":30,
+             "fundLoanTotal":500000,"fundAnnualRate":2.85,"fundYears":25,"reservedPrincipal":0,
+             "prepayments":[{"month":36,"amount":100000}],"periodicRepayList":[]}""";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void viewsSkipUnusedListsWithSameTotals() {
+        for (RepayCalculator calculator : calculators()) {
+            for (String type : new String[]{"equalPrincipal", "equalInterest"}) {
+                CombinationLoanRequest request = request();
+                CombinationLoanResponse full = calculator.calculateCombination(request, type);
+                for (ScheduleView view : ScheduleView.values()) {
+                    CombinationLoanResponse actual = calculator.calculateCombination(request, type, view);
+                    assertThat(actual.getView()).isEqualTo(view);
+                    assertThat(actual.getTotalMonths()).isEqualTo(full.getTotalMonths());
+                    assertThat(actual.getTotalAllInterest()).isEqualTo(full.getTotalAllInterest());
+                    assertThat(actual.getTotalAllRepay()).isEqualTo(full.getTotalAllRepay());
+                    assertThat(actual.getBusinessTotalInterest()).isEqualTo(full.getBusinessTotalInterest());
+                    assertThat(actual.getFundTotalInterest()).isEqualTo(full.getFundTotalInterest());
+
+                    assertThat(actual.getBusinessYearSummaries() == null).isEqualTo(view == ScheduleView.SUMMARY);
+                    if (view.yearly()) {
+                        assertThat(actual.getBusinessYearSummaries()).isEqualTo(full.getBusinessYearSummaries());
+                        assertThat(actual.getFundYearSummaries()).isEqualTo(full.getFundYearSummaries());
+                    }
+                    assertThat(actual.getMonthlyDetails() == null).isEqualTo(!view.monthly());
+                    if (view.monthly()) {
+                        assertThat(actual.getMonthlyDetails()).isEqualTo(full.getMonthlyDetails());
+                    }
+                    assertThat(actual.getBusinessMonthlyDetails() == null).isEqualTo(view != ScheduleView.FULL);
+                    assertThat(actual.getFundMonthlyDetails() == null).isEqualTo(view != ScheduleView.FULL);
+                }
+            }
+        }
+    }
+
+    @Test
+    void endpointSerializesOnlyViewFields() throws Exception {
+        JsonNode summary = calculate("summary");
+        assertThat(summary.has("totalAllInterest")).isTrue();
+        assertThat(summary.has("businessTotalInterest")).isTrue();
+        assertThat(summary.has("monthlyDetails")).isFalse();
+        assertThat(summary.has("businessYearSummaries")).isFalse();
+        assertThat(summary.has("view")).isFalse();
+
+        JsonNode yearly = calculate("yearly");
+        assertThat(yearly.get("businessYearSummaries")).hasSize(30);
+        assertThat(yearly.get("businessYearSummaries").get(0).has("yearInterest")).isTrue();
+        assertThat(yearly.has("monthlyDetails")).isFalse();
+
+        JsonNode monthly = calculate("MONTHLY");
+        assertThat(monthly.get("monthlyDetails")).hasSize(360);
+        assertThat(monthly.get("monthlyDetails").get(0).has("remainingPrincipal")).isTrue();
+        assertThat(monthly.has("businessMonthlyDetails")).isFalse();
+
+        // 默认 full，与 summary 的缓存条目互不影响
+        JsonNode full = calculate(null);
+        assertThat(full.get("businessMonthlyDetails")).hasSize(360);
+        assertThat(full.get("fundMonthlyDetails")).hasSize(300);
+        assertThat(full.get("totalAllInterest").decimalValue()).isEqualByComparingTo(summary.get("totalAllInterest").decimalValue());
+
+        mockMvc.perform(post("/api/repay/equal-principal").param("view", "weekly")
+                        .contentType(MediaType.APPLICATION_JSON).content(REQUEST))
+                .andExpect(status().isBadRequest());
+    }
+
+    private JsonNode calculate(String view) throws Exception {
+        MockHttpServletRequestBuilder builder = post("/api/repay/equal-interest")
+                .contentType(MediaType.APPLICATION_JSON).content(REQUEST);
+        if (view != null) {
+            builder.param("view", view);
+        }
+        String body = mockMvc.perform(builder).andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body);
+    }
+
+    private static CombinationLoanRequest request() {
+        CombinationLoanRequest request = combination("1000000", "3.85", 30, "500000", "2.85", 25);
+        request.setPrepayments(List.of(prepayment(36, "100000")));
+        return request;
+    }
+}
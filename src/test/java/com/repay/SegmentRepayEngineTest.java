@@ -0,0 +1,83 @@
+package com.repay;
+
+import com.repay.controller.LoanSummaryController;
+import com.repay.entity.EqualPrincipalRepayRequest;
+import com.repay.entity.EqualPrincipalRepayResponse;
+import com.repay.entity.LoanSummaryResponse;
+import com.repay.service.impl.AnnuityFactorService;
+import com.repay.service.impl.EqualPrincipalCalculatorImpl;
+import com.repay.service.impl.SegmentRepayEngine;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static com.repay.RepayTestSupport.single;
+import static com.repay.RepayTestSupport.withFactorService;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * 分段闭式引擎与逐月计算结果对比（允许逐月舍入带来的分级误差），未知还款方式返回 400
+ */
+class SegmentRepayEngineTest {
+
+    private final EqualPrincipalCalculatorImpl calculator = withFactorService(new EqualPrincipalCalculatorImpl());
+    private final SegmentRepayEngine segmentRepayEngine = new SegmentRepayEngine();
+
+    SegmentRepayEngineTest() {
+        ReflectionTestUtils.setField(segmentRepayEngine, "annuityFactorService", new AnnuityFactorService());
+    }
+
+    @Test
+    void totalsMatchMonthlyCalculationWithinRounding() {
+        Random random = new Random(42L);
+        for (int i = 0; i < 200; i++) {
+            EqualPrincipalRepayRequest request = calculator.buildSingleLoanRequest(
+                    BigDecimal.valueOf(10_000 + random.nextInt(3_000_000)), new BigDecimal("3.85"),
+                    1 + random.nextInt(30), random.nextInt(5) == 0 ? new BigDecimal("20000") : BigDecimal.ZERO);
+            Map<Integer, BigDecimal> prepayMoney = new HashMap<>();
+            for (int j = random.nextInt(4); j > 0; j--) {
+                prepayMoney.put(1 + random.nextInt(request.getYears() * 12), BigDecimal.valueOf(random.nextInt(200_000)));
+            }
+            for (String type : new String[]{"equalPrincipal", "equalInterest"}) {
+                EqualPrincipalRepayResponse expected = "equalPrincipal".equals(type)
+                        ? calculator.calculatorPrincipal(request, new HashMap<>(prepayMoney))
+                        : calculator.calculateEqualInterestRepay(request, new HashMap<>(prepayMoney));
+                LoanSummaryResponse.LegSummary actual = segmentRepayEngine.summarize(request, new HashMap<>(prepayMoney), type, false);
+                // 逐月计算每月舍入到分，误差每月不超过半分
+                BigDecimal tolerance = new BigDecimal("0.005").multiply(BigDecimal.valueOf(request.getYears() * 12L));
+                assertThat(actual.getTotalAllPrincipal().subtract(expected.getTotalAllPrincipal()).abs()).isLessThanOrEqualTo(tolerance);
+                assertThat(actual.getTotalAllInterest().subtract(expected.getTotalAllInterest()).abs()).isLessThanOrEqualTo(tolerance);
+                assertThat(actual.getSegments()).hasSizeLessThanOrEqualTo(prepayMoney.size() + 2);
+                LoanSummaryResponse.LegSummary withRows = segmentRepayEngine.summarize(request, new HashMap<>(prepayMoney), type, true);
+                assertThat(withRows.getTotalAllInterest()).isEqualByComparingTo(actual.getTotalAllInterest());
+                assertThat(withRows.getMonthlyDetails()).isNotEmpty();
+                assertThat(actual.getMonthlyDetails()).isNull();
+            }
+        }
+    }
+
+    @Test
+    void unknownMethodIsRejected() throws Exception {
+        LoanSummaryController controller = new LoanSummaryController();
+        controller.repayCalculator = calculator;
+        ReflectionTestUtils.setField(controller, "segmentRepayEngine", segmentRepayEngine);
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(controller).build();
+        String body = new ObjectMapper().writeValueAsString(single(new BigDecimal("1000000"), new BigDecimal("3.85"), 20));
+        mockMvc.perform(post("/api/repay/summary").param("method", "equalPrincipal")
+                        .contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isOk());
+        mockMvc.perform(post("/api/repay/summary").param("method", "balloon")
+                        .contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isBadRequest());
+    }
+}
@@ -0,0 +1,56 @@
+package com.repay;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Server-Timing 响应头：组合贷各阶段耗时、计算量、分配字节数；范围外的接口不输出
+ */
+@SpringBootTest(properties = "repay.server-timing.enabled=true")
+@AutoConfigureMockMvc
+class ServerTimingFilterTest {
+
+    private static final String REQUEST = """
+            {"loanType":"combination","businessLoanTotal":1000000,"businessAnnualRate":3.85,"businessYears":30,
+             "fundLoanTotal":500000,"fundAnnualRate":2.85,"fundYears":25,"reservedPrincipal":0,
+             "prepayments":[{"month":36,"amount":100000}],"periodicRepayList":[]}""";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void combinationReportsPhasesAndCounts() throws Exception {
+        MvcResult result = mockMvc.perform(post("/api/repay/equal-principal")
+                        .contentType(MediaType.APPLICATION_JSON).content(REQUEST))
+                .andExpect(status().isOk())
+                .andReturn();
+        String header = result.getResponse().getHeader("Server-Timing");
+        assertThat(header).startsWith("total;dur=")
+                .containsPattern("prepayments;dur=[0-9.]+")
+                .containsPattern("business;dur=[0-9.]+")
+                .containsPattern("fund;dur=[0-9.]+")
+                .containsPattern("merge;dur=[0-9.]+")
+                .containsPattern("serialization;dur=[0-9.]+")
+                .contains("months;desc=\"660\"")
+                .contains("prepayment-events;desc=\"1\"")
+                .containsPattern("alloc;desc=\"[0-9]+\"");
+        // 响应体缓冲后完整输出
+        assertThat(result.getResponse().getContentAsString()).contains("\"monthlyDetails\"");
+    }
+
+    @Test
+    void otherPathsAreNotTimed() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/hello")).andReturn();
+        assertThat(result.getResponse().getHeader("Server-Timing")).isNull();
+    }
+}
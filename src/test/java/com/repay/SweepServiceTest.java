@@ -0,0 +1,97 @@
+package com.repay;
+
+import com.repay.controller.SweepController;
+import com.repay.entity.CombinationLoanResponse;
+import com.repay.entity.SweepRequest;
+import com.repay.entity.SweepResponse;
+import com.repay.service.RepayCalculator;
+import com.repay.service.impl.EqualPrincipalCalculatorImpl;
+import com.repay.service.impl.SweepService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.math.BigDecimal;
+import java.util.concurrent.ForkJoinPool;
+
+import static com.repay.RepayTestSupport.single;
+import static com.repay.RepayTestSupport.withFactorService;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * 敏感性分析：网格取值、展开顺序，每个组合与单笔计算逐分一致；步长为 null 时返回 400
+ */
+class SweepServiceTest {
+
+    private final ForkJoinPool pool = new ForkJoinPool(4);
+
+    @AfterEach
+    void shutdown() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    void cellsMatchSingleLoanCalculation() {
+        RepayCalculator calculator = withFactorService(new EqualPrincipalCalculatorImpl());
+        SweepService service = new SweepService();
+        ReflectionTestUtils.setField(service, "repayCalculator", calculator);
+        ReflectionTestUtils.setField(service, "repaySweepPool", pool);
+
+        SweepRequest request = new SweepRequest();
+        request.setRateFrom(new BigDecimal("3.1"));
+        request.setRateTo(new BigDecimal("3.3"));
+        request.setRateStep(new BigDecimal("0.05"));
+        request.setYearsFrom(10);
+        request.setYearsTo(30);
+        request.setYearsStep(10);
+        request.setAmountFrom(new BigDecimal("500000"));
+        request.setAmountTo(new BigDecimal("1000000"));
+        request.setAmountStep(new BigDecimal("500000"));
+
+        assertThat(service.cellCount(request)).isEqualTo(5 * 3 * 2);
+        SweepResponse response = service.sweep(request);
+        assertThat(response.getRates()).extracting(BigDecimal::toPlainString)
+                .containsExactly("3.1", "3.15", "3.20", "3.25", "3.30");
+        assertThat(response.getYears()).containsExactly(10, 20, 30);
+        assertThat(response.getCells()).hasSize(30);
+
+        for (int i = 0; i < response.getRates().size(); i++) {
+            for (int j = 0; j < response.getYears().size(); j++) {
+                for (int k = 0; k < response.getAmounts().size(); k++) {
+                    SweepResponse.SweepCell cell = response.getCells().get((i * 3 + j) * 2 + k);
+                    assertThat(cell.getAnnualRate()).isEqualTo(response.getRates().get(i));
+                    assertThat(cell.getYears()).isEqualTo(response.getYears().get(j));
+                    assertThat(cell.getLoanTotal()).isEqualTo(response.getAmounts().get(k));
+                    for (String type : new String[]{"equalInterest", "equalPrincipal"}) {
+                        CombinationLoanResponse expected = calculator.calculateCombination(
+                                single(cell.getLoanTotal(), cell.getAnnualRate(), cell.getYears()), type);
+                        SweepResponse.MethodTotals totals = "equalInterest".equals(type) ? cell.getEqualInterest() : cell.getEqualPrincipal();
+                        assertThat(totals.getTotalInterest()).isEqualByComparingTo(expected.getTotalAllInterest());
+                        assertThat(totals.getTotalRepay()).isEqualByComparingTo(expected.getTotalAllRepay());
+                        assertThat(totals.getMonthlyRepay()).isEqualByComparingTo(expected.getMonthlyDetails().get(0).getMonthlyRepay());
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void explicitNullStepsAreRejected() throws Exception {
+        SweepController controller = new SweepController();
+        ReflectionTestUtils.setField(controller, "sweepService", new SweepService());
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(controller).build();
+        for (String step : new String[]{"rateStep", "yearsStep", "amountStep"}) {
+            // 显式传 null 会覆盖默认步长，需在校验阶段返回 400，而不是计算时空指针
+            mockMvc.perform(post("/api/repay/sweep").contentType(MediaType.APPLICATION_JSON)
+                            .content("""
+                                    {"rateFrom":3.1,"rateTo":3.3,"yearsFrom":10,"yearsTo":30,
+                                     "amountFrom":500000,"amountTo":1000000,"%s":null}""".formatted(step)))
+                    .andExpect(status().isBadRequest());
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.repay;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.repay.controller.WhatIfController;
+import com.repay.entity.CombinationLoanRequest;
+import com.repay.entity.CombinationLoanResponse;
+import com.repay.entity.EqualPrincipalRepayResponse;
+import com.repay.entity.Prepayment;
+import com.repay.service.RepayCalculator;
+import com.repay.service.impl.RepayMetrics;
+import com.repay.service.impl.WhatIfService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.repay.RepayTestSupport.calculators;
+import static com.repay.RepayTestSupport.combination;
+import static com.repay.RepayTestSupport.periodRepay;
+import static com.repay.RepayTestSupport.prepayment;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * what-if 增量计算：依次调整提前还款，每次结果与完整计算逐项一致，且只计算变化月份所在年份之后的月数；还款方式不正确时返回 400
+ */
+class WhatIfServiceTest {
+
+    // 商贷240个月 + 公积金贷360个月
+    private static final int FULL_TERM = 240 + 360;
+
+    @Test
+    void incrementalResultsMatchFullCalculation() {
+        for (RepayCalculator calculator : calculators()) {
+            RepayMetrics metrics = new RepayMetrics(new SimpleMeterRegistry());
+            ReflectionTestUtils.setField(calculator, "repayMetrics", metrics);
+            WhatIfService whatIf = new WhatIfService(10);
+            ReflectionTestUtils.setField(whatIf, "repayCalculator", calculator);
+            for (String allocation : new String[]{"businessFirst", "proportional"}) {
+                for (String type : new String[]{"equalPrincipal", "equalInterest"}) {
+                    whatIf.invalidateAll();
+                    List<List<Prepayment>> variants = variants();
+                    for (int v = 0; v < variants.size(); v++) {
+                        CombinationLoanRequest request = request(allocation, variants.get(v));
+                        CombinationLoanResponse expected = calculator.calculateCombination(request, type);
+                        long before = metrics.monthsComputed();
+                        CombinationLoanResponse actual = whatIf.calculate(request, type);
+                        long computed = metrics.monthsComputed() - before;
+                        assertSame(expected, actual);
+                        if (v == 0) {
+                            // 没有上一次的结果：两笔贷款从头计算
+                            assertThat(computed).isEqualTo(FULL_TERM);
+                        } else {
+                            assertThat(computed).as("variant %s", v).isLessThan(FULL_TERM);
+                        }
+                        if (v == 1) {
+                            // 第200个月新增：两笔贷款都从第16年末（第192个月）的检查点继续
+                            assertThat(computed).isEqualTo((240 - 192) + (360 - 192));
+                        }
+                        // 返回结果与保存的结果相互独立
+                        actual.getMonthlyDetails().get(0).setMonthlyPrincipal(BigDecimal.ZERO);
+                        actual.getBusinessMonthlyDetails().get(0).setMonthlyPrincipal(BigDecimal.ZERO);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void unknownMethodIsRejected() throws Exception {
+        WhatIfController controller = new WhatIfController();
+        ReflectionTestUtils.setField(controller, "whatIfService", new WhatIfService(10));
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(controller).build();
+        mockMvc.perform(post("/api/repay/what-if").param("method", "unknown")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(new ObjectMapper().writeValueAsString(request("businessFirst", variants().get(0)))))
+                .andExpect(status().isBadRequest());
+    }
+
+    private void assertSame(CombinationLoanResponse expected, CombinationLoanResponse actual) {
+        assertThat(actual.getTotalAllRepay()).isEqualByComparingTo(expected.getTotalAllRepay());
+        assertThat(actual.getBusinessTotalInterest()).isEqualByComparingTo(expected.getBusinessTotalInterest());
+        assertThat(actual.getFundTotalInterest()).isEqualByComparingTo(expected.getFundTotalInterest());
+        assertThat(actual.getFundYearSummaries()).hasSameSizeAs(expected.getFundYearSummaries());
+        assertThat(rows(actual.getMonthlyDetails())).isEqualTo(rows(expected.getMonthlyDetails()));
+        assertThat(rows(actual.getBusinessMonthlyDetails())).isEqualTo(rows(expected.getBusinessMonthlyDetails()));
+        assertThat(rows(actual.getFundMonthlyDetails())).isEqualTo(rows(expected.getFundMonthlyDetails()));
+    }
+
+    private static List<String> rows(List<EqualPrincipalRepayResponse.MonthlyDetail> details) {
+        return details.stream().map(row -> row.getMonth() + ":" + row.getMonthlyPrincipal().toPlainString() + ","
+                + row.getMonthlyInterest().toPlainString() + "," + row.getRemainingPrincipal().toPlainString()).toList();
+    }
+
+    /**
+     * 依次修改：后期新增、中期修改、提前结清商贷（多余部分留给公积金贷）、撤销、恢复初始
+     */
+    private List<List<Prepayment>> variants() {
+        List<List<Prepayment>> variants = new ArrayList<>();
+        variants.add(List.of(prepayment(30, "50000")));
+        variants.add(List.of(prepayment(30, "50000"), prepayment(200, "80000")));
+        variants.add(List.of(prepayment(30, "50000"), prepayment(200, "80000"), prepayment(200, "90000")));
+        variants.add(List.of(prepayment(30, "50000"), prepayment(97, "1200000")));
+        variants.add(List.of(prepayment(30, "50000"), prepayment(97, "1200000"), prepayment(320, "10000")));
+        variants.add(List.of(prepayment(30, "50000"), prepayment(145, "30000")));
+        variants.add(List.of(prepayment(30, "50000")));
+        variants.add(List.of(prepayment(30, "60000")));
+        return variants;
+    }
+
+    /**
+     * 商贷100万/20年 + 公积金50万/30年，周期还款第12~60个月每年1万，公积金贷另有专属提前还款
+     */
+    private CombinationLoanRequest request(String allocation, List<Prepayment> prepayments) {
+        CombinationLoanRequest request = combination("1000000", "3.85", 20, "500000", "2.85", 30);
+        request.setPrepayments(prepayments);
+        request.setPeriodicRepayList(List.of(periodRepay(12, 60, 12, "10000")));
+        request.setFundPrepayments(List.of(prepayment(180, "20000")));
+        request.setPrepayAllocation(allocation);
+        return request;
+    }
+}